@@ -0,0 +1,39 @@
+package com.seen.analytics.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+    
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("app.report-source.datasource")
+    public DataSourceProperties reportSourceDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    public DataSource reportSourceDataSource(
+            @Qualifier("reportSourceDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().build();
+    }
+}
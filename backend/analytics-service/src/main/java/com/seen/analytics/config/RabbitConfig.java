@@ -0,0 +1,61 @@
+package com.seen.analytics.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+    
+    public static final String REPORT_EVENTS_EXCHANGE = "report.events";
+    public static final String REPORT_STATUS_ROUTING_PATTERN = "report.status.#";
+    public static final String ANALYTICS_QUEUE = "analytics.report-events";
+    public static final String LIVE_UPDATES_EXCHANGE = "analytics.live-updates";
+    
+    @Bean
+    public TopicExchange reportEventsExchange() {
+        return new TopicExchange(REPORT_EVENTS_EXCHANGE, true, false);
+    }
+    
+    @Bean
+    public Queue analyticsQueue() {
+        return QueueBuilder.durable(ANALYTICS_QUEUE).build();
+    }
+    
+    @Bean
+    public Binding analyticsQueueBinding(Queue analyticsQueue, TopicExchange reportEventsExchange) {
+        return BindingBuilder.bind(analyticsQueue)
+            .to(reportEventsExchange)
+            .with(REPORT_STATUS_ROUTING_PATTERN);
+    }
+    
+    @Bean
+    public FanoutExchange liveUpdatesExchange() {
+        return new FanoutExchange(LIVE_UPDATES_EXCHANGE, true, false);
+    }
+    
+    // One auto-deleted queue per instance, so every instance streams every update
+    @Bean
+    public Queue liveUpdatesQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding liveUpdatesQueueBinding(Queue liveUpdatesQueue, FanoutExchange liveUpdatesExchange) {
+        return BindingBuilder.bind(liveUpdatesQueue).to(liveUpdatesExchange);
+    }
+    
+    @Bean
+    public MessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,50 @@
+package com.seen.analytics.config;
+
+import com.seen.identity.IdentityEnvelopeFilter;
+import com.seen.identity.IdentityEnvelopeVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+/**
+ * Callers are authenticated by the gateway; requests carry its signed identity
+ * envelope. The live update streams are subscribed to by the gateway itself,
+ * as SERVICE, and fanned out to the clients it has authorized.
+ */
+@Configuration
+@EnableWebSecurity
+public class SecurityConfig {
+    
+    @Bean
+    public IdentityEnvelopeVerifier identityEnvelopeVerifier(
+            @Value("${identity.envelope.secret}") String secret,
+            MeterRegistry meterRegistry) {
+        return new IdentityEnvelopeVerifier(secret, "analytics", meterRegistry);
+    }
+    
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, IdentityEnvelopeVerifier verifier) throws Exception {
+        http.csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new IdentityEnvelopeFilter(verifier), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers("/analytics/public/**").permitAll()
+                .requestMatchers("/analytics/admin/**").hasRole("ADMIN")
+                .requestMatchers("/analytics/stream/report-status").hasAnyRole("MODERATOR", "ADMIN", "SERVICE")
+                .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                .anyRequest().authenticated()
+            );
+        
+        return http.build();
+    }
+}
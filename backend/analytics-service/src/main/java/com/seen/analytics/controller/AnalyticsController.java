@@ -0,0 +1,101 @@
+package com.seen.analytics.controller;
+
+import com.seen.analytics.dto.AggregatedStatsDto;
+import com.seen.analytics.dto.ExploreResultDto;
+import com.seen.analytics.dto.HeatmapDto;
+import com.seen.analytics.service.AggregationService;
+import com.seen.analytics.service.AnalyticsQueryService;
+import com.seen.analytics.service.FacetIndexService;
+import com.seen.analytics.service.HeatmapService;
+import com.seen.analytics.service.LiveUpdateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+    
+    private final AnalyticsQueryService analyticsQueryService;
+    private final AggregationService aggregationService;
+    private final FacetIndexService facetIndexService;
+    private final HeatmapService heatmapService;
+    private final LiveUpdateService liveUpdateService;
+    
+    @GetMapping("/aggregated")
+    public ResponseEntity<AggregatedStatsDto> getAggregatedStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Set<String> incidentTypes,
+            @RequestParam(required = false) Set<String> locations) {
+        
+        return ResponseEntity.ok(analyticsQueryService.getAggregates(startDate, endDate, incidentTypes, locations));
+    }
+    
+    @GetMapping("/explore")
+    public ResponseEntity<ExploreResultDto> explore(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Set<String> incidentTypes,
+            @RequestParam(required = false) Set<String> locations,
+            @RequestParam(required = false) Set<String> timesOfDay,
+            @RequestParam(required = false) Set<String> statuses,
+            Authentication authentication) {
+        
+        return analyticsQueryService.explore(
+                startDate, endDate, incidentTypes, locations, timesOfDay, statuses, isModerator(authentication))
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+    
+    @GetMapping("/heatmap")
+    public ResponseEntity<HeatmapDto> getHeatmap(@RequestParam String bbox, @RequestParam int zoom) {
+        return ResponseEntity.ok(heatmapService.getHeatmap(bbox, zoom));
+    }
+    
+    @GetMapping("/public/aggregates")
+    public ResponseEntity<AggregatedStatsDto> getPublicAggregates() {
+        return ResponseEntity.ok(analyticsQueryService.getAggregates(null, null, null, null));
+    }
+    
+    /**
+     * Subscribed to by the gateway, which fans each topic out to browsers.
+     */
+    @GetMapping(path = "/stream/{topic}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String topic) {
+        if (!LiveUpdateService.TOPICS.contains(topic)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(liveUpdateService.subscribe(topic));
+    }
+    
+    @PostMapping("/admin/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        log.info("Rebuilding analytics counters from incident_reports");
+        long reports = aggregationService.rebuild();
+        facetIndexService.reload();
+        return ResponseEntity.ok(Map.of("success", true, "reportsProcessed", reports));
+    }
+    
+    private boolean isModerator(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals("ROLE_MODERATOR") || a.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
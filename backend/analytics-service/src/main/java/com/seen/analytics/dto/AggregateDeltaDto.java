@@ -0,0 +1,27 @@
+package com.seen.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Change to the public aggregates, keyed like {@link AggregatedStatsDto}: incident type,
+ * month (yyyy-MM) and state. Only non-zero changes are present.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AggregateDeltaDto {
+    private long totalReports;
+    @Builder.Default
+    private Map<String, Long> byType = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> overTime = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> byLocation = new HashMap<>();
+}
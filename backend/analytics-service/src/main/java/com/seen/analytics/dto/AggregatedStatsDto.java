@@ -0,0 +1,15 @@
+package com.seen.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class AggregatedStatsDto {
+    private Long totalReports;
+    private List<TypeCountDto> byType;
+    private List<TimeSeriesPointDto> overTime;
+    private List<LocationCountDto> byLocation;
+}
@@ -0,0 +1,14 @@
+package com.seen.analytics.dto;
+
+import com.seen.analytics.index.ReportFacet;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class ExploreResultDto {
+    private Long totalReports;
+    private Map<ReportFacet, Map<String, Long>> facets;
+}
@@ -0,0 +1,13 @@
+package com.seen.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HeatmapCellDto {
+    private String geohash;
+    private Double latitude;
+    private Double longitude;
+    private Long count;
+}
@@ -0,0 +1,14 @@
+package com.seen.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class HeatmapDto {
+    private Integer zoom;
+    private Integer precision;
+    private List<HeatmapCellDto> cells;
+}
@@ -0,0 +1,20 @@
+package com.seen.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportStatusUpdateDto {
+    private UUID reportId;
+    private String previousStatus;
+    private String status;
+    private LocalDateTime occurredAt;
+}
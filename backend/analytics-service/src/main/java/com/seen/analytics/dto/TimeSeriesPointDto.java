@@ -0,0 +1,11 @@
+package com.seen.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TimeSeriesPointDto {
+    private String month;
+    private Long count;
+}
@@ -0,0 +1,12 @@
+package com.seen.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TypeCountDto {
+    private String type;
+    private Long count;
+    private String label;
+}
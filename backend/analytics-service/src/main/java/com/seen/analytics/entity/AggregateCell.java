@@ -0,0 +1,6 @@
+package com.seen.analytics.entity;
+
+import java.time.LocalDate;
+
+public record AggregateCell(String incidentType, LocalDate month, String state) {
+}
@@ -0,0 +1,22 @@
+package com.seen.analytics.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What a report last contributed to the counters and the facet index.
+ */
+public record ReportAggregationState(
+    UUID reportId,
+    boolean counted,
+    Set<String> incidentTypes,
+    LocalDate month,
+    String state,
+    String geohash,
+    String status,
+    String timeOfDay,
+    LocalDateTime updatedAt
+) {
+}
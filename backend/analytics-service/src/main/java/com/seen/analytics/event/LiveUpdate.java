@@ -0,0 +1,23 @@
+package com.seen.analytics.event;
+
+import com.seen.analytics.dto.AggregateDeltaDto;
+import com.seen.analytics.dto.ReportStatusUpdateDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What one committed change did to the aggregates, relayed to every analytics
+ * instance on the analytics.live-updates exchange. A resync replaces all
+ * counters at once, so subscribers reload instead of applying a delta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LiveUpdate {
+    private AggregateDeltaDto aggregates;
+    private ReportStatusUpdateDto statusChange;
+    private boolean resync;
+}
@@ -0,0 +1,18 @@
+package com.seen.analytics.event;
+
+import com.seen.analytics.service.LiveUpdateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class LiveUpdateListener {
+    
+    private final LiveUpdateService liveUpdateService;
+    
+    @RabbitListener(queues = "#{liveUpdatesQueue.name}")
+    public void onLiveUpdate(LiveUpdate update) {
+        liveUpdateService.accept(update);
+    }
+}
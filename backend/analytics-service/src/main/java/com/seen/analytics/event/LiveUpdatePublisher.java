@@ -0,0 +1,27 @@
+package com.seen.analytics.event;
+
+import com.seen.analytics.config.RabbitConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveUpdatePublisher {
+    
+    private final RabbitTemplate rabbitTemplate;
+    
+    @TransactionalEventListener
+    public void publish(LiveUpdate update) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.LIVE_UPDATES_EXCHANGE, "", update);
+        } catch (AmqpException e) {
+            // Live updates are best effort; subscribers catch up on their next resync
+            log.warn("Failed to publish live update: {}", e.getMessage());
+        }
+    }
+}
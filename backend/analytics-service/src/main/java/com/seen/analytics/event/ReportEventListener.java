@@ -0,0 +1,25 @@
+package com.seen.analytics.event;
+
+import com.seen.analytics.config.RabbitConfig;
+import com.seen.analytics.service.AggregationService;
+import com.seen.analytics.service.FacetIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportEventListener {
+    
+    private final AggregationService aggregationService;
+    private final FacetIndexService facetIndexService;
+    
+    @RabbitListener(queues = RabbitConfig.ANALYTICS_QUEUE)
+    public void onReportStatusChanged(ReportStatusChangedEvent event) {
+        log.debug("Report {} moved {} -> {}", event.getReportId(), event.getPreviousStatus(), event.getStatus());
+        // The index is only touched once the new state has been committed
+        aggregationService.apply(event).ifPresent(facetIndexService::apply);
+    }
+}
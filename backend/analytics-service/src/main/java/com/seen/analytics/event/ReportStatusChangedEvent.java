@@ -0,0 +1,31 @@
+package com.seen.analytics.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Report status transition as published by report-service on the report.events exchange.
+ * Carries the anonymised fields analytics aggregates on, never the narrative or contact details.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportStatusChangedEvent {
+    private UUID eventId;
+    private UUID reportId;
+    private String previousStatus;
+    private String status;
+    private Set<String> incidentTypes;
+    private String state;
+    private String geohash;
+    private String timeOfDay;
+    private LocalDateTime createdAt;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,13 @@
+package com.seen.analytics.index;
+
+import java.util.Map;
+
+/**
+ * Number of matching reports and, per requested facet, the number of those reports holding each value.
+ */
+public record FacetCounts(long total, Map<ReportFacet, Map<String, Long>> byFacet) {
+    
+    public Map<String, Long> of(ReportFacet facet) {
+        return byFacet.getOrDefault(facet, Map.of());
+    }
+}
@@ -0,0 +1,56 @@
+package com.seen.analytics.index;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facet filter: values of one facet are OR-ed, facets are AND-ed. An optional
+ * month range further restricts the MONTH facet.
+ */
+public class FacetQuery {
+    
+    private final Map<ReportFacet, Set<String>> values = new EnumMap<>(ReportFacet.class);
+    private String fromMonth;
+    private String toMonth;
+    
+    public static FacetQuery all() {
+        return new FacetQuery();
+    }
+    
+    /**
+     * Restricts {@code facet} to {@code accepted}; a null or empty collection leaves the facet unconstrained.
+     */
+    public FacetQuery where(ReportFacet facet, Collection<String> accepted) {
+        if (accepted != null && !accepted.isEmpty()) {
+            values.computeIfAbsent(facet, f -> new HashSet<>()).addAll(accepted);
+        }
+        return this;
+    }
+    
+    public FacetQuery months(LocalDate from, LocalDate to) {
+        this.fromMonth = from != null ? ReportFacetIndex.monthKey(from) : null;
+        this.toMonth = to != null ? ReportFacetIndex.monthKey(to) : null;
+        return this;
+    }
+    
+    boolean constrains(ReportFacet facet) {
+        return values.containsKey(facet) || (facet == ReportFacet.MONTH && (fromMonth != null || toMonth != null));
+    }
+    
+    boolean accepts(ReportFacet facet, String value) {
+        Set<String> accepted = values.get(facet);
+        if (accepted != null && !accepted.contains(value)) {
+            return false;
+        }
+        if (facet == ReportFacet.MONTH) {
+            // yyyy-MM keys sort chronologically
+            return (fromMonth == null || value.compareTo(fromMonth) >= 0)
+                && (toMonth == null || value.compareTo(toMonth) <= 0);
+        }
+        return true;
+    }
+}
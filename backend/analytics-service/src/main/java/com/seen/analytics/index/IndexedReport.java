@@ -0,0 +1,19 @@
+package com.seen.analytics.index;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The anonymised facet values of one report. {@code month} is formatted as yyyy-MM and
+ * {@code version} orders updates, so an older version never overwrites a newer one.
+ */
+public record IndexedReport(
+    UUID reportId,
+    Set<String> incidentTypes,
+    String state,
+    String month,
+    String timeOfDay,
+    String status,
+    long version
+) {
+}
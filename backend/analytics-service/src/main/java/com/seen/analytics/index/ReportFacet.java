@@ -0,0 +1,12 @@
+package com.seen.analytics.index;
+
+/**
+ * Dimensions of the facet index. Incident type is multi-valued; every other facet holds one value per report.
+ */
+public enum ReportFacet {
+    INCIDENT_TYPE,
+    STATE,
+    MONTH,
+    TIME_OF_DAY,
+    STATUS
+}
@@ -0,0 +1,346 @@
+package com.seen.analytics.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar index over anonymised reports. Every report gets a dense row
+ * number; each facet value owns a compressed bitmap of the rows holding it, so any
+ * facet combination is answered with bitmap OR/AND and cardinality instead of a scan.
+ * Per-row value codes are kept as columns so an update can clear the bits it replaces.
+ */
+public class ReportFacetIndex {
+    
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1_024;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> rowsById = new HashMap<>();
+    private final Map<ReportFacet, Dictionary> dictionaries = new EnumMap<>(ReportFacet.class);
+    private final RoaringBitmap live = new RoaringBitmap();
+    
+    private int size;
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    // Incident type codes as a bit mask; the other facets hold a single code per row
+    private long[] incidentTypeMasks = new long[INITIAL_CAPACITY];
+    private final int[][] codes = new int[ReportFacet.values().length][INITIAL_CAPACITY];
+    
+    public ReportFacetIndex() {
+        for (ReportFacet facet : ReportFacet.values()) {
+            dictionaries.put(facet, new Dictionary());
+        }
+    }
+    
+    public static String monthKey(LocalDate date) {
+        return date.toString().substring(0, 7);
+    }
+    
+    /**
+     * Adds the report or replaces its previous values. Returns false if the index
+     * already holds a newer version of it.
+     */
+    public boolean upsert(IndexedReport report) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowsById.get(report.reportId());
+            int row;
+            if (existing == null) {
+                row = append(report.reportId());
+            } else {
+                row = existing;
+                if (versions[row] > report.version()) {
+                    return false;
+                }
+                clear(row);
+            }
+            set(row, report);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts the reports matching {@code query} and breaks them down by each of {@code facets}.
+     */
+    public FacetCounts summarize(FacetQuery query, ReportFacet... facets) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = matching(query, null);
+            Map<ReportFacet, Map<String, Long>> byFacet = new EnumMap<>(ReportFacet.class);
+            for (ReportFacet facet : facets) {
+                byFacet.put(facet, breakdown(matching, facet));
+            }
+            return new FacetCounts(matching.getLongCardinality(), byFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Faceted-navigation counts: each facet is broken down under every constraint
+     * except its own, so the counts show what selecting another value would return.
+     */
+    public FacetCounts explore(FacetQuery query) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = matching(query, null);
+            Map<ReportFacet, Map<String, Long>> byFacet = new EnumMap<>(ReportFacet.class);
+            for (ReportFacet facet : ReportFacet.values()) {
+                RoaringBitmap rows = query.constrains(facet) ? matching(query, facet) : matching;
+                byFacet.put(facet, breakdown(rows, facet));
+            }
+            return new FacetCounts(matching.getLongCardinality(), byFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Writes the index in a self-contained binary form. Holds the read lock for the
+     * duration, so updates wait but queries continue.
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(size);
+            for (int row = 0; row < size; row++) {
+                out.writeLong(idHigh[row]);
+                out.writeLong(idLow[row]);
+                out.writeLong(versions[row]);
+                out.writeLong(incidentTypeMasks[row]);
+                for (int[] column : codes) {
+                    out.writeInt(column[row]);
+                }
+            }
+            for (ReportFacet facet : ReportFacet.values()) {
+                dictionaries.get(facet).writeTo(out);
+            }
+            live.serialize(out);
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public static ReportFacetIndex readFrom(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        int format = in.readInt();
+        if (format != SNAPSHOT_FORMAT) {
+            throw new IOException("Unsupported facet index snapshot format " + format);
+        }
+        
+        ReportFacetIndex index = new ReportFacetIndex();
+        int rows = in.readInt();
+        index.ensureCapacity(rows);
+        for (int row = 0; row < rows; row++) {
+            index.idHigh[row] = in.readLong();
+            index.idLow[row] = in.readLong();
+            index.versions[row] = in.readLong();
+            index.incidentTypeMasks[row] = in.readLong();
+            for (int[] column : index.codes) {
+                column[row] = in.readInt();
+            }
+            index.rowsById.put(new UUID(index.idHigh[row], index.idLow[row]), row);
+        }
+        index.size = rows;
+        for (ReportFacet facet : ReportFacet.values()) {
+            index.dictionaries.get(facet).readFrom(in);
+        }
+        index.live.deserialize(in);
+        return index;
+    }
+    
+    private int append(UUID reportId) {
+        int row = size++;
+        ensureCapacity(size);
+        idHigh[row] = reportId.getMostSignificantBits();
+        idLow[row] = reportId.getLeastSignificantBits();
+        rowsById.put(reportId, row);
+        return row;
+    }
+    
+    private void set(int row, IndexedReport report) {
+        versions[row] = report.version();
+        
+        Dictionary types = dictionaries.get(ReportFacet.INCIDENT_TYPE);
+        long mask = 0;
+        if (report.incidentTypes() != null) {
+            for (String type : report.incidentTypes()) {
+                int code = types.codeOf(type);
+                if (code >= Long.SIZE) {
+                    throw new IllegalStateException("More than " + Long.SIZE + " incident types in the facet index");
+                }
+                types.bitmap(code).add(row);
+                mask |= 1L << code;
+            }
+        }
+        incidentTypeMasks[row] = mask;
+        
+        setCode(row, ReportFacet.STATE, report.state());
+        setCode(row, ReportFacet.MONTH, report.month());
+        setCode(row, ReportFacet.TIME_OF_DAY, report.timeOfDay());
+        setCode(row, ReportFacet.STATUS, report.status());
+        live.add(row);
+    }
+    
+    private void setCode(int row, ReportFacet facet, String value) {
+        if (value == null) {
+            codes[facet.ordinal()][row] = NONE;
+            return;
+        }
+        Dictionary dictionary = dictionaries.get(facet);
+        int code = dictionary.codeOf(value);
+        dictionary.bitmap(code).add(row);
+        codes[facet.ordinal()][row] = code;
+    }
+    
+    private void clear(int row) {
+        Dictionary types = dictionaries.get(ReportFacet.INCIDENT_TYPE);
+        long mask = incidentTypeMasks[row];
+        while (mask != 0) {
+            types.bitmap(Long.numberOfTrailingZeros(mask)).remove(row);
+            mask &= mask - 1;
+        }
+        for (ReportFacet facet : ReportFacet.values()) {
+            if (facet == ReportFacet.INCIDENT_TYPE) {
+                continue;
+            }
+            int code = codes[facet.ordinal()][row];
+            if (code != NONE) {
+                dictionaries.get(facet).bitmap(code).remove(row);
+            }
+        }
+        live.remove(row);
+    }
+    
+    /**
+     * Rows satisfying every constraint of {@code query} except the one on {@code excluded}.
+     */
+    private RoaringBitmap matching(FacetQuery query, ReportFacet excluded) {
+        List<RoaringBitmap> clauses = new ArrayList<>();
+        for (ReportFacet facet : ReportFacet.values()) {
+            if (facet == excluded || !query.constrains(facet)) {
+                continue;
+            }
+            Dictionary dictionary = dictionaries.get(facet);
+            List<RoaringBitmap> accepted = new ArrayList<>();
+            for (int code = 0; code < dictionary.values.size(); code++) {
+                if (query.accepts(facet, dictionary.values.get(code))) {
+                    accepted.add(dictionary.bitmap(code));
+                }
+            }
+            if (accepted.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            clauses.add(FastAggregation.or(accepted.iterator()));
+        }
+        
+        // Intersect smallest first so intermediate results stay small
+        clauses.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        if (clauses.isEmpty()) {
+            return live.clone();
+        }
+        RoaringBitmap result = RoaringBitmap.and(clauses.get(0), live);
+        for (int i = 1; i < clauses.size() && !result.isEmpty(); i++) {
+            result.and(clauses.get(i));
+        }
+        return result;
+    }
+    
+    private Map<String, Long> breakdown(RoaringBitmap rows, ReportFacet facet) {
+        Dictionary dictionary = dictionaries.get(facet);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int code = 0; code < dictionary.values.size(); code++) {
+            long count = RoaringBitmap.andCardinality(rows, dictionary.bitmap(code));
+            if (count > 0) {
+                counts.put(dictionary.values.get(code), count);
+            }
+        }
+        return counts;
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= idHigh.length) {
+            return;
+        }
+        int capacity = Math.max(required, idHigh.length * 2);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        incidentTypeMasks = Arrays.copyOf(incidentTypeMasks, capacity);
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Arrays.copyOf(codes[i], capacity);
+        }
+    }
+    
+    /**
+     * Value dictionary of one facet: value to dense code, and one bitmap per code.
+     */
+    private static class Dictionary {
+        
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+        
+        int codeOf(String value) {
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                bitmaps.add(new RoaringBitmap());
+                return values.size() - 1;
+            });
+        }
+        
+        RoaringBitmap bitmap(int code) {
+            return bitmaps.get(code);
+        }
+        
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (int code = 0; code < values.size(); code++) {
+                out.writeUTF(values.get(code));
+                bitmaps.get(code).serialize(out);
+            }
+        }
+        
+        void readFrom(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            for (int code = 0; code < count; code++) {
+                codeOf(in.readUTF());
+                bitmaps.get(code).deserialize(in);
+            }
+        }
+    }
+}
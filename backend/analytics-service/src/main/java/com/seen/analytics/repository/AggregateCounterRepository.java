@@ -0,0 +1,74 @@
+package com.seen.analytics.repository;
+
+import com.seen.analytics.entity.AggregateCell;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class AggregateCounterRepository {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO analytics_counters (incident_type, month, state, report_count) " +
+        "VALUES (:incidentType, :month, :state, :delta) " +
+        "ON CONFLICT (incident_type, month, state) " +
+        "DO UPDATE SET report_count = analytics_counters.report_count + EXCLUDED.report_count";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public void increment(Collection<AggregateCell> cells, long delta) {
+        if (cells.isEmpty()) {
+            return;
+        }
+        
+        SqlParameterSource[] batch = cells.stream()
+            .map(cell -> params(cell).addValue("delta", delta))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+    
+    public void replaceAll(Map<AggregateCell, Long> counters) {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM analytics_counters");
+        
+        SqlParameterSource[] batch = counters.entrySet().stream()
+            .map(entry -> params(entry.getKey()).addValue("delta", entry.getValue()))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+    
+    public List<CounterRow> find(LocalDate fromMonth, LocalDate toMonth, Collection<String> states) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("fromMonth", Date.valueOf(fromMonth))
+            .addValue("toMonth", Date.valueOf(toMonth));
+        
+        String sql = "SELECT incident_type, month, state, report_count FROM analytics_counters " +
+                     "WHERE month BETWEEN :fromMonth AND :toMonth AND report_count > 0";
+        if (states != null && !states.isEmpty()) {
+            sql += " AND state IN (:states)";
+            params.addValue("states", states);
+        }
+        
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new CounterRow(
+            new AggregateCell(rs.getString("incident_type"), rs.getDate("month").toLocalDate(), rs.getString("state")),
+            rs.getLong("report_count")));
+    }
+    
+    private MapSqlParameterSource params(AggregateCell cell) {
+        return new MapSqlParameterSource()
+            .addValue("incidentType", cell.incidentType())
+            .addValue("month", Date.valueOf(cell.month()))
+            .addValue("state", cell.state());
+    }
+    
+    public record CounterRow(AggregateCell cell, long count) {
+    }
+}
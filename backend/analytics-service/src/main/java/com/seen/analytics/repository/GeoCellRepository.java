@@ -0,0 +1,93 @@
+package com.seen.analytics.repository;
+
+import com.seen.geo.Geohash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class GeoCellRepository {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO analytics_geo_cells (geohash, precision, center_lat, center_lon, report_count) " +
+        "VALUES (:geohash, :precision, :centerLat, :centerLon, :delta) " +
+        "ON CONFLICT (geohash) " +
+        "DO UPDATE SET report_count = analytics_geo_cells.report_count + EXCLUDED.report_count";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public void increment(Collection<String> geohashes, long delta) {
+        if (geohashes.isEmpty()) {
+            return;
+        }
+        
+        SqlParameterSource[] batch = geohashes.stream()
+            .map(geohash -> params(geohash).addValue("delta", delta))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+    
+    public void replaceAll(Map<String, Long> counts) {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM analytics_geo_cells");
+        
+        SqlParameterSource[] batch = counts.entrySet().stream()
+            .map(entry -> params(entry.getKey()).addValue("delta", entry.getValue()))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+    
+    /**
+     * Cells of one precision whose centre lies in the box and that hold at least
+     * {@code minCount} reports. A box with minLon > maxLon crosses the antimeridian.
+     */
+    public List<GeoCellRow> findInBox(
+            int precision,
+            double minLat,
+            double minLon,
+            double maxLat,
+            double maxLon,
+            long minCount) {
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("precision", precision)
+            .addValue("minLat", minLat)
+            .addValue("maxLat", maxLat)
+            .addValue("minLon", minLon)
+            .addValue("maxLon", maxLon)
+            .addValue("minCount", minCount);
+        
+        String lonFilter = minLon <= maxLon
+            ? "center_lon BETWEEN :minLon AND :maxLon"
+            : "(center_lon >= :minLon OR center_lon <= :maxLon)";
+        
+        return jdbcTemplate.query(
+            "SELECT geohash, center_lat, center_lon, report_count FROM analytics_geo_cells " +
+            "WHERE precision = :precision AND center_lat BETWEEN :minLat AND :maxLat AND " + lonFilter +
+            " AND report_count >= :minCount",
+            params,
+            (rs, rowNum) -> new GeoCellRow(
+                rs.getString("geohash"),
+                rs.getDouble("center_lat"),
+                rs.getDouble("center_lon"),
+                rs.getLong("report_count")));
+    }
+    
+    private MapSqlParameterSource params(String geohash) {
+        Geohash.Cell cell = Geohash.decode(geohash);
+        return new MapSqlParameterSource()
+            .addValue("geohash", geohash)
+            .addValue("precision", geohash.length())
+            .addValue("centerLat", cell.centerLat())
+            .addValue("centerLon", cell.centerLon());
+    }
+    
+    public record GeoCellRow(String geohash, double centerLat, double centerLon, long count) {
+    }
+}
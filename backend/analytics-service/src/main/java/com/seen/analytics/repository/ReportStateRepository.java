@@ -0,0 +1,152 @@
+package com.seen.analytics.repository;
+
+import com.seen.analytics.entity.ReportAggregationState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class ReportStateRepository {
+    
+    private static final String UPSERT_SQL =
+        "INSERT INTO analytics_report_state (report_id, counted, incident_types, month, state, geohash, status, time_of_day, updated_at, applied_at) " +
+        "VALUES (:reportId, :counted, :incidentTypes, :month, :state, :geohash, :status, :timeOfDay, :updatedAt, CURRENT_TIMESTAMP) " +
+        "ON CONFLICT (report_id) DO UPDATE SET counted = EXCLUDED.counted, incident_types = EXCLUDED.incident_types, " +
+        "month = EXCLUDED.month, state = EXCLUDED.state, geohash = EXCLUDED.geohash, status = EXCLUDED.status, time_of_day = EXCLUDED.time_of_day, " +
+        "updated_at = EXCLUDED.updated_at, applied_at = CURRENT_TIMESTAMP";
+    // A state an event wrote while the rebuild was reading is newer than the rebuild's copy
+    private static final String REBUILD_UPSERT_SQL = UPSERT_SQL +
+        " WHERE analytics_report_state.updated_at IS NULL OR analytics_report_state.updated_at <= EXCLUDED.updated_at";
+    private static final String SELECT_COLUMNS =
+        "SELECT report_id, counted, incident_types, month, state, geohash, status, time_of_day, updated_at FROM analytics_report_state ";
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    /**
+     * Returns the report's current state with its row locked for the rest of the
+     * transaction, creating an uncounted placeholder the first time a report is seen.
+     */
+    public ReportAggregationState lockOrCreate(UUID reportId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("reportId", reportId);
+        jdbcTemplate.update(
+            "INSERT INTO analytics_report_state (report_id, counted) VALUES (:reportId, FALSE) " +
+            "ON CONFLICT (report_id) DO NOTHING", params);
+        
+        return jdbcTemplate.queryForObject(
+            SELECT_COLUMNS + "WHERE report_id = :reportId FOR UPDATE",
+            params,
+            (rs, rowNum) -> mapRow(rs));
+    }
+    
+    /**
+     * Streams every state applied at or after {@code since} (all states if null) through a server-side cursor.
+     */
+    @Transactional(readOnly = true)
+    public void forEachAppliedSince(LocalDateTime since, Consumer<ReportAggregationState> consumer) {
+        String sql = SELECT_COLUMNS + (since != null ? "WHERE applied_at >= ?" : "");
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            if (since != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(since));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+    
+    public LocalDateTime currentTimestamp() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toLocalDateTime();
+    }
+    
+    public void save(ReportAggregationState state) {
+        jdbcTemplate.update(UPSERT_SQL, params(state));
+    }
+    
+    public void saveAll(List<ReportAggregationState> states) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, states.stream()
+            .map(this::params)
+            .toArray(SqlParameterSource[]::new));
+    }
+    
+    /**
+     * Writes states read by a rebuild without replacing newer ones, and marks
+     * every one of them as applied now so {@link #deleteAppliedBefore} keeps it.
+     */
+    public void saveAllFromRebuild(List<ReportAggregationState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(REBUILD_UPSERT_SQL, states.stream()
+            .map(this::params)
+            .toArray(SqlParameterSource[]::new));
+        jdbcTemplate.update(
+            "UPDATE analytics_report_state SET applied_at = CURRENT_TIMESTAMP WHERE report_id IN (:reportIds)",
+            new MapSqlParameterSource("reportIds", states.stream().map(ReportAggregationState::reportId).toList()));
+    }
+    
+    /**
+     * Blocks event writes, but not reads, until the transaction ends.
+     */
+    public void lockAgainstWrites() {
+        jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE analytics_report_state IN EXCLUSIVE MODE");
+    }
+    
+    public int deleteAppliedBefore(LocalDateTime time) {
+        return jdbcTemplate.update(
+            "DELETE FROM analytics_report_state WHERE applied_at < :time",
+            new MapSqlParameterSource("time", Timestamp.valueOf(time)));
+    }
+    
+    private MapSqlParameterSource params(ReportAggregationState state) {
+        return new MapSqlParameterSource()
+            .addValue("reportId", state.reportId())
+            .addValue("counted", state.counted())
+            .addValue("incidentTypes", String.join(",", state.incidentTypes()))
+            .addValue("month", state.month() != null ? Date.valueOf(state.month()) : null)
+            .addValue("state", state.state())
+            .addValue("geohash", state.geohash())
+            .addValue("status", state.status())
+            .addValue("timeOfDay", state.timeOfDay())
+            .addValue("updatedAt", state.updatedAt() != null ? Timestamp.valueOf(state.updatedAt()) : null);
+    }
+    
+    private ReportAggregationState mapRow(ResultSet rs) throws SQLException {
+        return new ReportAggregationState(
+            rs.getObject("report_id", UUID.class),
+            rs.getBoolean("counted"),
+            splitTypes(rs.getString("incident_types")),
+            rs.getDate("month") != null ? rs.getDate("month").toLocalDate() : null,
+            rs.getString("state"),
+            rs.getString("geohash"),
+            rs.getString("status"),
+            rs.getString("time_of_day"),
+            rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : null);
+    }
+    
+    private Set<String> splitTypes(String incidentTypes) {
+        if (incidentTypes == null || incidentTypes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new LinkedHashSet<>(Arrays.asList(incidentTypes.split(",")));
+    }
+}
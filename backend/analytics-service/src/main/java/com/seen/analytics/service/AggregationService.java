@@ -0,0 +1,270 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.dto.AggregateDeltaDto;
+import com.seen.analytics.dto.ReportStatusUpdateDto;
+import com.seen.analytics.entity.AggregateCell;
+import com.seen.analytics.entity.ReportAggregationState;
+import com.seen.analytics.event.LiveUpdate;
+import com.seen.analytics.event.ReportStatusChangedEvent;
+import com.seen.analytics.index.ReportFacetIndex;
+import com.seen.analytics.repository.AggregateCounterRepository;
+import com.seen.analytics.repository.GeoCellRepository;
+import com.seen.analytics.repository.ReportStateRepository;
+import com.seen.geo.Geohash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains the incident type x month x state counters and the heatmap geohash
+ * cells. Each status event is
+ * applied as the difference between what the report contributed before and
+ * what it contributes now, so duplicate or replayed events leave the counters
+ * unchanged and events older than the stored state are ignored. Every change
+ * is also published as a {@link LiveUpdate} once committed.
+ */
+@Service
+@Slf4j
+public class AggregationService {
+    
+    public static final String ALL_TYPES = "*";
+    
+    // Drafts and archived reports are not part of public statistics
+    public static final Set<String> COUNTED_STATUSES = Set.of("SUBMITTED", "UNDER_REVIEW", "RESOLVED");
+    // ~1.2 km x 0.6 km; finer cells could single out individual reporters
+    public static final int MAX_GEOHASH_PRECISION = 6;
+    private static final int REBUILD_BATCH_SIZE = 1_000;
+    private static final String REBUILD_SQL =
+        "SELECT r.id, r.status, r.state, r.latitude, r.longitude, r.time_label, r.created_at, r.updated_at, " +
+        "(SELECT string_agg(t.incident_types, ',') FROM report_incident_types t WHERE t.incident_report_id = r.id) AS incident_types " +
+        "FROM incident_reports r";
+    
+    private final AggregateCounterRepository counterRepository;
+    private final GeoCellRepository geoCellRepository;
+    private final ReportStateRepository stateRepository;
+    private final JdbcTemplate reportSource;
+    private final TransactionTemplate reportSourceTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public AggregationService(
+            AggregateCounterRepository counterRepository,
+            GeoCellRepository geoCellRepository,
+            ReportStateRepository stateRepository,
+            @Qualifier("reportSourceDataSource") DataSource reportSourceDataSource,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        
+        this.counterRepository = counterRepository;
+        this.geoCellRepository = geoCellRepository;
+        this.stateRepository = stateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.reportSource = new JdbcTemplate(reportSourceDataSource);
+        this.reportSource.setFetchSize(REBUILD_BATCH_SIZE);
+        // PostgreSQL only streams with a cursor inside a transaction
+        this.reportSourceTransaction = new TransactionTemplate(new DataSourceTransactionManager(reportSourceDataSource));
+        this.reportSourceTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Applies the event and returns the report's new state, or empty if the event was stale.
+     */
+    @Transactional
+    public Optional<ReportAggregationState> apply(ReportStatusChangedEvent event) {
+        ReportAggregationState current = stateRepository.lockOrCreate(event.getReportId());
+        if (current.updatedAt() != null && event.getOccurredAt().isBefore(current.updatedAt())) {
+            log.debug("Ignoring stale event for report {}", event.getReportId());
+            return Optional.empty();
+        }
+        
+        ReportAggregationState next = new ReportAggregationState(
+            event.getReportId(),
+            COUNTED_STATUSES.contains(event.getStatus()),
+            event.getIncidentTypes() != null ? event.getIncidentTypes() : Collections.emptySet(),
+            toMonth(event.getCreatedAt()),
+            event.getState(),
+            truncate(event.getGeohash()),
+            event.getStatus(),
+            event.getTimeOfDay(),
+            event.getOccurredAt());
+        
+        Set<AggregateCell> before = cells(current);
+        Set<AggregateCell> after = cells(next);
+        Set<AggregateCell> removed = difference(before, after);
+        Set<AggregateCell> added = difference(after, before);
+        counterRepository.increment(removed, -1);
+        counterRepository.increment(added, 1);
+        
+        Set<String> geoBefore = geoCells(current);
+        Set<String> geoAfter = geoCells(next);
+        geoCellRepository.increment(difference(geoBefore, geoAfter), -1);
+        geoCellRepository.increment(difference(geoAfter, geoBefore), 1);
+        stateRepository.save(next);
+        
+        boolean statusChanged = !Objects.equals(current.status(), next.status());
+        if (!removed.isEmpty() || !added.isEmpty() || statusChanged) {
+            eventPublisher.publishEvent(LiveUpdate.builder()
+                .aggregates(delta(removed, added))
+                .statusChange(statusChanged ? ReportStatusUpdateDto.builder()
+                    .reportId(next.reportId())
+                    .previousStatus(current.status())
+                    .status(next.status())
+                    .occurredAt(next.updatedAt())
+                    .build() : null)
+                .build());
+        }
+        return Optional.of(next);
+    }
+    
+    /**
+     * Recomputes every counter and per-report state from report-service's tables.
+     * States are written {@value #REBUILD_BATCH_SIZE} at a time, each batch in its
+     * own transaction, so no transaction spans the whole read. Events keep being
+     * applied meanwhile and win over the copy being rebuilt. The last step sweeps
+     * states of reports that no longer exist and derives the counters from the
+     * stored states, with event writes held off so the two agree.
+     */
+    public long rebuild() {
+        LocalDateTime startedAt = stateRepository.currentTimestamp();
+        List<ReportAggregationState> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        long[] reports = {0};
+        
+        reportSourceTransaction.executeWithoutResult(status -> reportSource.query(REBUILD_SQL, rs -> {
+            String incidentTypes = rs.getString("incident_types");
+            double latitude = rs.getDouble("latitude");
+            String geohash = rs.wasNull() ? null : Geohash.encode(latitude, rs.getDouble("longitude"), MAX_GEOHASH_PRECISION);
+            batch.add(new ReportAggregationState(
+                rs.getObject("id", UUID.class),
+                COUNTED_STATUSES.contains(rs.getString("status")),
+                incidentTypes != null ? new LinkedHashSet<>(Arrays.asList(incidentTypes.split(","))) : Collections.emptySet(),
+                toMonth(rs.getTimestamp("created_at").toLocalDateTime()),
+                rs.getString("state"),
+                geohash,
+                rs.getString("status"),
+                rs.getString("time_label"),
+                rs.getTimestamp("updated_at").toLocalDateTime()));
+            reports[0]++;
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                saveRebuiltStates(batch);
+            }
+        }));
+        saveRebuiltStates(batch);
+        
+        int counters = transactionTemplate.execute(status -> {
+            stateRepository.lockAgainstWrites();
+            int removed = stateRepository.deleteAppliedBefore(startedAt);
+            if (removed > 0) {
+                log.info("Removed {} states of reports that no longer exist", removed);
+            }
+            
+            Map<AggregateCell, Long> counts = new HashMap<>();
+            Map<String, Long> geoCounts = new HashMap<>();
+            stateRepository.forEachAppliedSince(null, state -> {
+                cells(state).forEach(cell -> counts.merge(cell, 1L, Long::sum));
+                geoCells(state).forEach(cell -> geoCounts.merge(cell, 1L, Long::sum));
+            });
+            counterRepository.replaceAll(counts);
+            geoCellRepository.replaceAll(geoCounts);
+            return counts.size();
+        });
+        eventPublisher.publishEvent(LiveUpdate.builder().resync(true).build());
+        
+        log.info("Rebuilt {} counters from {} reports", counters, reports[0]);
+        return reports[0];
+    }
+    
+    private void saveRebuiltStates(List<ReportAggregationState> batch) {
+        transactionTemplate.executeWithoutResult(status -> stateRepository.saveAllFromRebuild(batch));
+        batch.clear();
+    }
+    
+    private Set<AggregateCell> cells(ReportAggregationState state) {
+        if (!state.counted() || state.month() == null || state.state() == null) {
+            return Collections.emptySet();
+        }
+        
+        Set<AggregateCell> cells = new HashSet<>();
+        cells.add(new AggregateCell(ALL_TYPES, state.month(), state.state()));
+        for (String type : state.incidentTypes()) {
+            cells.add(new AggregateCell(type, state.month(), state.state()));
+        }
+        return cells;
+    }
+    
+    /**
+     * The report's geohash and all its prefixes, one cell per heatmap precision.
+     */
+    private Set<String> geoCells(ReportAggregationState state) {
+        if (!state.counted() || state.geohash() == null) {
+            return Collections.emptySet();
+        }
+        
+        Set<String> cells = new HashSet<>();
+        for (int precision = 1; precision <= state.geohash().length(); precision++) {
+            cells.add(state.geohash().substring(0, precision));
+        }
+        return cells;
+    }
+    
+    /**
+     * The change in public aggregates; only the '*' cells count each report once.
+     */
+    private AggregateDeltaDto delta(Set<AggregateCell> removed, Set<AggregateCell> added) {
+        AggregateDeltaDto delta = AggregateDeltaDto.builder().build();
+        removed.forEach(cell -> count(delta, cell, -1));
+        added.forEach(cell -> count(delta, cell, 1));
+        
+        delta.getByType().values().removeIf(count -> count == 0);
+        delta.getOverTime().values().removeIf(count -> count == 0);
+        delta.getByLocation().values().removeIf(count -> count == 0);
+        return delta;
+    }
+    
+    private void count(AggregateDeltaDto delta, AggregateCell cell, long amount) {
+        if (ALL_TYPES.equals(cell.incidentType())) {
+            delta.setTotalReports(delta.getTotalReports() + amount);
+            delta.getOverTime().merge(ReportFacetIndex.monthKey(cell.month()), amount, Long::sum);
+            delta.getByLocation().merge(cell.state(), amount, Long::sum);
+        } else {
+            delta.getByType().merge(cell.incidentType(), amount, Long::sum);
+        }
+    }
+    
+    private <T> Set<T> difference(Set<T> left, Set<T> right) {
+        Set<T> result = new HashSet<>(left);
+        result.removeAll(right);
+        return result;
+    }
+    
+    private String truncate(String geohash) {
+        return geohash != null && geohash.length() > MAX_GEOHASH_PRECISION
+            ? geohash.substring(0, MAX_GEOHASH_PRECISION)
+            : geohash;
+    }
+    
+    private LocalDate toMonth(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toLocalDate().withDayOfMonth(1) : null;
+    }
+}
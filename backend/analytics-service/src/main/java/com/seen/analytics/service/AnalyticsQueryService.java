@@ -0,0 +1,209 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.dto.AggregatedStatsDto;
+import com.seen.analytics.dto.ExploreResultDto;
+import com.seen.analytics.dto.LocationCountDto;
+import com.seen.analytics.dto.TimeSeriesPointDto;
+import com.seen.analytics.dto.TypeCountDto;
+import com.seen.analytics.index.FacetCounts;
+import com.seen.analytics.index.FacetQuery;
+import com.seen.analytics.index.ReportFacet;
+import com.seen.analytics.index.ReportFacetIndex;
+import com.seen.analytics.repository.AggregateCounterRepository;
+import com.seen.analytics.repository.AggregateCounterRepository.CounterRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Answers aggregate queries from the in-memory facet index, falling back to the
+ * pre-aggregated counters while the index is loading. Neither path scans reports.
+ * The counters are kept per type, so a report with several types is in several
+ * rows; a filter on more than one type cannot be answered from them.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AnalyticsQueryService {
+    
+    private static final LocalDate EARLIEST_MONTH = LocalDate.of(2000, 1, 1);
+    private static final int TOP_LOCATIONS = 10;
+    
+    private final AggregateCounterRepository counterRepository;
+    private final FacetIndexService facetIndexService;
+    
+    public AggregatedStatsDto getAggregates(
+            LocalDate startDate,
+            LocalDate endDate,
+            Set<String> incidentTypes,
+            Set<String> locations) {
+        
+        Optional<ReportFacetIndex> index = facetIndexService.index();
+        if (index.isPresent()) {
+            FacetCounts counts = index.get().summarize(
+                FacetQuery.all()
+                    .where(ReportFacet.STATUS, AggregationService.COUNTED_STATUSES)
+                    .where(ReportFacet.INCIDENT_TYPE, incidentTypes)
+                    .where(ReportFacet.STATE, locations)
+                    .months(startDate, endDate),
+                ReportFacet.INCIDENT_TYPE, ReportFacet.MONTH, ReportFacet.STATE);
+            
+            return toDto(counts.total(),
+                counts.of(ReportFacet.INCIDENT_TYPE),
+                new TreeMap<>(counts.of(ReportFacet.MONTH)),
+                counts.of(ReportFacet.STATE));
+        }
+        return getAggregatesFromCounters(startDate, endDate, incidentTypes, locations);
+    }
+    
+    /**
+     * Counts for every facet under the given filters, or empty while the index is loading.
+     * Only moderators can see reports outside {@link AggregationService#COUNTED_STATUSES},
+     * such as drafts; other callers' status filter is narrowed to those.
+     */
+    public Optional<ExploreResultDto> explore(
+            LocalDate startDate,
+            LocalDate endDate,
+            Set<String> incidentTypes,
+            Set<String> locations,
+            Set<String> timesOfDay,
+            Set<String> statuses,
+            boolean moderator) {
+        
+        Set<String> visibleStatuses = visibleStatuses(statuses, moderator);
+        FacetQuery query = FacetQuery.all()
+            .where(ReportFacet.INCIDENT_TYPE, incidentTypes)
+            .where(ReportFacet.STATE, locations)
+            .where(ReportFacet.TIME_OF_DAY, timesOfDay)
+            .where(ReportFacet.STATUS, visibleStatuses)
+            .months(startDate, endDate);
+        
+        return facetIndexService.index().map(index -> {
+            // An empty status filter would match every status
+            if (visibleStatuses.isEmpty()) {
+                return ExploreResultDto.builder()
+                    .totalReports(0L)
+                    .facets(Map.of())
+                    .build();
+            }
+            
+            FacetCounts counts = index.explore(query);
+            Map<ReportFacet, Map<String, Long>> facets = new EnumMap<>(ReportFacet.class);
+            counts.byFacet().forEach((facet, values) -> facets.put(facet, values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum, LinkedHashMap::new))));
+            return ExploreResultDto.builder()
+                .totalReports(counts.total())
+                .facets(facets)
+                .build();
+        });
+    }
+    
+    private static Set<String> visibleStatuses(Set<String> requested, boolean moderator) {
+        if (requested == null || requested.isEmpty()) {
+            return AggregationService.COUNTED_STATUSES;
+        }
+        if (moderator) {
+            return requested;
+        }
+        return requested.stream()
+            .filter(AggregationService.COUNTED_STATUSES::contains)
+            .collect(Collectors.toSet());
+    }
+    
+    private AggregatedStatsDto getAggregatesFromCounters(
+            LocalDate startDate,
+            LocalDate endDate,
+            Set<String> incidentTypes,
+            Set<String> locations) {
+        
+        boolean typeFilter = incidentTypes != null && !incidentTypes.isEmpty();
+        if (typeFilter && incidentTypes.size() > 1) {
+            // Summing per-type rows would count a report carrying two of the types twice
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Filtering by several incident types is available once the analytics index has loaded");
+        }
+        LocalDate fromMonth = startDate != null ? startDate.withDayOfMonth(1) : EARLIEST_MONTH;
+        LocalDate toMonth = endDate != null ? endDate.withDayOfMonth(1) : LocalDate.now().withDayOfMonth(1);
+        
+        List<CounterRow> rows = counterRepository.find(fromMonth, toMonth, locations);
+        
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Long> overTime = new TreeMap<>();
+        Map<String, Long> byLocation = new HashMap<>();
+        long total = 0;
+        
+        for (CounterRow row : rows) {
+            String type = row.cell().incidentType();
+            boolean allTypesRow = AggregationService.ALL_TYPES.equals(type);
+            
+            if (!allTypesRow && (!typeFilter || incidentTypes.contains(type))) {
+                byType.merge(type, row.count(), Long::sum);
+            }
+            
+            // Without a type filter the '*' rows count each report once; with one, the rows of that type do
+            boolean contributes = typeFilter ? !allTypesRow && incidentTypes.contains(type) : allTypesRow;
+            if (contributes) {
+                overTime.merge(ReportFacetIndex.monthKey(row.cell().month()), row.count(), Long::sum);
+                byLocation.merge(row.cell().state(), row.count(), Long::sum);
+                total += row.count();
+            }
+        }
+        
+        return toDto(total, byType, overTime, byLocation);
+    }
+    
+    private AggregatedStatsDto toDto(
+            long total,
+            Map<String, Long> byType,
+            Map<String, Long> overTime,
+            Map<String, Long> byLocation) {
+        
+        return AggregatedStatsDto.builder()
+            .totalReports(total)
+            .byType(byType.entrySet().stream()
+                .map(entry -> TypeCountDto.builder()
+                    .type(entry.getKey())
+                    .count(entry.getValue())
+                    .label(toLabel(entry.getKey()))
+                    .build())
+                .sorted(Comparator.comparing(TypeCountDto::getCount).reversed())
+                .collect(Collectors.toList()))
+            .overTime(overTime.entrySet().stream()
+                .map(entry -> TimeSeriesPointDto.builder()
+                    .month(entry.getKey())
+                    .count(entry.getValue())
+                    .build())
+                .collect(Collectors.toList()))
+            .byLocation(byLocation.entrySet().stream()
+                .map(entry -> LocationCountDto.builder()
+                    .location(entry.getKey())
+                    .count(entry.getValue())
+                    .build())
+                .sorted(Comparator.comparing(LocationCountDto::getCount).reversed())
+                .limit(TOP_LOCATIONS)
+                .collect(Collectors.toList()))
+            .build();
+    }
+    
+    private String toLabel(String type) {
+        return Arrays.stream(type.toLowerCase().split("_"))
+            .map(word -> word.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1))
+            .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,159 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.entity.ReportAggregationState;
+import com.seen.analytics.index.IndexedReport;
+import com.seen.analytics.index.ReportFacetIndex;
+import com.seen.analytics.repository.ReportStateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Owns the in-memory facet index. On startup it loads the last snapshot and catches
+ * up from analytics_report_state rows applied since; afterwards every applied status
+ * event is added directly. Snapshots are written periodically and on shutdown.
+ */
+@Service
+@Slf4j
+public class FacetIndexService {
+    
+    // Covers transactions that were still open when a snapshot or catch-up started
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+    
+    private final ReportStateRepository stateRepository;
+    private final Path snapshotPath;
+    
+    private volatile ReportFacetIndex index;
+    
+    public FacetIndexService(
+            ReportStateRepository stateRepository,
+            @Value("${app.facet-index.snapshot-path}") Path snapshotPath) {
+        
+        this.stateRepository = stateRepository;
+        this.snapshotPath = snapshotPath;
+    }
+    
+    /**
+     * The index, or empty while it is still being loaded.
+     */
+    public Optional<ReportFacetIndex> index() {
+        return Optional.ofNullable(index);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Snapshot snapshot = readSnapshot();
+        rebuildIndex(snapshot != null ? snapshot.index() : new ReportFacetIndex(),
+            snapshot != null ? snapshot.takenAt() : null);
+    }
+    
+    /**
+     * Discards the index and rebuilds it from analytics_report_state, e.g. after the counters were rebuilt.
+     */
+    public void reload() {
+        rebuildIndex(new ReportFacetIndex(), null);
+    }
+    
+    public void apply(ReportAggregationState state) {
+        ReportFacetIndex current = index;
+        // While loading, the catch-up pass after the swap picks the state up from the database
+        if (current != null) {
+            add(current, state);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.facet-index.snapshot-interval}", initialDelayString = "${app.facet-index.snapshot-interval}")
+    public void snapshot() {
+        ReportFacetIndex current = index;
+        if (current == null) {
+            return;
+        }
+        
+        LocalDateTime takenAt = stateRepository.currentTimestamp();
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                new DataOutputStream(out).writeLong(Timestamp.valueOf(takenAt).getTime());
+                current.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote facet index snapshot of {} reports to {}", current.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to write facet index snapshot to {}", snapshotPath, e);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+    
+    private void rebuildIndex(ReportFacetIndex loading, LocalDateTime since) {
+        long start = System.nanoTime();
+        LocalDateTime loadStartedAt = stateRepository.currentTimestamp();
+        
+        stateRepository.forEachAppliedSince(overlap(since), state -> add(loading, state));
+        index = loading;
+        // Pick up events that were applied while the index was unavailable
+        stateRepository.forEachAppliedSince(overlap(loadStartedAt), state -> add(loading, state));
+        
+        log.info("Facet index ready with {} reports in {} ms",
+            loading.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+    
+    private void add(ReportFacetIndex target, ReportAggregationState state) {
+        if (state.status() == null || state.updatedAt() == null) {
+            return;
+        }
+        target.upsert(new IndexedReport(
+            state.reportId(),
+            state.incidentTypes(),
+            state.state(),
+            state.month() != null ? ReportFacetIndex.monthKey(state.month()) : null,
+            state.timeOfDay(),
+            state.status(),
+            state.updatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()));
+    }
+    
+    private Snapshot readSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("No facet index snapshot at {}, building from the database", snapshotPath);
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotPath))) {
+            LocalDateTime takenAt = new Timestamp(new DataInputStream(in).readLong()).toLocalDateTime();
+            return new Snapshot(ReportFacetIndex.readFrom(in), takenAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable facet index snapshot {}", snapshotPath, e);
+            return null;
+        }
+    }
+    
+    private LocalDateTime overlap(LocalDateTime since) {
+        return since != null ? since.minus(CATCH_UP_OVERLAP) : null;
+    }
+    
+    private record Snapshot(ReportFacetIndex index, LocalDateTime takenAt) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.dto.HeatmapCellDto;
+import com.seen.analytics.dto.HeatmapDto;
+import com.seen.analytics.repository.GeoCellRepository;
+import com.seen.geo.Geohash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.Collectors;
+
+/**
+ * Serves pre-aggregated geohash cell counts for a map viewport. The cell size follows
+ * the zoom level, so the work per request depends on the viewport's cell count,
+ * not on how many reports it contains.
+ */
+@Service
+public class HeatmapService {
+    
+    private static final int MAX_ZOOM = 22;
+    // Aim for about eight cells across a 256 px map tile
+    private static final int CELLS_PER_TILE_BITS = 3;
+    
+    private final GeoCellRepository geoCellRepository;
+    private final long minCellCount;
+    
+    public HeatmapService(
+            GeoCellRepository geoCellRepository,
+            @Value("${app.heatmap.min-cell-count:5}") long minCellCount) {
+        
+        this.geoCellRepository = geoCellRepository;
+        this.minCellCount = minCellCount;
+    }
+    
+    /**
+     * @param bbox {@code minLon,minLat,maxLon,maxLat}
+     */
+    public HeatmapDto getHeatmap(String bbox, int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        double[] box = parseBbox(bbox);
+        int precision = precisionForZoom(zoom);
+        
+        // Cells below the threshold are left out entirely so sparse areas cannot identify reporters
+        return HeatmapDto.builder()
+            .zoom(zoom)
+            .precision(precision)
+            .cells(geoCellRepository.findInBox(precision, box[1], box[0], box[3], box[2], minCellCount).stream()
+                .map(row -> HeatmapCellDto.builder()
+                    .geohash(row.geohash())
+                    .latitude(row.centerLat())
+                    .longitude(row.centerLon())
+                    .count(row.count())
+                    .build())
+                .collect(Collectors.toList()))
+            .build();
+    }
+    
+    private int precisionForZoom(int zoom) {
+        int precision = 1;
+        while (precision < AggregationService.MAX_GEOHASH_PRECISION
+                && Geohash.longitudeBits(precision) < zoom + CELLS_PER_TILE_BITS) {
+            precision++;
+        }
+        return precision;
+    }
+    
+    private double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        if (box[1] < -90 || box[3] > 90 || box[1] > box[3] || box[0] < -180 || box[2] > 180) {
+            throw new IllegalArgumentException("bbox is out of range");
+        }
+        return box;
+    }
+}
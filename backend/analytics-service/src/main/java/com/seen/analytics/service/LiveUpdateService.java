@@ -0,0 +1,167 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.dto.AggregateDeltaDto;
+import com.seen.analytics.dto.ReportStatusUpdateDto;
+import com.seen.analytics.event.LiveUpdate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event streams of aggregate deltas and report status changes.
+ * Updates from every instance arrive on the live-updates fanout and are merged
+ * until the next flush, so a burst of events costs subscribers one delta per
+ * coalesce interval. Subscribers are gateways, which share one stream per
+ * topic between all their browser clients.
+ */
+@Service
+@Slf4j
+public class LiveUpdateService {
+    
+    public static final String AGGREGATES = "aggregates";
+    public static final String REPORT_STATUS = "report-status";
+    public static final Set<String> TOPICS = Set.of(AGGREGATES, REPORT_STATUS);
+    
+    private final Duration emitterTimeout;
+    private final Map<String, List<SseEmitter>> subscribers = Map.of(
+        AGGREGATES, new CopyOnWriteArrayList<>(),
+        REPORT_STATUS, new CopyOnWriteArrayList<>());
+    private final AtomicLong sequence = new AtomicLong();
+    
+    // Guarded by this
+    private AggregateDeltaDto pendingAggregates = AggregateDeltaDto.builder().build();
+    private Map<UUID, ReportStatusUpdateDto> pendingStatusChanges = new LinkedHashMap<>();
+    private boolean pendingResync;
+    
+    public LiveUpdateService(
+            @Value("${app.live-updates.emitter-timeout:PT30M}") Duration emitterTimeout,
+            MeterRegistry meterRegistry) {
+        
+        this.emitterTimeout = emitterTimeout;
+        subscribers.forEach((topic, emitters) -> Gauge.builder("analytics.live.subscribers", emitters, List::size)
+            .tag("topic", topic)
+            .register(meterRegistry));
+    }
+    
+    /**
+     * A stream that starts with a resync event, telling the subscriber to load
+     * current aggregates before applying deltas.
+     */
+    public SseEmitter subscribe(String topic) {
+        List<SseEmitter> emitters = subscribers.get(topic);
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        
+        emitters.add(emitter);
+        send(emitter, this::resyncEvent);
+        return emitter;
+    }
+    
+    public synchronized void accept(LiveUpdate update) {
+        if (update.isResync()) {
+            // Everything pending is superseded by the rebuilt counters
+            pendingResync = true;
+            pendingAggregates = AggregateDeltaDto.builder().build();
+            pendingStatusChanges.clear();
+            return;
+        }
+        
+        if (update.getAggregates() != null) {
+            merge(pendingAggregates, update.getAggregates());
+        }
+        
+        ReportStatusUpdateDto change = update.getStatusChange();
+        if (change != null) {
+            // A report that moved twice within the interval is reported once, from its first status to its last
+            pendingStatusChanges.merge(change.getReportId(), change, (first, last) -> ReportStatusUpdateDto.builder()
+                .reportId(first.getReportId())
+                .previousStatus(first.getPreviousStatus())
+                .status(last.getStatus())
+                .occurredAt(last.getOccurredAt())
+                .build());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.live-updates.coalesce-interval:PT1S}")
+    public void flush() {
+        AggregateDeltaDto aggregates;
+        List<ReportStatusUpdateDto> statusChanges;
+        boolean resync;
+        synchronized (this) {
+            aggregates = pendingAggregates;
+            statusChanges = new ArrayList<>(pendingStatusChanges.values());
+            resync = pendingResync;
+            pendingAggregates = AggregateDeltaDto.builder().build();
+            pendingStatusChanges.clear();
+            pendingResync = false;
+        }
+        
+        if (resync) {
+            TOPICS.forEach(topic -> broadcast(topic, this::resyncEvent));
+        }
+        if (aggregates.getTotalReports() != 0 || !aggregates.getByType().isEmpty()
+                || !aggregates.getOverTime().isEmpty() || !aggregates.getByLocation().isEmpty()) {
+            long id = sequence.incrementAndGet();
+            broadcast(AGGREGATES, () -> SseEmitter.event().id(Long.toString(id)).name("delta").data(aggregates));
+        }
+        if (!statusChanges.isEmpty()) {
+            long id = sequence.incrementAndGet();
+            broadcast(REPORT_STATUS, () -> SseEmitter.event().id(Long.toString(id)).name("status").data(statusChanges));
+        }
+    }
+    
+    // Keeps idle connections open through proxies and lets the gateway notice a dead stream
+    @Scheduled(fixedRateString = "${app.live-updates.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        TOPICS.forEach(topic -> broadcast(topic, () -> SseEmitter.event().comment("heartbeat")));
+    }
+    
+    private void broadcast(String topic, Supplier<SseEmitter.SseEventBuilder> event) {
+        subscribers.get(topic).forEach(emitter -> send(emitter, event));
+    }
+    
+    private void send(SseEmitter emitter, Supplier<SseEmitter.SseEventBuilder> event) {
+        try {
+            emitter.send(event.get());
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping live update subscriber: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+    
+    private SseEmitter.SseEventBuilder resyncEvent() {
+        return SseEmitter.event().name("resync").data("{}");
+    }
+    
+    private static void merge(AggregateDeltaDto into, AggregateDeltaDto delta) {
+        into.setTotalReports(into.getTotalReports() + delta.getTotalReports());
+        merge(into.getByType(), delta.getByType());
+        merge(into.getOverTime(), delta.getOverTime());
+        merge(into.getByLocation(), delta.getByLocation());
+    }
+    
+    private static void merge(Map<String, Long> into, Map<String, Long> delta) {
+        if (delta == null) {
+            return;
+        }
+        delta.forEach((key, count) -> into.merge(key, count, (a, b) -> a + b != 0 ? a + b : null));
+    }
+}
@@ -0,0 +1,21 @@
+-- One row per incident type x month x state. incident_type '*' counts each report once,
+-- so totals, time series and locations are not inflated by multi-type reports.
+CREATE TABLE IF NOT EXISTS analytics_counters (
+    incident_type VARCHAR(50) NOT NULL,
+    month DATE NOT NULL,
+    state VARCHAR(255) NOT NULL,
+    report_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (incident_type, month, state)
+);
+
+CREATE INDEX IF NOT EXISTS idx_analytics_counters_month ON analytics_counters (month);
+
+-- Last applied state of each report, so status events are applied as diffs and replays are harmless
+CREATE TABLE IF NOT EXISTS analytics_report_state (
+    report_id UUID PRIMARY KEY,
+    counted BOOLEAN NOT NULL DEFAULT FALSE,
+    incident_types TEXT,
+    month DATE,
+    state VARCHAR(255),
+    updated_at TIMESTAMP
+);
@@ -0,0 +1,6 @@
+-- Facet index dimensions, and when each state was last written so the index can catch up after a snapshot
+ALTER TABLE analytics_report_state ADD COLUMN IF NOT EXISTS status VARCHAR(20);
+ALTER TABLE analytics_report_state ADD COLUMN IF NOT EXISTS time_of_day VARCHAR(20);
+ALTER TABLE analytics_report_state ADD COLUMN IF NOT EXISTS applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_analytics_report_state_applied_at ON analytics_report_state (applied_at);
@@ -0,0 +1,15 @@
+-- Heatmap counts per geohash cell. Every report is counted in each prefix of its
+-- geohash, so every precision level (zoom band) is pre-aggregated.
+CREATE TABLE IF NOT EXISTS analytics_geo_cells (
+    geohash VARCHAR(12) PRIMARY KEY,
+    precision SMALLINT NOT NULL,
+    center_lat DOUBLE PRECISION NOT NULL,
+    center_lon DOUBLE PRECISION NOT NULL,
+    report_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Viewport lookup: one precision, a latitude range, then a longitude filter
+CREATE INDEX IF NOT EXISTS idx_analytics_geo_cells_viewport
+    ON analytics_geo_cells (precision, center_lat, center_lon);
+
+ALTER TABLE analytics_report_state ADD COLUMN IF NOT EXISTS geohash VARCHAR(12);
@@ -0,0 +1,296 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.entity.AggregateCell;
+import com.seen.analytics.entity.ReportAggregationState;
+import com.seen.analytics.event.LiveUpdate;
+import com.seen.analytics.event.ReportStatusChangedEvent;
+import com.seen.analytics.repository.AggregateCounterRepository;
+import com.seen.analytics.repository.GeoCellRepository;
+import com.seen.analytics.repository.ReportStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AggregationServiceTest {
+    
+    private static final UUID REPORT_ID = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-2c6b8e0d1a57");
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 14, 9, 30);
+    private static final LocalDate MARCH = LocalDate.of(2026, 3, 1);
+    private static final String CHICAGO = "dp3wjztv1";
+    
+    private AggregateCounterRepository counterRepository;
+    private GeoCellRepository geoCellRepository;
+    private ReportStateRepository stateRepository;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    // Rows the report-service query returns during a rebuild
+    private List<Map<String, Object>> sourceRows;
+    private AggregationService aggregationService;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        counterRepository = mock(AggregateCounterRepository.class);
+        geoCellRepository = mock(GeoCellRepository.class);
+        stateRepository = mock(ReportStateRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        sourceRows = new ArrayList<>();
+        
+        DataSource reportSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(reportSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> resultSet(sourceRows));
+        
+        aggregationService = new AggregationService(counterRepository, geoCellRepository, stateRepository,
+            reportSource, new TransactionTemplate(transactionManager), eventPublisher);
+    }
+    
+    @Test
+    void firstSubmissionCountsTheReportOnceAndPerTypeAndInEveryCellPrecision() {
+        when(stateRepository.lockOrCreate(REPORT_ID)).thenReturn(unseen());
+        
+        aggregationService.apply(event("SUBMITTED", Set.of("VERBAL", "PHYSICAL"), CREATED_AT.plusHours(1)));
+        
+        verify(counterRepository).increment(Set.of(
+            new AggregateCell(AggregationService.ALL_TYPES, MARCH, "IL"),
+            new AggregateCell("VERBAL", MARCH, "IL"),
+            new AggregateCell("PHYSICAL", MARCH, "IL")), 1);
+        // Finer cells than precision 6 are never stored
+        verify(geoCellRepository).increment(Set.of("d", "dp", "dp3", "dp3w", "dp3wj", "dp3wjz"), 1);
+        
+        LiveUpdate update = publishedUpdate();
+        assertThat(update.getAggregates().getTotalReports()).isEqualTo(1);
+        assertThat(update.getAggregates().getByType()).containsOnly(Map.entry("VERBAL", 1L), Map.entry("PHYSICAL", 1L));
+        assertThat(update.getAggregates().getOverTime()).containsOnly(Map.entry("2026-03", 1L));
+        assertThat(update.getStatusChange().getStatus()).isEqualTo("SUBMITTED");
+    }
+    
+    @Test
+    void replayedEventChangesNothing() {
+        ReportAggregationState applied = state(true, Set.of("VERBAL"), "SUBMITTED", CREATED_AT.plusHours(1));
+        when(stateRepository.lockOrCreate(REPORT_ID)).thenReturn(applied);
+        
+        aggregationService.apply(event("SUBMITTED", Set.of("VERBAL"), CREATED_AT.plusHours(1)));
+        
+        verify(counterRepository).increment(Set.of(), -1);
+        verify(counterRepository).increment(Set.of(), 1);
+        verify(geoCellRepository).increment(Set.of(), -1);
+        verify(geoCellRepository).increment(Set.of(), 1);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void eventOlderThanTheStoredStateIsIgnored() {
+        when(stateRepository.lockOrCreate(REPORT_ID))
+            .thenReturn(state(true, Set.of("VERBAL"), "RESOLVED", CREATED_AT.plusDays(2)));
+        
+        assertThat(aggregationService.apply(event("UNDER_REVIEW", Set.of("VERBAL"), CREATED_AT.plusDays(1)))).isEmpty();
+        
+        verify(counterRepository, never()).increment(any(), anyLong());
+        verify(stateRepository, never()).save(any());
+    }
+    
+    @Test
+    void archivingRemovesTheReportFromEveryCounter() {
+        when(stateRepository.lockOrCreate(REPORT_ID))
+            .thenReturn(state(true, Set.of("VERBAL"), "RESOLVED", CREATED_AT.plusHours(1)));
+        
+        ReportAggregationState next = aggregationService
+            .apply(event("ARCHIVED", Set.of("VERBAL"), CREATED_AT.plusDays(1))).orElseThrow();
+        
+        assertThat(next.counted()).isFalse();
+        verify(counterRepository).increment(Set.of(
+            new AggregateCell(AggregationService.ALL_TYPES, MARCH, "IL"),
+            new AggregateCell("VERBAL", MARCH, "IL")), -1);
+        verify(geoCellRepository).increment(Set.of("d", "dp", "dp3", "dp3w", "dp3wj", "dp3wjz"), -1);
+        verify(stateRepository).save(next);
+        assertThat(publishedUpdate().getAggregates().getTotalReports()).isEqualTo(-1);
+    }
+    
+    @Test
+    void retypingMovesOnlyThePerTypeCounts() {
+        when(stateRepository.lockOrCreate(REPORT_ID))
+            .thenReturn(state(true, Set.of("VERBAL"), "SUBMITTED", CREATED_AT.plusHours(1)));
+        
+        aggregationService.apply(event("SUBMITTED", Set.of("ONLINE"), CREATED_AT.plusHours(2)));
+        
+        verify(counterRepository).increment(Set.of(new AggregateCell("VERBAL", MARCH, "IL")), -1);
+        verify(counterRepository).increment(Set.of(new AggregateCell("ONLINE", MARCH, "IL")), 1);
+        LiveUpdate update = publishedUpdate();
+        assertThat(update.getAggregates().getTotalReports()).isZero();
+        assertThat(update.getAggregates().getByType()).containsOnly(Map.entry("VERBAL", -1L), Map.entry("ONLINE", 1L));
+        assertThat(update.getStatusChange()).isNull();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildWritesStatesInBatchesOfTheirOwnAndThenSwapsTheCounters() {
+        for (int i = 0; i < 2_500; i++) {
+            sourceRows.add(sourceRow(new UUID(0, i), i % 2 == 0 ? "SUBMITTED" : "DRAFT", "VERBAL"));
+        }
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<?>>getArgument(0).size());
+            return null;
+        }).when(stateRepository).saveAllFromRebuild(anyList());
+        LocalDateTime startedAt = LocalDateTime.of(2026, 10, 1, 12, 0);
+        when(stateRepository.currentTimestamp()).thenReturn(startedAt);
+        // The stored states the counters are derived from: one rebuilt, one written by an event meanwhile
+        doAnswer(invocation -> {
+            Consumer<ReportAggregationState> consumer = invocation.getArgument(1);
+            consumer.accept(state(true, Set.of("VERBAL"), "SUBMITTED", CREATED_AT));
+            consumer.accept(state(true, Set.of("ONLINE"), "RESOLVED", CREATED_AT));
+            consumer.accept(state(false, Set.of("VERBAL"), "DRAFT", CREATED_AT));
+            return null;
+        }).when(stateRepository).forEachAppliedSince(isNull(), any());
+        
+        assertThat(aggregationService.rebuild()).isEqualTo(2_500);
+        
+        assertThat(batchSizes).containsExactly(1_000, 1_000, 500);
+        // One transaction per batch, then one for the swap
+        verify(transactionManager, times(4)).commit(any());
+        
+        InOrder swap = inOrder(stateRepository, counterRepository, geoCellRepository);
+        swap.verify(stateRepository).lockAgainstWrites();
+        swap.verify(stateRepository).deleteAppliedBefore(startedAt);
+        swap.verify(stateRepository).forEachAppliedSince(isNull(), any());
+        
+        ArgumentCaptor<Map<AggregateCell, Long>> counters = ArgumentCaptor.forClass(Map.class);
+        swap.verify(counterRepository).replaceAll(counters.capture());
+        assertThat(counters.getValue()).containsOnly(
+            Map.entry(new AggregateCell(AggregationService.ALL_TYPES, MARCH, "IL"), 2L),
+            Map.entry(new AggregateCell("VERBAL", MARCH, "IL"), 1L),
+            Map.entry(new AggregateCell("ONLINE", MARCH, "IL"), 1L));
+        
+        ArgumentCaptor<Map<String, Long>> cells = ArgumentCaptor.forClass(Map.class);
+        swap.verify(geoCellRepository).replaceAll(cells.capture());
+        assertThat(cells.getValue()).hasSize(6).containsEntry("d", 2L).containsEntry("dp3wjz", 2L);
+        assertThat(publishedUpdate().isResync()).isTrue();
+    }
+    
+    @Test
+    void rebuildReadsTypesAndCoordinatesFromTheSource() {
+        sourceRows.add(sourceRow(REPORT_ID, "SUBMITTED", "VERBAL,PHYSICAL"));
+        Map<String, Object> unplaced = sourceRow(new UUID(0, 1), "SUBMITTED", null);
+        unplaced.put("latitude", null);
+        unplaced.put("longitude", null);
+        sourceRows.add(unplaced);
+        List<ReportAggregationState> saved = new ArrayList<>();
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0)))
+            .when(stateRepository).saveAllFromRebuild(anyList());
+        when(stateRepository.currentTimestamp()).thenReturn(LocalDateTime.now());
+        
+        aggregationService.rebuild();
+        
+        assertThat(saved).hasSize(2);
+        assertThat(saved.get(0).incidentTypes()).containsExactly("VERBAL", "PHYSICAL");
+        assertThat(saved.get(0).geohash()).isEqualTo("dp3wjz");
+        assertThat(saved.get(0).month()).isEqualTo(MARCH);
+        assertThat(saved.get(1).incidentTypes()).isEmpty();
+        assertThat(saved.get(1).geohash()).isNull();
+    }
+    
+    private LiveUpdate publishedUpdate() {
+        ArgumentCaptor<LiveUpdate> update = ArgumentCaptor.forClass(LiveUpdate.class);
+        verify(eventPublisher).publishEvent(update.capture());
+        return update.getValue();
+    }
+    
+    private static ReportStatusChangedEvent event(String status, Set<String> types, LocalDateTime occurredAt) {
+        return ReportStatusChangedEvent.builder()
+            .eventId(UUID.randomUUID())
+            .reportId(REPORT_ID)
+            .status(status)
+            .incidentTypes(types)
+            .state("IL")
+            .geohash(CHICAGO)
+            .createdAt(CREATED_AT)
+            .occurredAt(occurredAt)
+            .build();
+    }
+    
+    private static ReportAggregationState unseen() {
+        return new ReportAggregationState(REPORT_ID, false, Set.of(), null, null, null, null, null, null);
+    }
+    
+    private static ReportAggregationState state(boolean counted, Set<String> types, String status, LocalDateTime updatedAt) {
+        return new ReportAggregationState(REPORT_ID, counted, types, MARCH, "IL", "dp3wjz", status, null, updatedAt);
+    }
+    
+    private static Map<String, Object> sourceRow(UUID id, String status, String incidentTypes) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("status", status);
+        row.put("state", "IL");
+        row.put("latitude", 41.8781);
+        row.put("longitude", -87.6298);
+        row.put("time_label", "MORNING");
+        row.put("created_at", Timestamp.valueOf(CREATED_AT));
+        row.put("updated_at", Timestamp.valueOf(CREATED_AT.plusHours(1)));
+        row.put("incident_types", incidentTypes);
+        return row;
+    }
+    
+    /**
+     * A forward-only result set over the rows, enough for a row callback.
+     */
+    private static ResultSet resultSet(List<Map<String, Object>> rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        AtomicInteger cursor = new AtomicInteger(-1);
+        Object[] last = {null};
+        when(rs.next()).thenAnswer(invocation -> cursor.incrementAndGet() < rows.size());
+        when(rs.wasNull()).thenAnswer(invocation -> last[0] == null);
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            last[0] = rows.get(cursor.get()).get(invocation.<String>getArgument(0));
+            return (String) last[0];
+        });
+        when(rs.getDouble(anyString())).thenAnswer(invocation -> {
+            last[0] = rows.get(cursor.get()).get(invocation.<String>getArgument(0));
+            return last[0] != null ? (Double) last[0] : 0.0;
+        });
+        when(rs.getTimestamp(anyString())).thenAnswer(invocation -> {
+            last[0] = rows.get(cursor.get()).get(invocation.<String>getArgument(0));
+            return (Timestamp) last[0];
+        });
+        when(rs.getObject(eq("id"), eq(UUID.class))).thenAnswer(invocation -> rows.get(cursor.get()).get("id"));
+        return rs;
+    }
+}
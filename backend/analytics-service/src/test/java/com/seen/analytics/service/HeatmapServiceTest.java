@@ -0,0 +1,75 @@
+package com.seen.analytics.service;
+
+import com.seen.analytics.dto.HeatmapDto;
+import com.seen.analytics.repository.GeoCellRepository;
+import com.seen.analytics.repository.GeoCellRepository.GeoCellRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HeatmapServiceTest {
+    
+    private GeoCellRepository geoCellRepository;
+    private HeatmapService heatmapService;
+    
+    @BeforeEach
+    void setUp() {
+        geoCellRepository = mock(GeoCellRepository.class);
+        when(geoCellRepository.findInBox(anyInt(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyLong()))
+            .thenReturn(List.of(new GeoCellRow("dp3wj", 41.87, -87.63, 12)));
+        heatmapService = new HeatmapService(geoCellRepository, 5);
+    }
+    
+    @ParameterizedTest
+    @CsvSource({"0, 1", "2, 2", "5, 3", "10, 5", "12, 6", "22, 6"})
+    void cellsNarrowWithZoomUpToTheStoredPrecision(int zoom, int precision) {
+        HeatmapDto heatmap = heatmapService.getHeatmap("-180,-90,180,90", zoom);
+        
+        assertThat(heatmap.getPrecision()).isEqualTo(precision);
+        verify(geoCellRepository).findInBox(precision, -90, -180, 90, 180, 5);
+    }
+    
+    @Test
+    void returnsCellCentresAndCounts() {
+        HeatmapDto heatmap = heatmapService.getHeatmap("-88,41,-87,42", 8);
+        
+        assertThat(heatmap.getCells()).singleElement().satisfies(cell -> {
+            assertThat(cell.getGeohash()).isEqualTo("dp3wj");
+            assertThat(cell.getLatitude()).isEqualTo(41.87);
+            assertThat(cell.getLongitude()).isEqualTo(-87.63);
+            assertThat(cell.getCount()).isEqualTo(12L);
+        });
+    }
+    
+    @Test
+    void boxAcrossTheAntimeridianIsPassedThroughUnchanged() {
+        heatmapService.getHeatmap("170,-20,-170,20", 4);
+        
+        verify(geoCellRepository).findInBox(3, -20, 170, 20, -170, 5);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"1,2,3", "a,b,c,d", "-10,50,10,40", "-10,-95,10,10", "-190,0,10,10"})
+    void malformedOrOutOfRangeBoxesAreRejected(String bbox) {
+        assertThatThrownBy(() -> heatmapService.getHeatmap(bbox, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void zoomOutsideTheMapRangeIsRejected() {
+        assertThatThrownBy(() -> heatmapService.getHeatmap("-1,-1,1,1", 23)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> heatmapService.getHeatmap("-1,-1,1,1", -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,9 +1,14 @@
 package com.seen.auth;
 
+import com.seen.concurrency.VirtualThreadConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@Import(VirtualThreadConfig.class)
 public class AuthApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package com.seen.auth.config;
+
+import com.seen.auth.security.RevocationSync;
+import com.seen.auth.service.UserCache;
+import com.seen.revocation.TokenRevocationCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+    
+    @Bean
+    public TokenRevocationCache tokenRevocationCache(@Value("${jwt.refresh-expiration:604800000}") long maxTokenLifetimeMillis) {
+        return new TokenRevocationCache(maxTokenLifetimeMillis);
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            RevocationSync revocationSync,
+            UserCache userCache) {
+        
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(revocationSync, ChannelTopic.of(TokenRevocationCache.CHANNEL));
+        container.addMessageListener(userCache, ChannelTopic.of(UserCache.CHANNEL));
+        return container;
+    }
+}
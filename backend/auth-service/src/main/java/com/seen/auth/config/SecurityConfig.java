@@ -1,34 +1,52 @@
 package com.seen.auth.config;
 
+import com.seen.identity.IdentityEnvelopeFilter;
+import com.seen.identity.IdentityEnvelopeVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public IdentityEnvelopeVerifier identityEnvelopeVerifier(
+            @Value("${identity.envelope.secret}") String secret,
+            MeterRegistry meterRegistry) {
+        return new IdentityEnvelopeVerifier(secret, "auth", meterRegistry);
+    }
+    
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, IdentityEnvelopeVerifier verifier) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Authenticated callers arrive with the gateway's signed identity envelope
+            .addFilterBefore(new IdentityEnvelopeFilter(verifier), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/auth/register", "/auth/login", "/auth/verify-email").permitAll()
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .anyRequest().authenticated()
             );
-            
+        
         return http.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.seen.auth.dto;
+
+import com.seen.auth.entity.User;
+import com.seen.auth.entity.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What the user cache keeps of a {@link User}. Credentials are left out, so a
+ * password change never has to wait for a cached copy to be evicted.
+ */
+public record CachedUserDto(
+        UUID id,
+        String email,
+        String firstName,
+        String lastName,
+        UserRole role,
+        boolean emailVerified,
+        boolean twoFactorEnabled,
+        LocalDateTime createdAt,
+        LocalDateTime lastLoginAt) {
+    
+    public static CachedUserDto from(User user) {
+        return new CachedUserDto(
+            user.getId(),
+            user.getEmail(),
+            user.getProfile() != null ? user.getProfile().getFirstName() : null,
+            user.getProfile() != null ? user.getProfile().getLastName() : null,
+            user.getRole(),
+            Boolean.TRUE.equals(user.getEmailVerified()),
+            Boolean.TRUE.equals(user.getTwoFactorEnabled()),
+            user.getCreatedAt(),
+            user.getLastLoginAt());
+    }
+}
@@ -1,5 +1,6 @@
 package com.seen.auth.dto;
 
+import com.seen.auth.entity.User;
 import lombok.Builder;
 import lombok.Data;
 
@@ -18,4 +19,32 @@ public class UserResponseDto {
     private Boolean twoFactorEnabled;
     private LocalDateTime createdAt;
     private LocalDateTime lastLoginAt;
+    
+    public static UserResponseDto from(User user) {
+        return UserResponseDto.builder()
+            .id(user.getId())
+            .email(user.getEmail())
+            .firstName(user.getProfile() != null ? user.getProfile().getFirstName() : null)
+            .lastName(user.getProfile() != null ? user.getProfile().getLastName() : null)
+            .role(user.getRole().name())
+            .emailVerified(user.getEmailVerified())
+            .twoFactorEnabled(user.getTwoFactorEnabled())
+            .createdAt(user.getCreatedAt())
+            .lastLoginAt(user.getLastLoginAt())
+            .build();
+    }
+    
+    public static UserResponseDto from(CachedUserDto user) {
+        return UserResponseDto.builder()
+            .id(user.id())
+            .email(user.email())
+            .firstName(user.firstName())
+            .lastName(user.lastName())
+            .role(user.role().name())
+            .emailVerified(user.emailVerified())
+            .twoFactorEnabled(user.twoFactorEnabled())
+            .createdAt(user.createdAt())
+            .lastLoginAt(user.lastLoginAt())
+            .build();
+    }
 }
\ No newline at end of file
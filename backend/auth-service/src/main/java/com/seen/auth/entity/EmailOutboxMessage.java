@@ -0,0 +1,48 @@
+package com.seen.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutboxMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(nullable = false)
+    private String recipient;
+    
+    @Column(nullable = false)
+    private String subject;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,5 @@
+package com.seen.auth.entity;
+
+public enum EmailOutboxStatus {
+    PENDING, SENT, DEAD
+}
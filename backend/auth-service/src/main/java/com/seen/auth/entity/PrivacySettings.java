@@ -0,0 +1,14 @@
+package com.seen.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrivacySettings {
+    private Boolean dataSharing = false;
+    private Boolean analyticsParticipation = true;
+    private Boolean contactConsent = false;
+}
@@ -1,5 +1,7 @@
 package com.seen.auth.entity;
 
+import com.seen.auth.service.UserCacheInvalidator;
+import com.seen.ids.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +12,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +20,7 @@ import java.util.UUID;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
     
     @Column(unique = true, nullable = false)
@@ -52,28 +55,3 @@ public class User {
     
     private LocalDateTime lastLoginAt;
 }
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class UserProfile {
-    private String firstName;
-    private String lastName;
-    private String phone;
-    private String timezone = "UTC";
-}
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class PrivacySettings {
-    private Boolean dataSharing = false;
-    private Boolean analyticsParticipation = true;
-    private Boolean contactConsent = false;
-}
-
-public enum UserRole {
-    USER, ADMIN, MODERATOR
-}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.seen.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private String firstName;
+    private String lastName;
+    private String phone;
+    private String timezone = "UTC";
+}
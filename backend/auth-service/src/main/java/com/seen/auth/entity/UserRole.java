@@ -0,0 +1,5 @@
+package com.seen.auth.entity;
+
+public enum UserRole {
+    USER, ADMIN, MODERATOR
+}
@@ -0,0 +1,29 @@
+package com.seen.auth.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Instant;
+import java.util.Map;
+
+@RestControllerAdvice
+@Slf4j
+public class GlobalExceptionHandler {
+    
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleHashingCapacityExceeded(HashingCapacityExceededException ex) {
+        log.warn("Rejecting request: {}", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(Map.of(
+                "success", false,
+                "message", ex.getMessage(),
+                "timestamp", Instant.now().toString()
+            ));
+    }
+}
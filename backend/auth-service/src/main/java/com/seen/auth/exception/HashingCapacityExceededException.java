@@ -0,0 +1,17 @@
+package com.seen.auth.exception;
+
+import java.time.Duration;
+
+public class HashingCapacityExceededException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public HashingCapacityExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,23 @@
+package com.seen.auth.repository;
+
+import com.seen.auth.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+    
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutboxMessage> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -2,8 +2,13 @@ package com.seen.auth.repository;
 
 import com.seen.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +18,33 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+    
+    // Read on every login instead of being cached with the rest of the user
+    @Query("SELECT u.passwordHash AS passwordHash, u.salt AS salt FROM User u WHERE u.id = :id")
+    Optional<Credentials> findCredentialsById(@Param("id") UUID id);
+    
+    // Column updates, so a stale detached User is never merged back over the row;
+    // they bypass @UpdateTimestamp and UserCacheInvalidator, so callers invalidate UserCache
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.lastLoginAt = :lastLoginAt, u.updatedAt = LOCAL DATETIME WHERE u.id = :id")
+    int updateLastLoginAt(@Param("id") UUID id, @Param("lastLoginAt") LocalDateTime lastLoginAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash, u.updatedAt = LOCAL DATETIME WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") UUID id, @Param("passwordHash") String passwordHash);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.emailVerified = true, u.updatedAt = LOCAL DATETIME WHERE u.id = :id")
+    int markEmailVerified(@Param("id") UUID id);
+    
+    interface Credentials {
+        
+        String getPasswordHash();
+        
+        String getSalt();
+    }
+}
@@ -1,8 +1,11 @@
 package com.seen.auth.security;
 
-import com.seen.auth.entity.User;
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.revocation.TokenDigest;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -24,49 +27,56 @@ public class JwtTokenProvider {
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
     private final RedisTemplate<String, String> redisTemplate;
+    private final RevocationSync revocationSync;
+    private final MeterRegistry meterRegistry;
+    private final Timer verifyTimer;
+    private final Timer refreshStoreTimer;
     
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration}") long accessTokenExpiration,
             @Value("${jwt.refresh-expiration}") long refreshTokenExpiration,
-            RedisTemplate<String, String> redisTemplate) {
+            RedisTemplate<String, String> redisTemplate,
+            RevocationSync revocationSync,
+            MeterRegistry meterRegistry) {
         
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.accessTokenExpiration = accessTokenExpiration;
         this.refreshTokenExpiration = refreshTokenExpiration;
         this.redisTemplate = redisTemplate;
+        this.revocationSync = revocationSync;
+        this.meterRegistry = meterRegistry;
+        this.verifyTimer = meterRegistry.timer("auth.jwt.verify");
+        this.refreshStoreTimer = meterRegistry.timer("auth.redis", "operation", "refresh_token.store");
     }
     
-    public String generateAccessToken(User user) {
+    public String generateAccessToken(CachedUserDto user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
         
-        return Jwts.builder()
-            .setSubject(user.getId().toString())
+        return sign("access", Jwts.builder()
+            .setSubject(user.id().toString())
             .setIssuedAt(now)
             .setExpiration(expiryDate)
-            .claim("email", user.getEmail())
-            .claim("roles", List.of(user.getRole().name()))
-            .claim("type", "access")
-            .signWith(key, SignatureAlgorithm.HS512)
-            .compact();
+            .claim("email", user.email())
+            .claim("roles", List.of(user.role().name()))
+            .claim("type", "access"));
     }
     
-    public String generateRefreshToken(User user) {
+    public String generateRefreshToken(CachedUserDto user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration);
         
-        String token = Jwts.builder()
-            .setSubject(user.getId().toString())
+        String token = sign("refresh", Jwts.builder()
+            .setSubject(user.id().toString())
             .setIssuedAt(now)
             .setExpiration(expiryDate)
-            .claim("type", "refresh")
-            .signWith(key, SignatureAlgorithm.HS512)
-            .compact();
-            
+            .claim("type", "refresh"));
+        
         // Store refresh token in Redis
-        String redisKey = "refresh_token:" + user.getId();
-        redisTemplate.opsForValue().set(redisKey, token, refreshTokenExpiration, TimeUnit.MILLISECONDS);
+        String redisKey = "refresh_token:" + user.id();
+        refreshStoreTimer.record(() ->
+            redisTemplate.opsForValue().set(redisKey, token, refreshTokenExpiration, TimeUnit.MILLISECONDS));
         
         return token;
     }
@@ -75,13 +85,11 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + TimeUnit.HOURS.toMillis(24)); // 24 hours
         
-        return Jwts.builder()
+        return sign("email_verification", Jwts.builder()
             .setSubject(userId.toString())
             .setIssuedAt(now)
             .setExpiration(expiryDate)
-            .claim("type", "email_verification")
-            .signWith(key, SignatureAlgorithm.HS512)
-            .compact();
+            .claim("type", "email_verification"));
     }
     
     public boolean validateToken(String token) {
@@ -91,10 +99,7 @@ public class JwtTokenProvider {
                 return false;
             }
             
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -104,12 +109,7 @@ public class JwtTokenProvider {
     
     public boolean validateEmailVerificationToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-                
+            Claims claims = parseClaims(token);
             return "email_verification".equals(claims.get("type"));
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid email verification token: {}", e.getMessage());
@@ -118,38 +118,38 @@ public class JwtTokenProvider {
     }
     
     public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
-            
-        return UUID.fromString(claims.getSubject());
+        return UUID.fromString(parseClaims(token).getSubject());
     }
     
     public void blacklistToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-                
-            Date expiration = claims.getExpiration();
-            long ttl = expiration.getTime() - System.currentTimeMillis();
-            
-            if (ttl > 0) {
-                String redisKey = "blacklisted_token:" + token;
-                redisTemplate.opsForValue().set(redisKey, "true", ttl, TimeUnit.MILLISECONDS);
-            }
+            Date expiration = parseClaims(token).getExpiration();
+            revocationSync.revoke(TokenDigest.of(token), expiration.getTime());
         } catch (JwtException e) {
             log.error("Error blacklisting token: {}", e.getMessage());
         }
     }
     
+    private String sign(String type, JwtBuilder builder) {
+        return meterRegistry.timer("auth.jwt.sign", "type", type)
+            .record(() -> builder.signWith(key, SignatureAlgorithm.HS512).compact());
+    }
+    
+    private Claims parseClaims(String token) {
+        Timer.Sample sample = Timer.start();
+        try {
+            return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        } finally {
+            sample.stop(verifyTimer);
+        }
+    }
+    
     private boolean isTokenBlacklisted(String token) {
-        String redisKey = "blacklisted_token:" + token;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(redisKey));
+        return revocationSync.isRevoked(TokenDigest.of(token));
     }
     
     public long getAccessTokenExpiration() {
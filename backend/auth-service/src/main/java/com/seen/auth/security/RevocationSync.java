@@ -0,0 +1,137 @@
+package com.seen.auth.security;
+
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link TokenRevocationCache} in step with Redis: revocations made
+ * here are stored and announced on the revocation channel, announcements from
+ * other instances are applied locally, and a full resync runs whenever the
+ * subscription is (re)established.
+ */
+@Component
+@Slf4j
+public class RevocationSync implements MessageListener, SubscriptionListener {
+    
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TokenRevocationCache revocationCache;
+    private final Timer storeTimer;
+    private final Timer resyncTimer;
+    
+    public RevocationSync(
+            RedisTemplate<String, String> redisTemplate,
+            TokenRevocationCache revocationCache,
+            MeterRegistry meterRegistry) {
+        
+        this.redisTemplate = redisTemplate;
+        this.revocationCache = revocationCache;
+        this.storeTimer = meterRegistry.timer("auth.redis", "operation", "revocation.store");
+        this.resyncTimer = meterRegistry.timer("auth.redis", "operation", "revocation.resync");
+    }
+    
+    public void revoke(String digest, long expiresAtMillis) {
+        long ttl = revocationCache.revoke(digest, expiresAtMillis);
+        if (ttl <= 0) {
+            return;
+        }
+        
+        storeTimer.record(() -> {
+            redisTemplate.opsForValue().set(TokenRevocationCache.key(digest), Long.toString(expiresAtMillis), ttl, TimeUnit.MILLISECONDS);
+            redisTemplate.convertAndSend(TokenRevocationCache.CHANNEL, TokenRevocationCache.message(digest, expiresAtMillis));
+        });
+    }
+    
+    public boolean isRevoked(String digest) {
+        return revocationCache.isRevoked(digest);
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        revocationCache.apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        resync();
+    }
+    
+    public void resync() {
+        resyncTimer.record(this::reload);
+    }
+    
+    private void reload() {
+        int loaded = 0;
+        ScanOptions options = ScanOptions.scanOptions()
+            .match(TokenRevocationCache.KEY_PATTERN)
+            .count(TokenRevocationCache.RESYNC_BATCH_SIZE)
+            .build();
+        
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> keys = new ArrayList<>(TokenRevocationCache.RESYNC_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == TokenRevocationCache.RESYNC_BATCH_SIZE) {
+                    loaded += load(keys);
+                    keys.clear();
+                }
+            }
+            loaded += load(keys);
+            log.info("Resynced {} revoked tokens from Redis", loaded);
+        } catch (Exception e) {
+            log.error("Failed to resync revoked tokens: {}", e.getMessage());
+        }
+    }
+    
+    private int load(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return 0;
+        }
+        
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (TokenRevocationCache.isLegacyKey(keys.get(i))) {
+                loaded += migrate(keys.get(i));
+            } else if (revocationCache.load(TokenRevocationCache.digestOf(keys.get(i)), value)) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+    
+    private int migrate(String legacyKey) {
+        Long ttl = redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS);
+        if (ttl == null || ttl == -2) {
+            return 0;
+        }
+        
+        TokenRevocationCache.LegacyEntry entry = revocationCache.migrate(legacyKey, ttl);
+        redisTemplate.opsForValue().set(entry.key(), Long.toString(entry.expiresAtMillis()), entry.ttlMillis(), TimeUnit.MILLISECONDS);
+        redisTemplate.delete(legacyKey);
+        revocationCache.revoke(entry.digest(), entry.expiresAtMillis());
+        log.info("Migrated legacy revocation entry to digest {}", entry.digest());
+        return 1;
+    }
+}
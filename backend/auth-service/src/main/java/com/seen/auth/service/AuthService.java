@@ -7,11 +7,13 @@ import com.seen.auth.exception.AuthenticationException;
 import com.seen.auth.exception.UserAlreadyExistsException;
 import com.seen.auth.repository.UserRepository;
 import com.seen.auth.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -23,10 +25,15 @@ import java.util.UUID;
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
     
+    // Hashes before the transaction opens, so no DB connection is held while waiting on the hashing pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponseDto register(RegisterRequestDto request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new UserAlreadyExistsException("User with email already exists");
@@ -37,7 +44,7 @@ public class AuthService {
         }
         
         String salt = UUID.randomUUID().toString();
-        String hashedPassword = passwordEncoder.encode(request.getPassword() + salt);
+        String hashedPassword = passwordHashingService.encode(request.getPassword() + salt);
         
         User user = User.builder()
             .email(request.getEmail())
@@ -49,44 +56,60 @@ public class AuthService {
             .createdAt(LocalDateTime.now())
             .build();
         
-        User savedUser = userRepository.save(user);
-        
-        // Send verification email
-        String verificationToken = jwtTokenProvider.generateEmailVerificationToken(savedUser.getId());
-        emailService.sendVerificationEmail(savedUser.getEmail(), verificationToken);
+        // Queue verification email in the same transaction; EmailOutboxDispatcher delivers it after commit
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(user);
+            String verificationToken = jwtTokenProvider.generateEmailVerificationToken(saved.getId());
+            emailService.queueVerificationEmail(saved.getEmail(), verificationToken);
+            return saved;
+        });
         
         log.info("User registered successfully: {}", savedUser.getEmail());
-        return mapToUserResponseDto(savedUser);
+        return UserResponseDto.from(savedUser);
     }
     
+    // No surrounding transaction: a DB connection must not be held while waiting on the hashing pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponseDto login(LoginRequestDto request) {
-        User user = userRepository.findByEmail(request.getEmail())
-            .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
+        CachedUserDto user = userCache.findByEmail(request.getEmail())
+            .orElseThrow(() -> rejected("invalid_credentials", "Invalid credentials"));
+        UserRepository.Credentials credentials = userRepository.findCredentialsById(user.id())
+            .orElseThrow(() -> rejected("invalid_credentials", "Invalid credentials"));
+        
+        String saltedPassword = request.getPassword() + credentials.getSalt();
+        if (!passwordHashingService.matches(saltedPassword, credentials.getPasswordHash())) {
+            throw rejected("invalid_credentials", "Invalid credentials");
+        }
         
-        String hashedPassword = passwordEncoder.encode(request.getPassword() + user.getSalt());
-        if (!hashedPassword.equals(user.getPasswordHash())) {
-            throw new AuthenticationException("Invalid credentials");
+        if (!user.emailVerified()) {
+            throw rejected("email_not_verified", "Email not verified");
         }
         
-        if (!user.getEmailVerified()) {
-            throw new AuthenticationException("Email not verified");
+        // Nothing cached holds the hash, so the cache needs no invalidation
+        if (passwordHashingService.needsRehash(credentials.getPasswordHash())) {
+            userRepository.updatePasswordHash(user.id(), passwordHashingService.encode(saltedPassword));
+            log.info("Rehashed password for user {} at configured bcrypt strength", user.id());
         }
         
         String accessToken = jwtTokenProvider.generateAccessToken(user);
         String refreshToken = jwtTokenProvider.generateRefreshToken(user);
         
-        // Update last login
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Update last login without invalidating: nothing cached depends on it, and
+        // the cached snapshot is shared, so only the response carries it
+        LocalDateTime lastLoginAt = LocalDateTime.now();
+        userRepository.updateLastLoginAt(user.id(), lastLoginAt);
+        
+        UserResponseDto userResponse = UserResponseDto.from(user);
+        userResponse.setLastLoginAt(lastLoginAt);
         
-        log.info("User logged in successfully: {}", user.getEmail());
+        log.info("User logged in successfully: {}", user.email());
         
         return LoginResponseDto.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
             .tokenType("Bearer")
             .expiresIn(jwtTokenProvider.getAccessTokenExpiration())
-            .user(mapToUserResponseDto(user))
+            .user(userResponse)
             .build();
     }
     
@@ -94,11 +117,11 @@ public class AuthService {
         String token = refreshToken.replace("Bearer ", "");
         
         if (!jwtTokenProvider.validateToken(token)) {
-            throw new AuthenticationException("Invalid refresh token");
+            throw rejected("invalid_token", "Invalid refresh token");
         }
         
         UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-        User user = userRepository.findById(userId)
+        CachedUserDto user = userCache.findById(userId)
             .orElseThrow(() -> new AuthenticationException("User not found"));
         
         String newAccessToken = jwtTokenProvider.generateAccessToken(user);
@@ -109,7 +132,7 @@ public class AuthService {
             .refreshToken(newRefreshToken)
             .tokenType("Bearer")
             .expiresIn(jwtTokenProvider.getAccessTokenExpiration())
-            .user(mapToUserResponseDto(user))
+            .user(UserResponseDto.from(user))
             .build();
     }
     
@@ -120,30 +143,26 @@ public class AuthService {
     
     public void verifyEmail(String token) {
         if (!jwtTokenProvider.validateEmailVerificationToken(token)) {
-            throw new AuthenticationException("Invalid verification token");
+            throw rejected("invalid_token", "Invalid verification token");
         }
         
         UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-        User user = userRepository.findById(userId)
+        CachedUserDto user = userCache.findById(userId)
             .orElseThrow(() -> new AuthenticationException("User not found"));
         
-        user.setEmailVerified(true);
-        userRepository.save(user);
+        if (user.emailVerified()) {
+            log.debug("Email already verified for user: {}", user.email());
+            return;
+        }
+        
+        userRepository.markEmailVerified(userId);
+        userCache.invalidateAfterCommit(userId, user.email());
         
-        log.info("Email verified for user: {}", user.getEmail());
+        log.info("Email verified for user: {}", user.email());
     }
     
-    private UserResponseDto mapToUserResponseDto(User user) {
-        return UserResponseDto.builder()
-            .id(user.getId())
-            .email(user.getEmail())
-            .firstName(user.getProfile() != null ? user.getProfile().getFirstName() : null)
-            .lastName(user.getProfile() != null ? user.getProfile().getLastName() : null)
-            .role(user.getRole().name())
-            .emailVerified(user.getEmailVerified())
-            .twoFactorEnabled(user.getTwoFactorEnabled())
-            .createdAt(user.getCreatedAt())
-            .lastLoginAt(user.getLastLoginAt())
-            .build();
+    private AuthenticationException rejected(String cause, String message) {
+        meterRegistry.counter("auth.requests.rejected", "cause", cause).increment();
+        return new AuthenticationException(message);
     }
 }
\ No newline at end of file
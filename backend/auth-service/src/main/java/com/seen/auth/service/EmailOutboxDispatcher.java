@@ -0,0 +1,165 @@
+package com.seen.auth.service;
+
+import com.seen.auth.entity.EmailOutboxMessage;
+import com.seen.auth.entity.EmailOutboxStatus;
+import com.seen.auth.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox in batches. Rows are claimed with a short lease
+ * under SKIP LOCKED, sent over a single SMTP connection per batch outside any
+ * transaction, and then marked sent, rescheduled with exponential backoff, or
+ * dead-lettered once they run out of attempts.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+    
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    
+    public EmailOutboxDispatcher(
+            EmailOutboxRepository emailOutboxRepository,
+            JavaMailSender mailSender,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.mail.username}") String fromEmail,
+            @Value("${app.email.outbox.batch-size:50}") int batchSize,
+            @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.email.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${app.email.outbox.max-backoff:PT1H}") Duration maxBackoff,
+            @Value("${app.email.outbox.lease:PT2M}") Duration lease) {
+        
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:PT5S}")
+    public void dispatch() {
+        int claimed;
+        do {
+            List<EmailOutboxMessage> batch = claimBatch();
+            claimed = batch.size();
+            if (!batch.isEmpty()) {
+                send(batch);
+                transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.saveAll(batch));
+            }
+        } while (claimed == batchSize);
+    }
+    
+    private List<EmailOutboxMessage> claimBatch() {
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> due = emailOutboxRepository.lockDueBatch(now, batchSize);
+            // Lease the rows so a crashed dispatcher's batch is retried rather than lost
+            due.forEach(message -> message.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+        return batch != null ? batch : Collections.emptyList();
+    }
+    
+    private void send(List<EmailOutboxMessage> batch) {
+        Map<SimpleMailMessage, EmailOutboxMessage> byMail = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : batch) {
+            byMail.put(toMailMessage(message), message);
+        }
+        
+        Map<Object, Exception> failures = Collections.emptyMap();
+        try {
+            // One call sends the whole batch over a single SMTP connection
+            mailSender.send(byMail.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = failAll(byMail, e);
+            }
+        } catch (MailException e) {
+            failures = failAll(byMail, e);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<SimpleMailMessage, EmailOutboxMessage> entry : byMail.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                markSent(entry.getValue(), now);
+            } else {
+                markFailed(entry.getValue(), failure, now);
+            }
+        }
+        
+        log.info("Email outbox batch dispatched: {} sent, {} failed", batch.size() - failures.size(), failures.size());
+    }
+    
+    private Map<Object, Exception> failAll(Map<SimpleMailMessage, EmailOutboxMessage> byMail, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        byMail.keySet().forEach(mail -> failures.put(mail, e));
+        return failures;
+    }
+    
+    private SimpleMailMessage toMailMessage(EmailOutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(fromEmail);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        return mail;
+    }
+    
+    private void markSent(EmailOutboxMessage message, LocalDateTime now) {
+        message.setStatus(EmailOutboxStatus.SENT);
+        message.setSentAt(now);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setLastError(null);
+    }
+    
+    private void markFailed(EmailOutboxMessage message, Exception failure, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(failure.getMessage());
+        
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxStatus.DEAD);
+            log.error("Email {} to {} dead-lettered after {} attempts: {}",
+                message.getId(), message.getRecipient(), attempts, failure.getMessage());
+            return;
+        }
+        
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        log.warn("Email {} to {} failed (attempt {}), retrying: {}",
+            message.getId(), message.getRecipient(), attempts, failure.getMessage());
+    }
+    
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
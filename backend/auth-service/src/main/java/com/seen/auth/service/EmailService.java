@@ -1,39 +1,41 @@
 package com.seen.auth.service;
 
+import com.seen.auth.entity.EmailOutboxMessage;
+import com.seen.auth.entity.EmailOutboxStatus;
+import com.seen.auth.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     
-    private final JavaMailSender mailSender;
-    
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
     
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
     
-    public void sendVerificationEmail(String toEmail, String verificationToken) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Verify Your Email - Seen Platform");
-            message.setText(buildVerificationEmailText(verificationToken));
-            
-            mailSender.send(message);
-            log.info("Verification email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send verification email to: {}", toEmail, e);
-            // In production, you might want to queue this for retry
-        }
+    // Joins the caller's transaction so the email is queued only if the registration commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueVerificationEmail(String toEmail, String verificationToken) {
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+            .recipient(toEmail)
+            .subject("Verify Your Email - Seen Platform")
+            .body(buildVerificationEmailText(verificationToken))
+            .status(EmailOutboxStatus.PENDING)
+            .attempts(0)
+            .nextAttemptAt(LocalDateTime.now())
+            .build();
+        
+        emailOutboxRepository.save(message);
+        log.debug("Verification email queued for: {}", toEmail);
     }
     
     private String buildVerificationEmailText(String verificationToken) {
@@ -48,4 +50,4 @@ public class EmailService {
             frontendUrl, verificationToken
         );
     }
-}
\ No newline at end of file
+}
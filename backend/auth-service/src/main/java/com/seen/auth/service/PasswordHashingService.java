@@ -0,0 +1,113 @@
+package com.seen.auth.service;
+
+import com.seen.auth.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt work on a bounded pool sized to the available cores. When the
+ * queue is full callers are rejected immediately instead of piling up on
+ * request threads.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+    
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+    
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final Duration retryAfter;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueTimer;
+    
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            @Value("${security.password.bcrypt-strength:12}") int strength,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.hashing.retry-after:PT1S}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.retryAfter = retryAfter;
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("password-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.meterRegistry = meterRegistry;
+        this.queueTimer = meterRegistry.timer("auth.password.hashing.queue");
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        
+        log.info("Password hashing pool started with {} threads, queue capacity {}, bcrypt strength {}",
+            poolSize, queueCapacity, strength);
+    }
+    
+    public String encode(String rawPassword) {
+        return submit("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit("matches", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+    
+    private <T> T submit(String operation, Callable<T> task) {
+        Timer hashingTimer = meterRegistry.timer("auth.password.hashing", "operation", operation);
+        Timer.Sample queued = Timer.start();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queued.stop(queueTimer);
+                return hashingTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.requests.rejected", "cause", "hashing_capacity").increment();
+            throw new HashingCapacityExceededException("Password hashing capacity exceeded", retryAfter);
+        }
+        
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
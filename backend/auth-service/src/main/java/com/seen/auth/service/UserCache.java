@@ -0,0 +1,293 @@
+package com.seen.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.entity.User;
+import com.seen.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-level cache of {@link User} snapshots for the refresh, login and
+ * verification lookups, held as {@link CachedUserDto} so no password hash or
+ * salt ever reaches Redis: a bounded in-process map in front of Redis in front of
+ * Postgres. Updates invalidate both levels after commit and announce the user
+ * ID on a pub/sub channel so every instance drops its local copy; a local copy
+ * that outlives a missed message is bounded by the local TTL.
+ * <p>
+ * A lookup that read the database before an invalidation could otherwise put
+ * the old user back after it, for the full Redis TTL. Invalidating leaves a
+ * short-lived marker instead, and refills are skipped at both levels while it
+ * exists; lookups in that window go to the database.
+ * <p>
+ * Returned snapshots are read-only; write through {@link UserRepository} and
+ * invalidate instead.
+ */
+@Component
+@Slf4j
+public class UserCache implements MessageListener, SubscriptionListener {
+    
+    public static final String CHANNEL = "user-invalidations";
+    private static final String ID_KEY_PREFIX = "user:v2:id:";
+    private static final String EMAIL_KEY_PREFIX = "user:v2:email:";
+    private static final String INVALIDATED_KEY_PREFIX = "user:v2:invalidated:";
+    // KEYS: marker, id key, email key; ARGV: snapshot, id, TTL in ms. Atomic, so a
+    // marker set between the check and the write cannot be missed
+    private static final RedisScript<Long> STORE_UNLESS_INVALIDATED = RedisScript.of("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+            return 0
+        end
+        redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])
+        redis.call('SET', KEYS[3], ARGV[2], 'PX', ARGV[3])
+        return 1
+        """, Long.class);
+    
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final Duration invalidationGuard;
+    private final Cache<UUID, Snapshot> users;
+    private final Cache<String, UUID> emails;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter skippedRefills;
+    private final Timer localStaleness;
+    private final Timer redisStaleness;
+    private final Timer redisGetTimer;
+    private final Timer redisPutTimer;
+    private final Timer invalidateTimer;
+    private final MeterRegistry meterRegistry;
+    
+    public UserCache(
+            UserRepository userRepository,
+            RedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.user-cache.local.maximum-size:10000}") long maximumSize,
+            @Value("${app.user-cache.local.ttl:PT1M}") Duration localTtl,
+            @Value("${app.user-cache.redis.ttl:PT10M}") Duration redisTtl,
+            @Value("${app.user-cache.redis.invalidation-guard:PT5S}") Duration invalidationGuard,
+            MeterRegistry meterRegistry) {
+        
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.invalidationGuard = invalidationGuard;
+        this.users = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+        this.emails = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(localTtl)
+            .build();
+        
+        this.meterRegistry = meterRegistry;
+        this.localHits = meterRegistry.counter("auth.user.cache.lookups", "level", "local");
+        this.redisHits = meterRegistry.counter("auth.user.cache.lookups", "level", "redis");
+        this.misses = meterRegistry.counter("auth.user.cache.lookups", "level", "database");
+        this.skippedRefills = meterRegistry.counter("auth.user.cache.refills.skipped");
+        this.localStaleness = meterRegistry.timer("auth.user.cache.staleness", "level", "local");
+        this.redisStaleness = meterRegistry.timer("auth.user.cache.staleness", "level", "redis");
+        this.redisGetTimer = meterRegistry.timer("auth.redis", "operation", "user_cache.get");
+        this.redisPutTimer = meterRegistry.timer("auth.redis", "operation", "user_cache.put");
+        this.invalidateTimer = meterRegistry.timer("auth.redis", "operation", "user_cache.invalidate");
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "auth.user.local");
+    }
+    
+    public Optional<CachedUserDto> findById(UUID id) {
+        Snapshot snapshot = cached(id);
+        if (snapshot != null) {
+            return Optional.of(snapshot.user());
+        }
+        
+        misses.increment();
+        return userRepository.findById(id).map(this::store);
+    }
+    
+    public Optional<CachedUserDto> findByEmail(String email) {
+        UUID id = emails.getIfPresent(email);
+        if (id == null) {
+            id = redisGet(EMAIL_KEY_PREFIX + email).map(this::parseId).orElse(null);
+        }
+        
+        // The index can point at a user whose email has since changed
+        Snapshot snapshot = id != null ? cached(id) : null;
+        if (snapshot != null && email.equals(snapshot.user().email())) {
+            emails.put(email, id);
+            return Optional.of(snapshot.user());
+        }
+        
+        misses.increment();
+        return userRepository.findByEmail(email).map(this::store);
+    }
+    
+    /**
+     * Drops the user from both levels and every instance once the current
+     * transaction commits, or immediately outside one. The email is the one
+     * before the update, if it changed.
+     */
+    public void invalidateAfterCommit(UUID id, String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(id, email);
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(id, email);
+            }
+        });
+    }
+    
+    public void invalidate(UUID id, String email) {
+        users.invalidate(id);
+        if (email != null) {
+            emails.invalidate(email);
+        }
+        
+        try {
+            invalidateTimer.record(() -> {
+                // Set before the delete and the message, so no refill can land after them
+                redisTemplate.opsForValue().set(INVALIDATED_KEY_PREFIX + id, "1", invalidationGuard);
+                redisTemplate.delete(email != null
+                    ? List.of(ID_KEY_PREFIX + id, EMAIL_KEY_PREFIX + email)
+                    : List.of(ID_KEY_PREFIX + id));
+                redisTemplate.convertAndSend(CHANNEL, id.toString());
+            });
+        } catch (RuntimeException e) {
+            // Other instances' local copies age out within the local TTL
+            log.error("Failed to invalidate cached user {}: {}", id, e.getMessage());
+        }
+        meterRegistry.counter("auth.user.cache.invalidations", "source", "local").increment();
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            UUID id = UUID.fromString(body);
+            users.invalidate(id);
+            // The message carries no email, and a stale entry would still resolve to this user
+            emails.asMap().values().removeIf(id::equals);
+            meterRegistry.counter("auth.user.cache.invalidations", "source", "remote").increment();
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed user invalidation message: {}", body);
+        }
+    }
+    
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        // Invalidations published while unsubscribed were missed
+        users.invalidateAll();
+        emails.invalidateAll();
+    }
+    
+    private Snapshot cached(UUID id) {
+        Snapshot snapshot = users.getIfPresent(id);
+        if (snapshot != null) {
+            localHits.increment();
+            localStaleness.record(snapshot.age(), TimeUnit.MILLISECONDS);
+            return snapshot;
+        }
+        
+        snapshot = redisGet(ID_KEY_PREFIX + id).map(this::parseSnapshot).orElse(null);
+        if (snapshot != null) {
+            redisHits.increment();
+            redisStaleness.record(snapshot.age(), TimeUnit.MILLISECONDS);
+            users.put(id, snapshot);
+        }
+        return snapshot;
+    }
+    
+    private CachedUserDto store(User entity) {
+        CachedUserDto user = CachedUserDto.from(entity);
+        Snapshot snapshot = new Snapshot(user, System.currentTimeMillis());
+        if (storeInRedis(snapshot)) {
+            users.put(user.id(), snapshot);
+            emails.put(user.email(), user.id());
+        } else {
+            skippedRefills.increment();
+        }
+        return user;
+    }
+    
+    /**
+     * False only if the user was invalidated moments ago; the local level is then
+     * skipped too. If Redis cannot be reached, the local copy is still kept.
+     */
+    private boolean storeInRedis(Snapshot snapshot) {
+        CachedUserDto user = snapshot.user();
+        try {
+            String json = objectMapper.writeValueAsString(snapshot);
+            Long stored = redisPutTimer.record(() -> redisTemplate.execute(STORE_UNLESS_INVALIDATED,
+                List.of(INVALIDATED_KEY_PREFIX + user.id(), ID_KEY_PREFIX + user.id(),
+                    EMAIL_KEY_PREFIX + user.email()),
+                json, user.id().toString(), Long.toString(redisTtl.toMillis())));
+            return stored == null || stored != 0;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to cache user {} in Redis: {}", user.id(), e.getMessage());
+            return true;
+        }
+    }
+    
+    private Optional<String> redisGet(String key) {
+        try {
+            return Optional.ofNullable(redisGetTimer.record(() -> redisTemplate.opsForValue().get(key)));
+        } catch (RuntimeException e) {
+            log.warn("User cache lookup in Redis failed, falling back to the database: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    private Snapshot parseSnapshot(String json) {
+        try {
+            Snapshot snapshot = objectMapper.readValue(json, Snapshot.class);
+            return snapshot.user() != null && snapshot.user().id() != null ? snapshot : null;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Ignoring unreadable cached user: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    record Snapshot(CachedUserDto user, long loadedAt) {
+        
+        long age() {
+            return Math.max(0, System.currentTimeMillis() - loadedAt);
+        }
+    }
+}
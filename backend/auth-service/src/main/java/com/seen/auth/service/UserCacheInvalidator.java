@@ -0,0 +1,27 @@
+package com.seen.auth.service;
+
+import com.seen.auth.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Evicts a user from {@link UserCache} whenever the entity itself is updated
+ * or removed, e.g. role or profile changes. Created by Hibernate through
+ * Spring's bean container; the cache is looked up lazily since it depends on
+ * the repository this listener is built for.
+ */
+public class UserCacheInvalidator {
+    
+    private final ObjectProvider<UserCache> userCache;
+    
+    public UserCacheInvalidator(ObjectProvider<UserCache> userCache) {
+        this.userCache = userCache;
+    }
+    
+    @PostUpdate
+    @PostRemove
+    void invalidate(User user) {
+        userCache.getObject().invalidateAfterCommit(user.getId(), user.getEmail());
+    }
+}
@@ -0,0 +1,6 @@
+-- uuid_generate_v7() comes from the time-ordered-ids beforeMigrate callback.
+--
+-- Existing version 4 ids are left alone: user ids are the subject of issued tokens
+-- and the owner id of every report, and the two versions coexist in one uuid column.
+-- Nothing orders users by id, so the mix only costs index locality for old rows.
+ALTER TABLE users ALTER COLUMN id SET DEFAULT uuid_generate_v7();
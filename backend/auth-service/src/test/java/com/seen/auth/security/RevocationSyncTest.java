@@ -0,0 +1,116 @@
+package com.seen.auth.security;
+
+import com.seen.revocation.TokenDigest;
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RevocationSyncTest {
+    
+    private static final long MAX_TOKEN_LIFETIME_MILLIS = 604_800_000;
+    
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private RevocationSync revocationSync;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        revocationSync = newInstance(redisTemplate);
+    }
+    
+    @Test
+    void revokeStoresTheDigestWithTheTokensRemainingLifetimeAndAnnouncesIt() {
+        String digest = TokenDigest.of("header.payload.signature");
+        long expiresAtMillis = System.currentTimeMillis() + 60_000;
+        
+        revocationSync.revoke(digest, expiresAtMillis);
+        
+        assertThat(revocationSync.isRevoked(digest)).isTrue();
+        verify(valueOperations).set(eq(TokenRevocationCache.key(digest)), eq(Long.toString(expiresAtMillis)),
+            longThat(ttl -> ttl > 0 && ttl <= 60_000), eq(TimeUnit.MILLISECONDS));
+        verify(redisTemplate).convertAndSend(TokenRevocationCache.CHANNEL, TokenRevocationCache.message(digest, expiresAtMillis));
+    }
+    
+    @Test
+    void expiredTokenIsNeitherStoredNorAnnounced() {
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        revocationSync.revoke(digest, System.currentTimeMillis() - 1);
+        
+        assertThat(revocationSync.isRevoked(digest)).isFalse();
+        verify(valueOperations, never()).set(anyString(), anyString(), anyLong(), any());
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+    
+    @Test
+    void revocationIsPropagatedToOtherInstances() {
+        RevocationSync otherInstance = newInstance(redisTemplate);
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        revocationSync.revoke(digest, System.currentTimeMillis() + 60_000);
+        
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(TokenRevocationCache.CHANNEL), published.capture());
+        assertThat(otherInstance.isRevoked(digest)).isFalse();
+        
+        otherInstance.onMessage(new DefaultMessage(
+            TokenRevocationCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            published.getValue().getBytes(StandardCharsets.UTF_8)), null);
+        
+        assertThat(otherInstance.isRevoked(digest)).isTrue();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void resyncLoadsStoredRevocationsAndMigratesLegacyKeys() {
+        String digest = TokenDigest.of("header.payload.current");
+        String legacyToken = "header.payload.legacy";
+        String legacyKey = TokenRevocationCache.KEY_PREFIX + legacyToken;
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(TokenRevocationCache.key(digest), legacyKey);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(valueOperations.multiGet(List.of(TokenRevocationCache.key(digest), legacyKey)))
+            .thenReturn(List.of(Long.toString(System.currentTimeMillis() + 60_000), "true"));
+        when(redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS)).thenReturn(30_000L);
+        
+        revocationSync.onChannelSubscribed(TokenRevocationCache.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+        
+        String legacyDigest = TokenDigest.of(legacyToken);
+        assertThat(revocationSync.isRevoked(digest)).isTrue();
+        assertThat(revocationSync.isRevoked(legacyDigest)).isTrue();
+        verify(valueOperations).set(eq(TokenRevocationCache.key(legacyDigest)), anyString(), eq(30_000L), eq(TimeUnit.MILLISECONDS));
+        verify(redisTemplate).delete(legacyKey);
+        verify(cursor).close();
+    }
+    
+    private static RevocationSync newInstance(RedisTemplate<String, String> redisTemplate) {
+        return new RevocationSync(redisTemplate, new TokenRevocationCache(MAX_TOKEN_LIFETIME_MILLIS), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,130 @@
+package com.seen.auth.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.seen.auth.entity.EmailOutboxMessage;
+import com.seen.auth.entity.EmailOutboxStatus;
+import com.seen.auth.repository.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTest {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+    
+    private EmailOutboxRepository repository;
+    
+    @BeforeEach
+    void setUp() {
+        repository = mock(EmailOutboxRepository.class);
+    }
+    
+    @Test
+    void sendsDueMessagesAndMarksThemSent() throws Exception {
+        EmailOutboxMessage first = pending("first@seen.test", 0);
+        EmailOutboxMessage second = pending("second@seen.test", 0);
+        when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(first, second), List.of());
+        
+        dispatcher(ServerSetupTest.SMTP.getPort()).dispatch();
+        
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("Verify Your Email - Seen Platform");
+        assertThat(List.of(first, second)).allSatisfy(message -> {
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getSentAt()).isNotNull();
+        });
+    }
+    
+    @Test
+    void failedSendIsRetriedWithExponentialBackoff() throws Exception {
+        EmailOutboxMessage message = pending("retry@seen.test", 0);
+        when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message), List.of());
+        EmailOutboxDispatcher dispatcher = dispatcher(unusedPort());
+        
+        dispatcher.dispatch();
+        
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(message.getAttempts()).isEqualTo(1);
+        assertThat(message.getLastError()).isNotBlank();
+        assertThat(message.getNextAttemptAt())
+            .isCloseTo(LocalDateTime.now().plus(INITIAL_BACKOFF), within(5, ChronoUnit.SECONDS));
+        
+        when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message), List.of());
+        dispatcher.dispatch();
+        
+        assertThat(message.getAttempts()).isEqualTo(2);
+        assertThat(message.getNextAttemptAt())
+            .isCloseTo(LocalDateTime.now().plus(INITIAL_BACKOFF.multipliedBy(2)), within(5, ChronoUnit.SECONDS));
+    }
+    
+    @Test
+    void deadLettersAfterTheLastAttempt() throws Exception {
+        EmailOutboxMessage message = pending("dead@seen.test", MAX_ATTEMPTS - 1);
+        when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message), List.of());
+        
+        dispatcher(unusedPort()).dispatch();
+        
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.DEAD);
+        assertThat(message.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+    
+    private EmailOutboxDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        properties.put("mail.smtp.writetimeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+        
+        return new EmailOutboxDispatcher(repository, mailSender, mock(PlatformTransactionManager.class),
+            "noreply@seen.test", 50, MAX_ATTEMPTS, INITIAL_BACKOFF, Duration.ofHours(1), Duration.ofMinutes(2));
+    }
+    
+    private static EmailOutboxMessage pending(String recipient, int attempts) {
+        return EmailOutboxMessage.builder()
+            .id(UUID.randomUUID())
+            .recipient(recipient)
+            .subject("Verify Your Email - Seen Platform")
+            .body("Welcome to Seen!")
+            .status(EmailOutboxStatus.PENDING)
+            .attempts(attempts)
+            .nextAttemptAt(LocalDateTime.now())
+            .build();
+    }
+    
+    // Nothing listens on it once the socket is closed, so every send fails to connect
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.seen.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.entity.User;
+import com.seen.auth.entity.UserRole;
+import com.seen.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+    
+    private static final UUID ID = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-2c6b8e0d1a57");
+    private static final String EMAIL = "jordan@seen.test";
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private UserRepository userRepository;
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    // Stands in for Redis; the store script is emulated against it
+    private Map<String, String> redis;
+    private UserCache cache;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        redis = new ConcurrentHashMap<>();
+        
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.delete(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return keys.stream().filter(key -> redis.remove(key) != null).count();
+        });
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            if (redis.containsKey(keys.get(0))) {
+                return 0L;
+            }
+            redis.put(keys.get(1), invocation.getArgument(2));
+            redis.put(keys.get(2), invocation.getArgument(3));
+            return 1L;
+        });
+        
+        cache = newCache();
+    }
+    
+    @Test
+    void missLoadsFromDatabaseAndRepeatLookupsStayLocal() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user(EMAIL)));
+        
+        CachedUserDto first = cache.findById(ID).orElseThrow();
+        CachedUserDto second = cache.findById(ID).orElseThrow();
+        
+        assertThat(first.email()).isEqualTo(EMAIL);
+        assertThat(first.role()).isEqualTo(UserRole.USER);
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findById(ID);
+        verify(valueOperations, times(1)).get(anyString());
+    }
+    
+    @Test
+    void cachedJsonCarriesNoCredentials() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user(EMAIL)));
+        
+        cache.findById(ID);
+        
+        String json = redis.values().stream().filter(value -> value.startsWith("{")).findFirst().orElseThrow();
+        assertThat(json).contains(EMAIL).doesNotContain("passwordHash", "salt", "$2a$12$");
+    }
+    
+    @Test
+    void anotherInstanceIsServedFromRedis() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(EMAIL)));
+        cache.findByEmail(EMAIL);
+        
+        CachedUserDto user = newCache().findByEmail(EMAIL).orElseThrow();
+        
+        assertThat(user.id()).isEqualTo(ID);
+        assertThat(user.emailVerified()).isTrue();
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+    
+    @Test
+    void remoteInvalidationAlsoDropsTheEmailIndex() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(EMAIL)));
+        cache.findByEmail(EMAIL);
+        // Another instance changed the user and cleared Redis
+        redis.clear();
+        
+        cache.onMessage(new DefaultMessage(UserCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            ID.toString().getBytes(StandardCharsets.UTF_8)), null);
+        cache.findByEmail(EMAIL);
+        
+        // The second lookup asks Redis for the index again instead of trusting the local one
+        verify(valueOperations, times(2)).get(endsWith(EMAIL));
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+    
+    @Test
+    void invalidationDropsBothLevelsAndAnnouncesTheUser() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user(EMAIL)));
+        cache.findById(ID);
+        
+        cache.invalidate(ID, EMAIL);
+        cache.findById(ID);
+        
+        verify(redisTemplate).convertAndSend(UserCache.CHANNEL, ID.toString());
+        verify(userRepository, times(2)).findById(ID);
+    }
+    
+    @Test
+    void staleReadFinishingAfterAnInvalidationIsNotCached() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        User before = user(EMAIL);
+        User after = user(EMAIL);
+        after.setEmailVerified(false);
+        when(userRepository.findById(ID))
+            .thenAnswer(invocation -> {
+                // Read the row, then lose the race against the update's invalidation
+                reading.countDown();
+                invalidated.await(5, TimeUnit.SECONDS);
+                return Optional.of(before);
+            })
+            .thenReturn(Optional.of(after));
+        
+        CompletableFuture<Optional<CachedUserDto>> staleLookup = CompletableFuture.supplyAsync(() -> cache.findById(ID));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate(ID, EMAIL);
+        invalidated.countDown();
+        
+        // The caller that raced still gets what it read, but nobody else does
+        assertThat(staleLookup.get(5, TimeUnit.SECONDS).orElseThrow().emailVerified()).isTrue();
+        assertThat(redis).containsOnlyKeys("user:v2:invalidated:" + ID);
+        assertThat(cache.findById(ID).orElseThrow().emailVerified()).isFalse();
+        assertThat(newCache().findById(ID).orElseThrow().emailVerified()).isFalse();
+    }
+    
+    @Test
+    void redisOutageFallsBackToTheDatabaseAndKeepsTheLocalCopy() {
+        doThrow(new IllegalStateException("connection refused")).when(valueOperations).get(anyString());
+        doThrow(new IllegalStateException("connection refused"))
+            .when(redisTemplate).execute(any(RedisScript.class), anyList(), any(), any(), any());
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user(EMAIL)));
+        
+        assertThat(cache.findById(ID)).isPresent();
+        assertThat(cache.findById(ID)).isPresent();
+        
+        verify(userRepository, times(1)).findById(ID);
+    }
+    
+    private UserCache newCache() {
+        return new UserCache(userRepository, redisTemplate, objectMapper, 100,
+            Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+    
+    private static User user(String email) {
+        return User.builder()
+            .id(ID)
+            .email(email)
+            .passwordHash("$2a$12$abcdefghijklmnopqrstuu5z3q0yX8mR1cN2vW4eT6kL8pQ0sD2fG")
+            .salt("c2FsdC1ieXRlcw==")
+            .role(UserRole.USER)
+            .emailVerified(true)
+            .twoFactorEnabled(false)
+            .build();
+    }
+}
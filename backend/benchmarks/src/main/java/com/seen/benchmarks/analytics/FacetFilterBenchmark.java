@@ -0,0 +1,114 @@
+package com.seen.benchmarks.analytics;
+
+import com.seen.analytics.index.FacetCounts;
+import com.seen.analytics.index.FacetQuery;
+import com.seen.analytics.index.IndexedReport;
+import com.seen.analytics.index.ReportFacet;
+import com.seen.analytics.index.ReportFacetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of dashboard and Explore queries against the analytics facet index
+ * at 1M and 10M synthetic reports spread over ten years, 50 states and the
+ * real incident type, time-of-day and status values. The 10M case needs a large
+ * heap, hence the forked -Xmx.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@Threads(1)
+public class FacetFilterBenchmark {
+    
+    private static final List<String> INCIDENT_TYPES = List.of(
+        "WORKPLACE_BIAS", "POLICE_ENCOUNTER", "HOUSING_DISCRIMINATION", "PUBLIC_SPACE", "EDUCATION", "ONLINE", "OTHER");
+    private static final List<String> TIMES_OF_DAY = List.of("MORNING", "AFTERNOON", "EVENING", "NIGHT");
+    private static final List<String> STATUSES = List.of("DRAFT", "SUBMITTED", "UNDER_REVIEW", "RESOLVED", "ARCHIVED");
+    private static final Set<String> COUNTED_STATUSES = Set.of("SUBMITTED", "UNDER_REVIEW", "RESOLVED");
+    private static final int STATES = 50;
+    private static final LocalDate FIRST_MONTH = LocalDate.of(2016, 1, 1);
+    private static final int MONTHS = 120;
+    
+    @Param({"1000000", "10000000"})
+    private int reports;
+    
+    private ReportFacetIndex index;
+    private FacetQuery dashboardQuery;
+    private FacetQuery exploreQuery;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ReportFacetIndex();
+        for (int i = 0; i < reports; i++) {
+            Set<String> types = new HashSet<>();
+            types.add(INCIDENT_TYPES.get(random.nextInt(INCIDENT_TYPES.size())));
+            if (random.nextInt(4) == 0) {
+                types.add(INCIDENT_TYPES.get(random.nextInt(INCIDENT_TYPES.size())));
+            }
+            index.upsert(new IndexedReport(
+                new UUID(random.nextLong(), random.nextLong()),
+                types,
+                "STATE_" + skewed(random, STATES),
+                ReportFacetIndex.monthKey(FIRST_MONTH.plusMonths(random.nextInt(MONTHS))),
+                TIMES_OF_DAY.get(random.nextInt(TIMES_OF_DAY.size())),
+                STATUSES.get(random.nextInt(STATUSES.size())),
+                i));
+        }
+        
+        dashboardQuery = FacetQuery.all()
+            .where(ReportFacet.STATUS, COUNTED_STATUSES)
+            .where(ReportFacet.INCIDENT_TYPE, List.of("WORKPLACE_BIAS", "HOUSING_DISCRIMINATION"))
+            .where(ReportFacet.STATE, List.of("STATE_0", "STATE_1", "STATE_7"))
+            .months(LocalDate.of(2020, 1, 1), LocalDate.of(2022, 12, 1));
+        exploreQuery = FacetQuery.all()
+            .where(ReportFacet.STATUS, COUNTED_STATUSES)
+            .where(ReportFacet.TIME_OF_DAY, List.of("NIGHT"))
+            .months(LocalDate.of(2023, 1, 1), null);
+    }
+    
+    /** Unfiltered public dashboard: totals by type, month and state. */
+    @Benchmark
+    public FacetCounts publicDashboard() {
+        return index.summarize(FacetQuery.all().where(ReportFacet.STATUS, COUNTED_STATUSES),
+            ReportFacet.INCIDENT_TYPE, ReportFacet.MONTH, ReportFacet.STATE);
+    }
+    
+    /** getAggregatedStats with a date range, two incident types and three states. */
+    @Benchmark
+    public FacetCounts filteredDashboard() {
+        return index.summarize(dashboardQuery, ReportFacet.INCIDENT_TYPE, ReportFacet.MONTH, ReportFacet.STATE);
+    }
+    
+    /** Explore page: counts for every facet, each excluding its own constraint. */
+    @Benchmark
+    public FacetCounts explore() {
+        return index.explore(exploreQuery);
+    }
+    
+    /** Populous states get more reports, as in real data. */
+    private static int skewed(Random random, int bound) {
+        return (int) (bound * Math.pow(random.nextDouble(), 2));
+    }
+}
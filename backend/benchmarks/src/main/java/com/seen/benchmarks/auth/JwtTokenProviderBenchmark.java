@@ -0,0 +1,78 @@
+package com.seen.benchmarks.auth;
+
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.entity.User;
+import com.seen.auth.entity.UserRole;
+import com.seen.auth.security.JwtTokenProvider;
+import com.seen.auth.security.RevocationSync;
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of minting and validating an access token in auth-service. Neither path
+ * touches Redis: signing is pure HMAC and the revocation check hits the local mirror.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1)
+public class JwtTokenProviderBenchmark {
+    
+    public static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef";
+    
+    private JwtTokenProvider tokenProvider;
+    private CachedUserDto user;
+    private String accessToken;
+    
+    @Setup
+    public void setUp() {
+        tokenProvider = newTokenProvider();
+        user = CachedUserDto.from(newUser());
+        accessToken = tokenProvider.generateAccessToken(user);
+    }
+    
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenProvider.generateAccessToken(user);
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(accessToken);
+    }
+    
+    public static JwtTokenProvider newTokenProvider() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        return new JwtTokenProvider(SECRET, 900_000, 604_800_000, redisTemplate,
+            new RevocationSync(redisTemplate, new TokenRevocationCache(604_800_000), meterRegistry), meterRegistry);
+    }
+    
+    public static User newUser() {
+        return User.builder()
+            .id(UUID.randomUUID())
+            .email("benchmark@seen.example")
+            .role(UserRole.USER)
+            .emailVerified(true)
+            .twoFactorEnabled(false)
+            .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.seen.benchmarks.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.dto.LoginResponseDto;
+import com.seen.auth.dto.UserResponseDto;
+import com.seen.auth.entity.User;
+import com.seen.auth.entity.UserProfile;
+import com.seen.auth.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing the login response, i.e. everything the login
+ * endpoint does after the password check apart from minting tokens. Jackson is
+ * configured the way Spring Boot configures it (ISO dates, java.time module).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1)
+public class LoginResponseBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private CachedUserDto user;
+    private LoginResponseDto response;
+    private String accessToken;
+    private String refreshToken;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        
+        // Login maps the credential-free snapshot the user cache returns
+        User entity = JwtTokenProviderBenchmark.newUser();
+        entity.setProfile(new UserProfile("Jordan", "Reyes", "+15555550100", "America/Chicago"));
+        entity.setCreatedAt(LocalDateTime.now().minusDays(30));
+        entity.setLastLoginAt(LocalDateTime.now());
+        user = CachedUserDto.from(entity);
+        
+        // Minting a real refresh token needs Redis; a second access token has the same shape
+        JwtTokenProvider tokenProvider = JwtTokenProviderBenchmark.newTokenProvider();
+        accessToken = tokenProvider.generateAccessToken(user);
+        refreshToken = tokenProvider.generateAccessToken(user);
+        response = loginResponse();
+    }
+    
+    @Benchmark
+    public UserResponseDto mapUser() {
+        return UserResponseDto.from(user);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(loginResponse());
+    }
+    
+    private LoginResponseDto loginResponse() {
+        return LoginResponseDto.builder()
+            .accessToken(accessToken)
+            .refreshToken(refreshToken)
+            .tokenType("Bearer")
+            .expiresIn(900_000L)
+            .user(UserResponseDto.from(user))
+            .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.seen.benchmarks.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded BCrypt throughput, i.e. logins/sec (verify) and
+ * registrations/sec (encode) per core at each candidate cost. Multiply the
+ * verify score by the pod's core count to size auth-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class PasswordHashingBenchmark {
+    
+    @Param({"10", "11", "12", "13", "14"})
+    private int cost;
+    
+    private BCryptPasswordEncoder encoder;
+    private String saltedPassword;
+    private String encodedPassword;
+    
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        saltedPassword = "correct-horse-battery-staple" + UUID.randomUUID();
+        encodedPassword = encoder.encode(saltedPassword);
+    }
+    
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(saltedPassword, encodedPassword);
+    }
+    
+    @Benchmark
+    public String register() {
+        return encoder.encode(saltedPassword);
+    }
+}
@@ -0,0 +1,74 @@
+package com.seen.benchmarks.gateway;
+
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.security.JwtTokenProvider;
+import com.seen.benchmarks.auth.JwtTokenProviderBenchmark;
+import com.seen.identity.GatewayIdentity;
+import com.seen.identity.IdentityEnvelopeSigner;
+import com.seen.identity.IdentityEnvelopeVerifier;
+import com.seen.revocation.TokenDigest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-hop cost of establishing the caller's identity in a downstream service:
+ * parsing and verifying the bearer JWT again against checking the gateway's
+ * signed identity envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1)
+public class IdentityEnvelopeBenchmark {
+    
+    private JwtParser jwtParser;
+    private IdentityEnvelopeVerifier envelopeVerifier;
+    private String accessToken;
+    private String envelope;
+    
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = JwtTokenProviderBenchmark.newTokenProvider();
+        accessToken = tokenProvider.generateAccessToken(CachedUserDto.from(JwtTokenProviderBenchmark.newUser()));
+        jwtParser = Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(JwtTokenProviderBenchmark.SECRET.getBytes()))
+            .build();
+        
+        Claims claims = jwtParser.parseSignedClaims(accessToken).getPayload();
+        envelope = new IdentityEnvelopeSigner(JwtTokenProviderBenchmark.SECRET).sign(
+            claims.getSubject(), List.of("USER"), TokenDigest.of(accessToken), claims.getExpiration().toInstant());
+        envelopeVerifier = new IdentityEnvelopeVerifier(
+            JwtTokenProviderBenchmark.SECRET, "benchmark", new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public Claims jwt() {
+        return jwtParser.parseSignedClaims(accessToken).getPayload();
+    }
+    
+    @Benchmark
+    public Optional<GatewayIdentity> envelope() {
+        return envelopeVerifier.verify(envelope);
+    }
+}
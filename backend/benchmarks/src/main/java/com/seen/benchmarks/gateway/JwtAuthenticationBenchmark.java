@@ -0,0 +1,91 @@
+package com.seen.benchmarks.gateway;
+
+import com.seen.auth.dto.CachedUserDto;
+import com.seen.auth.entity.User;
+import com.seen.auth.entity.UserRole;
+import com.seen.auth.security.JwtTokenProvider;
+import com.seen.benchmarks.auth.JwtTokenProviderBenchmark;
+import com.seen.gateway.security.JwtAuthenticationManager;
+import com.seen.gateway.security.VerifiedClaimsCache;
+import com.seen.identity.IdentityEnvelopeSigner;
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of gateway JWT authentication over a pool of tokens minted
+ * by auth-service's own provider. "cached" measures the claims-cache hit path,
+ * "uncached" forces a signature check on every request. Runs on 4 threads
+ * because the cache is shared by all gateway event loops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationBenchmark {
+    
+    private static final int TOKENS = 1_024;
+    
+    @Param({"cached", "uncached"})
+    private String claimsCache;
+    
+    private JwtAuthenticationManager authenticationManager;
+    private Authentication[] requests;
+    
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // A zero TTL expires every entry on insert, so each lookup verifies again
+        Duration maxTtl = "cached".equals(claimsCache) ? Duration.ofHours(1) : Duration.ZERO;
+        VerifiedClaimsCache verifiedClaimsCache = new VerifiedClaimsCache(TOKENS * 2, maxTtl, meterRegistry);
+        // Nothing feeds it from Redis, so it simply reports nothing revoked
+        TokenRevocationCache revocationCache = new TokenRevocationCache(604_800_000, verifiedClaimsCache::invalidate);
+        authenticationManager = new JwtAuthenticationManager(
+            JwtTokenProviderBenchmark.SECRET, verifiedClaimsCache, revocationCache,
+            new IdentityEnvelopeSigner(JwtTokenProviderBenchmark.SECRET), meterRegistry);
+        
+        JwtTokenProvider tokenProvider = JwtTokenProviderBenchmark.newTokenProvider();
+        requests = new Authentication[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            User user = JwtTokenProviderBenchmark.newUser();
+            user.setRole(i % 50 == 0 ? UserRole.MODERATOR : UserRole.USER);
+            String token = tokenProvider.generateAccessToken(CachedUserDto.from(user));
+            requests[i] = new UsernamePasswordAuthenticationToken(token, token);
+        }
+    }
+    
+    @Benchmark
+    public Authentication authenticate(RequestCursor cursor) {
+        return authenticationManager.authenticate(requests[cursor.next()]).block();
+    }
+    
+    @State(Scope.Thread)
+    public static class RequestCursor {
+        
+        private int position = (int) (Math.random() * TOKENS);
+        
+        int next() {
+            position = (position + 1) % TOKENS;
+            return position;
+        }
+    }
+}
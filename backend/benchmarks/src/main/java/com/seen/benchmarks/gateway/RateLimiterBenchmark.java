@@ -0,0 +1,124 @@
+package com.seen.benchmarks.gateway;
+
+import com.seen.gateway.ratelimit.HybridRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-request latency (use the p0.99 line of the sample-time output)
+ * and Redis load of the Lua-script RedisRateLimiter against HybridRateLimiter.
+ * Needs a Redis at REDIS_HOST:REDIS_PORT (defaults to the docker-compose one);
+ * Redis commands/sec are printed after every measurement iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+    
+    private static final String ROUTE_ID = "report-service";
+    
+    @Param({"redis", "hybrid"})
+    private String mode;
+    
+    @Param({"1000"})
+    private int users;
+    
+    private LettuceConnectionFactory connectionFactory;
+    private RateLimiter<?> rateLimiter;
+    private long commandsAtStart;
+    private long iterationStartNanos;
+    
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+            System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+            Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+        connectionFactory.afterPropertiesSet();
+        ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        
+        // Limits are high enough that the benchmark measures the check itself, not denials
+        if ("redis".equals(mode)) {
+            DefaultRedisScript script = new DefaultRedisScript();
+            script.setScriptSource(new ResourceScriptSource(new ClassPathResource("META-INF/scripts/request_rate_limiter.lua")));
+            script.setResultType(List.class);
+            RedisRateLimiter redisRateLimiter = new RedisRateLimiter(redisTemplate, script, null);
+            redisRateLimiter.getConfig().put(ROUTE_ID, new RedisRateLimiter.Config()
+                .setReplenishRate(1_000_000)
+                .setBurstCapacity(2_000_000)
+                .setRequestedTokens(1));
+            rateLimiter = redisRateLimiter;
+        } else {
+            HybridRateLimiter hybridRateLimiter = new HybridRateLimiter(
+                redisTemplate, 1_000_000, 2_000_000, 1, Duration.ofMillis(100), Duration.ofSeconds(1), new SimpleMeterRegistry());
+            hybridRateLimiter.start();
+            rateLimiter = hybridRateLimiter;
+        }
+    }
+    
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        commandsAtStart = totalCommandsProcessed();
+        iterationStartNanos = System.nanoTime();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void reportRedisLoad() {
+        double seconds = (System.nanoTime() - iterationStartNanos) / 1_000_000_000.0;
+        long commands = totalCommandsProcessed() - commandsAtStart;
+        System.out.printf("%n[%s] Redis ops/sec: %.0f%n", mode, commands / seconds);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (rateLimiter instanceof HybridRateLimiter hybridRateLimiter) {
+            hybridRateLimiter.stop();
+        }
+        connectionFactory.destroy();
+    }
+    
+    @Benchmark
+    public boolean isAllowed() {
+        String user = "user-" + ThreadLocalRandom.current().nextInt(users);
+        return rateLimiter.isAllowed(ROUTE_ID, user).block().isAllowed();
+    }
+    
+    private long totalCommandsProcessed() {
+        // Through the interface: the factory's own return type is package-private
+        try (ReactiveRedisConnection connection = connectionFactory.getReactiveConnection()) {
+            Properties stats = connection.serverCommands().info("stats").block();
+            return Long.parseLong(stats.getProperty("total_commands_processed", "0"));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.seen.benchmarks.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.seen.geo.Geohash;
+import com.seen.ids.UuidV7;
+import com.seen.report.entity.Demographics;
+import com.seen.report.entity.ImpactDetails;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.IncidentTiming;
+import com.seen.report.entity.IncidentType;
+import com.seen.report.entity.ReportAttachment;
+import com.seen.report.entity.ReportLocation;
+import com.seen.report.entity.ReportStatus;
+import com.seen.report.entity.ReportTimeline;
+import com.seen.report.entity.ReportedTo;
+import com.seen.report.entity.TimeOfDay;
+import com.seen.report.entity.TimelineEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trip of an incident report with every field, collection and
+ * embedded value populated: a long narrative, a handful of timeline entries and
+ * attachments. Represents the worst-case payload of the report detail endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1)
+public class IncidentReportSerializationBenchmark {
+    
+    private static final int TIMELINE_ENTRIES = 8;
+    private static final int ATTACHMENTS = 4;
+    
+    private ObjectMapper objectMapper;
+    private IncidentReport report;
+    private byte[] json;
+    
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        report = fullyPopulatedReport();
+        json = objectMapper.writeValueAsBytes(report);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(report);
+    }
+    
+    @Benchmark
+    public IncidentReport deserialize() throws Exception {
+        return objectMapper.readValue(json, IncidentReport.class);
+    }
+    
+    private static IncidentReport fullyPopulatedReport() {
+        UUID reportId = UuidV7.generate();
+        UUID ownerId = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(3);
+        
+        ReportLocation location = new ReportLocation("Chicago", "IL", "United States", 41.8781, -87.6298,
+            Geohash.encode(41.8781, -87.6298, ReportLocation.GEOHASH_PRECISION));
+        IncidentTiming timing = new IncidentTiming(LocalDate.now().minusDays(4), TimeOfDay.EVENING);
+        ImpactDetails impact = new ImpactDetails(
+            "Lost two shifts of pay and had to find new transport to work. ".repeat(8),
+            ReportedTo.YES,
+            "Reported to HR and the regional manager; no response after two weeks.",
+            new LinkedHashSet<>(List.of("legal", "counseling", "community")));
+        Demographics demographics = new Demographics(
+            new LinkedHashSet<>(List.of("Black", "Hispanic or Latino")), "25-34", "Non-binary", true);
+        
+        List<ReportTimeline> timeline = new ArrayList<>(TIMELINE_ENTRIES);
+        for (int i = 0; i < TIMELINE_ENTRIES; i++) {
+            timeline.add(ReportTimeline.builder()
+                .id(UuidV7.generate())
+                .type(TimelineEventType.values()[i % TimelineEventType.values().length])
+                .title("Update " + (i + 1))
+                .description("Follow-up recorded by the reporter with supporting details. ".repeat(3))
+                .actorId(ownerId)
+                .isPrivate(i % 3 == 0)
+                .timestamp(createdAt.plusHours(i))
+                .build());
+        }
+        
+        List<ReportAttachment> attachments = new ArrayList<>(ATTACHMENTS);
+        for (int i = 0; i < ATTACHMENTS; i++) {
+            attachments.add(ReportAttachment.builder()
+                .id(UuidV7.generate())
+                .fileId(UUID.randomUUID())
+                .filename("evidence-" + (i + 1) + ".jpg")
+                .contentType("image/jpeg")
+                .size(2_400_000L + i)
+                .uploadedAt(createdAt.plusMinutes(i))
+                .build());
+        }
+        
+        Set<IncidentType> incidentTypes = EnumSet.of(IncidentType.WORKPLACE_BIAS, IncidentType.PUBLIC_SPACE);
+        IncidentReport report = IncidentReport.builder()
+            .id(reportId)
+            .userId(ownerId)
+            .title("Denied service and followed by security at a downtown store")
+            .narrative("I was asked to leave the store after being followed through every aisle. ".repeat(40))
+            .incidentTypes(incidentTypes)
+            .tags(new LinkedHashSet<>(List.of("retail", "security", "downtown", "repeat")))
+            .location(location)
+            .timing(timing)
+            .impact(impact)
+            .demographics(demographics)
+            .status(ReportStatus.UNDER_REVIEW)
+            .openToContact(true)
+            .contactEmail("reporter@seen.example")
+            .createdAt(createdAt)
+            .updatedAt(createdAt.plusDays(1))
+            .timeline(timeline)
+            .attachments(attachments)
+            .build();
+        timeline.forEach(entry -> entry.setReport(report));
+        attachments.forEach(attachment -> attachment.setReport(report));
+        return report;
+    }
+}
@@ -0,0 +1,158 @@
+package com.seen.benchmarks.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.seen.report.dto.ImportResultDto;
+import com.seen.report.event.ReportEventOutbox;
+import com.seen.report.repository.ReportBulkWriter;
+import com.seen.report.service.ImportFormat;
+import com.seen.report.service.ReportImportService;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import throughput in rows/sec (the score, since every invocation imports
+ * ROWS rows) for NDJSON and CSV at different chunk sizes, including their outbox events. Needs a migrated
+ * seen_reports database at POSTGRES_URL (defaults to the docker-compose one);
+ * imported rows are deleted after every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ReportImportBenchmark.ROWS)
+@Warmup(iterations = 1, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+@Threads(1)
+public class ReportImportBenchmark {
+    
+    static final int ROWS = 20_000;
+    
+    private static final List<String> INCIDENT_TYPES = List.of(
+        "WORKPLACE_BIAS", "POLICE_ENCOUNTER", "HOUSING_DISCRIMINATION", "PUBLIC_SPACE", "EDUCATION", "ONLINE", "OTHER");
+    private static final List<String> TIMES_OF_DAY = List.of("MORNING", "AFTERNOON", "EVENING", "NIGHT");
+    
+    @Param({"ndjson", "csv"})
+    private String format;
+    
+    @Param({"500", "2000"})
+    private int chunkSize;
+    
+    private SingleConnectionDataSource dataSource;
+    private ReportImportService importService;
+    private UUID ownerId;
+    private byte[] input;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataSource = new SingleConnectionDataSource(
+            System.getenv().getOrDefault("POSTGRES_URL", "jdbc:postgresql://localhost:5432/seen_reports?reWriteBatchedInserts=true"),
+            System.getenv().getOrDefault("DB_USERNAME", "seen_user"),
+            System.getenv().getOrDefault("DB_PASSWORD", "seen_password"),
+            true);
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        importService = new ReportImportService(
+            new ReportBulkWriter(jdbcTemplate),
+            new ReportEventOutbox(jdbcTemplate, objectMapper),
+            new DataSourceTransactionManager(dataSource),
+            objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            chunkSize,
+            0,
+            100);
+        ownerId = UUID.randomUUID();
+        input = "csv".equals(format) ? generateCsv() : generateNdjson(objectMapper);
+    }
+    
+    @TearDown(Level.Invocation)
+    public void deleteImported() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM report_event_outbox WHERE report_id IN (SELECT id FROM incident_reports WHERE user_id = ?)", ownerId);
+        jdbcTemplate.update("DELETE FROM incident_reports WHERE user_id = ?", ownerId);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        importService.shutdown();
+        dataSource.destroy();
+    }
+    
+    @Benchmark
+    public ImportResultDto importReports() throws IOException {
+        ImportResultDto result = importService.importReports(new ByteArrayInputStream(input),
+            "csv".equals(format) ? ImportFormat.CSV : ImportFormat.NDJSON, ownerId, ReportImportService.ImportListener.NONE);
+        if (result.getImported() != ROWS) {
+            throw new IllegalStateException("Only " + result.getImported() + " rows imported: " + result.getErrors());
+        }
+        return result;
+    }
+    
+    private byte[] generateNdjson(ObjectMapper objectMapper) throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < ROWS; i++) {
+            Map<String, Object> row = Map.of(
+                "title", "Partner incident " + i,
+                "narrative", "Narrative of incident " + i + " as recorded by the partner organisation.",
+                "incidentTypes", List.of(INCIDENT_TYPES.get(random.nextInt(INCIDENT_TYPES.size()))),
+                "tags", List.of("partner", "tag-" + random.nextInt(50)),
+                "city", "City " + random.nextInt(500),
+                "state", "State " + random.nextInt(50),
+                "latitude", 25 + random.nextDouble() * 24,
+                "longitude", -124 + random.nextDouble() * 57,
+                "date", LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1_500)).toString(),
+                "description", "Impact description " + i);
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+    
+    private byte[] generateCsv() {
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder("title,narrative,incidentTypes,tags,city,state,latitude,longitude,date,timeOfDay,description\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Partner incident ").append(i).append(',')
+                .append("\"Narrative of incident ").append(i).append(", as recorded by the partner.\"").append(',')
+                .append(INCIDENT_TYPES.get(random.nextInt(INCIDENT_TYPES.size()))).append(',')
+                .append("partner;tag-").append(random.nextInt(50)).append(',')
+                .append("City ").append(random.nextInt(500)).append(',')
+                .append("State ").append(random.nextInt(50)).append(',')
+                .append(25 + random.nextDouble() * 24).append(',')
+                .append(-124 + random.nextDouble() * 57).append(',')
+                .append(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1_500))).append(',')
+                .append(TIMES_OF_DAY.get(random.nextInt(TIMES_OF_DAY.size()))).append(',')
+                .append("Impact description ").append(i).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.seen.benchmarks.report;
+
+import com.seen.ids.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary key insert throughput in rows/sec for random (v4) and time-ordered (v7)
+ * UUIDs into a table already holding PRELOAD rows. Random keys hit a different
+ * index leaf on almost every insert, so once the index outgrows shared_buffers they
+ * cost page reads and full-page WAL writes; v7 keys only touch the rightmost leaf.
+ * Primary key index size and bytes per row are printed at the end of each trial,
+ * since half-full leaves left by random page splits are the other half of the cost.
+ * Needs a Postgres at POSTGRES_URL; uses its own scratch table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UuidKeyBenchmark.BATCH)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(1)
+@Threads(1)
+public class UuidKeyBenchmark {
+    
+    static final int BATCH = 10_000;
+    
+    private static final String TABLE = "uuid_key_benchmark";
+    private static final String INSERT = "INSERT INTO " + TABLE + " (id, created_at, payload) VALUES (?, ?, ?)";
+    
+    @Param({"v4", "v7"})
+    private String version;
+    
+    @Param({"1000000"})
+    private int preload;
+    
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            System.getenv().getOrDefault("POSTGRES_URL", "jdbc:postgresql://localhost:5432/seen_reports?reWriteBatchedInserts=true"),
+            System.getenv().getOrDefault("DB_USERNAME", "seen_user"),
+            System.getenv().getOrDefault("DB_PASSWORD", "seen_password"),
+            true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE
+            + " (id UUID PRIMARY KEY, created_at TIMESTAMP NOT NULL, payload VARCHAR(200) NOT NULL)");
+        for (int inserted = 0; inserted < preload; inserted += BATCH) {
+            insertBatch();
+        }
+        jdbcTemplate.execute("VACUUM ANALYZE " + TABLE);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + TABLE, Long.class);
+        long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size('" + TABLE + "_pkey')", Long.class);
+        long tableBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size('" + TABLE + "')", Long.class);
+        System.out.printf("%n%s: %,d rows, primary key index %,d KiB (%.1f bytes/row), heap %,d KiB%n",
+            version, rows, indexBytes / 1024, (double) indexBytes / rows, tableBytes / 1024);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        dataSource.destroy();
+    }
+    
+    @Benchmark
+    public int[] insert() {
+        return insertBatch();
+    }
+    
+    private int[] insertBatch() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            UUID id = "v7".equals(version) ? UuidV7.generate() : UUID.randomUUID();
+            rows.add(new Object[]{id, now, "payload " + i});
+        }
+        return jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+}
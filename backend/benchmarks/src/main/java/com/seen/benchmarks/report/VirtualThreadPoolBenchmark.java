@@ -0,0 +1,135 @@
+package com.seen.benchmarks.report;
+
+import com.seen.concurrency.PermitLimitedDataSource;
+import com.seen.concurrency.PoolPermits;
+import com.seen.concurrency.VirtualThreadPinningMonitor;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests/sec when 10,000 concurrent requests each run a 2ms query against a
+ * 10-connection Hikari pool: the current model (200 platform threads, Tomcat's
+ * default) against a virtual thread per request, with and without the pool
+ * permits of the virtual-thread mode. Needs the compose Postgres. Failed
+ * requests and pinned carriers are reported next to the score as secondary
+ * results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(1)
+public class VirtualThreadPoolBenchmark {
+    
+    private static final int REQUESTS = 10_000;
+    private static final int POOL_SIZE = 10;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    
+    @Param({"platform", "virtual"})
+    private String threads;
+    
+    @Param({"off", "on"})
+    private String permits;
+    
+    private HikariDataSource hikari;
+    private DataSource dataSource;
+    private ExecutorService executor;
+    private VirtualThreadPinningMonitor pinningMonitor;
+    private Counter pinned;
+    private final LongAdder failures = new LongAdder();
+    
+    /**
+     * Secondary results, summed over each iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long failedRequests;
+        public long pinnedCarriers;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getenv().getOrDefault("POSTGRES_URL", "jdbc:postgresql://localhost:5432/seen_reports"));
+        config.setUsername(System.getenv().getOrDefault("DB_USERNAME", "seen_user"));
+        config.setPassword(System.getenv().getOrDefault("DB_PASSWORD", "seen_password"));
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+        hikari = new HikariDataSource(config);
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dataSource = "on".equals(permits)
+            ? new PermitLimitedDataSource(hikari, new PoolPermits(
+                "benchmark", POOL_SIZE, Duration.ofMillis(config.getConnectionTimeout()), meterRegistry))
+            : hikari;
+        executor = "virtual".equals(threads)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        
+        pinningMonitor = new VirtualThreadPinningMonitor(Duration.ofMillis(1), meterRegistry);
+        pinningMonitor.start();
+        pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pinningMonitor.stop();
+        executor.shutdownNow();
+        hikari.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void handleRequests(Outcomes outcomes) throws InterruptedException {
+        double pinnedBefore = pinned.count();
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_sleep(0.002)");
+                } catch (SQLException e) {
+                    failures.increment();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        
+        outcomes.failedRequests += failures.sumThenReset();
+        outcomes.pinnedCarriers += (long) (pinned.count() - pinnedBefore);
+    }
+}
@@ -0,0 +1,14 @@
+package com.seen.file;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class FileApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(FileApplication.class, args);
+    }
+}
@@ -0,0 +1,42 @@
+package com.seen.file.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Configuration
+public class StorageConfig {
+    
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(
+            @Value("${app.storage.endpoint}") URI endpoint,
+            @Value("${app.storage.region}") String region,
+            @Value("${app.storage.access-key}") String accessKey,
+            @Value("${app.storage.secret-key}") String secretKey,
+            @Value("${app.storage.max-connections:100}") int maxConnections) {
+        
+        return S3Client.builder()
+            .endpointOverride(endpoint)
+            .region(Region.of(region))
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+            // MinIO serves buckets by path, not by virtual host
+            .serviceConfiguration(S3Configuration.builder()
+                .pathStyleAccessEnabled(true)
+                .build())
+            .overrideConfiguration(override -> override.retryPolicy(RetryMode.STANDARD))
+            .httpClientBuilder(ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(Duration.ofSeconds(5)))
+            .build();
+    }
+}
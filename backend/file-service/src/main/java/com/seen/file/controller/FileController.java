@@ -0,0 +1,220 @@
+package com.seen.file.controller;
+
+import com.seen.file.dto.FileResponseDto;
+import com.seen.file.dto.UploadPartDto;
+import com.seen.file.dto.UploadSessionDto;
+import com.seen.file.dto.UploadSessionRequestDto;
+import com.seen.file.entity.StoredFile;
+import com.seen.file.entity.UploadPart;
+import com.seen.file.service.FileStorageService;
+import com.seen.file.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/files")
+@RequiredArgsConstructor
+@Slf4j
+public class FileController {
+    
+    private static final String CONTENT_SHA256 = "X-Content-SHA256";
+    
+    private final FileStorageService fileStorageService;
+    private final ResumableUploadService resumableUploadService;
+    
+    /**
+     * Single-request form upload, for small files. Tomcat spools the part to
+     * disk, so it is never held in memory.
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<FileResponseDto> upload(
+            Authentication authentication,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) UUID reportId) throws IOException {
+        
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File is empty");
+        }
+        try (InputStream content = file.getInputStream()) {
+            StoredFile stored = fileStorageService.store(callerId(authentication), reportId,
+                file.getOriginalFilename(), file.getContentType(), content, file.getSize());
+            return ResponseEntity.status(HttpStatus.CREATED).body(toDto(stored));
+        }
+    }
+    
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadSessionDto> startUpload(
+            Authentication authentication,
+            @Valid @RequestBody UploadSessionRequestDto request) {
+        
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(resumableUploadService.start(callerId(authentication), request));
+    }
+    
+    /**
+     * Which parts have arrived, for resuming after a dropped connection.
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadSessionDto> getUpload(Authentication authentication, @PathVariable UUID uploadId) {
+        return ResponseEntity.ok(resumableUploadService.status(uploadId, callerId(authentication)));
+    }
+    
+    /**
+     * One part as the raw request body, streamed to storage as it arrives. The
+     * Content-Length is required, and the client may send the part's hex
+     * SHA-256 in X-Content-SHA256 to have it verified.
+     */
+    @PutMapping(value = "/uploads/{uploadId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadPartDto> uploadPart(
+            Authentication authentication,
+            @PathVariable UUID uploadId,
+            @PathVariable int partNumber,
+            @RequestHeader(value = CONTENT_SHA256, required = false) String sha256,
+            HttpServletRequest request) throws IOException {
+        
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Content-Length is required");
+        }
+        UploadPart part = resumableUploadService.uploadPart(
+            uploadId, callerId(authentication), partNumber, request.getInputStream(), length, sha256);
+        return ResponseEntity.ok(UploadPartDto.builder()
+            .partNumber(part.getPartNumber())
+            .size(part.getSize())
+            .sha256(part.getSha256())
+            .build());
+    }
+    
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<FileResponseDto> completeUpload(Authentication authentication, @PathVariable UUID uploadId) {
+        StoredFile file = resumableUploadService.complete(uploadId, callerId(authentication));
+        return ResponseEntity.status(HttpStatus.CREATED).body(toDto(file));
+    }
+    
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(Authentication authentication, @PathVariable UUID uploadId) {
+        resumableUploadService.abort(uploadId, callerId(authentication));
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * The file's content, streamed from storage. A single byte range is served
+     * as 206 so clients can resume downloads and seek in media; multiple ranges
+     * are answered with the whole file.
+     */
+    @GetMapping("/{id}")
+    public void download(
+            Authentication authentication,
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        StoredFile file = fileStorageService.find(id, callerId(authentication), isModerator(authentication));
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+        
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, "\"" + file.getChecksum() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(file.getFilename(), StandardCharsets.UTF_8)
+            .build()
+            .toString());
+        
+        if (rangeHeader != null && size > 0 && ifRangeMatches(request, file)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+        }
+        
+        response.setContentType(file.getContentType() != null
+            ? file.getContentType()
+            : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(end - start + 1);
+        if (size == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        
+        try (InputStream content = fileStorageService.open(file, start, end)) {
+            OutputStream out = response.getOutputStream();
+            content.transferTo(out);
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(Authentication authentication, @PathVariable UUID id) {
+        fileStorageService.delete(id, callerId(authentication), isModerator(authentication));
+        return ResponseEntity.noContent().build();
+    }
+    
+    // A range is only valid against the version the client started with
+    private boolean ifRangeMatches(HttpServletRequest request, StoredFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.equals("\"" + file.getChecksum() + "\"");
+    }
+    
+    private FileResponseDto toDto(StoredFile file) {
+        return FileResponseDto.builder()
+            .fileId(file.getId())
+            .url("/api/files/" + file.getId())
+            .reportId(file.getReportId())
+            .filename(file.getFilename())
+            .contentType(file.getContentType())
+            .size(file.getSize())
+            .checksum(file.getChecksum())
+            .createdAt(file.getCreatedAt())
+            .build();
+    }
+    
+    private UUID callerId(Authentication authentication) {
+        return UUID.fromString(authentication.getName());
+    }
+    
+    private boolean isModerator(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals("ROLE_MODERATOR") || a.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.seen.file.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class FileResponseDto {
+    private UUID fileId;
+    private String url;
+    private UUID reportId;
+    private String filename;
+    private String contentType;
+    private Long size;
+    private String checksum;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.seen.file.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UploadPartDto {
+    private Integer partNumber;
+    private Long size;
+    private String sha256;
+}
@@ -0,0 +1,20 @@
+package com.seen.file.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class UploadSessionDto {
+    private UUID uploadId;
+    private Long size;
+    private Long partSize;
+    private Integer partCount;
+    private List<Integer> receivedParts;
+    private Long bytesReceived;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.seen.file.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequestDto {
+    @NotBlank
+    private String filename;
+    
+    private String contentType;
+    
+    @NotNull
+    @Positive
+    private Long size;
+    
+    private UUID reportId;
+}
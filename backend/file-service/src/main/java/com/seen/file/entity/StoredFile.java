@@ -0,0 +1,42 @@
+package com.seen.file.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredFile {
+    
+    @Id
+    private UUID id;
+    
+    @Column(nullable = false)
+    private UUID ownerId;
+    
+    private UUID reportId;
+    
+    @Column(nullable = false, unique = true)
+    private String objectKey;
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(nullable = false)
+    private String checksum;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
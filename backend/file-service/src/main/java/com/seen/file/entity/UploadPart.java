@@ -0,0 +1,40 @@
+package com.seen.file.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Entity
+@Table(name = "upload_parts")
+@IdClass(UploadPart.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadPart {
+    
+    @Id
+    private UUID uploadId;
+    
+    @Id
+    private Integer partNumber;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(nullable = false)
+    private String etag;
+    
+    @Column(nullable = false)
+    private String sha256;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID uploadId;
+        private Integer partNumber;
+    }
+}
@@ -0,0 +1,68 @@
+package com.seen.file.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A resumable upload in progress: an object storage multipart upload whose
+ * parts are sent one request each and may be retried or sent out of order.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+    
+    @Id
+    private UUID id;
+    
+    @Column(nullable = false)
+    private UUID ownerId;
+    
+    private UUID reportId;
+    
+    @Column(nullable = false, unique = true)
+    private String objectKey;
+    
+    @Column(nullable = false)
+    private String storageUploadId;
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(nullable = false)
+    private Long partSize;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    /**
+     * When a complete request claimed the upload; parts and aborts are refused while it is set.
+     */
+    private LocalDateTime completingAt;
+    
+    public int partCount() {
+        return (int) Math.max(1, (size + partSize - 1) / partSize);
+    }
+    
+    /**
+     * The exact length part {@code partNumber} (1-based) must have.
+     */
+    public long partLength(int partNumber) {
+        return partNumber < partCount() ? partSize : size - partSize * (partCount() - 1);
+    }
+}
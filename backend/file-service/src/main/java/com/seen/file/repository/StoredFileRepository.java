@@ -0,0 +1,11 @@
+package com.seen.file.repository;
+
+import com.seen.file.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
+}
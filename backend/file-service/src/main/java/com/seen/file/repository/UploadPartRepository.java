@@ -0,0 +1,34 @@
+package com.seen.file.repository;
+
+import com.seen.file.entity.UploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadPartRepository extends JpaRepository<UploadPart, UploadPart.Key> {
+    
+    List<UploadPart> findByUploadIdOrderByPartNumber(UUID uploadId);
+    
+    /**
+     * Records a received part; a retried part replaces the earlier attempt, as it does in storage.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO upload_parts (upload_id, part_number, size, etag, sha256) " +
+        "VALUES (:uploadId, :partNumber, :size, :etag, :sha256) " +
+        "ON CONFLICT (upload_id, part_number) DO UPDATE " +
+        "SET size = EXCLUDED.size, etag = EXCLUDED.etag, sha256 = EXCLUDED.sha256", nativeQuery = true)
+    void upsert(
+        @Param("uploadId") UUID uploadId,
+        @Param("partNumber") int partNumber,
+        @Param("size") long size,
+        @Param("etag") String etag,
+        @Param("sha256") String sha256);
+}
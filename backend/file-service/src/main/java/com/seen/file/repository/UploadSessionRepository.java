@@ -0,0 +1,37 @@
+package com.seen.file.repository;
+
+import com.seen.file.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+    
+    List<UploadSession> findTop100ByExpiresAtBefore(LocalDateTime time);
+    
+    /**
+     * Marks the upload as being completed unless another request already has,
+     * within {@code staleBefore}. Returns 1 for the caller that should go on.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.completingAt = :now " +
+        "WHERE s.id = :id AND (s.completingAt IS NULL OR s.completingAt < :staleBefore)")
+    int claimForCompletion(
+        @Param("id") UUID id,
+        @Param("now") LocalDateTime now,
+        @Param("staleBefore") LocalDateTime staleBefore);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.completingAt = NULL WHERE s.id = :id")
+    void releaseCompletion(@Param("id") UUID id);
+}
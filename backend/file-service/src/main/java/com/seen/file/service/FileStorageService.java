@@ -0,0 +1,104 @@
+package com.seen.file.service;
+
+import com.seen.file.entity.StoredFile;
+import com.seen.file.repository.StoredFileRepository;
+import com.seen.file.storage.ObjectStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Stored attachments: single-request uploads, lookups and deletion. Content is
+ * streamed to and from object storage and hashed on the way in.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageService {
+    
+    private static final int MAX_FILENAME_LENGTH = 255;
+    
+    private final ObjectStorage storage;
+    private final StoredFileRepository fileRepository;
+    private final MeterRegistry meterRegistry;
+    
+    public StoredFile store(UUID ownerId, UUID reportId, String filename, String contentType, InputStream content, long size) {
+        UUID id = UUID.randomUUID();
+        String key = objectKey(id);
+        HashingInputStream hashing = new HashingInputStream(content);
+        storage.put(key, hashing, size, contentType);
+        
+        StoredFile file = StoredFile.builder()
+            .id(id)
+            .ownerId(ownerId)
+            .reportId(reportId)
+            .objectKey(key)
+            .filename(sanitizeFilename(filename))
+            .contentType(contentType)
+            .size(size)
+            .checksum(hashing.sha256())
+            .build();
+        try {
+            file = fileRepository.save(file);
+        } catch (RuntimeException e) {
+            storage.delete(key);
+            throw e;
+        }
+        
+        recordUpload("form", size);
+        log.info("Stored file {} ({} bytes) for {}", id, size, ownerId);
+        return file;
+    }
+    
+    /**
+     * Owners see their own files, moderators and admins every file; to anyone
+     * else a file does not exist.
+     */
+    public StoredFile find(UUID id, UUID callerId, boolean moderator) {
+        return fileRepository.findById(id)
+            .filter(file -> moderator || file.getOwnerId().equals(callerId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found"));
+    }
+    
+    /**
+     * Bytes {@code start} to {@code end} inclusive; the caller closes the stream.
+     */
+    public InputStream open(StoredFile file, long start, long end) {
+        meterRegistry.counter("file.bytes", "direction", "out").increment(end - start + 1);
+        return storage.get(file.getObjectKey(), start, end);
+    }
+    
+    public void delete(UUID id, UUID callerId, boolean moderator) {
+        StoredFile file = find(id, callerId, moderator);
+        fileRepository.delete(file);
+        storage.delete(file.getObjectKey());
+        log.info("Deleted file {} by {}", id, callerId);
+    }
+    
+    void recordUpload(String type, long size) {
+        meterRegistry.counter("file.uploads", "type", type).increment();
+        meterRegistry.counter("file.bytes", "direction", "in").increment(size);
+    }
+    
+    static String objectKey(UUID id) {
+        return "files/" + id;
+    }
+    
+    // Clients may send a full path; only the last segment is kept
+    static String sanitizeFilename(String filename) {
+        if (filename == null) {
+            return "attachment";
+        }
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1).strip();
+        if (name.isEmpty()) {
+            return "attachment";
+        }
+        return name.length() > MAX_FILENAME_LENGTH ? name.substring(0, MAX_FILENAME_LENGTH) : name;
+    }
+}
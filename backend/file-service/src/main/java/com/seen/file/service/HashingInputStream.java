@@ -0,0 +1,88 @@
+package com.seen.file.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Counts and SHA-256 hashes the bytes read through it, so content is hashed on
+ * its way to storage instead of in a second pass. Mark and reset are not
+ * supported, since replayed bytes would be hashed twice.
+ */
+public class HashingInputStream extends FilterInputStream {
+    
+    private final MessageDigest digest;
+    private long count;
+    
+    public HashingInputStream(InputStream in) {
+        super(in);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            digest.update((byte) b);
+            count++;
+        }
+        return b;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            digest.update(b, off, n);
+            count += n;
+        }
+        return n;
+    }
+    
+    // Skipped bytes still have to be hashed
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 0))];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+    
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+    
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * The SHA-256 of everything read, in hex; call once, after the stream is consumed.
+     */
+    public String sha256() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,339 @@
+package com.seen.file.service;
+
+import com.seen.file.dto.UploadSessionDto;
+import com.seen.file.dto.UploadSessionRequestDto;
+import com.seen.file.entity.StoredFile;
+import com.seen.file.entity.UploadPart;
+import com.seen.file.entity.UploadSession;
+import com.seen.file.repository.StoredFileRepository;
+import com.seen.file.repository.UploadPartRepository;
+import com.seen.file.repository.UploadSessionRepository;
+import com.seen.file.storage.ObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Resumable uploads on top of object storage multipart uploads. The client
+ * sends fixed-size parts in any order, one request each, and after a dropped
+ * connection asks which parts arrived and resends only the rest. Each part is
+ * streamed from the request to storage, through local disk when it carries a
+ * checksum, so memory use does not grow with part or file size.
+ * <p>
+ * The checksum of a resumable upload is the SHA-256 of its part digests,
+ * suffixed with the part count, since the whole content is never read in one pass.
+ */
+@Service
+@Slf4j
+public class ResumableUploadService {
+    
+    // Object storage limits for multipart uploads
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+    private static final int MAX_PARTS = 10_000;
+    // A completion claim older than this is taken to have died with its instance
+    private static final Duration COMPLETION_TIMEOUT = Duration.ofMinutes(5);
+    
+    private final ObjectStorage storage;
+    private final UploadSessionRepository sessionRepository;
+    private final UploadPartRepository partRepository;
+    private final StoredFileRepository fileRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final long partSize;
+    private final long maxFileSize;
+    private final Duration expiry;
+    private final Path stagingDirectory;
+    
+    public ResumableUploadService(
+            ObjectStorage storage,
+            UploadSessionRepository sessionRepository,
+            UploadPartRepository partRepository,
+            StoredFileRepository fileRepository,
+            FileStorageService fileStorageService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.uploads.part-size:8MB}") DataSize partSize,
+            @Value("${app.uploads.max-file-size:10GB}") DataSize maxFileSize,
+            @Value("${app.uploads.expiry:P1D}") Duration expiry,
+            @Value("${app.uploads.staging-dir:${java.io.tmpdir}}") Path stagingDirectory) {
+        
+        if (partSize.toBytes() < MIN_PART_SIZE) {
+            throw new IllegalStateException("app.uploads.part-size must be at least 5MB");
+        }
+        this.storage = storage;
+        this.sessionRepository = sessionRepository;
+        this.partRepository = partRepository;
+        this.fileRepository = fileRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = transactionTemplate;
+        this.partSize = partSize.toBytes();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.expiry = expiry;
+        this.stagingDirectory = stagingDirectory;
+    }
+    
+    public UploadSessionDto start(UUID ownerId, UploadSessionRequestDto request) {
+        long size = request.getSize();
+        if (size > maxFileSize || (size + partSize - 1) / partSize > MAX_PARTS) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "File exceeds the maximum upload size");
+        }
+        
+        // The session ID becomes the file ID once the upload completes
+        UUID id = UUID.randomUUID();
+        String key = FileStorageService.objectKey(id);
+        String storageUploadId = storage.createMultipartUpload(key, request.getContentType());
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+            .id(id)
+            .ownerId(ownerId)
+            .reportId(request.getReportId())
+            .objectKey(key)
+            .storageUploadId(storageUploadId)
+            .filename(FileStorageService.sanitizeFilename(request.getFilename()))
+            .contentType(request.getContentType())
+            .size(size)
+            .partSize(partSize)
+            .expiresAt(LocalDateTime.now().plus(expiry))
+            .build());
+        
+        log.info("Started upload {} ({} bytes, {} parts) for {}", id, size, session.partCount(), ownerId);
+        return toDto(session, List.of());
+    }
+    
+    public UploadSessionDto status(UUID uploadId, UUID callerId) {
+        UploadSession session = owned(uploadId, callerId);
+        return toDto(session, partRepository.findByUploadIdOrderByPartNumber(uploadId));
+    }
+    
+    /**
+     * Stores one part. The body must be exactly the part's length. If the
+     * client sent a SHA-256 for it, the part is staged on local disk and only
+     * sent to storage once it matches, so a corrupt retry never replaces a part
+     * that already arrived intact; otherwise it is streamed straight through.
+     */
+    public UploadPart uploadPart(
+            UUID uploadId, UUID callerId, int partNumber, InputStream content, long length, String expectedSha256) {
+        
+        UploadSession session = owned(uploadId, callerId);
+        if (session.getCompletingAt() != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+        }
+        if (partNumber < 1 || partNumber > session.partCount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Part number must be between 1 and " + session.partCount());
+        }
+        long expectedLength = session.partLength(partNumber);
+        if (length != expectedLength) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Part " + partNumber + " must be " + expectedLength + " bytes, got " + length);
+        }
+        
+        String etag;
+        String sha256;
+        if (expectedSha256 == null) {
+            HashingInputStream hashing = new HashingInputStream(content);
+            etag = storage.uploadPart(session.getObjectKey(), session.getStorageUploadId(), partNumber, hashing, length);
+            sha256 = hashing.sha256();
+        } else {
+            Path staged = stage(content, length, expectedSha256, partNumber);
+            try (InputStream in = Files.newInputStream(staged)) {
+                etag = storage.uploadPart(session.getObjectKey(), session.getStorageUploadId(), partNumber, in, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deleteQuietly(staged);
+            }
+            sha256 = expectedSha256.toLowerCase(Locale.ROOT);
+        }
+        
+        partRepository.upsert(uploadId, partNumber, length, etag, sha256);
+        return UploadPart.builder()
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .size(length)
+            .etag(etag)
+            .sha256(sha256)
+            .build();
+    }
+    
+    /**
+     * Assembles the parts into the stored file. Completing an upload that has
+     * already completed returns the file, so a client whose response was lost
+     * can safely retry.
+     */
+    public StoredFile complete(UUID uploadId, UUID callerId) {
+        UploadSession session = sessionRepository.findById(uploadId)
+            .filter(s -> s.getOwnerId().equals(callerId))
+            .orElse(null);
+        if (session == null) {
+            return fileRepository.findById(uploadId)
+                .filter(file -> file.getOwnerId().equals(callerId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+        }
+        
+        List<UploadPart> parts = partRepository.findByUploadIdOrderByPartNumber(uploadId);
+        if (parts.size() != session.partCount()) {
+            List<Integer> received = parts.stream().map(UploadPart::getPartNumber).toList();
+            List<Integer> missing = IntStream.rangeClosed(1, session.partCount())
+                .filter(n -> !received.contains(n))
+                .limit(20)
+                .boxed()
+                .toList();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is missing parts " + missing);
+        }
+        
+        // Only one request gets to assemble the parts; a concurrent retry waits for its result
+        LocalDateTime now = LocalDateTime.now();
+        if (sessionRepository.claimForCompletion(uploadId, now, now.minus(COMPLETION_TIMEOUT)) == 0) {
+            return fileRepository.findById(uploadId)
+                .filter(file -> file.getOwnerId().equals(callerId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already being completed"));
+        }
+        try {
+            storage.completeMultipartUpload(session.getObjectKey(), session.getStorageUploadId(),
+                parts.stream().map(UploadPart::getEtag).toList());
+        } catch (RuntimeException e) {
+            sessionRepository.releaseCompletion(uploadId);
+            throw e;
+        }
+        
+        StoredFile file = transactionTemplate.execute(status -> {
+            StoredFile stored = fileRepository.save(StoredFile.builder()
+                .id(session.getId())
+                .ownerId(session.getOwnerId())
+                .reportId(session.getReportId())
+                .objectKey(session.getObjectKey())
+                .filename(session.getFilename())
+                .contentType(session.getContentType())
+                .size(session.getSize())
+                .checksum(compositeChecksum(parts))
+                .build());
+            sessionRepository.delete(session);
+            return stored;
+        });
+        
+        fileStorageService.recordUpload("resumable", session.getSize());
+        log.info("Completed upload {} ({} bytes) for {}", uploadId, session.getSize(), callerId);
+        return file;
+    }
+    
+    public void abort(UUID uploadId, UUID callerId) {
+        UploadSession session = owned(uploadId, callerId);
+        if (session.getCompletingAt() != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+        }
+        abort(session);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval:PT1H}")
+    public void abortExpired() {
+        List<UploadSession> expired;
+        do {
+            expired = sessionRepository.findTop100ByExpiresAtBefore(LocalDateTime.now());
+            for (UploadSession session : expired) {
+                try {
+                    abort(session);
+                } catch (RuntimeException e) {
+                    // Left for the next run; storage lifecycle rules are the backstop
+                    log.warn("Failed to abort expired upload {}: {}", session.getId(), e.getMessage());
+                    return;
+                }
+            }
+        } while (!expired.isEmpty());
+    }
+    
+    private void abort(UploadSession session) {
+        storage.abortMultipartUpload(session.getObjectKey(), session.getStorageUploadId());
+        sessionRepository.delete(session);
+        log.info("Aborted upload {}", session.getId());
+    }
+    
+    private UploadSession owned(UUID uploadId, UUID callerId) {
+        return sessionRepository.findById(uploadId)
+            .filter(session -> session.getOwnerId().equals(callerId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+    }
+    
+    /**
+     * Copies the part to a temporary file, hashing it on the way, and returns
+     * the file if the hash matches; the caller deletes it.
+     */
+    private Path stage(InputStream content, long length, String expectedSha256, int partNumber) {
+        Path staged;
+        try {
+            staged = Files.createTempFile(stagingDirectory, "part-", ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            HashingInputStream hashing = new HashingInputStream(content);
+            try (OutputStream out = Files.newOutputStream(staged)) {
+                hashing.transferTo(out);
+            }
+            if (hashing.count() != length) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Part " + partNumber + " must be " + length + " bytes, got " + hashing.count());
+            }
+            if (!expectedSha256.equalsIgnoreCase(hashing.sha256())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Part " + partNumber + " checksum mismatch");
+            }
+            return staged;
+        } catch (IOException e) {
+            deleteQuietly(staged);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(staged);
+            throw e;
+        }
+    }
+    
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged part {}: {}", path, e.getMessage());
+        }
+    }
+    
+    private static String compositeChecksum(List<UploadPart> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            HexFormat hex = HexFormat.of();
+            parts.forEach(part -> digest.update(hex.parseHex(part.getSha256())));
+            return hex.formatHex(digest.digest()) + "-" + parts.size();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static UploadSessionDto toDto(UploadSession session, List<UploadPart> parts) {
+        return UploadSessionDto.builder()
+            .uploadId(session.getId())
+            .size(session.getSize())
+            .partSize(session.getPartSize())
+            .partCount(session.partCount())
+            .receivedParts(parts.stream().map(UploadPart::getPartNumber).toList())
+            .bytesReceived(parts.stream().mapToLong(UploadPart::getSize).sum())
+            .expiresAt(session.getExpiresAt())
+            .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.seen.file.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Attachment content in an S3-compatible bucket (MinIO in development).
+ * Bodies go through as streams of known length and are never buffered whole;
+ * a request stream cannot be replayed, so a failed upload is retried by the
+ * client rather than by the SDK.
+ */
+@Component
+@Slf4j
+public class ObjectStorage {
+    
+    private final S3Client s3;
+    private final String bucket;
+    private final MeterRegistry meterRegistry;
+    
+    public ObjectStorage(S3Client s3, @Value("${app.storage.bucket}") String bucket, MeterRegistry meterRegistry) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureBucket() {
+        try {
+            s3.headBucket(request -> request.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            log.info("Creating bucket {}", bucket);
+            s3.createBucket(request -> request.bucket(bucket));
+        }
+    }
+    
+    public void put(String key, InputStream content, long length, String contentType) {
+        timer("put").record(() -> s3.putObject(
+            request -> request.bucket(bucket).key(key).contentType(contentType).contentLength(length),
+            RequestBody.fromInputStream(content, length)));
+    }
+    
+    public String createMultipartUpload(String key, String contentType) {
+        return timer("create_multipart_upload").record(() -> s3.createMultipartUpload(
+            request -> request.bucket(bucket).key(key).contentType(contentType)).uploadId());
+    }
+    
+    /**
+     * Returns the part's ETag, needed to complete the upload.
+     */
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long length) {
+        return timer("upload_part").record(() -> s3.uploadPart(
+            request -> request.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).contentLength(length),
+            RequestBody.fromInputStream(content, length)).eTag());
+    }
+    
+    /**
+     * Assembles the parts whose ETags are given, in part number order from 1.
+     */
+    public void completeMultipartUpload(String key, String uploadId, List<String> etags) {
+        List<CompletedPart> parts = IntStream.range(0, etags.size())
+            .mapToObj(i -> CompletedPart.builder().partNumber(i + 1).eTag(etags.get(i)).build())
+            .toList();
+        timer("complete_multipart_upload").record(() -> s3.completeMultipartUpload(request -> request
+            .bucket(bucket)
+            .key(key)
+            .uploadId(uploadId)
+            .multipartUpload(upload -> upload.parts(parts))));
+    }
+    
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            timer("abort_multipart_upload").record(() -> s3.abortMultipartUpload(
+                request -> request.bucket(bucket).key(key).uploadId(uploadId)));
+        } catch (NoSuchUploadException e) {
+            log.debug("Multipart upload for {} was already gone", key);
+        }
+    }
+    
+    /**
+     * Bytes {@code start} to {@code end} inclusive, streamed from storage; the caller closes the stream.
+     */
+    public ResponseInputStream<GetObjectResponse> get(String key, long start, long end) {
+        return timer("get").record(() -> s3.getObject(
+            request -> request.bucket(bucket).key(key).range("bytes=" + start + "-" + end)));
+    }
+    
+    public void delete(String key) {
+        timer("delete").record(() -> s3.deleteObject(request -> request.bucket(bucket).key(key)));
+    }
+    
+    private Timer timer(String operation) {
+        return meterRegistry.timer("file.storage", "operation", operation);
+    }
+}
@@ -0,0 +1,40 @@
+CREATE TABLE IF NOT EXISTS stored_files (
+    id UUID PRIMARY KEY,
+    owner_id UUID NOT NULL,
+    report_id UUID,
+    object_key VARCHAR(255) NOT NULL UNIQUE,
+    filename VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size BIGINT NOT NULL,
+    -- Hex SHA-256 of the content; for resumable uploads, of the part digests, suffixed with -<parts>
+    checksum VARCHAR(80) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_files_owner ON stored_files (owner_id);
+CREATE INDEX IF NOT EXISTS idx_stored_files_report ON stored_files (report_id);
+
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id UUID PRIMARY KEY,
+    owner_id UUID NOT NULL,
+    report_id UUID,
+    object_key VARCHAR(255) NOT NULL UNIQUE,
+    storage_upload_id VARCHAR(1024) NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size BIGINT NOT NULL,
+    part_size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires ON upload_sessions (expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_parts (
+    upload_id UUID NOT NULL REFERENCES upload_sessions (id) ON DELETE CASCADE,
+    part_number INTEGER NOT NULL,
+    size BIGINT NOT NULL,
+    etag VARCHAR(255) NOT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    PRIMARY KEY (upload_id, part_number)
+);
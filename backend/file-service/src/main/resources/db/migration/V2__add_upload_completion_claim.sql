@@ -0,0 +1,2 @@
+-- Set by the complete request that is assembling the parts, so a concurrent retry cannot do it twice
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS completing_at TIMESTAMP;
@@ -0,0 +1,253 @@
+package com.seen.file.service;
+
+import com.seen.file.entity.StoredFile;
+import com.seen.file.entity.UploadPart;
+import com.seen.file.entity.UploadSession;
+import com.seen.file.repository.StoredFileRepository;
+import com.seen.file.repository.UploadPartRepository;
+import com.seen.file.repository.UploadSessionRepository;
+import com.seen.file.storage.ObjectStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResumableUploadServiceTest {
+    
+    private static final UUID UPLOAD_ID = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-2c6b8e0d1a57");
+    private static final UUID OWNER_ID = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-000000000001");
+    private static final long PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+    private static final byte[] LAST_PART = "abc".getBytes(StandardCharsets.UTF_8);
+    
+    @TempDir
+    Path stagingDirectory;
+    
+    private ObjectStorage storage;
+    private UploadSessionRepository sessionRepository;
+    private UploadPartRepository partRepository;
+    private StoredFileRepository fileRepository;
+    private UploadSession session;
+    private ResumableUploadService service;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        storage = mock(ObjectStorage.class);
+        sessionRepository = mock(UploadSessionRepository.class);
+        partRepository = mock(UploadPartRepository.class);
+        fileRepository = mock(StoredFileRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        
+        // Two parts: a full one and a three byte tail
+        session = UploadSession.builder()
+            .id(UPLOAD_ID)
+            .ownerId(OWNER_ID)
+            .objectKey("files/" + UPLOAD_ID)
+            .storageUploadId("storage-upload")
+            .filename("evidence.bin")
+            .size(PART_SIZE + LAST_PART.length)
+            .partSize(PART_SIZE)
+            .expiresAt(LocalDateTime.now().plusDays(1))
+            .build();
+        when(sessionRepository.findById(UPLOAD_ID)).thenAnswer(invocation -> Optional.ofNullable(session));
+        when(fileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        
+        service = new ResumableUploadService(storage, sessionRepository, partRepository, fileRepository,
+            new FileStorageService(storage, fileRepository, new SimpleMeterRegistry()), transactionTemplate,
+            DataSize.ofBytes(PART_SIZE), DataSize.ofGigabytes(1), Duration.ofDays(1), stagingDirectory);
+    }
+    
+    @Test
+    void verifiedPartIsSentToStorageOnlyAfterItsChecksumMatches() {
+        AtomicReference<byte[]> sent = new AtomicReference<>();
+        when(storage.uploadPart(anyString(), anyString(), anyInt(), any(InputStream.class), anyLong()))
+            .thenAnswer(invocation -> {
+                sent.set(invocation.<InputStream>getArgument(3).readAllBytes());
+                return "etag-2";
+            });
+        
+        UploadPart part = service.uploadPart(UPLOAD_ID, OWNER_ID, 2, new ByteArrayInputStream(LAST_PART),
+            LAST_PART.length, sha256(LAST_PART).toUpperCase());
+        
+        assertThat(sent.get()).isEqualTo(LAST_PART);
+        assertThat(part.getSha256()).isEqualTo(sha256(LAST_PART));
+        verify(partRepository).upsert(UPLOAD_ID, 2, LAST_PART.length, "etag-2", sha256(LAST_PART));
+        assertThat(stagingDirectory).isEmptyDirectory();
+    }
+    
+    @Test
+    void partWithMismatchedChecksumNeverReachesStorage() {
+        byte[] corrupt = "abd".getBytes(StandardCharsets.UTF_8);
+        
+        assertThatThrownBy(() -> service.uploadPart(UPLOAD_ID, OWNER_ID, 2, new ByteArrayInputStream(corrupt),
+            corrupt.length, sha256(LAST_PART)))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        
+        verify(storage, never()).uploadPart(anyString(), anyString(), anyInt(), any(), anyLong());
+        verify(partRepository, never()).upsert(any(), anyInt(), anyLong(), any(), any());
+        assertThat(stagingDirectory).isEmptyDirectory();
+    }
+    
+    @Test
+    void truncatedBodyIsRejectedBeforeStorage() {
+        assertThatThrownBy(() -> service.uploadPart(UPLOAD_ID, OWNER_ID, 2, new ByteArrayInputStream(LAST_PART, 0, 2),
+            LAST_PART.length, sha256(LAST_PART)))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("got 2");
+        
+        verify(storage, never()).uploadPart(anyString(), anyString(), anyInt(), any(), anyLong());
+    }
+    
+    @Test
+    void partWithoutChecksumIsStreamedAndHashedOnTheWay() {
+        when(storage.uploadPart(anyString(), anyString(), anyInt(), any(InputStream.class), anyLong()))
+            .thenAnswer(invocation -> {
+                invocation.<InputStream>getArgument(3).readAllBytes();
+                return "etag-2";
+            });
+        
+        UploadPart part = service.uploadPart(UPLOAD_ID, OWNER_ID, 2, new ByteArrayInputStream(LAST_PART),
+            LAST_PART.length, null);
+        
+        assertThat(part.getSha256()).isEqualTo(sha256(LAST_PART));
+        assertThat(stagingDirectory).isEmptyDirectory();
+    }
+    
+    @Test
+    void partOfTheWrongLengthIsRejected() {
+        assertThatThrownBy(() -> service.uploadPart(UPLOAD_ID, OWNER_ID, 1, new ByteArrayInputStream(LAST_PART),
+            LAST_PART.length, null))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("must be " + PART_SIZE + " bytes");
+    }
+    
+    @Test
+    void partsAreRefusedWhileTheUploadIsBeingCompleted() {
+        session.setCompletingAt(LocalDateTime.now());
+        
+        assertThatThrownBy(() -> service.uploadPart(UPLOAD_ID, OWNER_ID, 2, new ByteArrayInputStream(LAST_PART),
+            LAST_PART.length, null))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+    
+    @Test
+    void completeAssemblesPartsInOrderAndRecordsCompositeChecksum() {
+        givenAllParts();
+        when(sessionRepository.claimForCompletion(eq(UPLOAD_ID), any(), any())).thenReturn(1);
+        
+        StoredFile file = service.complete(UPLOAD_ID, OWNER_ID);
+        
+        verify(storage).completeMultipartUpload("files/" + UPLOAD_ID, "storage-upload", List.of("etag-1", "etag-2"));
+        verify(sessionRepository).delete(session);
+        assertThat(file.getId()).isEqualTo(UPLOAD_ID);
+        assertThat(file.getChecksum()).endsWith("-2").hasSize(64 + 2);
+    }
+    
+    @Test
+    void concurrentCompleteThatLosesTheClaimDoesNotAssembleAgain() {
+        givenAllParts();
+        when(sessionRepository.claimForCompletion(eq(UPLOAD_ID), any(), any())).thenReturn(0);
+        
+        assertThatThrownBy(() -> service.complete(UPLOAD_ID, OWNER_ID))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        
+        verify(storage, never()).completeMultipartUpload(anyString(), anyString(), anyList());
+        verify(fileRepository, never()).save(any());
+    }
+    
+    @Test
+    void completeThatLosesTheClaimToAFinishedCompletionReturnsTheFile() {
+        givenAllParts();
+        StoredFile stored = StoredFile.builder().id(UPLOAD_ID).ownerId(OWNER_ID).build();
+        when(sessionRepository.claimForCompletion(eq(UPLOAD_ID), any(), any())).thenReturn(0);
+        when(fileRepository.findById(UPLOAD_ID)).thenReturn(Optional.of(stored));
+        
+        assertThat(service.complete(UPLOAD_ID, OWNER_ID)).isSameAs(stored);
+        verify(storage, never()).completeMultipartUpload(anyString(), anyString(), anyList());
+    }
+    
+    @Test
+    void failedAssemblyReleasesTheClaimForARetry() {
+        givenAllParts();
+        when(sessionRepository.claimForCompletion(eq(UPLOAD_ID), any(), any())).thenReturn(1);
+        doThrow(new UncheckedIOException(new IOException("connection reset")))
+            .when(storage).completeMultipartUpload(anyString(), anyString(), anyList());
+        
+        assertThatThrownBy(() -> service.complete(UPLOAD_ID, OWNER_ID)).isInstanceOf(UncheckedIOException.class);
+        
+        verify(sessionRepository).releaseCompletion(UPLOAD_ID);
+        verify(fileRepository, never()).save(any());
+    }
+    
+    @Test
+    void completeWithMissingPartsListsThemWithoutClaiming() {
+        when(partRepository.findByUploadIdOrderByPartNumber(UPLOAD_ID)).thenReturn(List.of(part(2)));
+        
+        assertThatThrownBy(() -> service.complete(UPLOAD_ID, OWNER_ID))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("missing parts [1]");
+        
+        verify(sessionRepository, never()).claimForCompletion(any(), any(), any());
+    }
+    
+    private void givenAllParts() {
+        when(partRepository.findByUploadIdOrderByPartNumber(UPLOAD_ID)).thenReturn(List.of(part(1), part(2)));
+    }
+    
+    private static UploadPart part(int number) {
+        return UploadPart.builder()
+            .uploadId(UPLOAD_ID)
+            .partNumber(number)
+            .size(number == 1 ? PART_SIZE : LAST_PART.length)
+            .etag("etag-" + number)
+            .sha256(sha256(new byte[] {(byte) number}))
+            .build();
+    }
+    
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
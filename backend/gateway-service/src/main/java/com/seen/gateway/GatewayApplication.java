@@ -1,64 +1,153 @@
 package com.seen.gateway;
 
+import com.seen.gateway.cache.RedisResponseCacheGatewayFilterFactory;
+import com.seen.gateway.ratelimit.HybridRateLimiter;
+import com.seen.gateway.resilience.HedgedRequestFilter;
+import com.seen.gateway.resilience.UpstreamProtectionGatewayFilterFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
 import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
-import reactor.core.publisher.Mono;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.security.Principal;
+import java.time.Duration;
 
 @SpringBootApplication
 public class GatewayApplication {
     
+    @Value("${rate-limiter.replenish-rate:10}")
+    private int replenishRate;
+    
+    @Value("${rate-limiter.burst-capacity:20}")
+    private int burstCapacity;
+    
+    @Value("${rate-limiter.requested-tokens:1}")
+    private int requestedTokens;
+    
+    @Value("${response-cache.public-analytics.fresh-ttl:PT1M}")
+    private Duration publicAnalyticsFreshTtl;
+    
+    @Value("${response-cache.public-analytics.stale-ttl:PT10M}")
+    private Duration publicAnalyticsStaleTtl;
+    
+    @Value("${hedging.report-service:PT0.25S}")
+    private Duration reportHedgeAfter;
+    
+    @Value("${hedging.analytics-service:PT0.25S}")
+    private Duration analyticsHedgeAfter;
+    
+    @Value("${file-transfer.response-timeout:PT15M}")
+    private Duration fileResponseTimeout;
+    
     public static void main(String[] args) {
         SpringApplication.run(GatewayApplication.class, args);
     }
     
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(
+            RouteLocatorBuilder builder,
+            RateLimiter<?> rateLimiter,
+            KeyResolver userKeyResolver,
+            RedisResponseCacheGatewayFilterFactory responseCache,
+            UpstreamProtectionGatewayFilterFactory protection) {
         return builder.routes()
             .route("auth-service", r -> r
                 .path("/api/auth/**")
-                .filters(f -> f.stripPrefix(2))
+                .filters(f -> f
+                    .stripPrefix(2)
+                    .filter(protection.apply(config -> config.setName("auth-service"))))
                 .uri("lb://auth-service"))
+            // Streams the whole export, so it is never hedged
+            .route("report-export", r -> r
+                .path("/api/reports/export")
+                .filters(f -> f
+                    .stripPrefix(2)
+                    .requestRateLimiter(config -> config
+                        .setRateLimiter(rateLimiter)
+                        .setKeyResolver(userKeyResolver))
+                    .filter(protection.apply(config -> config.setName("report-service"))))
+                .uri("lb://report-service"))
             .route("report-service", r -> r
                 .path("/api/reports/**")
                 .filters(f -> f
                     .stripPrefix(2)
                     .requestRateLimiter(config -> config
-                        .setRateLimiter(redisRateLimiter())
-                        .setKeyResolver(userKeyResolver())))
+                        .setRateLimiter(rateLimiter)
+                        .setKeyResolver(userKeyResolver))
+                    .filter(protection.apply(config -> config.setName("report-service"))))
+                .metadata(HedgedRequestFilter.HEDGE_AFTER, reportHedgeAfter)
                 .uri("lb://report-service"))
+            // Anonymous Landing and Impact page traffic; the aggregates change minutes apart
+            .route("analytics-public", r -> r
+                .path("/api/analytics/public/**")
+                .filters(f -> f
+                    .stripPrefix(2)
+                    .filter(responseCache.apply(config -> {
+                        config.setFreshTtl(publicAnalyticsFreshTtl);
+                        config.setStaleTtl(publicAnalyticsStaleTtl);
+                    }))
+                    .filter(protection.apply(config -> config.setName("analytics-service"))))
+                .metadata(HedgedRequestFilter.HEDGE_AFTER, analyticsHedgeAfter)
+                .uri("lb://analytics-service"))
             .route("analytics-service", r -> r
                 .path("/api/analytics/**")
-                .filters(f -> f.stripPrefix(2))
+                .filters(f -> f
+                    .stripPrefix(2)
+                    .filter(protection.apply(config -> config.setName("analytics-service"))))
+                .metadata(HedgedRequestFilter.HEDGE_AFTER, analyticsHedgeAfter)
                 .uri("lb://analytics-service"))
+            // Transfer time follows file size, so latency says nothing about load and the
+            // adaptive limit would starve uploads; bodies stream through in both directions
             .route("file-service", r -> r
                 .path("/api/files/**")
-                .filters(f -> f.stripPrefix(2))
+                .filters(f -> f
+                    .stripPrefix(2))
+                .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, fileResponseTimeout.toMillis())
                 .uri("lb://file-service"))
             .route("support-service", r -> r
                 .path("/api/support/**")
-                .filters(f -> f.stripPrefix(2))
+                .filters(f -> f
+                    .stripPrefix(2)
+                    .filter(protection.apply(config -> config.setName("support-service"))))
                 .uri("lb://support-service"))
             .build();
     }
     
     @Bean
     @Primary
+    @ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "redis")
     public RedisRateLimiter redisRateLimiter() {
-        return new RedisRateLimiter(10, 20, 1);
+        return new RedisRateLimiter(replenishRate, burstCapacity, requestedTokens);
+    }
+    
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "hybrid", matchIfMissing = true)
+    public HybridRateLimiter hybridRateLimiter(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${rate-limiter.hybrid.sync-interval:PT0.1S}") Duration syncInterval,
+            @Value("${rate-limiter.hybrid.window:PT1S}") Duration window,
+            MeterRegistry meterRegistry) {
+        return new HybridRateLimiter(
+            redisTemplate, replenishRate, burstCapacity, requestedTokens, syncInterval, window, meterRegistry);
     }
     
     @Bean
     @Primary
     public KeyResolver userKeyResolver() {
-        return exchange -> {
-            String userId = exchange.getRequest().getHeaders().getFirst("X-User-ID");
-            return Mono.just(userId != null ? userId : "anonymous");
-        };
+        // Identity comes from the verified JWT principal, never from client-supplied headers
+        return exchange -> exchange.getPrincipal()
+            .map(Principal::getName)
+            .defaultIfEmpty("anonymous");
     }
-}
\ No newline at end of file
+}
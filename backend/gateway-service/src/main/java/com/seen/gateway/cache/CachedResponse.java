@@ -0,0 +1,97 @@
+package com.seen.gateway.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Upstream response as held in the cache: status, content type, ETag, time stored,
+ * the gzip-compressed body and whether upstream marked it public, which is what
+ * allows serving it to requests that carry credentials.
+ */
+record CachedResponse(int status, String contentType, String etag, long storedAt, byte[] gzippedBody, boolean explicitlyPublic) {
+    
+    private static final int FORMAT = 2;
+    
+    static CachedResponse of(int status, String contentType, String etag, byte[] body, boolean explicitlyPublic) {
+        return new CachedResponse(status, contentType, etag != null ? etag : weakEtag(body),
+            System.currentTimeMillis(), gzip(body), explicitlyPublic);
+    }
+    
+    Duration age() {
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - storedAt));
+    }
+    
+    byte[] body() {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzippedBody))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(gzippedBody.length + 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT);
+            out.writeInt(status);
+            out.writeUTF(contentType != null ? contentType : "");
+            out.writeUTF(etag);
+            out.writeLong(storedAt);
+            out.writeInt(gzippedBody.length);
+            out.write(gzippedBody);
+            out.writeBoolean(explicitlyPublic);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    static CachedResponse fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int format = in.readInt();
+            if (format != FORMAT) {
+                throw new IOException("Unsupported cached response format " + format);
+            }
+            int status = in.readInt();
+            String contentType = in.readUTF();
+            String etag = in.readUTF();
+            long storedAt = in.readLong();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            boolean explicitlyPublic = in.readBoolean();
+            return new CachedResponse(status, contentType.isEmpty() ? null : contentType, etag, storedAt, body, explicitlyPublic);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    // Weak, because the same entity is served both gzip-encoded and as is
+    private static String weakEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
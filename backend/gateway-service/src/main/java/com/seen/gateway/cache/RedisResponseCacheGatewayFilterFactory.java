@@ -0,0 +1,302 @@
+package com.seen.gateway.cache;
+
+import com.seen.gateway.support.CapturingExchange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches a route's GET responses in Redis, gzip-compressed and keyed by URI and Accept.
+ * An entry is served as is for {@code freshTtl}, then for up to {@code staleTtl} more
+ * while one background call revalidates it; a short Redis lock keeps that to one call
+ * across gateway replicas. Requests whose If-None-Match matches the cached ETag get a 304.
+ * Requests carrying credentials are only answered from, or stored as, responses upstream
+ * marked public, and only anonymous requests share an in-flight upstream call.
+ * Responses that cannot be cached are passed through untouched.
+ */
+@Component
+@Slf4j
+public class RedisResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RedisResponseCacheGatewayFilterFactory.Config> {
+    
+    private static final String KEY_PREFIX = "response_cache.";
+    private static final String LOCK_SUFFIX = ".revalidating";
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final byte[] LOCK_VALUE = "1".getBytes(StandardCharsets.US_ASCII);
+    private static final Set<String> VARIED_HEADERS = Set.of("accept", "accept-encoding");
+    
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final Map<String, Mono<Fetched>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Timer lookupTimer;
+    private final Timer storeTimer;
+    
+    public RedisResponseCacheGatewayFilterFactory(
+            ReactiveRedisTemplate<String, byte[]> binaryRedisTemplate,
+            MeterRegistry meterRegistry) {
+        
+        super(Config.class);
+        this.redisTemplate = binaryRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.lookupTimer = meterRegistry.timer("gateway.redis", "operation", "response_cache.lookup");
+        this.storeTimer = meterRegistry.timer("gateway.redis", "operation", "response_cache.store");
+    }
+    
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("freshTtl", "staleTtl");
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Ordered outside NettyWriteResponseFilter, so upstream bodies are written into the capturing
+        // exchange, and outside HedgedRequestFilter, so a hit is never hedged
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config),
+            NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+    
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        
+        String key = cacheKey(request);
+        boolean anonymous = isAnonymous(request);
+        return lookup(key)
+            .filter(cached -> anonymous || cached.explicitlyPublic())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(cached -> {
+                if (cached.isEmpty()) {
+                    Mono<Fetched> fetched = anonymous
+                        ? load(exchange, chain, key, config)
+                        : fetch(upstreamExchange(exchange), chain, key, false, config);
+                    return fetched.flatMap(loaded -> loaded.cached() != null
+                        ? write(exchange, loaded.cached(), "MISS", config)
+                        : passThrough(exchange, loaded.upstream()));
+                }
+                if (cached.get().age().compareTo(config.getFreshTtl()) <= 0) {
+                    return write(exchange, cached.get(), "HIT", config);
+                }
+                revalidate(upstreamExchange(exchange), chain, key, anonymous, config);
+                return write(exchange, cached.get(), "STALE", config);
+            });
+    }
+    
+    // The cache answers conditional requests itself and compresses what it stores
+    private static CapturingExchange upstreamExchange(ServerWebExchange exchange) {
+        return new CapturingExchange(exchange, headers -> {
+            headers.remove(HttpHeaders.IF_NONE_MATCH);
+            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+            headers.remove(HttpHeaders.ACCEPT_ENCODING);
+        });
+    }
+    
+    // Accept-Encoding needs no part in the key: the body is stored compressed and decoded on the way out
+    private static String cacheKey(ServerHttpRequest request) {
+        return KEY_PREFIX + request.getURI().getRawPath()
+            + "?" + Optional.ofNullable(request.getURI().getRawQuery()).orElse("")
+            + "#" + String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+    }
+    
+    private static boolean isAnonymous(ServerHttpRequest request) {
+        return !request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+            && !request.getHeaders().containsKey(HttpHeaders.COOKIE);
+    }
+    
+    private Mono<CachedResponse> lookup(String key) {
+        return timed(redisTemplate.opsForValue().get(key), lookupTimer)
+            .map(CachedResponse::fromBytes)
+            .onErrorResume(e -> {
+                log.warn("Response cache lookup of {} failed, treating as miss: {}", key, e.getMessage());
+                return Mono.empty();
+            });
+    }
+    
+    /**
+     * Calls upstream once per key at a time for anonymous requests. Callers arriving
+     * meanwhile get the same response if it can be cached; anything else, such as a
+     * response setting a cookie, was meant for the first caller only, so they call
+     * upstream themselves.
+     */
+    private Mono<Fetched> load(ServerWebExchange exchange, GatewayFilterChain chain, String key, Config config) {
+        boolean[] leader = new boolean[1];
+        Mono<Fetched> shared = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return fetch(upstreamExchange(exchange), chain, k, true, config)
+                .doFinally(signal -> inFlight.remove(k))
+                .cache();
+        });
+        if (leader[0]) {
+            return shared;
+        }
+        return shared.flatMap(fetched -> fetched.cached() != null
+            ? Mono.just(fetched)
+            : fetch(upstreamExchange(exchange), chain, key, true, config));
+    }
+    
+    private Mono<Fetched> fetch(CapturingExchange upstream, GatewayFilterChain chain, String key, boolean anonymous,
+            Config config) {
+        return chain.filter(upstream)
+            .then(Mono.fromCallable(() -> new Fetched(upstream.getResponse(),
+                toCachedResponse(upstream.getResponse(), anonymous, config))))
+            .flatMap(fetched -> fetched.cached() != null
+                ? store(key, fetched.cached(), config).thenReturn(fetched)
+                : Mono.just(fetched));
+    }
+    
+    /**
+     * @return the response as it would be cached, or null when it must not be
+     */
+    private CachedResponse toCachedResponse(CapturingExchange.CapturingResponse response, boolean anonymous,
+            Config config) {
+        HttpHeaders headers = response.getHeaders();
+        HttpStatusCode status = response.getStatusCode() != null ? response.getStatusCode() : HttpStatus.OK;
+        String cacheControl = Optional.ofNullable(headers.getCacheControl()).orElse("").toLowerCase();
+        boolean explicitlyPublic = cacheControl.contains("public");
+        boolean cacheable = status.value() == HttpStatus.OK.value()
+            && !headers.containsKey(HttpHeaders.SET_COOKIE)
+            && response.getCookies().isEmpty()
+            && !cacheControl.contains("no-store")
+            && !cacheControl.contains("private")
+            && headers.getVary().stream().allMatch(name -> VARIED_HEADERS.contains(name.toLowerCase()))
+            && response.body().length <= config.getMaxBodySize().toBytes()
+            // A shared cache may keep a response to a request with credentials only if upstream says so
+            && (anonymous || explicitlyPublic);
+        if (!cacheable) {
+            return null;
+        }
+        return CachedResponse.of(status.value(), headers.getFirst(HttpHeaders.CONTENT_TYPE), headers.getETag(),
+            response.body(), explicitlyPublic);
+    }
+    
+    private Mono<CachedResponse> store(String key, CachedResponse response, Config config) {
+        Duration ttl = config.getFreshTtl().plus(config.getStaleTtl());
+        return timed(redisTemplate.opsForValue().set(key, response.toBytes(), ttl), storeTimer)
+            .onErrorResume(e -> {
+                log.warn("Response cache store of {} failed: {}", key, e.getMessage());
+                return Mono.just(false);
+            })
+            .thenReturn(response);
+    }
+    
+    /**
+     * Refreshes an entry in the background. The exchange is a snapshot taken before the
+     * client is answered from the stale entry, so the upstream call does not depend on it.
+     */
+    private void revalidate(CapturingExchange upstream, GatewayFilterChain chain, String key, boolean anonymous,
+            Config config) {
+        String lockKey = key + LOCK_SUFFIX;
+        redisTemplate.opsForValue().setIfAbsent(lockKey, LOCK_VALUE, config.getRevalidateTimeout())
+            .filter(Boolean::booleanValue)
+            .flatMap(locked -> fetch(upstream, chain, key, anonymous, config)
+                .timeout(config.getRevalidateTimeout())
+                .doFinally(signal -> redisTemplate.delete(lockKey).subscribe()))
+            .subscribe(
+                fresh -> log.debug("Revalidated {}", key),
+                e -> log.warn("Revalidating {} failed, serving stale: {}", key, e.getMessage()));
+    }
+    
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        recordCacheStatus(response, cacheStatus);
+        
+        Duration age = cached.age();
+        Duration fresh = config.getFreshTtl().minus(age);
+        headers.set(HttpHeaders.AGE, Long.toString(age.toSeconds()));
+        headers.setCacheControl(CacheControl.maxAge(fresh.isNegative() ? Duration.ZERO : fresh)
+            .cachePublic()
+            .staleWhileRevalidate(config.getStaleTtl()));
+        headers.setETag(cached.etag());
+        headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        if (matches(request.getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        byte[] body;
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = cached.gzippedBody();
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            body = cached.body();
+        }
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+    
+    /**
+     * Relays a response that was not cached with its status, headers and cookies intact.
+     */
+    private Mono<Void> passThrough(ServerWebExchange exchange, CapturingExchange.CapturingResponse upstream) {
+        recordCacheStatus(exchange.getResponse(), "BYPASS");
+        return upstream.relayTo(exchange.getResponse());
+    }
+    
+    private void recordCacheStatus(ServerHttpResponse response, String cacheStatus) {
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        meterRegistry.counter("gateway.response.cache", "result", cacheStatus.toLowerCase()).increment();
+    }
+    
+    private <T> Mono<T> timed(Mono<T> operation, Timer timer) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return operation.doFinally(signal -> sample.stop(timer));
+        });
+    }
+    
+    // If-None-Match uses weak comparison: W/"x" matches "x"
+    private boolean matches(List<String> ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || stripWeak(tag).equals(opaque));
+    }
+    
+    private String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+    
+    private record Fetched(CapturingExchange.CapturingResponse upstream, CachedResponse cached) {
+    }
+    
+    @Data
+    public static class Config {
+        private Duration freshTtl = Duration.ofMinutes(1);
+        private Duration staleTtl = Duration.ofMinutes(10);
+        private Duration revalidateTimeout = Duration.ofSeconds(30);
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+}
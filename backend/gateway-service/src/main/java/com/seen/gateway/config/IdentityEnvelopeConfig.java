@@ -0,0 +1,15 @@
+package com.seen.gateway.config;
+
+import com.seen.identity.IdentityEnvelopeSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdentityEnvelopeConfig {
+    
+    @Bean
+    public IdentityEnvelopeSigner identityEnvelopeSigner(@Value("${identity.envelope.secret}") String secret) {
+        return new IdentityEnvelopeSigner(secret);
+    }
+}
@@ -0,0 +1,38 @@
+package com.seen.gateway.config;
+
+import com.seen.gateway.loadbalancer.InstanceLoadTracker;
+import com.seen.gateway.loadbalancer.InstanceLoadTrackingFilter;
+import com.seen.gateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Latency-aware balancing for every lb:// route; load-balancer.mode=round-robin
+ * falls back to Spring Cloud LoadBalancer's default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "load-balancer.mode", havingValue = "peak-ewma", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+    
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(
+            @Value("${load-balancer.peak-ewma.decay:PT10S}") Duration decay,
+            @Value("${load-balancer.outlier-detection.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${load-balancer.outlier-detection.base-ejection-time:PT30S}") Duration baseEjectionTime,
+            @Value("${load-balancer.outlier-detection.max-ejection-time:PT5M}") Duration maxEjectionTime,
+            MeterRegistry meterRegistry) {
+        return new InstanceLoadTracker(decay, consecutiveFailures, baseEjectionTime, maxEjectionTime, meterRegistry);
+    }
+    
+    @Bean
+    public InstanceLoadTrackingFilter instanceLoadTrackingFilter(InstanceLoadTracker instanceLoadTracker) {
+        return new InstanceLoadTrackingFilter(instanceLoadTracker);
+    }
+}
@@ -0,0 +1,39 @@
+package com.seen.gateway.config;
+
+import com.seen.gateway.security.VerifiedClaimsCache;
+import com.seen.revocation.TokenRevocationCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+    
+    @Bean
+    public TokenRevocationCache tokenRevocationCache(
+            @Value("${jwt.refresh-expiration:604800000}") long maxTokenLifetimeMillis,
+            VerifiedClaimsCache claimsCache) {
+        // Claims cached for a revoked token must not outlive the revocation check
+        return new TokenRevocationCache(maxTokenLifetimeMillis, claimsCache::invalidate);
+    }
+    
+    @Bean
+    public ReactiveRedisMessageListenerContainer reactiveRedisMessageListenerContainer(
+            ReactiveRedisConnectionFactory connectionFactory) {
+        return new ReactiveRedisMessageListenerContainer(connectionFactory);
+    }
+    
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> binaryRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+            .<String, byte[]>newSerializationContext(RedisSerializer.string())
+            .value(RedisSerializer.byteArray())
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+}
@@ -33,6 +33,8 @@ public class SecurityConfig {
             .authorizeExchange(exchanges -> exchanges
                 .pathMatchers("/api/auth/login", "/api/auth/register", "/api/auth/verify-email").permitAll()
                 .pathMatchers("/api/analytics/public/**").permitAll()
+                .pathMatchers("/api/analytics/admin/**").hasRole("ADMIN")
+                .pathMatchers("/api/analytics/stream/report-status").hasAnyRole("MODERATOR", "ADMIN")
                 .pathMatchers("/actuator/health", "/actuator/info").permitAll()
                 .pathMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .anyExchange().authenticated()
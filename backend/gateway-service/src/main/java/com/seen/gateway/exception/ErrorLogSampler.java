@@ -0,0 +1,51 @@
+package com.seen.gateway.exception;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets one log line per key through per interval and counts the rest, so a
+ * failing upstream produces a line every few seconds instead of one per request.
+ */
+class ErrorLogSampler {
+    
+    private static final int MAX_KEYS = 1_000;
+    
+    private final long intervalNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    
+    ErrorLogSampler(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+    
+    /**
+     * Returns -1 if this occurrence should not be logged, otherwise the number
+     * of occurrences suppressed since the last one that was.
+     */
+    long sample(String key) {
+        if (windows.size() >= MAX_KEYS && !windows.containsKey(key)) {
+            windows.clear();
+        }
+        return windows.computeIfAbsent(key, k -> new Window()).sample(System.nanoTime(), intervalNanos);
+    }
+    
+    private static final class Window {
+        
+        private long suppressed;
+        private long lastLogged;
+        private boolean logged;
+        
+        synchronized long sample(long now, long intervalNanos) {
+            if (logged && now - lastLogged < intervalNanos) {
+                suppressed++;
+                return -1;
+            }
+            logged = true;
+            lastLogged = now;
+            long count = suppressed;
+            suppressed = 0;
+            return count;
+        }
+    }
+}
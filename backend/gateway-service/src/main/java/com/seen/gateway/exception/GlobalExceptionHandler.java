@@ -1,6 +1,8 @@
 package com.seen.gateway.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -11,19 +13,31 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.net.ConnectException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
 
 @Component
 @Order(-1)
 @Slf4j
 public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
     
+    private final ErrorLogSampler sampler;
+    private final MeterRegistry meterRegistry;
+    
+    public GlobalExceptionHandler(
+            @Value("${error-logging.interval:PT10S}") Duration logInterval,
+            MeterRegistry meterRegistry) {
+        this.sampler = new ErrorLogSampler(logInterval);
+        this.meterRegistry = meterRegistry;
+    }
+    
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
-        log.error("Gateway error: ", ex);
-        
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
         String message = "Internal Server Error";
+        boolean expected = true;
         
         if (ex instanceof ResponseStatusException) {
             ResponseStatusException rse = (ResponseStatusException) ex;
@@ -32,8 +46,18 @@ public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
         } else if (ex instanceof IllegalArgumentException) {
             status = HttpStatus.BAD_REQUEST;
             message = "Bad Request: " + ex.getMessage();
+        } else if (ex instanceof ConnectException) {
+            status = HttpStatus.BAD_GATEWAY;
+            message = "Upstream service unreachable";
+        } else if (ex instanceof TimeoutException) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+            message = "Upstream service timed out";
+        } else {
+            expected = false;
         }
         
+        log(exchange, ex, status, expected);
+        
         exchange.getResponse().setStatusCode(status);
         exchange.getResponse().getHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
         
@@ -48,4 +72,29 @@ public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
         
         return exchange.getResponse().writeWith(Mono.just(buffer));
     }
-}
\ No newline at end of file
+    
+    // Failures come in bursts when an upstream degrades, so logging is sampled per exception and status
+    private void log(ServerWebExchange exchange, Throwable ex, HttpStatus status, boolean expected) {
+        String exception = ex.getClass().getSimpleName();
+        meterRegistry.counter("gateway.errors", "exception", exception, "status", Integer.toString(status.value()))
+            .increment();
+        
+        if (status.is4xxClientError()) {
+            log.debug("Gateway request rejected with {}: {} {}", status.value(), exception, ex.getMessage());
+            return;
+        }
+        
+        long suppressed = sampler.sample(exception + ":" + status.value());
+        if (suppressed < 0) {
+            return;
+        }
+        
+        String path = exchange.getRequest().getPath().value();
+        if (expected) {
+            log.warn("Gateway error {} on {}: {} {} ({} similar suppressed)",
+                status.value(), path, exception, ex.getMessage(), suppressed);
+        } else {
+            log.error("Gateway error on {} ({} similar suppressed): ", path, suppressed, ex);
+        }
+    }
+}
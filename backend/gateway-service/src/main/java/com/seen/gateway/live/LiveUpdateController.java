@@ -0,0 +1,29 @@
+package com.seen.gateway.live;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Served by the gateway itself rather than routed, so every browser shares the
+ * hub's upstream subscription. Mapped handlers take precedence over routes.
+ */
+@RestController
+@RequiredArgsConstructor
+public class LiveUpdateController {
+    
+    private final LiveUpdateHub hub;
+    
+    @GetMapping(path = "/api/analytics/public/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> aggregates() {
+        return hub.subscribe("aggregates");
+    }
+    
+    @GetMapping(path = "/api/analytics/stream/report-status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> reportStatus() {
+        return hub.subscribe("report-status");
+    }
+}
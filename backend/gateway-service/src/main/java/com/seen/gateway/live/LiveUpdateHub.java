@@ -0,0 +1,128 @@
+package com.seen.gateway.live;
+
+import com.seen.identity.IdentityEnvelopeSigner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans analytics-service's server-sent event topics out to browsers. Each topic
+ * has one upstream subscription per gateway, shared by every client on it and
+ * closed shortly after the last one leaves; upstream already coalesces bursts
+ * into one event per interval. Each upstream (re)connection starts with a
+ * resync event, telling clients to reload the aggregates they apply deltas to.
+ * A client too slow to keep up is disconnected rather than buffered without
+ * bound, and resyncs when its EventSource reconnects. Upstream connections carry
+ * the gateway's own SERVICE identity, since they are shared across clients.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub {
+    
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+        new ParameterizedTypeReference<>() {
+        };
+    private static final List<String> SERVICE_ROLES = List.of("SERVICE");
+    // Checked only when a connection is opened
+    private static final Duration ENVELOPE_TTL = Duration.ofMinutes(1);
+    
+    private final WebClient webClient;
+    private final IdentityEnvelopeSigner envelopeSigner;
+    private final Duration idleTimeout;
+    private final Duration linger;
+    private final Duration clientRetry;
+    private final int clientBuffer;
+    private final Map<String, Flux<ServerSentEvent<String>>> topics = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscribers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    public LiveUpdateHub(
+            LoadBalancedExchangeFilterFunction loadBalancer,
+            IdentityEnvelopeSigner envelopeSigner,
+            @Value("${live-updates.idle-timeout:PT45S}") Duration idleTimeout,
+            @Value("${live-updates.linger:PT30S}") Duration linger,
+            @Value("${live-updates.client-retry:PT5S}") Duration clientRetry,
+            @Value("${live-updates.client-buffer:256}") int clientBuffer,
+            MeterRegistry meterRegistry) {
+        
+        this.webClient = WebClient.builder()
+            .baseUrl("http://analytics-service")
+            .filter(loadBalancer)
+            .build();
+        this.envelopeSigner = envelopeSigner;
+        this.idleTimeout = idleTimeout;
+        this.linger = linger;
+        this.clientRetry = clientRetry;
+        this.clientBuffer = clientBuffer;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public Flux<ServerSentEvent<String>> subscribe(String topic) {
+        AtomicInteger count = subscribers.computeIfAbsent(topic, this::newSubscriberGauge);
+        ServerSentEvent<String> hello = ServerSentEvent.<String>builder()
+            .comment("connected")
+            .retry(clientRetry)
+            .build();
+        
+        return topics.computeIfAbsent(topic, this::share)
+            .startWith(hello)
+            .onBackpressureBuffer(clientBuffer, dropped -> meterRegistry.counter(
+                "gateway.live.disconnects", "topic", topic, "cause", "slow_client").increment(),
+                BufferOverflowStrategy.ERROR)
+            // Ends the response cleanly; the EventSource reconnects after the retry interval
+            .onErrorResume(Exceptions::isOverflow, e -> Flux.empty())
+            .doOnSubscribe(subscription -> count.incrementAndGet())
+            .doFinally(signal -> count.decrementAndGet());
+    }
+    
+    private Flux<ServerSentEvent<String>> share(String topic) {
+        return Flux.defer(() -> {
+                meterRegistry.counter("gateway.live.upstream.connects", "topic", topic).increment();
+                return webClient.get()
+                    .uri("/analytics/stream/{topic}", topic)
+                    .header(IdentityEnvelopeSigner.HEADER, serviceEnvelope(topic))
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .retrieve()
+                    .bodyToFlux(EVENT_TYPE)
+                    // Upstream sends heartbeats, so silence means the connection is gone
+                    .timeout(idleTimeout);
+            })
+            .doOnError(e -> log.warn("Live update stream {} from analytics-service failed: {}", topic, e.toString()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .transientErrors(true))
+            .repeatWhen(completed -> completed.delayElements(Duration.ofSeconds(1)))
+            .publish()
+            .refCount(1, linger);
+    }
+    
+    private String serviceEnvelope(String topic) {
+        return envelopeSigner.sign("gateway", SERVICE_ROLES, "live-updates:" + topic, Instant.now().plus(ENVELOPE_TTL));
+    }
+    
+    private AtomicInteger newSubscriberGauge(String topic) {
+        AtomicInteger count = new AtomicInteger();
+        Gauge.builder("gateway.live.subscribers", count, AtomicInteger::get)
+            .tag("topic", topic)
+            .register(meterRegistry);
+        return count;
+    }
+}
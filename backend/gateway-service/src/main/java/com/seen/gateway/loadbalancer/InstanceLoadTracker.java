@@ -0,0 +1,118 @@
+package com.seen.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared view of every lb:// instance's latency, in-flight requests and
+ * ejection state. Fed by {@link InstanceLoadTrackingFilter}, read by each
+ * service's {@link PeakEwmaLoadBalancer}. Instances are keyed by service and
+ * host:port, so static (simple discovery) instances work as well as registry ones.
+ */
+@Slf4j
+public class InstanceLoadTracker {
+    
+    private final long decayNanos;
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TrackedInstance> instances = new ConcurrentHashMap<>();
+    
+    public InstanceLoadTracker(
+            Duration decay,
+            int failureThreshold,
+            Duration baseEjectionTime,
+            Duration maxEjectionTime,
+            MeterRegistry meterRegistry) {
+        
+        this.decayNanos = decay.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Instances not currently ejected; all of them if every one is, since
+     * sending traffic to a suspect instance beats failing every request.
+     */
+    List<ServiceInstance> available(List<ServiceInstance> candidates) {
+        long now = System.nanoTime();
+        List<ServiceInstance> available = candidates.stream()
+            .filter(instance -> !track(instance).stats.isEjected(now))
+            .toList();
+        return available.isEmpty() ? candidates : available;
+    }
+    
+    double cost(ServiceInstance instance, long now) {
+        return track(instance).stats.cost(now);
+    }
+    
+    void selected(ServiceInstance instance) {
+        track(instance).selections.increment();
+    }
+    
+    InstanceStats stats(ServiceInstance instance) {
+        return track(instance).stats;
+    }
+    
+    void recordResponse(ServiceInstance instance, long latencyNanos) {
+        track(instance).stats.observe(latencyNanos, System.nanoTime());
+    }
+    
+    void recordFailure(ServiceInstance instance) {
+        TrackedInstance tracked = track(instance);
+        if (tracked.stats.recordFailure(System.nanoTime(), failureThreshold, baseEjectionNanos, maxEjectionNanos)) {
+            tracked.ejections.increment();
+            log.warn("Ejected {} instance {} after {} consecutive failures",
+                instance.getServiceId(), address(instance), failureThreshold);
+        }
+    }
+    
+    private TrackedInstance track(ServiceInstance instance) {
+        String address = address(instance);
+        return instances.computeIfAbsent(instance.getServiceId() + "/" + address,
+            key -> new TrackedInstance(new InstanceStats(decayNanos),
+                Tags.of("service", instance.getServiceId(), "instance", address)));
+    }
+    
+    public static String address(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+    
+    private final class TrackedInstance {
+        
+        private final InstanceStats stats;
+        private final Counter selections;
+        private final Counter ejections;
+        
+        private TrackedInstance(InstanceStats stats, Tags tags) {
+            this.stats = stats;
+            this.selections = meterRegistry.counter("gateway.lb.selections", tags);
+            this.ejections = meterRegistry.counter("gateway.lb.ejections", tags);
+            
+            Gauge.builder("gateway.lb.instance.latency", stats, s -> s.latencyNanos(System.nanoTime()) / 1_000_000d)
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .description("Peak EWMA of time to first response byte")
+                .register(meterRegistry);
+            Gauge.builder("gateway.lb.instance.in.flight", stats, InstanceStats::inFlight)
+                .tags(tags)
+                .register(meterRegistry);
+            Gauge.builder("gateway.lb.instance.ejected", stats, s -> s.isEjected(System.nanoTime()) ? 1 : 0)
+                .tags(tags)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.seen.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Runs right after the load balancer has picked an instance and reports the
+ * request back to {@link InstanceLoadTracker}: in flight until it completes,
+ * latency until the rest of the chain completes, and failure on connection
+ * errors, timeouts and 502/503/504. The chain completes once the upstream
+ * status and headers are in; the body is written further out by
+ * NettyWriteResponseFilter, so long downloads and streams do not count as
+ * slowness. Recording on completion rather than in beforeCommit also covers
+ * routes whose response is wrapped by the hedging and caching filters.
+ */
+public class InstanceLoadTrackingFilter implements GlobalFilter, Ordered {
+    
+    private static final Set<Integer> GATEWAY_FAILURES = Set.of(502, 503, 504);
+    
+    private final InstanceLoadTracker tracker;
+    
+    public InstanceLoadTrackingFilter(InstanceLoadTracker tracker) {
+        this.tracker = tracker;
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> selection = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (selection == null || !selection.hasServer()) {
+            return chain.filter(exchange);
+        }
+        
+        ServiceInstance instance = selection.getServer();
+        InstanceStats stats = tracker.stats(instance);
+        
+        stats.start();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doOnSuccess(done -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && GATEWAY_FAILURES.contains(status.value())) {
+                    tracker.recordFailure(instance);
+                } else {
+                    tracker.recordResponse(instance, System.nanoTime() - start);
+                }
+            })
+            .doOnError(e -> tracker.recordFailure(instance))
+            .doFinally(signal -> stats.finish());
+    }
+    
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
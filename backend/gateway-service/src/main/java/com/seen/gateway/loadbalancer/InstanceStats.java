@@ -0,0 +1,97 @@
+package com.seen.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load and health of one upstream instance: peak-sensitive EWMA of response
+ * latency, requests in flight, and consecutive gateway failures for outlier
+ * ejection. A latency above the average replaces it outright, so a replica
+ * that stalls (GC pause, cold cache) looks slow immediately and recovers at
+ * the decay rate.
+ */
+final class InstanceStats {
+    
+    // Cost of an instance with requests in flight but no latency sample yet, so new instances are not flooded
+    private static final double UNSAMPLED_PENALTY_NANOS = 1_000_000_000d;
+    
+    private final double decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    // Guarded by this
+    private double ewmaNanos;
+    private long lastObservedAt;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+    
+    InstanceStats(long decayNanos) {
+        this.decayNanos = decayNanos;
+    }
+    
+    void start() {
+        inFlight.incrementAndGet();
+    }
+    
+    void finish() {
+        inFlight.decrementAndGet();
+    }
+    
+    int inFlight() {
+        return inFlight.get();
+    }
+    
+    synchronized void observe(long latencyNanos, long now) {
+        if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-Math.max(0, now - lastObservedAt) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastObservedAt = now;
+        consecutiveFailures = 0;
+    }
+    
+    /**
+     * Returns true if this failure ejected the instance. Repeat ejections last
+     * longer, up to maxEjectionNanos; the multiplier resets once the instance
+     * has stayed in rotation for that long.
+     */
+    synchronized boolean recordFailure(long now, int threshold, long baseEjectionNanos, long maxEjectionNanos) {
+        if (++consecutiveFailures < threshold) {
+            return false;
+        }
+        
+        if (ejections > 0 && now - ejectedUntil > maxEjectionNanos) {
+            ejections = 0;
+        }
+        ejections++;
+        ejectedUntil = now + Math.min(baseEjectionNanos * ejections, maxEjectionNanos);
+        consecutiveFailures = 0;
+        return true;
+    }
+    
+    synchronized boolean isEjected(long now) {
+        return ejections > 0 && now - ejectedUntil < 0;
+    }
+    
+    /**
+     * Expected wait for a new request: decayed latency times the queue it would join.
+     */
+    synchronized double cost(long now) {
+        double latency = decayedEwma(now);
+        int active = inFlight.get();
+        if (latency == 0 && active > 0) {
+            return UNSAMPLED_PENALTY_NANOS + active;
+        }
+        return latency * (active + 1);
+    }
+    
+    synchronized double latencyNanos(long now) {
+        return decayedEwma(now);
+    }
+    
+    // An idle instance drifts back toward zero, so it is probed again
+    private double decayedEwma(long now) {
+        return ewmaNanos * Math.exp(-Math.max(0, now - lastObservedAt) / decayNanos);
+    }
+}
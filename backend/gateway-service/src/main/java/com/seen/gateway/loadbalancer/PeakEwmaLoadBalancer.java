@@ -0,0 +1,99 @@
+package com.seen.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: picks two distinct instances at random and sends the
+ * request to the one with the lower expected wait (peak EWMA latency times
+ * requests in flight). Ejected outliers are skipped. Unlike round robin, a
+ * replica in a GC pause or with a cold cache stops getting an equal share as
+ * soon as its responses slow down.
+ * <p>
+ * A request carrying {@value #AVOID_INSTANCE_HEADER} (host:port) goes elsewhere
+ * if another instance is available; hedged requests use it to skip the
+ * instance the original is still waiting on.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    
+    public static final String AVOID_INSTANCE_HEADER = "X-Gateway-Avoid-Instance";
+    
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceLoadTracker tracker;
+    
+    public PeakEwmaLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+            String serviceId,
+            InstanceLoadTracker tracker) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+    }
+    
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+            .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String avoid = request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null
+            ? context.getClientRequest().getHeaders().getFirst(AVOID_INSTANCE_HEADER)
+            : null;
+        return supplier.get(request).next()
+            .map(instances -> {
+                Response<ServiceInstance> response = choose(instances, avoid);
+                if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                    callback.selectedServiceInstance(response.getServer());
+                }
+                return response;
+            });
+    }
+    
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, String avoid) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        
+        List<ServiceInstance> candidates = tracker.available(instances);
+        if (avoid != null && candidates.size() > 1) {
+            List<ServiceInstance> others = candidates.stream()
+                .filter(instance -> !InstanceLoadTracker.address(instance).equals(avoid))
+                .toList();
+            candidates = others.isEmpty() ? candidates : others;
+        }
+        ServiceInstance chosen;
+        if (candidates.size() == 1) {
+            chosen = candidates.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            
+            long now = System.nanoTime();
+            ServiceInstance a = candidates.get(first);
+            ServiceInstance b = candidates.get(second);
+            chosen = tracker.cost(a, now) <= tracker.cost(b, now) ? a : b;
+        }
+        
+        tracker.selected(chosen);
+        return new DefaultResponse(chosen);
+    }
+}
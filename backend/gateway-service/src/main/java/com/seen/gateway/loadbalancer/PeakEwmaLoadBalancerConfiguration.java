@@ -0,0 +1,29 @@
+package com.seen.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration, instantiated in each lb:// client's
+ * own context. Deliberately not a @Configuration, so component scanning does
+ * not register it in the gateway's context as well.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+    
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            InstanceLoadTracker instanceLoadTracker) {
+        
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+            loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+            serviceId,
+            instanceLoadTracker);
+    }
+}
@@ -0,0 +1,53 @@
+package com.seen.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Counts requests the gateway turns away, by cause. Runs outside the security
+ * chain so authentication and authorization failures are seen as well as
+ * rate limiting and shed load.
+ */
+@Component
+@RequiredArgsConstructor
+public class RejectedRequestMetricsFilter implements WebFilter, Ordered {
+    
+    private static final Map<Integer, String> CAUSES = Map.of(
+        401, "unauthenticated",
+        403, "forbidden",
+        413, "payload_too_large",
+        429, "rate_limited",
+        503, "unavailable");
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // An error has no status on the response yet; the exception handler sets it after this filter
+        return chain.filter(exchange)
+            .doOnSuccess(done -> record(exchange.getResponse().getStatusCode()))
+            .doOnError(e -> record(e instanceof ErrorResponse error ? error.getStatusCode() : null));
+    }
+    
+    private void record(HttpStatusCode status) {
+        String cause = status != null ? CAUSES.get(status.value()) : null;
+        if (cause != null) {
+            meterRegistry.counter("gateway.requests.rejected", "cause", cause).increment();
+        }
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
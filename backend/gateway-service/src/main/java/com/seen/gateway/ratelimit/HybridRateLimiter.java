@@ -0,0 +1,193 @@
+package com.seen.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limiter that admits requests from per-key buckets held in
+ * gateway memory and reconciles consumed tokens with Redis in batches every
+ * sync interval. Each replica learns the global consumption for the current
+ * window from the INCRBY result, which approximately enforces the limit across
+ * replicas; overshoot is bounded by what replicas can admit within one sync interval.
+ */
+@Slf4j
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+    
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+    private static final String KEY_PREFIX = "request_rate_limiter.hybrid.";
+    private static final int RECONCILE_CONCURRENCY = 64;
+    private static final int MAXIMUM_BUCKETS = 100_000;
+    
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Config defaultConfig;
+    private final Duration syncInterval;
+    private final Duration window;
+    private final Cache<String, TokenBucket> buckets;
+    private final Timer reconcileTimer;
+    private Disposable reconciler;
+    
+    public HybridRateLimiter(
+            ReactiveStringRedisTemplate redisTemplate,
+            int replenishRate,
+            int burstCapacity,
+            int requestedTokens,
+            Duration syncInterval,
+            Duration window,
+            MeterRegistry meterRegistry) {
+        this(redisTemplate, replenishRate, burstCapacity, requestedTokens, syncInterval, window, MAXIMUM_BUCKETS, meterRegistry);
+    }
+    
+    HybridRateLimiter(
+            ReactiveStringRedisTemplate redisTemplate,
+            int replenishRate,
+            int burstCapacity,
+            int requestedTokens,
+            Duration syncInterval,
+            Duration window,
+            int maximumBuckets,
+            MeterRegistry meterRegistry) {
+        
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, (ConfigurationService) null);
+        this.redisTemplate = redisTemplate;
+        this.defaultConfig = new Config()
+            .setReplenishRate(replenishRate)
+            .setBurstCapacity(burstCapacity)
+            .setRequestedTokens(requestedTokens);
+        this.syncInterval = syncInterval;
+        this.window = window;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maximumBuckets)
+            .expireAfterAccess(window.multipliedBy(2).plus(syncInterval))
+            .removalListener((String key, TokenBucket bucket, RemovalCause cause) -> {
+                if (cause.wasEvicted() && key != null && bucket != null) {
+                    flushEvicted(key, bucket);
+                }
+            })
+            .build();
+        this.reconcileTimer = meterRegistry.timer("gateway.redis", "operation", "rate_limiter.reconcile");
+    }
+    
+    @PostConstruct
+    public void start() {
+        reconciler = Flux.interval(syncInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> timed(reconcile())
+                .onErrorResume(e -> {
+                    log.warn("Rate limiter reconciliation failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.dispose();
+        }
+    }
+    
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = System.nanoTime();
+        long currentWindow = currentWindow();
+        
+        TokenBucket bucket = buckets.get(routeId + "." + id,
+            key -> new TokenBucket(config, Math.max(1, window.toSeconds()), now, currentWindow));
+        long remaining = bucket.tryConsume(now, currentWindow);
+        
+        return Mono.just(new Response(remaining >= 0, headers(config, Math.max(0, remaining))));
+    }
+    
+    private Mono<Void> timed(Mono<Void> operation) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return operation.doFinally(signal -> sample.stop(reconcileTimer));
+        });
+    }
+    
+    /**
+     * Flushes every bucket. A failed flush is put back into its bucket and
+     * does not stop the others; the errors are reported once all have run.
+     */
+    Mono<Void> reconcile() {
+        return Flux.fromIterable(buckets.asMap().entrySet())
+            .flatMapDelayError(entry -> sync(entry.getKey(), entry.getValue()), RECONCILE_CONCURRENCY, 1)
+            .then();
+    }
+    
+    private Flux<Long> sync(String key, TokenBucket bucket) {
+        return Flux.fromIterable(bucket.drainUnsynced())
+            .concatMapDelayError(pending -> increment(key, pending, () -> bucket.restore(pending))
+                .doOnNext(total -> bucket.reconcile(pending.window(), total)));
+    }
+    
+    /**
+     * Adds a pending count to the window's Redis counter. onFailure runs only
+     * when the INCRBY itself failed; once it has been applied, a failure to set
+     * the expiry must not put the count back and write it twice.
+     */
+    private Mono<Long> increment(String key, TokenBucket.Pending pending, Runnable onFailure) {
+        String redisKey = KEY_PREFIX + key + "." + pending.window();
+        return redisTemplate.opsForValue().increment(redisKey, pending.consumed())
+            .doOnError(e -> onFailure.run())
+            .flatMap(total -> total == pending.consumed()
+                ? redisTemplate.expire(redisKey, window.multipliedBy(2)).thenReturn(total)
+                : Mono.just(total));
+    }
+    
+    // An evicted bucket is no longer reconciled, so its pending count is written now or not at all
+    private void flushEvicted(String key, TokenBucket bucket) {
+        Flux.fromIterable(bucket.drainUnsynced())
+            .concatMapDelayError(pending -> increment(key, pending, () -> { }))
+            .subscribe(null, e -> log.warn("Could not flush evicted rate limiter bucket {}: {}", key, e.getMessage()));
+    }
+    
+    private long currentWindow() {
+        return System.currentTimeMillis() / window.toMillis();
+    }
+    
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+            RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+            RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+            RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()),
+            RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens())
+        );
+    }
+    
+    @Data
+    @Accessors(chain = true)
+    @Validated
+    public static class Config {
+        
+        @Min(1)
+        private int replenishRate;
+        
+        @Min(0)
+        private int burstCapacity = 1;
+        
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.seen.gateway.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-key local bucket. Admission is decided from the local token count and
+ * the last known global budget for the current window; consumption is
+ * recorded for the next reconciliation with Redis. Consumption from the
+ * previous window that was not yet flushed when the window rolled is carried
+ * until it is; anything older has outlived its Redis key and is dropped.
+ */
+final class TokenBucket {
+    
+    private final int replenishRate;
+    private final int burstCapacity;
+    private final int requestedTokens;
+    private final long windowLimit;
+    
+    private double tokens;
+    private long lastRefillNanos;
+    private long window;
+    private long windowRemaining;
+    private long unsynced;
+    private long carried;
+    
+    TokenBucket(HybridRateLimiter.Config config, long windowSeconds, long nowNanos, long currentWindow) {
+        this.replenishRate = config.getReplenishRate();
+        this.burstCapacity = config.getBurstCapacity();
+        this.requestedTokens = config.getRequestedTokens();
+        this.windowLimit = (long) replenishRate * windowSeconds + Math.max(0, burstCapacity - replenishRate);
+        this.tokens = burstCapacity;
+        this.lastRefillNanos = nowNanos;
+        this.window = currentWindow;
+        this.windowRemaining = windowLimit;
+    }
+    
+    /**
+     * @return tokens remaining after consuming, or -1 when the request is denied
+     */
+    synchronized long tryConsume(long nowNanos, long currentWindow) {
+        refill(nowNanos);
+        if (currentWindow != window) {
+            carried = currentWindow == window + 1 ? unsynced : 0;
+            window = currentWindow;
+            windowRemaining = windowLimit;
+            unsynced = 0;
+        }
+        
+        if (tokens < requestedTokens || windowRemaining < requestedTokens) {
+            return -1;
+        }
+        
+        tokens -= requestedTokens;
+        windowRemaining -= requestedTokens;
+        unsynced += requestedTokens;
+        return (long) Math.min(tokens, windowRemaining);
+    }
+    
+    /**
+     * Hands over everything not yet flushed, oldest window first. The caller
+     * must {@link #restore} a pending count it could not write to Redis.
+     */
+    synchronized List<Pending> drainUnsynced() {
+        List<Pending> pending = new ArrayList<>(2);
+        if (carried > 0) {
+            pending.add(new Pending(window - 1, carried));
+            carried = 0;
+        }
+        if (unsynced > 0) {
+            pending.add(new Pending(window, unsynced));
+            unsynced = 0;
+        }
+        return pending;
+    }
+    
+    /**
+     * Puts back a drained count whose flush failed, so the next
+     * reconciliation retries it.
+     */
+    synchronized void restore(Pending pending) {
+        if (pending.window() == window) {
+            unsynced += pending.consumed();
+        } else if (pending.window() == window - 1) {
+            carried += pending.consumed();
+        }
+    }
+    
+    /**
+     * Applies the global count returned by Redis, keeping consumption that
+     * happened locally while the reconciliation was in flight.
+     */
+    synchronized void reconcile(long syncedWindow, long globalConsumed) {
+        if (syncedWindow == window) {
+            windowRemaining = Math.max(0, windowLimit - globalConsumed - unsynced);
+        }
+    }
+    
+    private void refill(long nowNanos) {
+        double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(burstCapacity, tokens + elapsedSeconds * replenishRate);
+        lastRefillNanos = nowNanos;
+    }
+    
+    record Pending(long window, long consumed) {
+    }
+}
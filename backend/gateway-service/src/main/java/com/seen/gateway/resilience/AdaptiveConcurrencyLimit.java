@@ -0,0 +1,87 @@
+package com.seen.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one upstream that follows its latency. A short-term
+ * average rising above the no-load baseline (the lowest recent latency) means
+ * requests are queueing upstream, so the limit shrinks by that gradient;
+ * otherwise it grows by about sqrt(limit) every few samples. Failures and
+ * timeouts back it off multiplicatively. Excess requests are rejected instead
+ * of waiting in Reactor Netty.
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 100;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    
+    // Guarded by this
+    private double shortRttNanos;
+    private double baselineRttNanos;
+    private int samples;
+    
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+    
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    public synchronized void onSample(long rttNanos, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        if (baselineRttNanos == 0 || shortRttNanos < baselineRttNanos) {
+            baselineRttNanos = shortRttNanos;
+        }
+        if (++samples % SHORT_WINDOW != 0) {
+            return;
+        }
+        
+        // Latency without queueing can only be observed while the limit is not being reached; under
+        // load the baseline still drifts, more slowly, so an upstream that got slower for good is accepted
+        boolean limited = inFlight.get() >= limit / 2;
+        baselineRttNanos += (shortRttNanos - baselineRttNanos) / (limited ? LONG_WINDOW * 10 : LONG_WINDOW);
+        if (!limited) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+    
+    public int limit() {
+        return (int) limit;
+    }
+    
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
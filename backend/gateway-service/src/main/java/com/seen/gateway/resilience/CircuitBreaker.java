@@ -0,0 +1,138 @@
+package com.seen.gateway.resilience;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Count-based circuit breaker. Opens when at least {@code failureRateThreshold}
+ * of the last {@code windowSize} calls failed (after {@code minimumCalls}), fails
+ * fast while open, then lets {@code probes} calls through half-open: all of them
+ * succeeding closes it, any failure opens it again.
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    /**
+     * Outcome of asking to call; PROBE calls are the half-open trial calls.
+     */
+    public enum Permit {
+        REJECTED, CALL, PROBE
+    }
+    
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int probes;
+    private final Consumer<State> onTransition;
+    
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    
+    public CircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            long openNanos,
+            int probes,
+            Consumer<State> onTransition) {
+        
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.probes = probes;
+        this.onTransition = onTransition;
+    }
+    
+    public synchronized Permit tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return Permit.REJECTED;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+            onTransition.accept(state);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= probes) {
+                return Permit.REJECTED;
+            }
+            probesInFlight++;
+            return Permit.PROBE;
+        }
+        return Permit.CALL;
+    }
+    
+    public synchronized void onResult(Permit permit, boolean failed, long now) {
+        if (permit == Permit.PROBE) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            probesInFlight--;
+            if (failed) {
+                open(now);
+            } else if (++probeSuccesses >= probes) {
+                close();
+            }
+            return;
+        }
+        
+        // Calls admitted before the breaker opened say nothing about the upstream now
+        if (permit != Permit.CALL || state != State.CLOSED) {
+            return;
+        }
+        
+        if (calls == outcomes.length && outcomes[next]) {
+            failures--;
+        }
+        outcomes[next] = failed;
+        next = (next + 1) % outcomes.length;
+        calls = Math.min(calls + 1, outcomes.length);
+        if (failed) {
+            failures++;
+        }
+        
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open(now);
+        }
+    }
+    
+    /**
+     * A call that ended without an outcome, e.g. the client went away.
+     */
+    public synchronized void onCancel(Permit permit) {
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+    
+    public synchronized State state() {
+        return state;
+    }
+    
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+        onTransition.accept(state);
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        Arrays.fill(outcomes, false);
+        onTransition.accept(state);
+    }
+}
@@ -0,0 +1,177 @@
+package com.seen.gateway.resilience;
+
+import com.seen.gateway.loadbalancer.InstanceLoadTracker;
+import com.seen.gateway.loadbalancer.PeakEwmaLoadBalancer;
+import com.seen.gateway.support.CapturingExchange;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+/**
+ * Hedged GETs for lb:// routes that opt in with {@value #HEDGE_AFTER} metadata:
+ * if the first instance has not answered within that delay, the same request
+ * goes to a second instance and whichever answers first is returned; the other
+ * is cancelled. Hedges are capped at a fraction of requests so a slow service is
+ * not sent double its load.
+ * <p>
+ * Each attempt runs the rest of the filter chain on its own
+ * {@link CapturingExchange}, so it is load balanced, protected, tracked and
+ * timed out like any other request to the route; the hedge asks the load
+ * balancer to avoid the instance the first attempt went to. Responses are
+ * buffered, so only routes with small idempotent responses should opt in.
+ */
+@Component
+public class HedgedRequestFilter implements GlobalFilter, HttpHeadersFilter, Ordered {
+    
+    public static final String HEDGE_AFTER = "hedge-after";
+    
+    private final HedgeBudget budget;
+    private final MeterRegistry meterRegistry;
+    
+    public HedgedRequestFilter(
+            @Value("${hedging.budget-ratio:0.1}") double budgetRatio,
+            MeterRegistry meterRegistry) {
+        
+        this.budget = new HedgeBudget(budgetRatio);
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange client = withoutAvoidHint(exchange);
+        Route route = client.getAttribute(GATEWAY_ROUTE_ATTR);
+        Duration hedgeAfter = route != null ? hedgeAfter(route.getMetadata().get(HEDGE_AFTER)) : null;
+        if (hedgeAfter == null || isAlreadyRouted(client)
+                || client.getRequest().getMethod() != HttpMethod.GET
+                || !"lb".equals(route.getUri().getScheme())) {
+            return chain.filter(client);
+        }
+        
+        budget.deposit();
+        String routeId = route.getId();
+        CapturingExchange first = new CapturingExchange(client);
+        
+        Mono<CapturingExchange> primary = attempt(first, chain);
+        // A primary that fails before the delay is covered by the hedge as well
+        Mono<CapturingExchange> hedge = Mono.delay(hedgeAfter)
+            .flatMap(tick -> {
+                if (!budget.tryWithdraw()) {
+                    meterRegistry.counter("gateway.hedge.requests", "route", routeId, "outcome", "budget_exhausted")
+                        .increment();
+                    return Mono.empty();
+                }
+                meterRegistry.counter("gateway.hedge.requests", "route", routeId, "outcome", "sent").increment();
+                String avoid = instanceOf(first);
+                CapturingExchange second = new CapturingExchange(client, headers -> {
+                    if (avoid != null) {
+                        headers.set(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER, avoid);
+                    }
+                });
+                return attempt(second, chain)
+                    .doOnNext(won -> meterRegistry.counter("gateway.hedge.requests", "route", routeId, "outcome", "won")
+                        .increment());
+            });
+        
+        return Mono.firstWithValue(primary, hedge)
+            .onErrorMap(NoSuchElementException.class, e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+            .flatMap(winner -> winner.getResponse().relayTo(client.getResponse()));
+    }
+    
+    // Only hedges may steer the load balancer
+    private static ServerWebExchange withoutAvoidHint(ServerWebExchange exchange) {
+        if (!exchange.getRequest().getHeaders().containsKey(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER)) {
+            return exchange;
+        }
+        return exchange.mutate()
+            .request(request -> request.headers(headers -> headers.remove(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER)))
+            .build();
+    }
+    
+    private Mono<CapturingExchange> attempt(CapturingExchange upstream, GatewayFilterChain chain) {
+        return chain.filter(upstream).thenReturn(upstream);
+    }
+    
+    private static String instanceOf(ServerWebExchange upstream) {
+        Response<ServiceInstance> selection = upstream.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        return selection != null && selection.hasServer() ? InstanceLoadTracker.address(selection.getServer()) : null;
+    }
+    
+    /**
+     * Keeps the load balancer hint from reaching the upstream service.
+     */
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        if (!input.containsKey(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER)) {
+            return input;
+        }
+        HttpHeaders filtered = new HttpHeaders();
+        filtered.putAll(input);
+        filtered.remove(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER);
+        return filtered;
+    }
+    
+    private static Duration hedgeAfter(Object value) {
+        if (value instanceof Duration duration) {
+            return duration;
+        }
+        if (value instanceof Number millis) {
+            return Duration.ofMillis(millis.longValue());
+        }
+        return value != null ? Duration.parse(value.toString()) : null;
+    }
+    
+    /**
+     * Inside the response cache, so only misses are hedged, and outside
+     * NettyWriteResponseFilter, so each attempt's body lands in its own exchange.
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+    
+    /**
+     * Every request earns a fraction of a hedge, up to a small burst.
+     */
+    private static final class HedgeBudget {
+        
+        private static final double MAX_TOKENS = 10;
+        
+        private final double ratio;
+        private double tokens;
+        
+        private HedgeBudget(double ratio) {
+            this.ratio = ratio;
+        }
+        
+        synchronized void deposit() {
+            tokens = Math.min(MAX_TOKENS, tokens + ratio);
+        }
+        
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.seen.gateway.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker and adaptive concurrency limit per upstream service, shared
+ * by every route naming that service. A request is failed fast with a 503 and
+ * Retry-After when the breaker is open or the upstream already has as many
+ * requests in flight as its limit allows, so one degraded service cannot tie
+ * up the gateway for everyone else. Runs just before the load balancer, so
+ * responses served from the gateway's cache never count.
+ */
+@Component
+@Slf4j
+public class UpstreamProtectionGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<UpstreamProtectionGatewayFilterFactory.Config> {
+    
+    private final Map<String, Protection> protections = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final int probes;
+    
+    public UpstreamProtectionGatewayFilterFactory(
+            @Value("${upstream-protection.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${upstream-protection.concurrency.min-limit:10}") int minLimit,
+            @Value("${upstream-protection.concurrency.max-limit:500}") int maxLimit,
+            @Value("${upstream-protection.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${upstream-protection.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${upstream-protection.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${upstream-protection.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+            @Value("${upstream-protection.circuit-breaker.probes:5}") int probes,
+            MeterRegistry meterRegistry) {
+        
+        super(Config.class);
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.probes = probes;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        Protection protection = protections.computeIfAbsent(config.getName(), this::newProtection);
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, protection),
+            ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1);
+    }
+    
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Protection protection) {
+        CircuitBreaker.Permit permit = protection.breaker.tryAcquire(System.nanoTime());
+        if (permit == CircuitBreaker.Permit.REJECTED) {
+            return reject(exchange, protection, "circuit_open", openDuration);
+        }
+        if (!protection.limit.tryAcquire()) {
+            protection.breaker.onCancel(permit);
+            return reject(exchange, protection, "concurrency_limit", Duration.ofSeconds(1));
+        }
+        
+        AtomicBoolean recorded = new AtomicBoolean();
+        long start = System.nanoTime();
+        
+        // Latency up to the first response byte, so streamed bodies do not read as slowness
+        exchange.getResponse().beforeCommit(() -> {
+            if (recorded.compareAndSet(false, true)) {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                protection.complete(permit, System.nanoTime() - start, status != null && status.is5xxServerError());
+            }
+            return Mono.empty();
+        });
+        
+        return chain.filter(exchange)
+            .doOnError(e -> {
+                if (recorded.compareAndSet(false, true)) {
+                    protection.complete(permit, System.nanoTime() - start, true);
+                }
+            })
+            .doFinally(signal -> {
+                if (recorded.compareAndSet(false, true)) {
+                    protection.breaker.onCancel(permit);
+                }
+                protection.limit.release();
+            });
+    }
+    
+    private Mono<Void> reject(ServerWebExchange exchange, Protection protection, String cause, Duration retryAfter) {
+        meterRegistry.counter("gateway.upstream.rejected", "upstream", protection.name, "cause", cause).increment();
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+            Long.toString(Math.max(1, retryAfter.toSeconds())));
+        return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+            protection.name + " is temporarily unavailable"));
+    }
+    
+    private Protection newProtection(String name) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        CircuitBreaker breaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+            openDuration.toNanos(), probes, state -> {
+                log.warn("Circuit breaker for {} is now {}", name, state);
+                meterRegistry.counter("gateway.upstream.circuit.transitions", "upstream", name, "state", state.name())
+                    .increment();
+            });
+        
+        Gauge.builder("gateway.upstream.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+            .tag("upstream", name)
+            .register(meterRegistry);
+        Gauge.builder("gateway.upstream.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+            .tag("upstream", name)
+            .register(meterRegistry);
+        Gauge.builder("gateway.upstream.circuit.state", breaker, b -> b.state().ordinal())
+            .tag("upstream", name)
+            .description("0 closed, 1 open, 2 half open")
+            .register(meterRegistry);
+        
+        return new Protection(name, limit, breaker);
+    }
+    
+    private record Protection(String name, AdaptiveConcurrencyLimit limit, CircuitBreaker breaker) {
+        
+        void complete(CircuitBreaker.Permit permit, long latencyNanos, boolean failed) {
+            limit.onSample(latencyNanos, failed);
+            breaker.onResult(permit, failed, System.nanoTime());
+        }
+    }
+    
+    @Data
+    public static class Config {
+        private String name;
+    }
+}
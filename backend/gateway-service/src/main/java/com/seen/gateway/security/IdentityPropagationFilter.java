@@ -0,0 +1,50 @@
+package com.seen.gateway.security;
+
+import com.seen.identity.IdentityEnvelopeSigner;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Replaces whatever identity headers the client sent with the signed envelope
+ * of the verified token, or with nothing on anonymous requests. Downstream
+ * services trust only the envelope.
+ */
+@Component
+public class IdentityPropagationFilter implements GlobalFilter, Ordered {
+    
+    private static final List<String> CLIENT_IDENTITY_HEADERS = List.of(
+        IdentityEnvelopeSigner.HEADER, "X-User-ID", "X-User-Email", "X-User-Roles");
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+            .filter(Authentication.class::isInstance)
+            .map(principal -> ((Authentication) principal).getDetails())
+            .filter(VerifiedToken.class::isInstance)
+            .map(details -> ((VerifiedToken) details).identityEnvelope())
+            .defaultIfEmpty("")
+            .flatMap(envelope -> chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> propagate(headers, envelope)))
+                .build()));
+    }
+    
+    private void propagate(HttpHeaders headers, String envelope) {
+        CLIENT_IDENTITY_HEADERS.forEach(headers::remove);
+        if (!envelope.isEmpty()) {
+            headers.set(IdentityEnvelopeSigner.HEADER, envelope);
+        }
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -1,9 +1,14 @@
 package com.seen.gateway.security;
 
+import com.seen.identity.IdentityEnvelopeSigner;
+import com.seen.revocation.TokenDigest;
+import com.seen.revocation.TokenRevocationCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
@@ -14,41 +19,95 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtParser jwtParser;
+    private final VerifiedClaimsCache claimsCache;
+    private final TokenRevocationCache revocationCache;
+    private final IdentityEnvelopeSigner envelopeSigner;
+    private final Timer authenticatedTimer;
+    private final Timer revokedTimer;
+    private final Timer invalidTimer;
+    // Signature checks only; cached tokens skip them
+    private final Timer verifyTimer;
+    
+    public JwtAuthenticationManager(
+            @Value("${jwt.secret}") String jwtSecret,
+            VerifiedClaimsCache claimsCache,
+            TokenRevocationCache revocationCache,
+            IdentityEnvelopeSigner envelopeSigner,
+            MeterRegistry meterRegistry) {
+        
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser()
+            .verifyWith(key)
+            .build();
+        this.claimsCache = claimsCache;
+        this.revocationCache = revocationCache;
+        this.envelopeSigner = envelopeSigner;
+        this.authenticatedTimer = meterRegistry.timer("gateway.jwt.authenticate", "result", "authenticated");
+        this.revokedTimer = meterRegistry.timer("gateway.jwt.authenticate", "result", "revoked");
+        this.invalidTimer = meterRegistry.timer("gateway.jwt.authenticate", "result", "invalid");
+        this.verifyTimer = meterRegistry.timer("gateway.jwt.verify");
+    }
     
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
         String authToken = authentication.getCredentials().toString();
+        long start = System.nanoTime();
         
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(authToken)
-                .getPayload();
-            
-            String username = claims.getSubject();
-            List<String> roles = claims.get("roles", List.class);
+            String digest = TokenDigest.of(authToken);
+            if (revocationCache.isRevoked(digest)) {
+                log.debug("Rejected revoked token");
+                revokedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return Mono.empty();
+            }
             
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                .collect(Collectors.toList());
-            
-            return Mono.just(new UsernamePasswordAuthenticationToken(username, null, authorities));
+            VerifiedToken token = claimsCache.get(digest, () -> verifyTimer.record(() -> verify(authToken, digest)));
+            authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             
+            UsernamePasswordAuthenticationToken authenticated =
+                new UsernamePasswordAuthenticationToken(token.subject(), null, token.authorities());
+            authenticated.setDetails(token);
+            return Mono.just(authenticated);
+        
         } catch (Exception e) {
             log.error("JWT validation failed: {}", e.getMessage());
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             return Mono.empty();
         }
     }
-}
\ No newline at end of file
+    
+    private VerifiedToken verify(String authToken, String digest) {
+        Claims claims = jwtParser
+            .parseSignedClaims(authToken)
+            .getPayload();
+        
+        // Downstream services trust the forwarded identity until the token's expiry
+        if (claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Token has no exp claim");
+        }
+        
+        List<String> roles = claims.get("roles", List.class);
+        
+        List<SimpleGrantedAuthority> authorities = roles.stream()
+            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+            .collect(Collectors.toList());
+        
+        Instant expiresAt = claims.getExpiration().toInstant();
+        return new VerifiedToken(
+            claims.getSubject(),
+            List.copyOf(authorities),
+            expiresAt,
+            envelopeSigner.sign(claims.getSubject(), roles, digest, expiresAt)
+        );
+    }
+}
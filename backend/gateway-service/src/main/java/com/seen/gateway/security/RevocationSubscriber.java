@@ -0,0 +1,130 @@
+package com.seen.gateway.security;
+
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Feeds the revocations auth-service publishes into the local
+ * {@link TokenRevocationCache}. A full resync from Redis runs every time the
+ * subscription is (re)established and periodically, so a lookup never needs
+ * a Redis round trip.
+ */
+@Component
+@Slf4j
+public class RevocationSubscriber {
+    
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final TokenRevocationCache revocationCache;
+    private final Duration resyncInterval;
+    private final Timer resyncTimer;
+    private Disposable subscription;
+    private Disposable periodicResync;
+    
+    public RevocationSubscriber(
+            ReactiveStringRedisTemplate redisTemplate,
+            ReactiveRedisMessageListenerContainer listenerContainer,
+            TokenRevocationCache revocationCache,
+            @Value("${revocation.resync-interval:PT1M}") Duration resyncInterval,
+            MeterRegistry meterRegistry) {
+        
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.revocationCache = revocationCache;
+        this.resyncInterval = resyncInterval;
+        this.resyncTimer = meterRegistry.timer("gateway.redis", "operation", "revocation.resync");
+    }
+    
+    @PostConstruct
+    public void subscribe() {
+        subscription = Mono.defer(() -> listenerContainer.receiveLater(ChannelTopic.of(TokenRevocationCache.CHANNEL)))
+            .flatMapMany(messages -> resync().thenMany(messages))
+            .doOnNext(message -> revocationCache.apply(message.getMessage()))
+            .doOnError(e -> log.warn("Revocation subscription lost, reconnecting: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+        
+        // Lettuce resubscribes on its own after a reconnect without the subscription erroring,
+        // so revocations published during the outage are only picked up here
+        periodicResync = Flux.interval(resyncInterval, resyncInterval)
+            .concatMap(tick -> resync()
+                .onErrorResume(e -> {
+                    log.warn("Periodic revocation resync failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+    
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (periodicResync != null) {
+            periodicResync.dispose();
+        }
+    }
+    
+    Mono<Void> resync() {
+        ScanOptions options = ScanOptions.scanOptions()
+            .match(TokenRevocationCache.KEY_PATTERN)
+            .count(TokenRevocationCache.RESYNC_BATCH_SIZE)
+            .build();
+        
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return redisTemplate.scan(options)
+                .buffer(TokenRevocationCache.RESYNC_BATCH_SIZE)
+                .concatMap(this::load)
+                .reduce(0L, Long::sum)
+                .doOnNext(loaded -> log.info("Resynced {} revoked tokens from Redis", loaded))
+                .doFinally(signal -> sample.stop(resyncTimer))
+                .then();
+        });
+    }
+    
+    private Mono<Long> load(List<String> keys) {
+        return redisTemplate.opsForValue().multiGet(keys)
+            .flatMapMany(values -> Flux.range(0, keys.size())
+                .filter(i -> values.get(i) != null)
+                .concatMap(i -> {
+                    if (TokenRevocationCache.isLegacyKey(keys.get(i))) {
+                        return migrate(keys.get(i));
+                    }
+                    String digest = TokenRevocationCache.digestOf(keys.get(i));
+                    return revocationCache.load(digest, values.get(i)) ? Mono.just(digest) : Mono.<String>empty();
+                }))
+            .count();
+    }
+    
+    private Mono<String> migrate(String legacyKey) {
+        // Zero when the key has no TTL, empty when it is already gone
+        return redisTemplate.getExpire(legacyKey)
+            .map(ttl -> revocationCache.migrate(legacyKey, ttl.toMillis()))
+            .flatMap(entry -> redisTemplate.opsForValue()
+                .set(entry.key(), Long.toString(entry.expiresAtMillis()), Duration.ofMillis(entry.ttlMillis()))
+                .then(redisTemplate.delete(legacyKey))
+                .doOnSuccess(deleted -> {
+                    revocationCache.revoke(entry.digest(), entry.expiresAtMillis());
+                    log.info("Migrated legacy revocation entry to digest {}", entry.digest());
+                })
+                .thenReturn(entry.digest()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.seen.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of verified JWT claims keyed by token digest. Entries live
+ * until the token's own expiry so a cached token is never accepted past its exp claim.
+ */
+@Component
+public class VerifiedClaimsCache {
+    
+    private final Cache<String, VerifiedToken> cache;
+    
+    public VerifiedClaimsCache(
+            @Value("${jwt.claims-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.claims-cache.max-ttl:PT1H}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new TokenExpiry(maxTtl))
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+    
+    public VerifiedToken get(String digest, Supplier<VerifiedToken> verifier) {
+        return cache.get(digest, key -> verifier.get());
+    }
+    
+    public void invalidate(String digest) {
+        cache.invalidate(digest);
+    }
+    
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        
+        private final long maxTtlNanos;
+        
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+        
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return maxTtlNanos;
+            }
+            long remaining = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
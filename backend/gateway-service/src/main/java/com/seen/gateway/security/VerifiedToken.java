@@ -0,0 +1,17 @@
+package com.seen.gateway.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a verified JWT, plus the signed identity envelope forwarded
+ * downstream for it, so both are computed once per token.
+ */
+public record VerifiedToken(
+        String subject,
+        List<SimpleGrantedAuthority> authorities,
+        Instant expiresAt,
+        String identityEnvelope) {
+}
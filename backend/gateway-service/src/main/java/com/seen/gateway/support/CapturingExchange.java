@@ -0,0 +1,177 @@
+package com.seen.gateway.support;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.SslInfo;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.function.Consumer;
+
+/**
+ * Exchange used to call upstream on a client's behalf, for the response cache
+ * and for hedged requests. It is built from a snapshot of the client request
+ * and a private copy of its attributes, and buffers the response instead of
+ * sending it, so several can run the rest of the filter chain for one client
+ * and stay usable after the client has been answered.
+ */
+public class CapturingExchange extends DefaultServerWebExchange {
+    
+    private static final ServerCodecConfigurer CODECS = ServerCodecConfigurer.create();
+    
+    public CapturingExchange(ServerWebExchange client) {
+        this(client, headers -> {
+        });
+    }
+    
+    /**
+     * @param upstreamHeaders adjusts the copy of the client's headers sent upstream
+     */
+    public CapturingExchange(ServerWebExchange client, Consumer<HttpHeaders> upstreamHeaders) {
+        super(new SnapshotRequest(client.getRequest(), upstreamHeaders), new CapturingResponse(),
+            new DefaultWebSessionManager(), CODECS, new AcceptHeaderLocaleContextResolver());
+        getAttributes().putAll(client.getAttributes());
+    }
+    
+    @Override
+    public CapturingResponse getResponse() {
+        return (CapturingResponse) super.getResponse();
+    }
+    
+    /**
+     * Copy of a GET request's line and headers, detached from the connection it arrived on.
+     */
+    private static final class SnapshotRequest extends AbstractServerHttpRequest {
+        
+        private final MultiValueMap<String, HttpCookie> cookies;
+        private final SslInfo sslInfo;
+        private final InetSocketAddress localAddress;
+        private final InetSocketAddress remoteAddress;
+        
+        private SnapshotRequest(ServerHttpRequest client, Consumer<HttpHeaders> upstreamHeaders) {
+            super(client.getMethod(), client.getURI(), client.getPath().contextPath().value(),
+                copyHeaders(client, upstreamHeaders));
+            this.cookies = new LinkedMultiValueMap<>(client.getCookies());
+            this.sslInfo = client.getSslInfo();
+            this.localAddress = client.getLocalAddress();
+            this.remoteAddress = client.getRemoteAddress();
+        }
+        
+        private static HttpHeaders copyHeaders(ServerHttpRequest client, Consumer<HttpHeaders> upstreamHeaders) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(client.getHeaders());
+            upstreamHeaders.accept(headers);
+            return headers;
+        }
+        
+        @Override
+        protected MultiValueMap<String, HttpCookie> initCookies() {
+            return cookies;
+        }
+        
+        @Override
+        protected SslInfo initSslInfo() {
+            return sslInfo;
+        }
+        
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return localAddress;
+        }
+        
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return remoteAddress;
+        }
+        
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.empty();
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getNativeRequest() {
+            return (T) this;
+        }
+    }
+    
+    /**
+     * Keeps status, headers, cookies and body to itself.
+     */
+    public static class CapturingResponse extends AbstractServerHttpResponse {
+        
+        private byte[] body = new byte[0];
+        
+        CapturingResponse() {
+            super(DefaultDataBufferFactory.sharedInstance);
+        }
+        
+        public byte[] body() {
+            return body;
+        }
+        
+        /**
+         * Sends what was captured to the client with its status, headers and cookies intact.
+         */
+        public Mono<Void> relayTo(ServerHttpResponse response) {
+            response.setStatusCode(getStatusCode() != null ? getStatusCode() : HttpStatus.OK);
+            response.getHeaders().putAll(getHeaders());
+            getCookies().values().forEach(cookies -> cookies.forEach(response::addCookie));
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getNativeResponse() {
+            return (T) this;
+        }
+        
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body)
+                .doOnNext(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    this.body = bytes;
+                })
+                .then();
+        }
+        
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWithInternal(Flux.from(body).concatMap(Flux::from));
+        }
+        
+        @Override
+        protected void applyStatusCode() {
+        }
+        
+        @Override
+        protected void applyHeaders() {
+        }
+        
+        @Override
+        protected void applyCookies() {
+        }
+    }
+}
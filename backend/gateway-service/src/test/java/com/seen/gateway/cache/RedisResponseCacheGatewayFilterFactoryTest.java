@@ -0,0 +1,274 @@
+package com.seen.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisResponseCacheGatewayFilterFactoryTest {
+    
+    private static final String PATH = "/api/analytics/public/summary";
+    private static final String BODY = "{\"reports\":42}";
+    
+    private ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private ReactiveValueOperations<String, byte[]> valueOperations;
+    private GatewayFilter filter;
+    private Upstream upstream;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(Mono.empty());
+        when(valueOperations.set(anyString(), any(byte[].class), any(Duration.class))).thenReturn(Mono.just(true));
+        when(valueOperations.setIfAbsent(anyString(), any(byte[].class), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        
+        filter = new RedisResponseCacheGatewayFilterFactory(redisTemplate, new SimpleMeterRegistry())
+            .apply(new RedisResponseCacheGatewayFilterFactory.Config());
+        upstream = new Upstream(response -> {
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        });
+    }
+    
+    @Test
+    void missIsFetchedStoredAndServed() {
+        MockServerWebExchange exchange = get(request -> {
+        });
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        verify(valueOperations).set(anyString(), any(byte[].class), any(Duration.class));
+    }
+    
+    @Test
+    void freshEntryIsServedWithoutCallingUpstream() {
+        when(valueOperations.get(anyString())).thenReturn(Mono.just(cached(Duration.ZERO, false).toBytes()));
+        MockServerWebExchange exchange = get(request -> request.header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(upstream.calls).isEmpty();
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(exchange.getResponse().getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+    
+    @Test
+    void matchingIfNoneMatchGetsNotModified() {
+        CachedResponse cached = cached(Duration.ZERO, false);
+        when(valueOperations.get(anyString())).thenReturn(Mono.just(cached.toBytes()));
+        MockServerWebExchange exchange = get(request -> request.ifNoneMatch(cached.etag()));
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+    
+    @Test
+    void concurrentAnonymousMissesShareOneUpstreamCall() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        upstream.gate = release.asMono();
+        MockServerWebExchange first = get(request -> {
+        });
+        MockServerWebExchange second = get(request -> {
+        });
+        
+        Mono<Void> firstDone = filter.filter(first, upstream).cache();
+        Mono<Void> secondDone = filter.filter(second, upstream).cache();
+        firstDone.subscribe();
+        secondDone.subscribe();
+        release.tryEmitEmpty();
+        firstDone.block(Duration.ofSeconds(5));
+        secondDone.block(Duration.ofSeconds(5));
+        
+        assertThat(upstream.calls).hasSize(1);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+    
+    @Test
+    void requestsWithCredentialsAreNeitherCollapsedNorStored() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        upstream.gate = release.asMono();
+        MockServerWebExchange first = get(request -> request.header(HttpHeaders.AUTHORIZATION, "Bearer first"));
+        MockServerWebExchange second = get(request -> request.header(HttpHeaders.AUTHORIZATION, "Bearer second"));
+        
+        Mono<Void> firstDone = filter.filter(first, upstream).cache();
+        Mono<Void> secondDone = filter.filter(second, upstream).cache();
+        firstDone.subscribe();
+        secondDone.subscribe();
+        release.tryEmitEmpty();
+        firstDone.block(Duration.ofSeconds(5));
+        secondDone.block(Duration.ofSeconds(5));
+        
+        assertThat(upstream.calls).hasSize(2);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("BYPASS");
+        verify(valueOperations, never()).set(anyString(), any(byte[].class), any(Duration.class));
+    }
+    
+    @Test
+    void requestWithCredentialsOnlyGetsEntriesMarkedPublic() {
+        when(valueOperations.get(anyString())).thenReturn(Mono.just(cached(Duration.ZERO, false).toBytes()));
+        MockServerWebExchange exchange = get(request -> request.header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(upstream.calls).hasSize(1);
+        
+        when(valueOperations.get(anyString())).thenReturn(Mono.just(cached(Duration.ZERO, true).toBytes()));
+        MockServerWebExchange again = get(request -> request.header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        
+        filter.filter(again, upstream).block();
+        
+        assertThat(upstream.calls).hasSize(1);
+        assertThat(again.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+    }
+    
+    @Test
+    void cacheKeyVariesOnAccept() {
+        filter.filter(get(request -> request.accept(MediaType.APPLICATION_JSON)), upstream).block();
+        filter.filter(get(request -> request.accept(MediaType.TEXT_PLAIN)), upstream).block();
+        
+        verify(valueOperations).get(eq("response_cache." + PATH + "?#application/json"));
+        verify(valueOperations).get(eq("response_cache." + PATH + "?#text/plain"));
+    }
+    
+    @Test
+    void uncacheableResponseIsPassedThroughWithAllHeaders() {
+        upstream = new Upstream(response -> {
+            response.setStatusCode(HttpStatus.FOUND);
+            response.getHeaders().setLocation(URI.create("/login"));
+            response.getHeaders().set("X-Upstream", "analytics");
+            response.addCookie(ResponseCookie.from("session", "abc").build());
+        });
+        MockServerWebExchange exchange = get(request -> {
+        });
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        assertThat(exchange.getResponse().getHeaders().getLocation()).hasToString("/login");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Upstream")).isEqualTo("analytics");
+        assertThat(exchange.getResponse().getCookies().getFirst("session").getValue()).isEqualTo("abc");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("BYPASS");
+        verify(valueOperations, never()).set(anyString(), any(byte[].class), any(Duration.class));
+    }
+    
+    @Test
+    void waitingCallersDoNotReceiveAResponseMeantForTheFirst() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        upstream = new Upstream(response -> {
+            response.setStatusCode(HttpStatus.OK);
+            response.addCookie(ResponseCookie.from("session", "for-first-caller").build());
+        });
+        upstream.gate = release.asMono();
+        MockServerWebExchange first = get(request -> {
+        });
+        MockServerWebExchange second = get(request -> {
+        });
+        
+        Mono<Void> firstDone = filter.filter(first, upstream).cache();
+        Mono<Void> secondDone = filter.filter(second, upstream).cache();
+        firstDone.subscribe();
+        secondDone.subscribe();
+        release.tryEmitEmpty();
+        firstDone.block(Duration.ofSeconds(5));
+        secondDone.block(Duration.ofSeconds(5));
+        
+        assertThat(upstream.calls).hasSize(2);
+        assertThat(upstream.calls.get(0)).isNotSameAs(upstream.calls.get(1));
+    }
+    
+    @Test
+    void staleEntryIsServedAndRevalidatedOnAFreshExchange() {
+        when(valueOperations.get(anyString())).thenReturn(Mono.just(cached(Duration.ofMinutes(5), false).toBytes()));
+        MockServerWebExchange exchange = get(request -> request.ifNoneMatch("\"other\""));
+        exchange.getAttributes().put("route", "public-analytics");
+        
+        filter.filter(exchange, upstream).block();
+        
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("STALE");
+        verify(valueOperations, timeout(5_000)).set(anyString(), any(byte[].class), any(Duration.class));
+        verify(redisTemplate, timeout(5_000)).delete(anyString());
+        
+        ServerWebExchange revalidation = upstream.calls.get(0);
+        assertThat(revalidation).isNotSameAs(exchange);
+        assertThat(revalidation.getResponse()).isNotSameAs(exchange.getResponse());
+        assertThat(revalidation.getRequest().getURI()).isEqualTo(exchange.getRequest().getURI());
+        assertThat(revalidation.getRequest().getHeaders().getIfNoneMatch()).isEmpty();
+        assertThat((String) revalidation.getAttribute("route")).isEqualTo("public-analytics");
+    }
+    
+    private static MockServerWebExchange get(Consumer<MockServerHttpRequest.BaseBuilder<?>> customizer) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(PATH);
+        customizer.accept(request);
+        return MockServerWebExchange.from(request);
+    }
+    
+    private static CachedResponse cached(Duration age, boolean explicitlyPublic) {
+        CachedResponse response = CachedResponse.of(200, MediaType.APPLICATION_JSON_VALUE, null,
+            BODY.getBytes(StandardCharsets.UTF_8), explicitlyPublic);
+        return new CachedResponse(response.status(), response.contentType(), response.etag(),
+            response.storedAt() - age.toMillis(), response.gzippedBody(), response.explicitlyPublic());
+    }
+    
+    /**
+     * Stands in for the rest of the chain: records each exchange and writes the body.
+     */
+    private static final class Upstream implements GatewayFilterChain {
+        
+        private final List<ServerWebExchange> calls = new CopyOnWriteArrayList<>();
+        private final Consumer<ServerHttpResponse> head;
+        private Mono<Void> gate = Mono.empty();
+        
+        private Upstream(Consumer<ServerHttpResponse> head) {
+            this.head = head;
+        }
+        
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            calls.add(exchange);
+            return gate.then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                head.accept(response);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+            }));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.seen.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class InstanceStatsTest {
+    
+    private static final long DECAY = 10_000_000_000L;
+    private static final long MS = 1_000_000;
+    
+    private final InstanceStats stats = new InstanceStats(DECAY);
+    
+    @Test
+    void aSlowerResponseReplacesTheAverageOutright() {
+        stats.observe(10 * MS, 0);
+        stats.observe(200 * MS, 0);
+        
+        assertThat(stats.latencyNanos(0)).isEqualTo(200d * MS);
+    }
+    
+    @Test
+    void fasterResponsesPullTheAverageDownByElapsedTime() {
+        stats.observe(100 * MS, 0);
+        stats.observe(10 * MS, DECAY);
+        
+        double weight = Math.exp(-1);
+        assertThat(stats.latencyNanos(DECAY)).isCloseTo(100d * MS * weight + 10d * MS * (1 - weight), within(1d));
+    }
+    
+    @Test
+    void anIdleInstanceDecaysTowardZero() {
+        stats.observe(100 * MS, 0);
+        
+        assertThat(stats.latencyNanos(DECAY)).isCloseTo(100d * MS * Math.exp(-1), within(1d));
+        assertThat(stats.latencyNanos(10 * DECAY)).isLessThan(0.01 * MS);
+    }
+    
+    @Test
+    void costGrowsWithRequestsInFlight() {
+        stats.observe(10 * MS, 0);
+        double idle = stats.cost(0);
+        
+        stats.start();
+        stats.start();
+        
+        assertThat(stats.cost(0)).isEqualTo(3 * idle);
+        stats.finish();
+        assertThat(stats.cost(0)).isEqualTo(2 * idle);
+    }
+    
+    @Test
+    void anUnsampledInstanceWithRequestsInFlightLooksExpensive() {
+        assertThat(stats.cost(0)).isZero();
+        
+        stats.start();
+        
+        InstanceStats sampled = new InstanceStats(DECAY);
+        sampled.observe(400 * MS, 0);
+        sampled.start();
+        assertThat(stats.cost(0)).isGreaterThan(sampled.cost(0));
+    }
+    
+    @Test
+    void ejectsAfterConsecutiveFailuresForLongerEachTime() {
+        long base = 30 * MS;
+        long max = 100 * MS;
+        
+        assertThat(stats.recordFailure(0, 2, base, max)).isFalse();
+        assertThat(stats.recordFailure(0, 2, base, max)).isTrue();
+        assertThat(stats.isEjected(base - 1)).isTrue();
+        assertThat(stats.isEjected(base)).isFalse();
+        
+        stats.recordFailure(base, 2, base, max);
+        assertThat(stats.recordFailure(base, 2, base, max)).isTrue();
+        assertThat(stats.isEjected(base + 2 * base - 1)).isTrue();
+        assertThat(stats.isEjected(base + 2 * base)).isFalse();
+    }
+    
+    @Test
+    void aResponseResetsTheFailureCount() {
+        stats.recordFailure(0, 2, MS, MS);
+        stats.observe(MS, 0);
+        
+        assertThat(stats.recordFailure(0, 2, MS, MS)).isFalse();
+    }
+    
+    @Test
+    void ejectionTimeIsCappedAndResetsAfterAQuietSpell() {
+        long base = 30 * MS;
+        long max = 50 * MS;
+        stats.recordFailure(0, 1, base, max);
+        stats.recordFailure(base, 1, base, max);
+        
+        // Capped at max rather than 2 * base
+        assertThat(stats.isEjected(base + max - 1)).isTrue();
+        assertThat(stats.isEjected(base + max)).isFalse();
+        
+        long later = base + max + max + 1;
+        stats.recordFailure(later, 1, base, max);
+        assertThat(stats.isEjected(later + base)).isFalse();
+    }
+}
@@ -0,0 +1,129 @@
+package com.seen.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PeakEwmaLoadBalancerTest {
+    
+    private static final long MS = 1_000_000;
+    private static final int PICKS = 300;
+    
+    private final ServiceInstance fast = instance("fast");
+    private final ServiceInstance medium = instance("medium");
+    private final ServiceInstance slow = instance("slow");
+    private InstanceLoadTracker tracker;
+    private PeakEwmaLoadBalancer loadBalancer;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tracker = new InstanceLoadTracker(Duration.ofSeconds(10), 3, Duration.ofSeconds(30), Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+        ObjectProvider<ServiceInstanceListSupplier> suppliers = mock(ObjectProvider.class);
+        when(suppliers.getIfAvailable(any())).thenReturn(ServiceInstanceListSuppliers.from("report-service", fast, slow));
+        loadBalancer = new PeakEwmaLoadBalancer(suppliers, "report-service", tracker);
+        
+        tracker.recordResponse(fast, 10 * MS);
+        tracker.recordResponse(medium, 50 * MS);
+        tracker.recordResponse(slow, 200 * MS);
+    }
+    
+    @Test
+    void ofTwoInstancesAlwaysPicksTheCheaper() {
+        assertThat(picks(List.of(fast, slow), null)).containsOnlyKeys("fast");
+    }
+    
+    @Test
+    void requestsInFlightOutweighLowerLatency() {
+        for (int i = 0; i < 30; i++) {
+            tracker.stats(fast).start();
+        }
+        
+        // 10ms behind 30 requests costs more than 200ms with none
+        assertThat(picks(List.of(fast, slow), null)).containsOnlyKeys("slow");
+    }
+    
+    @Test
+    void comparesTwoRandomInstancesSoTheWorstIsNeverPicked() {
+        Map<String, Long> picks = picks(List.of(fast, medium, slow), null);
+        
+        assertThat(picks).containsOnlyKeys("fast", "medium");
+        // Medium only wins the draws that leave out fast: one in three
+        assertThat(picks.get("fast")).isGreaterThan(picks.get("medium"));
+    }
+    
+    @Test
+    void skipsEjectedInstancesUnlessAllAreEjected() {
+        eject(fast);
+        assertThat(picks(List.of(fast, slow), null)).containsOnlyKeys("slow");
+        
+        eject(slow);
+        assertThat(picks(List.of(fast, slow), null)).containsOnlyKeys("fast");
+    }
+    
+    @Test
+    void avoidsTheInstanceAHedgeNamesWhenThereIsAnother() {
+        assertThat(picks(List.of(fast, slow), "fast:8080")).containsOnlyKeys("slow");
+        assertThat(picks(List.of(fast), "fast:8080")).containsOnlyKeys("fast");
+    }
+    
+    @Test
+    void readsTheAvoidHintFromTheRequestHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER, "fast:8080");
+        RequestData data = new RequestData(HttpMethod.GET, URI.create("http://report-service/api/reports"), headers,
+            new LinkedMultiValueMap<>(), new HashMap<>());
+        
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(data))).block();
+        
+        assertThat(response.getServer()).isEqualTo(slow);
+    }
+    
+    @Test
+    void answersEmptyWithoutInstances() {
+        assertThat(loadBalancer.choose(List.of(), null).hasServer()).isFalse();
+    }
+    
+    private Map<String, Long> picks(List<ServiceInstance> instances, String avoid) {
+        return IntStream.range(0, PICKS)
+            .mapToObj(i -> loadBalancer.choose(instances, avoid).getServer().getInstanceId())
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+    
+    private void eject(ServiceInstance instance) {
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure(instance);
+        }
+    }
+    
+    private static ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host, "report-service", host, 8080, false);
+    }
+}
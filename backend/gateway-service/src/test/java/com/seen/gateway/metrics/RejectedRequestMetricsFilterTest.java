@@ -0,0 +1,63 @@
+package com.seen.gateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RejectedRequestMetricsFilterTest {
+    
+    private MeterRegistry meterRegistry;
+    private RejectedRequestMetricsFilter filter;
+    private MockServerWebExchange exchange;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RejectedRequestMetricsFilter(meterRegistry);
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/reports"));
+    }
+    
+    @Test
+    void statusWrittenByTheChainIsCounted() {
+        filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return Mono.empty();
+        }).block();
+        
+        assertThat(rejected("rate_limited")).isEqualTo(1);
+    }
+    
+    @Test
+    void errorIsCountedByItsStatusBeforeTheExceptionHandlerRuns() {
+        Mono<Void> result = filter.filter(exchange,
+            e -> Mono.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE)));
+        
+        assertThatThrownBy(result::block).isInstanceOf(ResponseStatusException.class);
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+        assertThat(rejected("payload_too_large")).isEqualTo(1);
+    }
+    
+    @Test
+    void successAndUnrelatedFailuresAreNotCounted() {
+        filter.filter(exchange, e -> Mono.empty()).block();
+        Mono<Void> failed = filter.filter(exchange, e -> Mono.error(new IllegalStateException("boom")));
+        
+        assertThatThrownBy(failed::block).isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.find("gateway.requests.rejected").counters()).isEmpty();
+    }
+    
+    private double rejected(String cause) {
+        Counter counter = meterRegistry.find("gateway.requests.rejected").tag("cause", cause).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.seen.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HybridRateLimiterTest {
+    
+    private static final String ROUTE = "report-service";
+    private static final String KEY_PREFIX = "request_rate_limiter.hybrid." + ROUTE + ".";
+    
+    private ReactiveStringRedisTemplate redisTemplate;
+    private ReactiveValueOperations<String, String> valueOperations;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+    }
+    
+    @Test
+    void flushesLocalConsumptionToTheWindowCounter() {
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(call -> Mono.just(call.getArgument(1, Long.class)));
+        HybridRateLimiter rateLimiter = rateLimiter(100);
+        
+        allow(rateLimiter, "user-1", 3);
+        rateLimiter.reconcile().block();
+        
+        assertThat(flushed("user-1")).isEqualTo(3);
+        verify(redisTemplate).expire(startsWith(KEY_PREFIX + "user-1."), eq(Duration.ofHours(2)));
+    }
+    
+    @Test
+    void retriesACountWhoseFlushFailed() {
+        when(valueOperations.increment(anyString(), anyLong()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("down")))
+            .thenAnswer(call -> Mono.just(call.getArgument(1, Long.class)));
+        HybridRateLimiter rateLimiter = rateLimiter(100);
+        
+        allow(rateLimiter, "user-1", 3);
+        assertThatThrownBy(() -> rateLimiter.reconcile().block())
+            .isInstanceOf(RedisConnectionFailureException.class);
+        allow(rateLimiter, "user-1", 2);
+        rateLimiter.reconcile().block();
+        
+        // The failed 3 are flushed again, together with the 2 admitted since
+        assertThat(flushed("user-1")).isEqualTo(3 + 3 + 2);
+    }
+    
+    @Test
+    void aFailedBucketDoesNotStopTheOthers() {
+        when(valueOperations.increment(startsWith(KEY_PREFIX + "user-1."), anyLong()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        when(valueOperations.increment(startsWith(KEY_PREFIX + "user-2."), anyLong()))
+            .thenAnswer(call -> Mono.just(call.getArgument(1, Long.class)));
+        HybridRateLimiter rateLimiter = rateLimiter(100);
+        
+        allow(rateLimiter, "user-1", 1);
+        allow(rateLimiter, "user-2", 4);
+        assertThatThrownBy(() -> rateLimiter.reconcile().block())
+            .isInstanceOf(RedisConnectionFailureException.class);
+        
+        assertThat(flushed("user-2")).isEqualTo(4);
+    }
+    
+    @Test
+    void flushesABucketEvictedBeforeItWasReconciled() {
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(call -> Mono.just(call.getArgument(1, Long.class)));
+        HybridRateLimiter rateLimiter = rateLimiter(1);
+        
+        allow(rateLimiter, "user-1", 3);
+        for (int i = 2; i <= 50; i++) {
+            allow(rateLimiter, "user-" + i, 1);
+        }
+        
+        verify(valueOperations, timeout(5_000)).increment(startsWith(KEY_PREFIX + "user-1."), eq(3L));
+    }
+    
+    private HybridRateLimiter rateLimiter(int maximumBuckets) {
+        return new HybridRateLimiter(redisTemplate, 100, 100, 1, Duration.ofMillis(100), Duration.ofHours(1),
+            maximumBuckets, new SimpleMeterRegistry());
+    }
+    
+    private void allow(HybridRateLimiter rateLimiter, String user, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(rateLimiter.isAllowed(ROUTE, user).block().isAllowed()).isTrue();
+        }
+    }
+    
+    // Summed, since a window roll during the test splits a flush across two keys
+    private long flushed(String user) {
+        ArgumentCaptor<Long> counts = ArgumentCaptor.forClass(Long.class);
+        verify(valueOperations, atLeastOnce()).increment(startsWith(KEY_PREFIX + user + "."), counts.capture());
+        return counts.getAllValues().stream().mapToLong(Long::longValue).sum();
+    }
+}
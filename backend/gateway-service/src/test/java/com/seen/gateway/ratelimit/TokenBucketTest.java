@@ -0,0 +1,92 @@
+package com.seen.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    
+    private static final long WINDOW = 1_000;
+    
+    private final HybridRateLimiter.Config config = new HybridRateLimiter.Config()
+        .setReplenishRate(100)
+        .setBurstCapacity(100)
+        .setRequestedTokens(1);
+    
+    @Test
+    void drainsWhatWasConsumedInTheWindow() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        
+        assertThat(bucket.drainUnsynced()).containsExactly(new TokenBucket.Pending(WINDOW, 3));
+        assertThat(bucket.drainUnsynced()).isEmpty();
+    }
+    
+    @Test
+    void carriesUnflushedConsumptionAcrossAWindowRoll() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        consume(bucket, WINDOW + 1, 2);
+        
+        assertThat(bucket.drainUnsynced()).containsExactly(
+            new TokenBucket.Pending(WINDOW, 3),
+            new TokenBucket.Pending(WINDOW + 1, 2));
+    }
+    
+    @Test
+    void dropsConsumptionOlderThanThePreviousWindow() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        consume(bucket, WINDOW + 1, 2);
+        consume(bucket, WINDOW + 2, 1);
+        
+        assertThat(bucket.drainUnsynced()).containsExactly(
+            new TokenBucket.Pending(WINDOW + 1, 2),
+            new TokenBucket.Pending(WINDOW + 2, 1));
+    }
+    
+    @Test
+    void restoresAFailedFlushForTheNextReconciliation() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        
+        TokenBucket.Pending pending = bucket.drainUnsynced().get(0);
+        consume(bucket, WINDOW, 1);
+        bucket.restore(pending);
+        
+        assertThat(bucket.drainUnsynced()).containsExactly(new TokenBucket.Pending(WINDOW, 4));
+    }
+    
+    @Test
+    void restoresAFailedFlushAsCarriedWhenTheWindowRolledMeanwhile() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        
+        TokenBucket.Pending pending = bucket.drainUnsynced().get(0);
+        consume(bucket, WINDOW + 1, 1);
+        bucket.restore(pending);
+        
+        assertThat(bucket.drainUnsynced()).containsExactly(
+            new TokenBucket.Pending(WINDOW, 3),
+            new TokenBucket.Pending(WINDOW + 1, 1));
+    }
+    
+    @Test
+    void keepsLocalConsumptionWhenReconciling() {
+        TokenBucket bucket = new TokenBucket(config, 1, 0, WINDOW);
+        consume(bucket, WINDOW, 3);
+        bucket.drainUnsynced();
+        consume(bucket, WINDOW, 2);
+        
+        // Another replica consumed 90 of the 100 in this window
+        bucket.reconcile(WINDOW, 93);
+        
+        assertThat(bucket.tryConsume(0, WINDOW)).isEqualTo(4);
+    }
+    
+    private void consume(TokenBucket bucket, long window, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(bucket.tryConsume(0, window)).isGreaterThanOrEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.seen.gateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+    
+    @Test
+    void rejectsBeyondTheLimitUntilAPermitIsReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+        
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        
+        limit.release();
+        
+        assertThat(limit.inFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+    
+    @Test
+    void failuresBackOffMultiplicativelyDownToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 10, 500);
+        
+        limit.onSample(FAST, true);
+        assertThat(limit.limit()).isEqualTo(90);
+        
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, true);
+        }
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+    
+    @Test
+    void growsWhileBusyAndLatencyStaysAtTheBaseline() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 500);
+        acquire(limit, 15);
+        
+        sample(limit, FAST, 200);
+        
+        assertThat(limit.limit()).isGreaterThan(20);
+    }
+    
+    @Test
+    void holdsWhileMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 500);
+        acquire(limit, 2);
+        
+        sample(limit, FAST, 200);
+        
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+    
+    @Test
+    void shrinksWhenLatencyRisesAboveTheBaselineUnderLoad() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 10, 500);
+        sample(limit, FAST, 100);
+        acquire(limit, limit.limit());
+        int before = limit.limit();
+        
+        sample(limit, SLOW, 100);
+        
+        assertThat(limit.limit()).isLessThan(before);
+    }
+    
+    @Test
+    void neverGrowsPastTheMaximum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 10, 50);
+        acquire(limit, 40);
+        
+        sample(limit, FAST, 2_000);
+        
+        assertThat(limit.limit()).isEqualTo(50);
+    }
+    
+    private static void acquire(AdaptiveConcurrencyLimit limit, int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+    }
+    
+    private static void sample(AdaptiveConcurrencyLimit limit, long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.seen.gateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    
+    private static final long OPEN_NANOS = 1_000;
+    
+    private List<CircuitBreaker.State> transitions;
+    private CircuitBreaker breaker;
+    
+    @BeforeEach
+    void setUp() {
+        transitions = new ArrayList<>();
+        breaker = new CircuitBreaker(10, 4, 0.5, OPEN_NANOS, 2, transitions::add);
+    }
+    
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        record(0, true, true, true);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire(0)).isEqualTo(CircuitBreaker.Permit.CALL);
+    }
+    
+    @Test
+    void opensAtTheFailureRateAndFailsFast() {
+        record(0, false, false, true, true);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(transitions).containsExactly(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(OPEN_NANOS - 1)).isEqualTo(CircuitBreaker.Permit.REJECTED);
+    }
+    
+    @Test
+    void failuresThatLeftTheWindowNoLongerCount() {
+        record(0, true);
+        record(0, false, false, false, false, false, false, false, false, false, false, false, false);
+        // Four of the last ten; five with the first failure still counted
+        record(0, true, true, true, true);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void letsOnlyTheConfiguredProbesThroughWhenHalfOpen() {
+        open();
+        
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isEqualTo(CircuitBreaker.Permit.PROBE);
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isEqualTo(CircuitBreaker.Permit.PROBE);
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isEqualTo(CircuitBreaker.Permit.REJECTED);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+    
+    @Test
+    void closesWithAFreshWindowOnceEveryProbeSucceeds() {
+        open();
+        CircuitBreaker.Permit first = breaker.tryAcquire(OPEN_NANOS);
+        CircuitBreaker.Permit second = breaker.tryAcquire(OPEN_NANOS);
+        
+        breaker.onResult(first, false, OPEN_NANOS);
+        breaker.onResult(second, false, OPEN_NANOS);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly(
+            CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED);
+        // The failures that opened it are forgotten
+        record(OPEN_NANOS, true, false, false, false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void aFailedProbeOpensItAgain() {
+        open();
+        CircuitBreaker.Permit probe = breaker.tryAcquire(OPEN_NANOS);
+        
+        breaker.onResult(probe, true, OPEN_NANOS);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(2 * OPEN_NANOS - 1)).isEqualTo(CircuitBreaker.Permit.REJECTED);
+    }
+    
+    @Test
+    void aCancelledProbeFreesItsSlot() {
+        open();
+        CircuitBreaker.Permit first = breaker.tryAcquire(OPEN_NANOS);
+        breaker.tryAcquire(OPEN_NANOS);
+        
+        breaker.onCancel(first);
+        
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isEqualTo(CircuitBreaker.Permit.PROBE);
+    }
+    
+    @Test
+    void ignoresResultsOfCallsAdmittedBeforeItOpened() {
+        CircuitBreaker.Permit late = breaker.tryAcquire(0);
+        open();
+        CircuitBreaker.Permit probe = breaker.tryAcquire(OPEN_NANOS);
+        
+        breaker.onResult(late, true, OPEN_NANOS);
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(probe, false, OPEN_NANOS);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+    
+    private void open() {
+        record(0, true, true, true, true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+    
+    private void record(long now, boolean... failures) {
+        for (boolean failed : failures) {
+            breaker.onResult(breaker.tryAcquire(now), failed, now);
+        }
+    }
+}
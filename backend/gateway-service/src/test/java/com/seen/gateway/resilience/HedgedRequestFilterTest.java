@@ -0,0 +1,162 @@
+package com.seen.gateway.resilience;
+
+import com.seen.gateway.loadbalancer.PeakEwmaLoadBalancer;
+import com.seen.gateway.support.CapturingExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class HedgedRequestFilterTest {
+    
+    private static final Route ROUTE = Route.async()
+        .id("reports")
+        .uri("lb://report-service")
+        .predicate(exchange -> true)
+        .metadata(HedgedRequestFilter.HEDGE_AFTER, 50)
+        .build();
+    
+    private SimpleMeterRegistry meterRegistry;
+    private List<ServerWebExchange> attempts;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        attempts = new CopyOnWriteArrayList<>();
+    }
+    
+    @Test
+    void slowPrimaryIsHedgedToAnotherInstance() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/reports"));
+        
+        new HedgedRequestFilter(1.0, meterRegistry).filter(exchange, upstream(Duration.ofSeconds(5), null)).block();
+        
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2).allSatisfy(attempt -> assertThat(attempt).isInstanceOf(CapturingExchange.class));
+        assertThat(attempts.get(0).getRequest().getHeaders()).doesNotContainKey(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER);
+        assertThat(attempts.get(1).getRequest().getHeaders().getFirst(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER))
+            .isEqualTo("primary:8080");
+        assertThat(count("sent")).isEqualTo(1);
+        assertThat(count("won")).isEqualTo(1);
+    }
+    
+    @Test
+    void fastPrimaryIsNotHedged() throws InterruptedException {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/reports"));
+        
+        new HedgedRequestFilter(1.0, meterRegistry).filter(exchange, upstream(Duration.ZERO, null)).block();
+        Thread.sleep(100);
+        
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instance")).isEqualTo("primary");
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("primary");
+        assertThat(attempts).hasSize(1);
+    }
+    
+    @Test
+    void waitsForThePrimaryOnceTheBudgetIsSpent() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/reports"));
+        
+        new HedgedRequestFilter(0, meterRegistry).filter(exchange, upstream(Duration.ofMillis(200), null)).block();
+        
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("primary");
+        assertThat(attempts).hasSize(1);
+        assertThat(count("budget_exhausted")).isEqualTo(1);
+    }
+    
+    @Test
+    void hedgeCoversAPrimaryThatFailsBeforeTheDelay() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/reports"));
+        
+        new HedgedRequestFilter(1.0, meterRegistry)
+            .filter(exchange, upstream(Duration.ZERO, new ConnectException("Connection refused")))
+            .block();
+        
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("hedge");
+    }
+    
+    @Test
+    void otherMethodsGoStraightThrough() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/reports"));
+        
+        new HedgedRequestFilter(1.0, meterRegistry).filter(exchange, upstream(Duration.ZERO, null)).block();
+        
+        assertThat(attempts).containsExactly(exchange);
+    }
+    
+    @Test
+    void clientsCannotSteerTheLoadBalancer() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/reports")
+            .header(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER, "primary:8080"));
+        HedgedRequestFilter filter = new HedgedRequestFilter(1.0, meterRegistry);
+        
+        filter.filter(exchange, upstream(Duration.ZERO, null)).block();
+        
+        assertThat(attempts.get(0).getRequest().getHeaders()).doesNotContainKey(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER);
+    }
+    
+    @Test
+    void keepsTheLoadBalancerHintFromTheUpstream() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER, "primary:8080");
+        headers.set(HttpHeaders.ACCEPT, "application/json");
+        
+        HttpHeaders forwarded = new HedgedRequestFilter(1.0, meterRegistry).filter(headers, null);
+        
+        assertThat(forwarded).doesNotContainKey(PeakEwmaLoadBalancer.AVOID_INSTANCE_HEADER);
+        assertThat(forwarded.getFirst(HttpHeaders.ACCEPT)).isEqualTo("application/json");
+    }
+    
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+    
+    /**
+     * Stands in for the load balancer and routing filters: the first attempt goes to
+     * "primary" and answers after the given delay or fails, later ones go to "hedge".
+     */
+    private GatewayFilterChain upstream(Duration primaryDelay, Throwable primaryFailure) {
+        return upstream -> Mono.defer(() -> {
+            boolean primary = attempts.isEmpty();
+            attempts.add(upstream);
+            String instance = primary ? "primary" : "hedge";
+            upstream.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR,
+                new DefaultResponse(new DefaultServiceInstance(instance, "report-service", instance, 8080, false)));
+            if (primary && primaryFailure != null) {
+                return Mono.error(primaryFailure);
+            }
+            return Mono.delay(primary ? primaryDelay : Duration.ZERO)
+                .then(Mono.defer(() -> {
+                    upstream.getResponse().setStatusCode(HttpStatus.OK);
+                    upstream.getResponse().getHeaders().set("X-Instance", instance);
+                    return upstream.getResponse().writeWith(Mono.just(
+                        upstream.getResponse().bufferFactory().wrap(instance.getBytes(StandardCharsets.UTF_8))));
+                }));
+        });
+    }
+    
+    private double count(String outcome) {
+        return meterRegistry.counter("gateway.hedge.requests", "route", "reports", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,110 @@
+package com.seen.gateway.security;
+
+import com.seen.revocation.TokenDigest;
+import com.seen.revocation.TokenRevocationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RevocationSubscriberTest {
+    
+    private ReactiveStringRedisTemplate redisTemplate;
+    private ReactiveValueOperations<String, String> valueOperations;
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+    private List<String> invalidatedClaims;
+    private TokenRevocationCache revocationCache;
+    private RevocationSubscriber subscriber;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        listenerContainer = mock(ReactiveRedisMessageListenerContainer.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+        
+        invalidatedClaims = new ArrayList<>();
+        revocationCache = new TokenRevocationCache(604_800_000, invalidatedClaims::add);
+        subscriber = new RevocationSubscriber(redisTemplate, listenerContainer, revocationCache,
+            Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        subscriber.unsubscribe();
+    }
+    
+    @Test
+    void appliesRevocationsPublishedByAuthService() {
+        Sinks.Many<ReactiveSubscription.Message<String, String>> channel = Sinks.many().unicast().onBackpressureBuffer();
+        when(listenerContainer.receiveLater(any(ChannelTopic.class))).thenReturn(Mono.just(channel.asFlux()));
+        subscriber.subscribe();
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        assertThat(revocationCache.isRevoked(digest)).isFalse();
+        
+        channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(TokenRevocationCache.CHANNEL,
+            TokenRevocationCache.message(digest, System.currentTimeMillis() + 60_000)));
+        
+        assertThat(revocationCache.isRevoked(digest)).isTrue();
+        assertThat(invalidatedClaims).containsExactly(digest);
+    }
+    
+    @Test
+    void resyncLoadsStoredRevocationsAndMigratesLegacyKeys() {
+        String digest = TokenDigest.of("header.payload.current");
+        String legacyToken = "header.payload.legacy";
+        String legacyKey = TokenRevocationCache.KEY_PREFIX + legacyToken;
+        String legacyDigest = TokenDigest.of(legacyToken);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.just(TokenRevocationCache.key(digest), legacyKey));
+        when(valueOperations.multiGet(anyList()))
+            .thenReturn(Mono.just(List.of(Long.toString(System.currentTimeMillis() + 60_000), "true")));
+        when(redisTemplate.getExpire(legacyKey)).thenReturn(Mono.just(Duration.ofSeconds(30)));
+        when(valueOperations.set(eq(TokenRevocationCache.key(legacyDigest)), anyString(), eq(Duration.ofSeconds(30))))
+            .thenReturn(Mono.just(true));
+        when(redisTemplate.delete(legacyKey)).thenReturn(Mono.just(1L));
+        
+        subscriber.resync().block();
+        
+        assertThat(revocationCache.isRevoked(digest)).isTrue();
+        assertThat(revocationCache.isRevoked(legacyDigest)).isTrue();
+        assertThat(invalidatedClaims).containsExactlyInAnyOrder(digest, legacyDigest);
+        verify(redisTemplate).delete(legacyKey);
+    }
+    
+    @Test
+    void legacyKeyThatDisappearedIsSkipped() {
+        String legacyKey = TokenRevocationCache.KEY_PREFIX + "header.payload.legacy";
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.just(legacyKey));
+        when(valueOperations.multiGet(anyList())).thenReturn(Mono.just(List.of("true")));
+        when(redisTemplate.getExpire(legacyKey)).thenReturn(Mono.empty());
+        
+        subscriber.resync().block();
+        
+        assertThat(invalidatedClaims).isEmpty();
+    }
+}
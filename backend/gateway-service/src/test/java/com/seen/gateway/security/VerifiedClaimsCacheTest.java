@@ -0,0 +1,87 @@
+package com.seen.gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedClaimsCacheTest {
+    
+    private static final String DIGEST = "digest";
+    
+    private final AtomicInteger verifications = new AtomicInteger();
+    
+    @Test
+    void verifiesEachTokenOnce() {
+        VerifiedClaimsCache cache = newCache(Duration.ofHours(1));
+        Supplier<VerifiedToken> verifier = verifier(Instant.now().plusSeconds(600));
+        
+        VerifiedToken first = cache.get(DIGEST, verifier);
+        VerifiedToken second = cache.get(DIGEST, verifier);
+        
+        assertThat(second).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+    }
+    
+    @Test
+    void invalidatedTokenIsVerifiedAgain() {
+        VerifiedClaimsCache cache = newCache(Duration.ofHours(1));
+        Supplier<VerifiedToken> verifier = verifier(Instant.now().plusSeconds(600));
+        
+        cache.get(DIGEST, verifier);
+        cache.invalidate(DIGEST);
+        cache.get(DIGEST, verifier);
+        
+        assertThat(verifications).hasValue(2);
+    }
+    
+    @Test
+    void tokenIsNotServedPastItsExpiry() {
+        VerifiedClaimsCache cache = newCache(Duration.ofHours(1));
+        Supplier<VerifiedToken> verifier = verifier(Instant.now().minusSeconds(1));
+        
+        cache.get(DIGEST, verifier);
+        cache.get(DIGEST, verifier);
+        
+        assertThat(verifications).hasValue(2);
+    }
+    
+    @Test
+    void zeroMaxTtlDisablesCaching() {
+        VerifiedClaimsCache cache = newCache(Duration.ZERO);
+        Supplier<VerifiedToken> verifier = verifier(Instant.now().plusSeconds(600));
+        
+        cache.get(DIGEST, verifier);
+        cache.get(DIGEST, verifier);
+        
+        assertThat(verifications).hasValue(2);
+    }
+    
+    @Test
+    void tokensAreCachedPerDigest() {
+        VerifiedClaimsCache cache = newCache(Duration.ofHours(1));
+        Supplier<VerifiedToken> verifier = verifier(Instant.now().plusSeconds(600));
+        
+        cache.get(DIGEST, verifier);
+        cache.get("other-digest", verifier);
+        
+        assertThat(verifications).hasValue(2);
+    }
+    
+    private Supplier<VerifiedToken> verifier(Instant expiresAt) {
+        return () -> {
+            verifications.incrementAndGet();
+            return new VerifiedToken("user-" + verifications.get(), List.of(), expiresAt, "envelope");
+        };
+    }
+    
+    private static VerifiedClaimsCache newCache(Duration maxTtl) {
+        return new VerifiedClaimsCache(100, maxTtl, new SimpleMeterRegistry());
+    }
+}
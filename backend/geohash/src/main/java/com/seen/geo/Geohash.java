@@ -0,0 +1,84 @@
+package com.seen.geo;
+
+/**
+ * Base-32 geohash encoding. Each extra character narrows the cell by 5 bits,
+ * alternating longitude and latitude, so a hash's prefixes are its parent cells
+ * and a prefix query is a spatial query.
+ */
+public final class Geohash {
+    
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    
+    private Geohash() {
+    }
+    
+    public static String encode(double latitude, double longitude, int precision) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + "," + longitude);
+        }
+        
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lonBit = true;
+        int bits = 0, value = 0;
+        while (hash.length() < precision) {
+            if (lonBit) {
+                double mid = (minLon + maxLon) / 2;
+                value = value << 1 | (longitude >= mid ? 1 : 0);
+                if (longitude >= mid) minLon = mid; else maxLon = mid;
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                value = value << 1 | (latitude >= mid ? 1 : 0);
+                if (latitude >= mid) minLat = mid; else maxLat = mid;
+            }
+            lonBit = !lonBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+    
+    public static Cell decode(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean lonBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int value = BASE32.indexOf(hash.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = (value >> bit & 1) == 1;
+                if (lonBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                lonBit = !lonBit;
+            }
+        }
+        return new Cell(minLat, minLon, maxLat, maxLon);
+    }
+    
+    /**
+     * Number of longitude bits in a hash of the given length.
+     */
+    public static int longitudeBits(int precision) {
+        return (5 * precision + 1) / 2;
+    }
+    
+    public record Cell(double minLat, double minLon, double maxLat, double maxLon) {
+        
+        public double centerLat() {
+            return (minLat + maxLat) / 2;
+        }
+        
+        public double centerLon() {
+            return (minLon + maxLon) / 2;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.seen.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeohashTest {
+    
+    @Test
+    void encodesKnownPoints() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(-33.8688, 151.2093, 6)).isEqualTo("r3gx2f");
+    }
+    
+    @Test
+    void shorterHashesArePrefixesOfLongerOnes() {
+        String full = Geohash.encode(41.8781, -87.6298, 9);
+        
+        for (int precision = 1; precision < 9; precision++) {
+            assertThat(full).startsWith(Geohash.encode(41.8781, -87.6298, precision));
+        }
+    }
+    
+    @Test
+    void pointsInsideACellMatchItsPrefixAndPointsOutsideDoNot() {
+        String cell = Geohash.encode(41.8781, -87.6298, 5);
+        Geohash.Cell bounds = Geohash.decode(cell);
+        double latStep = bounds.maxLat() - bounds.minLat();
+        double lonStep = bounds.maxLon() - bounds.minLon();
+        
+        // Corners just inside share the prefix, so a prefix match is a bounding-cell query
+        assertThat(Geohash.encode(bounds.minLat() + 1e-9, bounds.minLon() + 1e-9, 9)).startsWith(cell);
+        assertThat(Geohash.encode(bounds.maxLat() - 1e-9, bounds.maxLon() - 1e-9, 9)).startsWith(cell);
+        assertThat(Geohash.encode(bounds.minLat() - latStep / 2, bounds.centerLon(), 9)).doesNotStartWith(cell);
+        assertThat(Geohash.encode(bounds.centerLat(), bounds.maxLon() + lonStep / 2, 9)).doesNotStartWith(cell);
+    }
+    
+    @Test
+    void decodesTheCellAroundTheEncodedPoint() {
+        Geohash.Cell cell = Geohash.decode(Geohash.encode(48.8566, 2.3522, 7));
+        
+        assertThat(cell.minLat()).isLessThanOrEqualTo(48.8566);
+        assertThat(cell.maxLat()).isGreaterThan(48.8566);
+        assertThat(cell.minLon()).isLessThanOrEqualTo(2.3522);
+        assertThat(cell.maxLon()).isGreaterThan(2.3522);
+        // Precision 7 is about 153 x 153 m
+        assertThat(cell.centerLat()).isCloseTo(48.8566, within(0.001));
+        assertThat(cell.centerLon()).isCloseTo(2.3522, within(0.001));
+    }
+    
+    @Test
+    void longitudeGetsTheExtraBitOfOddLengthHashes() {
+        assertThat(Geohash.longitudeBits(1)).isEqualTo(3);
+        assertThat(Geohash.longitudeBits(2)).isEqualTo(5);
+        assertThat(Geohash.longitudeBits(5)).isEqualTo(13);
+        
+        Geohash.Cell cell = Geohash.decode("9");
+        assertThat(cell.maxLon() - cell.minLon()).isEqualTo(360.0 / (1 << 3));
+    }
+    
+    @Test
+    void edgesOfTheMapAreValidAndBeyondThemIsNot() {
+        assertThat(Geohash.encode(90, 180, 3)).isEqualTo("zzz");
+        assertThat(Geohash.encode(-90, -180, 3)).isEqualTo("000");
+        assertThatThrownBy(() -> Geohash.encode(90.5, 0, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geohash.decode("u4a")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
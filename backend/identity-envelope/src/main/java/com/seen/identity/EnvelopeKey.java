@@ -0,0 +1,51 @@
+package com.seen.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * The HMAC-SHA256 key shared by the gateway and the services behind it. A
+ * missing or short secret fails startup rather than signing with a guessable key.
+ */
+final class EnvelopeKey {
+    
+    static final String HEADER = "X-Seen-Identity";
+    static final String VERSION = "v1";
+    static final int MIN_SECRET_BYTES = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    private final Mac prototype;
+    
+    EnvelopeKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("identity.envelope.secret must be set");
+        }
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                "identity.envelope.secret must be at least " + MIN_SECRET_BYTES + " bytes, got " + key.length);
+        }
+        
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+    
+    byte[] mac(byte[] encoded) {
+        return newMac().doFinal(encoded);
+    }
+    
+    // Mac is not thread-safe; a clone of the initialized prototype skips the provider lookup
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " cannot be cloned", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.seen.identity;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Caller identity as verified and forwarded by the gateway. tokenId is the
+ * digest of the caller's JWT, the same key used for revocation.
+ */
+public record GatewayIdentity(String subject, List<String> roles, String tokenId, Instant expiresAt) {
+    
+    public List<SimpleGrantedAuthority> authorities() {
+        return roles.stream()
+            .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+            .toList();
+    }
+}
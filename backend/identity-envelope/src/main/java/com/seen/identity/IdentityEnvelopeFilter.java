@@ -0,0 +1,57 @@
+package com.seen.identity;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests from the gateway's signed identity envelope. The
+ * principal name is the user ID; requests without a valid envelope stay
+ * anonymous. Also runs on async and error dispatches, since the security
+ * context is not carried over between them.
+ */
+public class IdentityEnvelopeFilter extends OncePerRequestFilter {
+    
+    private final IdentityEnvelopeVerifier verifier;
+    
+    public IdentityEnvelopeFilter(IdentityEnvelopeVerifier verifier) {
+        this.verifier = verifier;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        
+        String envelope = request.getHeader(IdentityEnvelopeVerifier.HEADER);
+        if (envelope != null) {
+            verifier.verify(envelope).ifPresent(identity -> {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(identity.subject(), null, identity.authorities());
+                authentication.setDetails(identity);
+                
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            });
+        }
+        
+        chain.doFilter(request, response);
+    }
+    
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.seen.identity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Signs the identity forwarded to downstream services in {@value #HEADER}:
+ * {@code base64url(v1|subject|roles|tokenId|exp) "." base64url(HMAC-SHA256)},
+ * keyed with a secret shared only with the services behind the gateway. They
+ * check one MAC over a few bytes instead of parsing and verifying the JWT again.
+ */
+public class IdentityEnvelopeSigner {
+    
+    public static final String HEADER = EnvelopeKey.HEADER;
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    
+    private final EnvelopeKey key;
+    
+    public IdentityEnvelopeSigner(String secret) {
+        this.key = new EnvelopeKey(secret);
+    }
+    
+    public String sign(String subject, List<String> roles, String tokenId, Instant expiresAt) {
+        String payload = String.join("|", EnvelopeKey.VERSION,
+            subject, String.join(",", roles), tokenId, Long.toString(expiresAt.getEpochSecond()));
+        String encoded = BASE64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = key.mac(encoded.getBytes(StandardCharsets.US_ASCII));
+        return encoded + "." + BASE64.encodeToString(signature);
+    }
+}
@@ -0,0 +1,75 @@
+package com.seen.identity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentityEnvelopeVerifierTest {
+    
+    private static final String SECRET = "identity-envelope-test-secret-0123456789";
+    
+    private SimpleMeterRegistry meterRegistry;
+    private IdentityEnvelopeSigner signer;
+    private IdentityEnvelopeVerifier verifier;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        signer = new IdentityEnvelopeSigner(SECRET);
+        verifier = new IdentityEnvelopeVerifier(SECRET, "test", meterRegistry);
+    }
+    
+    @Test
+    void acceptsWhatTheSignerSigned() {
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+        String envelope = signer.sign("user-1", List.of("USER", "MODERATOR"), "digest", expiresAt);
+        
+        assertThat(verifier.verify(envelope)).hasValueSatisfying(identity -> {
+            assertThat(identity.subject()).isEqualTo("user-1");
+            assertThat(identity.roles()).containsExactly("USER", "MODERATOR");
+            assertThat(identity.tokenId()).isEqualTo("digest");
+            assertThat(identity.expiresAt()).isEqualTo(expiresAt);
+        });
+    }
+    
+    @Test
+    void rejectsAnEnvelopeSignedWithAnotherKey() {
+        String envelope = new IdentityEnvelopeSigner("another-identity-envelope-secret-0123456")
+            .sign("user-1", List.of("ADMIN"), "digest", Instant.now().plus(1, ChronoUnit.HOURS));
+        
+        assertThat(verifier.verify(envelope)).isEmpty();
+        assertThat(meterRegistry.counter("test.identity.rejected", "reason", "signature").count()).isEqualTo(1);
+    }
+    
+    @Test
+    void rejectsAnExpiredEnvelope() {
+        String envelope = signer.sign("user-1", List.of("USER"), "digest", Instant.now().minusSeconds(1));
+        
+        assertThat(verifier.verify(envelope)).isEmpty();
+        assertThat(meterRegistry.counter("test.identity.rejected", "reason", "expired").count()).isEqualTo(1);
+    }
+    
+    @Test
+    void rejectsAMalformedEnvelope() {
+        assertThat(verifier.verify("not-an-envelope")).isEmpty();
+        assertThat(verifier.verify("bm90.%%%")).isEmpty();
+        assertThat(meterRegistry.counter("test.identity.rejected", "reason", "malformed").count()).isEqualTo(2);
+    }
+    
+    @Test
+    void refusesAMissingOrShortSecret() {
+        assertThatThrownBy(() -> new IdentityEnvelopeSigner(""))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("must be set");
+        assertThatThrownBy(() -> new IdentityEnvelopeVerifier("myIdentityEnvelopeKey", "test", meterRegistry))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("at least 32 bytes");
+    }
+}
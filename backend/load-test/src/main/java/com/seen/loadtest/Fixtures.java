@@ -0,0 +1,69 @@
+package com.seen.loadtest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pre-built request material: one access token per simulated user, signed with
+ * the secret the in-process gateway is started with, and the login payloads.
+ */
+final class Fixtures {
+    
+    static final String JWT_SECRET = "load-test-secret-that-is-long-enough-for-hs512-signing-0123456789abcdef";
+    
+    private final String[] tokens;
+    private final String[] loginRequests;
+    
+    private Fixtures(String[] tokens, String[] loginRequests) {
+        this.tokens = tokens;
+        this.loginRequests = loginRequests;
+    }
+    
+    static Fixtures create(int users) {
+        SecretKey key = Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8));
+        Date now = new Date();
+        Date expiresAt = new Date(now.getTime() + Duration.ofHours(12).toMillis());
+        
+        String[] tokens = new String[users];
+        String[] loginRequests = new String[users];
+        for (int i = 0; i < users; i++) {
+            String email = "load-test-" + i + "@seen.example";
+            tokens[i] = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiration(expiresAt)
+                .claim("email", email)
+                .claim("roles", List.of("USER"))
+                .claim("type", "access")
+                .signWith(key)
+                .compact();
+            loginRequests[i] = "{\"email\":\"" + email + "\",\"password\":\"correct-horse-battery-staple\"}";
+        }
+        return new Fixtures(tokens, loginRequests);
+    }
+    
+    /**
+     * What the stub auth-service answers with: the shape of a real LoginResponseDto.
+     */
+    String loginResponse() {
+        return "{\"accessToken\":\"" + tokens[0] + "\",\"refreshToken\":\"" + tokens[0] + "\","
+            + "\"tokenType\":\"Bearer\",\"expiresIn\":86400000,"
+            + "\"user\":{\"id\":\"" + UUID.randomUUID() + "\",\"email\":\"load-test-0@seen.example\","
+            + "\"role\":\"USER\",\"emailVerified\":true,\"twoFactorEnabled\":false}}";
+    }
+    
+    String token(long sequence) {
+        return tokens[(int) (sequence % tokens.length)];
+    }
+    
+    String loginRequest(long sequence) {
+        return loginRequests[(int) (sequence % loginRequests.length)];
+    }
+}
@@ -0,0 +1,85 @@
+package com.seen.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line of the harness, as {@code --name=value} pairs. Durations use the
+ * ISO-8601 form accepted everywhere else in the backend (PT30S, PT0.005S).
+ */
+public record HarnessOptions(
+        List<Scenario> scenarios,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Duration upstreamLatency,
+        int payloadBytes,
+        int users,
+        int replenishRate,
+        int replicas,
+        Duration slowReplicaLatency,
+        String loadBalancer) {
+    
+    static final String USAGE = """
+        Usage: java -jar load-test/target/load-test.jar [options]
+          --scenario=all|login-burst|report-listing|public-analytics   (default all)
+          --concurrency=64         in-flight requests
+          --warmup=PT10S           discarded before measuring
+          --duration=PT30S         measured per scenario
+          --upstream-latency=PT0S  delay added by every stub service
+          --payload-bytes=4096     stub response body size
+          --users=1000             distinct JWT principals for report-listing
+          --replenish-rate=1000000 per-user rate limit; lower it to measure 429 handling
+          --replicas=1             stub instances per service behind each lb:// route
+          --slow-replica-latency=PT0S  extra delay on the first replica when there are several
+          --load-balancer=peak-ewma    or round-robin
+        """;
+    
+    public static HarnessOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unrecognized argument " + arg + "\n" + USAGE);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        
+        HarnessOptions options = new HarnessOptions(
+            scenarios(values.remove("scenario")),
+            Integer.parseInt(values.getOrDefault("concurrency", "64")),
+            Duration.parse(values.getOrDefault("warmup", "PT10S")),
+            Duration.parse(values.getOrDefault("duration", "PT30S")),
+            Duration.parse(values.getOrDefault("upstream-latency", "PT0S")),
+            Integer.parseInt(values.getOrDefault("payload-bytes", "4096")),
+            Integer.parseInt(values.getOrDefault("users", "1000")),
+            Integer.parseInt(values.getOrDefault("replenish-rate", "1000000")),
+            Integer.parseInt(values.getOrDefault("replicas", "1")),
+            Duration.parse(values.getOrDefault("slow-replica-latency", "PT0S")),
+            values.getOrDefault("load-balancer", "peak-ewma"));
+        
+        List<String> unknown = new ArrayList<>(values.keySet());
+        unknown.removeAll(List.of("concurrency", "warmup", "duration", "upstream-latency", "payload-bytes", "users",
+            "replenish-rate", "replicas", "slow-replica-latency", "load-balancer"));
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + unknown + "\n" + USAGE);
+        }
+        return options;
+    }
+    
+    private static List<Scenario> scenarios(String value) {
+        if (value == null || "all".equals(value)) {
+            return Arrays.asList(Scenario.values());
+        }
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : value.split(",")) {
+            scenarios.add(Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        return scenarios;
+    }
+}
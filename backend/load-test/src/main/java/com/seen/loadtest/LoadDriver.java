@@ -0,0 +1,81 @@
+package com.seen.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop driver: {@code concurrency} virtual clients each send their next
+ * request as soon as the previous response is read. A warmup pass with the same
+ * shape runs first and is thrown away.
+ */
+final class LoadDriver {
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+    
+    private final HttpClient client;
+    private final Fixtures fixtures;
+    private final AllocationMeter allocationMeter;
+    private final int concurrency;
+    
+    LoadDriver(HttpClient client, Fixtures fixtures, AllocationMeter allocationMeter, int concurrency) {
+        this.client = client;
+        this.fixtures = fixtures;
+        this.allocationMeter = allocationMeter;
+        this.concurrency = concurrency;
+    }
+    
+    ScenarioResult run(Scenario scenario, Duration warmup, Duration duration) {
+        drive(scenario, warmup, new Recorder(3), new ConcurrentHashMap<>(), new LongAdder());
+        
+        Recorder recorder = new Recorder(3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        
+        long allocatedBefore = allocationMeter.gatewayAllocatedBytes();
+        long start = System.nanoTime();
+        drive(scenario, duration, recorder, statuses, failures);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocationMeter.gatewayAllocatedBytes() - allocatedBefore;
+        
+        Histogram latencies = recorder.getIntervalHistogram();
+        Map<Integer, Long> counts = new ConcurrentHashMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return new ScenarioResult(scenario, Duration.ofNanos(elapsed), latencies, counts, failures.sum(), allocated);
+    }
+    
+    private void drive(Scenario scenario, Duration duration, Recorder recorder,
+            Map<Integer, LongAdder> statuses, LongAdder failures) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        
+        Flux.range(0, concurrency)
+            .flatMap(worker -> Mono.defer(() -> timed(scenario, sequence.getAndIncrement(), recorder, statuses, failures))
+                .repeat(() -> System.nanoTime() < deadline), concurrency)
+            .blockLast();
+    }
+    
+    private Mono<Void> timed(Scenario scenario, long sequence, Recorder recorder,
+            Map<Integer, LongAdder> statuses, LongAdder failures) {
+        long start = System.nanoTime();
+        return scenario.send(client, fixtures, sequence)
+            .doOnNext(status -> {
+                recorder.recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - start) / 1_000));
+                statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            })
+            .onErrorResume(e -> {
+                failures.increment();
+                return Mono.empty();
+            })
+            .then();
+    }
+}
@@ -0,0 +1,101 @@
+package com.seen.loadtest;
+
+import com.seen.gateway.GatewayApplication;
+import com.seen.loadtest.redis.InMemoryRedisServer;
+import com.seen.loadtest.stub.StubUpstreams;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the real gateway in-process against stub upstreams and an in-memory
+ * Redis, all on loopback, then drives each scenario through it and prints
+ * throughput, latency percentiles and gateway allocation rate.
+ */
+public class LoadTestHarness {
+    
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options;
+        try {
+            options = HarnessOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        
+        Fixtures fixtures = Fixtures.create(options.users());
+        LoopResources loops = LoopResources.create("loadgen", Math.max(1, Runtime.getRuntime().availableProcessors() / 2), true);
+        ConnectionProvider connections = ConnectionProvider.builder("loadgen")
+            .maxConnections(options.concurrency())
+            .pendingAcquireMaxCount(-1)
+            .build();
+        
+        try (InMemoryRedisServer redis = InMemoryRedisServer.start();
+             StubUpstreams upstreams = StubUpstreams.start(
+                 options.upstreamLatency(), options.payloadBytes(), fixtures.loginResponse(),
+                 options.replicas(), options.slowReplicaLatency());
+             ConfigurableApplicationContext gateway = startGateway(redis, upstreams, options)) {
+            
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            HttpClient client = HttpClient.create(connections)
+                .runOn(loops)
+                .baseUrl("http://127.0.0.1:" + port);
+            LoadDriver driver = new LoadDriver(client, fixtures, new AllocationMeter(), options.concurrency());
+            
+            System.out.printf("Gateway on port %d, concurrency %d, upstream latency %s, payload %d bytes%n",
+                port, options.concurrency(), options.upstreamLatency(), options.payloadBytes());
+            System.out.println(ScenarioResult.HEADER);
+            for (Scenario scenario : options.scenarios()) {
+                System.out.println(driver.run(scenario, options.warmup(), options.duration()).format());
+            }
+            if (options.replicas() > 1) {
+                System.out.printf("%nRequests per replica (%s, first replica +%s):%n",
+                    options.loadBalancer(), options.slowReplicaLatency());
+                StubUpstreams.SERVICES.forEach(service ->
+                    System.out.printf("  %-18s %s%n", service, upstreams.requestCounts(service)));
+            }
+        } finally {
+            connections.disposeLater().block();
+            loops.disposeLater().block();
+        }
+    }
+    
+    private static ConfigurableApplicationContext startGateway(
+            InMemoryRedisServer redis, StubUpstreams upstreams, HarnessOptions options) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.data.redis.host", "127.0.0.1");
+        properties.put("spring.data.redis.port", redis.port());
+        // Service discovery without a registry: lb:// URIs resolve to the stubs
+        upstreams.ports().forEach((service, ports) -> {
+            for (int i = 0; i < ports.size(); i++) {
+                properties.put("spring.cloud.discovery.client.simple.instances." + service + "[" + i + "].uri",
+                    "http://127.0.0.1:" + ports.get(i));
+            }
+        });
+        properties.put("load-balancer.mode", options.loadBalancer());
+        properties.put("jwt.secret", Fixtures.JWT_SECRET);
+        properties.put("rate-limiter.replenish-rate", options.replenishRate());
+        properties.put("rate-limiter.burst-capacity", options.replenishRate() * 2L);
+        properties.put("management.health.redis.enabled", false);
+        // The service's own DEBUG levels would make logging the bottleneck
+        properties.put("logging.level.org.springframework.cloud.gateway", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        
+        // Passed as command line arguments so they take precedence over the gateway's application.yml
+        String[] arguments = properties.entrySet().stream()
+            .map(property -> "--" + property.getKey() + "=" + property.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(GatewayApplication.class)
+            .bannerMode(Banner.Mode.OFF)
+            .run(arguments);
+    }
+}
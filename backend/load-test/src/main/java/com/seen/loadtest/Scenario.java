@@ -0,0 +1,60 @@
+package com.seen.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Locale;
+
+/**
+ * Scripted request mixes driven through the gateway. Each sends one request and
+ * emits the response status once the body has been fully read.
+ */
+public enum Scenario {
+    
+    /** Anonymous logins: auth route, no JWT check, no rate limiting. */
+    LOGIN_BURST {
+        @Override
+        Mono<Integer> send(HttpClient client, Fixtures fixtures, long sequence) {
+            return exchange(client
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                .request(HttpMethod.POST)
+                .uri("/api/auth/login")
+                .send(ByteBufFlux.fromString(Mono.just(fixtures.loginRequest(sequence)))));
+        }
+    },
+    
+    /** Authenticated report listing: JWT authentication plus the per-user rate limiter. */
+    REPORT_LISTING {
+        @Override
+        Mono<Integer> send(HttpClient client, Fixtures fixtures, long sequence) {
+            return exchange(client
+                .headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + fixtures.token(sequence)))
+                .get()
+                .uri("/api/reports?page=0&size=20"));
+        }
+    },
+    
+    /** Anonymous Landing page aggregates, served from the Redis response cache. */
+    PUBLIC_ANALYTICS {
+        @Override
+        Mono<Integer> send(HttpClient client, Fixtures fixtures, long sequence) {
+            return exchange(client
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip"))
+                .get()
+                .uri("/api/analytics/public/aggregated"));
+        }
+    };
+    
+    abstract Mono<Integer> send(HttpClient client, Fixtures fixtures, long sequence);
+    
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+    
+    private static Mono<Integer> exchange(HttpClient.ResponseReceiver<?> request) {
+        return request.responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+}
@@ -0,0 +1,58 @@
+package com.seen.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of one measured scenario run. Latencies are recorded in microseconds.
+ */
+record ScenarioResult(
+        Scenario scenario,
+        Duration elapsed,
+        Histogram latencies,
+        Map<Integer, Long> statuses,
+        long failures,
+        long allocatedBytes) {
+    
+    static final String HEADER = String.format("%-18s %10s %8s %10s %9s %9s %9s %11s %12s  %s",
+        "scenario", "requests", "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "alloc MB/s", "alloc KB/req", "statuses");
+    
+    long requests() {
+        return latencies.getTotalCount();
+    }
+    
+    /**
+     * Transport failures plus any non-2xx response.
+     */
+    long errors() {
+        long errors = failures;
+        for (Map.Entry<Integer, Long> status : statuses.entrySet()) {
+            if (status.getKey() < 200 || status.getKey() >= 300) {
+                errors += status.getValue();
+            }
+        }
+        return errors;
+    }
+    
+    String format() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return String.format("%-18s %10d %8d %10.0f %9.2f %9.2f %9.2f %11.1f %12.2f  %s",
+            scenario.label(),
+            requests(),
+            errors(),
+            requests() / seconds,
+            millis(50),
+            millis(99),
+            millis(99.9),
+            allocatedBytes / seconds / (1024 * 1024),
+            requests() > 0 ? allocatedBytes / 1024.0 / requests() : 0,
+            new TreeMap<>(statuses));
+    }
+    
+    private double millis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000.0;
+    }
+}
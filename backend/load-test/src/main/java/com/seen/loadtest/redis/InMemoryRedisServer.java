@@ -0,0 +1,450 @@
+package com.seen.loadtest.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Loopback-only stand-in for Redis speaking RESP2, covering exactly the commands
+ * the gateway issues: strings with expiry (rate limiter counters, response cache,
+ * revalidation locks), SCAN/MGET for the revocation resync and pub/sub for
+ * revocation events. Single lock over the keyspace, like Redis' single thread.
+ */
+@Slf4j
+public class InMemoryRedisServer implements AutoCloseable {
+    
+    private static final byte[] CRLF = {'\r', '\n'};
+    
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Map<String, Entry> keyspace = new HashMap<>();
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    
+    private InMemoryRedisServer(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("redis-stub-");
+        threadFactory.setDaemon(true);
+        this.connections = Executors.newCachedThreadPool(threadFactory);
+    }
+    
+    public static InMemoryRedisServer start() throws IOException {
+        InMemoryRedisServer server = new InMemoryRedisServer(new ServerSocket(0, 128, InetAddress.getLoopbackAddress()));
+        server.connections.execute(server::acceptLoop);
+        return server;
+    }
+    
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Redis stub accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void serve(Connection connection) {
+        try (connection) {
+            while (true) {
+                List<byte[]> command = connection.readCommand();
+                if (command == null) {
+                    return;
+                }
+                if (!execute(connection, command)) {
+                    return;
+                }
+                connection.flushIfIdle();
+            }
+        } catch (SocketException | EOFException e) {
+            // Client went away
+        } catch (IOException e) {
+            log.warn("Redis stub connection failed: {}", e.getMessage());
+        } finally {
+            subscribers.values().forEach(channel -> channel.remove(connection));
+        }
+    }
+    
+    private boolean execute(Connection connection, List<byte[]> command) throws IOException {
+        String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING" -> connection.simple("PONG");
+            case "CLIENT", "SELECT" -> connection.simple("OK");
+            case "INFO" -> connection.bulk("# Server\r\nredis_version:7.2.0\r\n".getBytes(StandardCharsets.US_ASCII));
+            case "GET" -> connection.bulk(get(text(command.get(1))));
+            case "MGET" -> {
+                List<byte[]> values = new ArrayList<>(command.size() - 1);
+                for (int i = 1; i < command.size(); i++) {
+                    values.add(get(text(command.get(i))));
+                }
+                connection.array(values);
+            }
+            case "SET" -> set(connection, command);
+            case "DEL" -> {
+                long removed = 0;
+                synchronized (keyspace) {
+                    for (int i = 1; i < command.size(); i++) {
+                        if (live(text(command.get(i))) != null) {
+                            keyspace.remove(text(command.get(i)));
+                            removed++;
+                        }
+                    }
+                }
+                connection.integer(removed);
+            }
+            case "INCR" -> increment(connection, text(command.get(1)), 1);
+            case "INCRBY" -> increment(connection, text(command.get(1)), Long.parseLong(text(command.get(2))));
+            case "EXPIRE" -> connection.integer(expire(text(command.get(1)), Long.parseLong(text(command.get(2))) * 1_000));
+            case "PEXPIRE" -> connection.integer(expire(text(command.get(1)), Long.parseLong(text(command.get(2)))));
+            case "SCAN" -> scan(connection, command);
+            case "PUBLISH" -> connection.integer(publish(text(command.get(1)), command.get(2)));
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < command.size(); i++) {
+                    String channel = text(command.get(i));
+                    subscribers.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet()).add(connection);
+                    connection.subscription("subscribe", channel, subscriptionCount(connection));
+                }
+            }
+            case "UNSUBSCRIBE" -> {
+                List<String> channels = new ArrayList<>();
+                for (int i = 1; i < command.size(); i++) {
+                    channels.add(text(command.get(i)));
+                }
+                if (channels.isEmpty()) {
+                    subscribers.forEach((channel, members) -> {
+                        if (members.contains(connection)) {
+                            channels.add(channel);
+                        }
+                    });
+                }
+                for (String channel : channels) {
+                    subscribers.getOrDefault(channel, Set.of()).remove(connection);
+                    connection.subscription("unsubscribe", channel, subscriptionCount(connection));
+                }
+            }
+            case "QUIT" -> {
+                connection.simple("OK");
+                connection.flush();
+                return false;
+            }
+            // HELLO included: the error makes Lettuce fall back to RESP2
+            default -> connection.error("ERR unknown command '" + name + "'");
+        }
+        return true;
+    }
+    
+    private byte[] get(String key) {
+        synchronized (keyspace) {
+            Entry entry = live(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+    
+    private void set(Connection connection, List<byte[]> command) throws IOException {
+        String key = text(command.get(1));
+        long ttlMillis = 0;
+        boolean ifAbsent = false;
+        boolean ifPresent = false;
+        for (int i = 3; i < command.size(); i++) {
+            switch (text(command.get(i)).toUpperCase(Locale.ROOT)) {
+                case "EX" -> ttlMillis = Long.parseLong(text(command.get(++i))) * 1_000;
+                case "PX" -> ttlMillis = Long.parseLong(text(command.get(++i)));
+                case "NX" -> ifAbsent = true;
+                case "XX" -> ifPresent = true;
+                default -> {
+                    connection.error("ERR syntax error");
+                    return;
+                }
+            }
+        }
+        
+        synchronized (keyspace) {
+            boolean exists = live(key) != null;
+            if ((ifAbsent && exists) || (ifPresent && !exists)) {
+                connection.bulk(null);
+                return;
+            }
+            keyspace.put(key, new Entry(command.get(2), ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0));
+        }
+        connection.simple("OK");
+    }
+    
+    private void increment(Connection connection, String key, long delta) throws IOException {
+        long value;
+        synchronized (keyspace) {
+            Entry entry = live(key);
+            try {
+                value = (entry != null ? Long.parseLong(text(entry.value)) : 0) + delta;
+            } catch (NumberFormatException e) {
+                connection.error("ERR value is not an integer or out of range");
+                return;
+            }
+            keyspace.put(key, new Entry(Long.toString(value).getBytes(StandardCharsets.US_ASCII),
+                entry != null ? entry.expiresAtMillis : 0));
+        }
+        connection.integer(value);
+    }
+    
+    private long expire(String key, long ttlMillis) {
+        synchronized (keyspace) {
+            Entry entry = live(key);
+            if (entry == null) {
+                return 0;
+            }
+            keyspace.put(key, new Entry(entry.value, System.currentTimeMillis() + ttlMillis));
+            return 1;
+        }
+    }
+    
+    /**
+     * Returns every match in one page with cursor 0, which is a valid SCAN reply.
+     */
+    private void scan(Connection connection, List<byte[]> command) throws IOException {
+        Pattern match = null;
+        for (int i = 2; i + 1 < command.size(); i += 2) {
+            if ("MATCH".equalsIgnoreCase(text(command.get(i)))) {
+                match = glob(text(command.get(i + 1)));
+            }
+        }
+        
+        List<byte[]> keys = new ArrayList<>();
+        synchronized (keyspace) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<String, Entry>> entries = keyspace.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Entry> entry = entries.next();
+                if (entry.getValue().expired(now)) {
+                    entries.remove();
+                } else if (match == null || match.matcher(entry.getKey()).matches()) {
+                    keys.add(bytes(entry.getKey()));
+                }
+            }
+        }
+        connection.scanReply(keys);
+    }
+    
+    private long publish(String channel, byte[] message) {
+        Set<Connection> members = subscribers.getOrDefault(channel, Set.of());
+        for (Connection member : members) {
+            try {
+                member.message(channel, message);
+            } catch (IOException e) {
+                log.debug("Dropping message for closed subscriber: {}", e.getMessage());
+            }
+        }
+        return members.size();
+    }
+    
+    private long subscriptionCount(Connection connection) {
+        return subscribers.values().stream().filter(members -> members.contains(connection)).count();
+    }
+    
+    private Entry live(String key) {
+        Entry entry = keyspace.get(key);
+        if (entry != null && entry.expired(System.currentTimeMillis())) {
+            keyspace.remove(key);
+            return null;
+        }
+        return entry;
+    }
+    
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+    
+    // Keys and channels are binary-safe in Redis; Latin-1 maps every byte to one char and back
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.ISO_8859_1);
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+    
+    private record Entry(byte[] value, long expiresAtMillis) {
+        
+        boolean expired(long now) {
+            return expiresAtMillis > 0 && now >= expiresAtMillis;
+        }
+    }
+    
+    /**
+     * One client socket. Replies are written under the connection's monitor because
+     * pub/sub messages arrive from publishers' threads.
+     */
+    private static final class Connection implements AutoCloseable {
+        
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+        
+        List<byte[]> readCommand() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                return null;
+            }
+            if (type != '*') {
+                // Inline command, e.g. from redis-cli over telnet
+                List<byte[]> parts = new ArrayList<>();
+                for (String part : ((char) type + readLine()).trim().split("\\s+")) {
+                    parts.add(bytes(part));
+                }
+                return parts;
+            }
+            
+            int count = Integer.parseInt(readLine());
+            List<byte[]> parts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Expected bulk string");
+                }
+                int length = Integer.parseInt(readLine());
+                byte[] part = in.readNBytes(length);
+                if (part.length < length || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException();
+                }
+                parts.add(part);
+            }
+            return parts;
+        }
+        
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c == -1) {
+                    throw new EOFException();
+                }
+                line.append((char) c);
+            }
+            in.read();
+            return line.toString();
+        }
+        
+        synchronized void simple(String value) throws IOException {
+            out.write(('+' + value).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+        
+        synchronized void error(String message) throws IOException {
+            out.write(('-' + message).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+        
+        synchronized void integer(long value) throws IOException {
+            out.write((":" + value).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+        
+        synchronized void bulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1".getBytes(StandardCharsets.US_ASCII));
+                out.write(CRLF);
+                return;
+            }
+            out.write(("$" + value.length).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+            out.write(value);
+            out.write(CRLF);
+        }
+        
+        synchronized void array(List<byte[]> values) throws IOException {
+            header('*', values.size());
+            for (byte[] value : values) {
+                bulk(value);
+            }
+        }
+        
+        synchronized void scanReply(List<byte[]> keys) throws IOException {
+            header('*', 2);
+            bulk(bytes("0"));
+            array(keys);
+        }
+        
+        synchronized void subscription(String kind, String channel, long count) throws IOException {
+            header('*', 3);
+            bulk(bytes(kind));
+            bulk(bytes(channel));
+            integer(count);
+        }
+        
+        synchronized void message(String channel, byte[] message) throws IOException {
+            header('*', 3);
+            bulk(bytes("message"));
+            bulk(bytes(channel));
+            bulk(message);
+            out.flush();
+        }
+        
+        private void header(char type, int count) throws IOException {
+            out.write((type + Integer.toString(count)).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+        
+        // Lettuce pipelines; flushing once the pipeline is drained batches the replies
+        synchronized void flushIfIdle() throws IOException {
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+        
+        synchronized void flush() throws IOException {
+            out.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
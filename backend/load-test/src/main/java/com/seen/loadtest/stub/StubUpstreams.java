@@ -0,0 +1,125 @@
+package com.seen.loadtest.stub;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process HTTP stand-ins for every service the gateway routes to. Each one
+ * drains the request, waits the configured latency and answers with a canned
+ * JSON body, so the measured cost is the gateway's own plus a known upstream delay.
+ * With several replicas per service, the first can be made slower to see how
+ * the gateway's load balancer spreads traffic.
+ */
+public class StubUpstreams implements AutoCloseable {
+    
+    public static final List<String> SERVICES = List.of(
+        "auth-service", "report-service", "analytics-service", "file-service", "support-service");
+    
+    private final LoopResources loops;
+    private final Scheduler timer;
+    private final Map<String, List<Replica>> replicas = new LinkedHashMap<>();
+    
+    private StubUpstreams(LoopResources loops, Scheduler timer) {
+        this.loops = loops;
+        this.timer = timer;
+    }
+    
+    /**
+     * @param loginBody body returned by auth-service; every other service returns
+     *                  a report-shaped JSON payload of about {@code payloadBytes}
+     */
+    public static StubUpstreams start(
+            Duration latency, int payloadBytes, String loginBody, int replicaCount, Duration slowReplicaLatency) {
+        StubUpstreams stubs = new StubUpstreams(
+            LoopResources.create("stub", 2, true),
+            Schedulers.newSingle("stub-timer", true));
+        byte[] payload = payload(payloadBytes);
+        for (String service : SERVICES) {
+            byte[] body = "auth-service".equals(service) ? loginBody.getBytes(StandardCharsets.UTF_8) : payload;
+            List<Replica> serviceReplicas = new ArrayList<>();
+            for (int i = 0; i < replicaCount; i++) {
+                Duration replicaLatency = i == 0 && replicaCount > 1 ? latency.plus(slowReplicaLatency) : latency;
+                serviceReplicas.add(stubs.bind(replicaLatency, body));
+            }
+            stubs.replicas.put(service, serviceReplicas);
+        }
+        return stubs;
+    }
+    
+    public Map<String, List<Integer>> ports() {
+        Map<String, List<Integer>> ports = new LinkedHashMap<>();
+        replicas.forEach((service, serviceReplicas) -> ports.put(service, serviceReplicas.stream()
+            .map(replica -> replica.server().port())
+            .toList()));
+        return ports;
+    }
+    
+    /**
+     * Requests served by each replica of the service so far, in port order.
+     */
+    public List<Long> requestCounts(String service) {
+        return replicas.get(service).stream()
+            .map(replica -> replica.requests().sum())
+            .toList();
+    }
+    
+    @Override
+    public void close() {
+        replicas.values().forEach(serviceReplicas -> serviceReplicas.forEach(replica -> replica.server().disposeNow()));
+        timer.dispose();
+        loops.dispose();
+    }
+    
+    private Replica bind(Duration latency, byte[] body) {
+        Mono<Void> delay = latency.isZero() ? Mono.empty() : Mono.delay(latency, timer).then();
+        LongAdder requests = new LongAdder();
+        DisposableServer server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .runOn(loops)
+            .handle((request, response) -> request.receive().then()
+                .doOnSuccess(drained -> requests.increment())
+                .then(delay)
+                .then(response
+                    .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .sendByteArray(Mono.just(body))
+                    .then()))
+            .bindNow();
+        return new Replica(server, requests);
+    }
+    
+    private record Replica(DisposableServer server, LongAdder requests) {
+    }
+    
+    private static byte[] payload(int size) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int item = 0;
+        while (json.length() < size) {
+            if (item++ > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(UUID.randomUUID())
+                .append("\",\"title\":\"Incident ").append(random.nextInt(1_000_000))
+                .append("\",\"status\":\"SUBMITTED\",\"incidentTypes\":[\"PUBLIC_SPACE\"]")
+                .append(",\"location\":{\"city\":\"Chicago\",\"state\":\"IL\"}")
+                .append(",\"count\":").append(random.nextInt(10_000)).append('}');
+        }
+        return json.append("],\"hasMore\":false}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
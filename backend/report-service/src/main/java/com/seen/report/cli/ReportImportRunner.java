@@ -0,0 +1,81 @@
+package com.seen.report.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seen.report.dto.ImportResultDto;
+import com.seen.report.dto.ImportRowErrorDto;
+import com.seen.report.service.ImportFormat;
+import com.seen.report.service.ReportImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Command-line bulk import, e.g.
+ * {@code java -jar report-service.jar --spring.main.web-application-type=none
+ * --app.import.file=partner.ndjson --app.import.owner-id=<uuid>}.
+ * Every row error is written to {@code <file>.errors.ndjson}; the process exits
+ * with status 1 if any row failed.
+ */
+@Component
+@ConditionalOnProperty("app.import.file")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportImportRunner implements ApplicationRunner {
+    
+    private final ReportImportService reportImportService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+    
+    @Value("${app.import.file}")
+    private Path file;
+    
+    @Value("${app.import.owner-id}")
+    private UUID ownerId;
+    
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path errorsFile = file.resolveSibling(file.getFileName() + ".errors.ndjson");
+        ImportResultDto result;
+        
+        try (InputStream in = Files.newInputStream(file);
+             BufferedWriter errors = Files.newBufferedWriter(errorsFile)) {
+            
+            result = reportImportService.importReports(in, ImportFormat.fromFileName(file.toString()), ownerId,
+                new ReportImportService.ImportListener() {
+                    @Override
+                    public void onProgress(long processed, long imported, long failed) {
+                        log.info("{} rows processed, {} imported, {} failed", processed, imported, failed);
+                    }
+                    
+                    @Override
+                    public void onError(ImportRowErrorDto error) {
+                        try {
+                            errors.write(objectMapper.writeValueAsString(error));
+                            errors.newLine();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+        }
+        
+        log.info("Import of {} finished: {} imported, {} failed, {} rows/sec; errors in {}",
+            file, result.getImported(), result.getFailed(), result.getRowsPerSecond(), errorsFile);
+        int exitCode = result.getFailed() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
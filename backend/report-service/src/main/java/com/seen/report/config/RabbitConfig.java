@@ -0,0 +1,17 @@
+package com.seen.report.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+    
+    public static final String REPORT_EVENTS_EXCHANGE = "report.events";
+    public static final String REPORT_STATUS_ROUTING_PREFIX = "report.status.";
+    
+    @Bean
+    public TopicExchange reportEventsExchange() {
+        return new TopicExchange(REPORT_EVENTS_EXCHANGE, true, false);
+    }
+}
@@ -0,0 +1,143 @@
+package com.seen.report.controller;
+
+import com.seen.report.dto.ImportResultDto;
+import com.seen.report.dto.ReportPageDto;
+import com.seen.report.dto.ReportSearchResultDto;
+import com.seen.report.dto.ReportStatusUpdateDto;
+import com.seen.report.dto.ReportSummaryDto;
+import com.seen.report.service.ImportFormat;
+import com.seen.report.service.ReportExportService;
+import com.seen.report.service.ReportImportService;
+import com.seen.report.service.ReportLifecycleService;
+import com.seen.report.service.ReportQueryService;
+import com.seen.report.service.ReportSearchService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportController {
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    private final ReportQueryService reportQueryService;
+    private final ReportExportService reportExportService;
+    private final ReportSearchService reportSearchService;
+    private final ReportImportService reportImportService;
+    private final ReportLifecycleService reportLifecycleService;
+    
+    @GetMapping
+    public ResponseEntity<ReportPageDto<ReportSummaryDto>> getUserReports(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        UUID userId = UUID.fromString(authentication.getName());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(reportQueryService.getUserReports(userId, cursor, pageSize));
+    }
+    
+    /**
+     * Full-text search. Moderators and admins search every report; other users only their own.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ReportSearchResultDto> searchReports(
+            Authentication authentication,
+            @RequestParam String q,
+            @RequestParam(required = false) Set<String> incidentTypes,
+            @RequestParam(required = false) Set<String> tags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        UUID ownerId = isModerator(authentication) ? null : UUID.fromString(authentication.getName());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(reportSearchService.search(q, ownerId, incidentTypes, tags, cursor, pageSize));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        if (!isModerator(authentication)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Export requires moderator role");
+        }
+        
+        log.info("Report export {} - {} requested by {}", from, to, authentication.getName());
+        StreamingResponseBody body = out -> reportExportService.exportNdjson(from, to, out);
+        return ResponseEntity.ok()
+            .contentType(APPLICATION_NDJSON)
+            .body(body);
+    }
+    
+    /**
+     * Bulk import of partner data as NDJSON or CSV (see ImportRecordDto). The body is
+     * streamed, so its size is not limited by memory; imported reports belong to the caller.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportResultDto> importReports(
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        
+        if (!isModerator(authentication)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Import requires moderator role");
+        }
+        
+        log.info("Report import started by {}", authentication.getName());
+        ImportResultDto result = reportImportService.importReports(
+            request.getInputStream(),
+            ImportFormat.fromContentType(request.getContentType()),
+            UUID.fromString(authentication.getName()),
+            new ReportImportService.ImportListener() {
+                @Override
+                public void onProgress(long processed, long imported, long failed) {
+                    log.debug("Import by {}: {} processed, {} imported, {} failed",
+                        authentication.getName(), processed, imported, failed);
+                }
+            });
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Moves a report one step along its lifecycle; owners submit drafts, moderators do the rest.
+     */
+    @PostMapping("/{id}/status")
+    public ResponseEntity<ReportStatusUpdateDto> updateStatus(
+            Authentication authentication,
+            @PathVariable UUID id,
+            @Valid @RequestBody ReportStatusUpdateDto request) {
+        
+        return ResponseEntity.ok(new ReportStatusUpdateDto(reportLifecycleService.transition(
+            id, request.getStatus(), UUID.fromString(authentication.getName()), isModerator(authentication))));
+    }
+    
+    private boolean isModerator(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals("ROLE_MODERATOR") || a.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
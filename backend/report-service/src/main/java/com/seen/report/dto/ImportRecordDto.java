@@ -0,0 +1,75 @@
+package com.seen.report.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One row of a bulk import. NDJSON lines use these field names directly; CSV files
+ * use them as header names, with multi-valued columns separated by ';'.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportRecordDto {
+    
+    @NotBlank
+    @Size(max = 200)
+    private String title;
+    
+    @NotBlank
+    private String narrative;
+    
+    @NotEmpty
+    private List<String> incidentTypes;
+    
+    private List<String> tags;
+    
+    @NotBlank
+    private String city;
+    
+    @NotBlank
+    private String state;
+    
+    private String country;
+    
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    private Double latitude;
+    
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    private Double longitude;
+    
+    @NotNull
+    @PastOrPresent
+    private LocalDate date;
+    
+    private String timeOfDay;
+    
+    @NotBlank
+    private String description;
+    
+    private String reportedTo;
+    private String reportedToDetails;
+    private List<String> supportDesired;
+    private String ageRange;
+    private String genderIdentity;
+    private List<String> race;
+    private Boolean keepPrivate;
+    
+    // When the partner originally received the report; defaults to the import time
+    @PastOrPresent
+    private LocalDateTime reportedAt;
+}
@@ -0,0 +1,18 @@
+package com.seen.report.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportResultDto {
+    private Long processed;
+    private Long imported;
+    private Long failed;
+    private List<ImportRowErrorDto> errors;
+    private Boolean errorsTruncated;
+    private Long durationMillis;
+    private Long rowsPerSecond;
+}
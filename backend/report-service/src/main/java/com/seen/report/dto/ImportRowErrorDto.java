@@ -0,0 +1,16 @@
+package com.seen.report.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDto {
+    // 1-based data row: the line for NDJSON, the record after the header for CSV
+    private Long row;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.seen.report.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ReportPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.seen.report.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class ReportSearchResultDto {
+    private List<ReportSummaryDto> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    // Only computed for the first page
+    private Map<String, Long> incidentTypeFacets;
+    private Map<String, Long> tagFacets;
+}
@@ -0,0 +1,15 @@
+package com.seen.report.dto;
+
+import com.seen.report.entity.ReportStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportStatusUpdateDto {
+    @NotNull
+    private ReportStatus status;
+}
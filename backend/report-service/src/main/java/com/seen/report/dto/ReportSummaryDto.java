@@ -0,0 +1,30 @@
+package com.seen.report.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+public class ReportSummaryDto {
+    private UUID id;
+    private String title;
+    private String status;
+    private Set<String> incidentTypes;
+    private Set<String> tags;
+    private String city;
+    private String state;
+    private LocalDate incidentDate;
+    private String timeOfDay;
+    private Set<String> supportDesired;
+    private Set<String> race;
+    private Boolean openToContact;
+    private Long timelineCount;
+    private Long attachmentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.seen.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Set;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Demographics {
+    @ElementCollection
+    @CollectionTable(name = "report_demographics_race")
+    private Set<String> race;
+    
+    private String ageRange;
+    private String genderIdentity;
+    
+    @Column(nullable = false)
+    private Boolean keepPrivate = false;
+}
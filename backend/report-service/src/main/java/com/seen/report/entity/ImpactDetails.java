@@ -0,0 +1,25 @@
+package com.seen.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Set;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImpactDetails {
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    private ReportedTo reportedTo;
+    
+    @Column(columnDefinition = "TEXT")
+    private String reportedToDetails;
+    
+    @ElementCollection
+    @CollectionTable(name = "report_support_desired")
+    private Set<String> supportDesired;
+}
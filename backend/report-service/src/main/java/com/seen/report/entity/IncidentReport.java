@@ -1,11 +1,12 @@
 package com.seen.report.entity;
 
 import jakarta.persistence.*;
+import com.seen.geo.Geohash;
+import com.seen.ids.TimeOrderedId;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
@@ -20,7 +21,7 @@ import java.util.UUID;
 public class IncidentReport {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
     
     @Column(nullable = false)
@@ -68,91 +69,19 @@ public class IncidentReport {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
-    @OneToMany(mappedBy = "reportId", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "report", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ReportTimeline> timeline;
     
-    @OneToMany(mappedBy = "reportId", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "report", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ReportAttachment> attachments;
-}
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class ReportLocation {
-    @Column(nullable = false)
-    private String city;
     
-    @Column(nullable = false)
-    private String state;
-    
-    @Column(nullable = false)
-    private String country = "United States";
-    
-    private Double latitude;
-    private Double longitude;
+    @PrePersist
+    @PreUpdate
+    void updateGeohash() {
+        if (location != null) {
+            location.setGeohash(location.getLatitude() != null && location.getLongitude() != null
+                ? Geohash.encode(location.getLatitude(), location.getLongitude(), ReportLocation.GEOHASH_PRECISION)
+                : null);
+        }
+    }
 }
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class IncidentTiming {
-    @Column(nullable = false)
-    private LocalDate date;
-    
-    @Enumerated(EnumType.STRING)
-    private TimeOfDay timeLabel = TimeOfDay.AFTERNOON;
-}
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class ImpactDetails {
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String description;
-    
-    @Enumerated(EnumType.STRING)
-    private ReportedTo reportedTo;
-    
-    @Column(columnDefinition = "TEXT")
-    private String reportedToDetails;
-    
-    @ElementCollection
-    @CollectionTable(name = "report_support_desired")
-    private Set<String> supportDesired;
-}
-
-@Embeddable
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class Demographics {
-    @ElementCollection
-    @CollectionTable(name = "report_demographics_race")
-    private Set<String> race;
-    
-    private String ageRange;
-    private String genderIdentity;
-    
-    @Column(nullable = false)
-    private Boolean keepPrivate = false;
-}
-
-public enum IncidentType {
-    WORKPLACE_BIAS, POLICE_ENCOUNTER, HOUSING_DISCRIMINATION, 
-    PUBLIC_SPACE, EDUCATION, ONLINE, OTHER
-}
-
-public enum ReportStatus {
-    DRAFT, SUBMITTED, UNDER_REVIEW, RESOLVED, ARCHIVED
-}
-
-public enum TimeOfDay {
-    MORNING, AFTERNOON, EVENING, NIGHT
-}
-
-public enum ReportedTo {
-    YES, NO
-}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.seen.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidentTiming {
+    @Column(nullable = false)
+    private LocalDate date;
+    
+    @Enumerated(EnumType.STRING)
+    private TimeOfDay timeLabel = TimeOfDay.AFTERNOON;
+}
@@ -0,0 +1,6 @@
+package com.seen.report.entity;
+
+public enum IncidentType {
+    WORKPLACE_BIAS, POLICE_ENCOUNTER, HOUSING_DISCRIMINATION, 
+    PUBLIC_SPACE, EDUCATION, ONLINE, OTHER
+}
@@ -0,0 +1,42 @@
+package com.seen.report.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "report_attachments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportAttachment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "report_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
+    private IncidentReport report;
+    
+    @Column(nullable = false)
+    private UUID fileId;
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    private String contentType;
+    
+    private Long size;
+    
+    @CreationTimestamp
+    private LocalDateTime uploadedAt;
+}
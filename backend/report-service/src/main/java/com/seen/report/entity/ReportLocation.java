@@ -0,0 +1,29 @@
+package com.seen.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportLocation {
+    
+    // About 4.8 x 4.8 m, finer than any map or search needs
+    public static final int GEOHASH_PRECISION = 9;
+    
+    @Column(nullable = false)
+    private String city;
+    
+    @Column(nullable = false)
+    private String state;
+    
+    @Column(nullable = false)
+    private String country = "United States";
+    
+    private Double latitude;
+    private Double longitude;
+    
+    @Column(length = 12)
+    private String geohash;
+}
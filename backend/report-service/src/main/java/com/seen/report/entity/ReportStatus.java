@@ -0,0 +1,5 @@
+package com.seen.report.entity;
+
+public enum ReportStatus {
+    DRAFT, SUBMITTED, UNDER_REVIEW, RESOLVED, ARCHIVED
+}
@@ -0,0 +1,48 @@
+package com.seen.report.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "report_timeline")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportTimeline {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "report_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
+    private IncidentReport report;
+    
+    @Enumerated(EnumType.STRING)
+    private TimelineEventType type;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(nullable = false)
+    private UUID actorId;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean isPrivate = false;
+    
+    @CreationTimestamp
+    private LocalDateTime timestamp;
+}
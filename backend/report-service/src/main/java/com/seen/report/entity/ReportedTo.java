@@ -0,0 +1,5 @@
+package com.seen.report.entity;
+
+public enum ReportedTo {
+    YES, NO
+}
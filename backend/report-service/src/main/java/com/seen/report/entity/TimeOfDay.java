@@ -0,0 +1,5 @@
+package com.seen.report.entity;
+
+public enum TimeOfDay {
+    MORNING, AFTERNOON, EVENING, NIGHT
+}
@@ -0,0 +1,6 @@
+package com.seen.report.entity;
+
+public enum TimelineEventType {
+    CREATED, UPDATED, SUBMITTED, FOLLOW_UP, RESOLUTION,
+    SUPPORT_CONTACTED, LEGAL_ACTION, SYSTEM_UPDATE
+}
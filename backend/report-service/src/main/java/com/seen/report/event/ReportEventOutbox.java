@@ -0,0 +1,64 @@
+package com.seen.report.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.ReportStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes report lifecycle events to the outbox table. Must run inside the transaction
+ * that changes the report, so an event exists exactly when its change was committed;
+ * {@link ReportEventRelay} publishes them afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportEventOutbox {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO report_event_outbox (event_id, report_id, routing_key, payload) VALUES (?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(IncidentReport report, ReportStatus previousStatus) {
+        ReportStatusChangedEvent event = ReportStatusChangedEvent.of(report, previousStatus, LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, event.getEventId(), event.getReportId(), event.routingKey(), toJson(event));
+    }
+    
+    /**
+     * Records the creation of newly inserted reports, one batch for all of them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(List<IncidentReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, reports, reports.size(), (PreparedStatement ps, IncidentReport report) -> {
+            ReportStatusChangedEvent event = ReportStatusChangedEvent.of(report, null, now);
+            ps.setObject(1, event.getEventId());
+            ps.setObject(2, event.getReportId());
+            ps.setString(3, event.routingKey());
+            ps.setString(4, toJson(event));
+        });
+    }
+    
+    private String toJson(ReportStatusChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise event for report " + event.getReportId(), e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.seen.report.event;
+
+import com.seen.report.config.RabbitConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes the report event outbox to RabbitMQ. Each batch is sent in id order on one
+ * channel and confirmed with a single wait, then deleted; if the broker does not confirm
+ * all of it, the whole batch stays and is resent in the same order on the next poll.
+ * A transaction-scoped advisory lock keeps a single relay running across instances,
+ * which is what preserves per-report ordering. Delivery is at least once, so
+ * consumers deduplicate by event id or occurredAt.
+ */
+@Component
+@Slf4j
+public class ReportEventRelay {
+    
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock
+    private static final long RELAY_LOCK_KEY = 0x5EE1_0001L;
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, event_id, routing_key, payload FROM report_event_outbox ORDER BY id LIMIT ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    
+    public ReportEventRelay(
+            JdbcTemplate jdbcTemplate,
+            RabbitTemplate rabbitTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.events.outbox.batch-size:200}") int batchSize,
+            @Value("${app.events.outbox.confirm-timeout:PT5S}") Duration confirmTimeout) {
+        
+        this.jdbcTemplate = jdbcTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.events.outbox.poll-interval:PT1S}")
+    public void relay() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+    }
+    
+    private int relayBatch() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        
+        List<OutboxRow> batch = jdbcTemplate.query(SELECT_BATCH_SQL, (rs, rowNum) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getObject("event_id", UUID.class),
+            rs.getString("routing_key"),
+            rs.getString("payload")), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Long[] ids = batch.stream().map(OutboxRow::id).toArray(Long[]::new);
+        try {
+            publish(batch);
+        } catch (AmqpException e) {
+            jdbcTemplate.update(
+                "UPDATE report_event_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ANY(?)",
+                e.getMessage(), ids);
+            log.warn("Report event batch of {} not confirmed, retrying on next poll: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+        
+        jdbcTemplate.update("DELETE FROM report_event_outbox WHERE id = ANY(?)", (Object) ids);
+        log.debug("Published {} report events", batch.size());
+        return batch.size();
+    }
+    
+    private void publish(List<OutboxRow> batch) {
+        Boolean confirmed = rabbitTemplate.invoke(operations -> {
+            for (OutboxRow row : batch) {
+                operations.send(RabbitConfig.REPORT_EVENTS_EXCHANGE, row.routingKey(), toMessage(row));
+            }
+            // One round trip for the whole batch instead of one per message
+            return operations.waitForConfirms(confirmTimeout.toMillis());
+        });
+        if (!Boolean.TRUE.equals(confirmed)) {
+            throw new AmqpException("Broker did not confirm " + batch.size() + " report events");
+        }
+    }
+    
+    private Message toMessage(OutboxRow row) {
+        return MessageBuilder.withBody(row.payload().getBytes(StandardCharsets.UTF_8))
+            .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+            .setContentEncoding(StandardCharsets.UTF_8.name())
+            .setMessageId(row.eventId().toString())
+            .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+            .build();
+    }
+    
+    private record OutboxRow(long id, UUID eventId, String routingKey, String payload) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.seen.report.event;
+
+import com.seen.report.config.RabbitConfig;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.ReportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Report status transition published on the report.events exchange. Carries the
+ * anonymised fields downstream consumers aggregate on, never the narrative or contact details.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportStatusChangedEvent {
+    private UUID eventId;
+    private UUID reportId;
+    private String previousStatus;
+    private String status;
+    private Set<String> incidentTypes;
+    private String state;
+    private String geohash;
+    private String timeOfDay;
+    private LocalDateTime createdAt;
+    private LocalDateTime occurredAt;
+    
+    public static ReportStatusChangedEvent of(IncidentReport report, ReportStatus previousStatus, LocalDateTime occurredAt) {
+        return ReportStatusChangedEvent.builder()
+            .eventId(UUID.randomUUID())
+            .reportId(report.getId())
+            .previousStatus(previousStatus != null ? previousStatus.name() : null)
+            .status(report.getStatus().name())
+            .incidentTypes(report.getIncidentTypes() != null
+                ? report.getIncidentTypes().stream().map(Enum::name).collect(Collectors.toSet())
+                : Set.of())
+            .state(report.getLocation() != null ? report.getLocation().getState() : null)
+            .geohash(report.getLocation() != null ? report.getLocation().getGeohash() : null)
+            .timeOfDay(report.getTiming() != null && report.getTiming().getTimeLabel() != null
+                ? report.getTiming().getTimeLabel().name()
+                : null)
+            .createdAt(report.getCreatedAt())
+            .occurredAt(occurredAt)
+            .build();
+    }
+    
+    public String routingKey() {
+        return RabbitConfig.REPORT_STATUS_ROUTING_PREFIX + status;
+    }
+}
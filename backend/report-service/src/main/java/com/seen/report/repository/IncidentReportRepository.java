@@ -0,0 +1,70 @@
+package com.seen.report.repository;
+
+import com.seen.report.entity.IncidentReport;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IncidentReportRepository extends JpaRepository<IncidentReport, UUID> {
+    
+    String SELECT_SUMMARY_ROW = "SELECT new com.seen.report.repository.ReportSummaryRow(" +
+        "r.id, r.title, r.status, r.location.city, r.location.state, " +
+        "r.timing.date, r.timing.timeLabel, r.openToContact, r.createdAt, r.updatedAt) " +
+        "FROM IncidentReport r ";
+    
+    // Keyset paging over (user_id, created_at, id), served by idx_incident_reports_user_created_id
+    
+    @Query(SELECT_SUMMARY_ROW +
+           "WHERE r.userId = :userId " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportSummaryRow> findFirstSummaryRowsByUserId(@Param("userId") UUID userId, Limit limit);
+    
+    @Query(SELECT_SUMMARY_ROW +
+           "WHERE r.userId = :userId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportSummaryRow> findSummaryRowsByUserIdAfter(
+        @Param("userId") UUID userId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") UUID id,
+        Limit limit);
+    
+    // Serialises status changes of one report, so their outbox events are written in order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM IncidentReport r WHERE r.id = :id")
+    Optional<IncidentReport> findByIdForUpdate(@Param("id") UUID id);
+    
+    @Query(SELECT_SUMMARY_ROW + "WHERE r.id IN :ids")
+    List<ReportSummaryRow> findSummaryRowsByIds(@Param("ids") Collection<UUID> ids);
+    
+    // Collection loaders: one statement per collection for the whole page, keyed by report id
+    
+    @Query("SELECT r.id, t FROM IncidentReport r JOIN r.incidentTypes t WHERE r.id IN :ids")
+    List<Object[]> findIncidentTypesByReportIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT r.id, t FROM IncidentReport r JOIN r.tags t WHERE r.id IN :ids")
+    List<Object[]> findTagsByReportIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT r.id, s FROM IncidentReport r JOIN r.impact.supportDesired s WHERE r.id IN :ids")
+    List<Object[]> findSupportDesiredByReportIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT r.id, race FROM IncidentReport r JOIN r.demographics.race race WHERE r.id IN :ids")
+    List<Object[]> findRaceByReportIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT t.report.id, COUNT(t) FROM ReportTimeline t WHERE t.report.id IN :ids GROUP BY t.report.id")
+    List<Object[]> countTimelineByReportIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT a.report.id, COUNT(a) FROM ReportAttachment a WHERE a.report.id IN :ids GROUP BY a.report.id")
+    List<Object[]> countAttachmentsByReportIds(@Param("ids") Collection<UUID> ids);
+}
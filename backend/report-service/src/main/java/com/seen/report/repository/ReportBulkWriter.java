@@ -0,0 +1,110 @@
+package com.seen.report.repository;
+
+import com.seen.report.entity.IncidentReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes fully built reports with one JDBC batch per table instead of one JPA
+ * insert per report and per collection element. Ids must already be assigned;
+ * entity callbacks do not run, so derived columns such as the geohash must be set.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportBulkWriter {
+    
+    private static final String INSERT_REPORT_SQL =
+        "INSERT INTO incident_reports (id, user_id, title, narrative, city, state, country, latitude, longitude, geohash, " +
+        "date, time_label, description, reported_to, reported_to_details, age_range, gender_identity, keep_private, " +
+        "status, open_to_contact, contact_email, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insertAll(List<IncidentReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        
+        jdbcTemplate.batchUpdate(INSERT_REPORT_SQL, reports, reports.size(), this::setReport);
+        insertValues("report_incident_types", "incident_types", reports,
+            report -> report.getIncidentTypes().stream().map(Enum::name).toList());
+        insertValues("report_tags", "tags", reports, IncidentReport::getTags);
+        insertValues("report_support_desired", "support_desired", reports,
+            report -> report.getImpact().getSupportDesired());
+        insertValues("report_demographics_race", "race", reports,
+            report -> report.getDemographics().getRace());
+    }
+    
+    private void setReport(PreparedStatement ps, IncidentReport report) throws SQLException {
+        ps.setObject(1, report.getId());
+        ps.setObject(2, report.getUserId());
+        ps.setString(3, report.getTitle());
+        ps.setString(4, report.getNarrative());
+        ps.setString(5, report.getLocation().getCity());
+        ps.setString(6, report.getLocation().getState());
+        ps.setString(7, report.getLocation().getCountry());
+        setDouble(ps, 8, report.getLocation().getLatitude());
+        setDouble(ps, 9, report.getLocation().getLongitude());
+        ps.setString(10, report.getLocation().getGeohash());
+        ps.setDate(11, Date.valueOf(report.getTiming().getDate()));
+        ps.setString(12, name(report.getTiming().getTimeLabel()));
+        ps.setString(13, report.getImpact().getDescription());
+        ps.setString(14, name(report.getImpact().getReportedTo()));
+        ps.setString(15, report.getImpact().getReportedToDetails());
+        ps.setString(16, report.getDemographics().getAgeRange());
+        ps.setString(17, report.getDemographics().getGenderIdentity());
+        ps.setBoolean(18, Boolean.TRUE.equals(report.getDemographics().getKeepPrivate()));
+        ps.setString(19, report.getStatus().name());
+        ps.setBoolean(20, Boolean.TRUE.equals(report.getOpenToContact()));
+        ps.setString(21, report.getContactEmail());
+        ps.setTimestamp(22, Timestamp.valueOf(report.getCreatedAt()));
+        ps.setTimestamp(23, Timestamp.valueOf(report.getUpdatedAt()));
+    }
+    
+    private void insertValues(
+            String table,
+            String column,
+            List<IncidentReport> reports,
+            Function<IncidentReport, Collection<String>> values) {
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (IncidentReport report : reports) {
+            Collection<String> reportValues = values.apply(report);
+            if (reportValues != null) {
+                for (String value : reportValues) {
+                    rows.add(new Object[] {report.getId(), value});
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " (incident_report_id, " + column + ") VALUES (?, ?)",
+                rows,
+                new int[] {Types.OTHER, Types.VARCHAR});
+        }
+    }
+    
+    private void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+    
+    private String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
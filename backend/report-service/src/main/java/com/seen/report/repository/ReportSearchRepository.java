@@ -0,0 +1,110 @@
+package com.seen.report.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ranked full-text queries against incident_reports.search_vector (GIN index, see V4 migration).
+ * The user's text goes through websearch_to_tsquery, so quotes, OR and -term work and
+ * malformed input never raises a syntax error.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportSearchRepository {
+    
+    private static final String MATCHING_REPORTS =
+        "FROM incident_reports r CROSS JOIN websearch_to_tsquery('english', :text) query " +
+        "WHERE r.search_vector @@ query ";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * Matching report ids by descending rank, then id, starting after {@code afterRank}/{@code afterId} when given.
+     */
+    public List<RankedReport> search(Criteria criteria, Float afterRank, UUID afterId, int limit) {
+        MapSqlParameterSource params = criteria.params().addValue("limit", limit);
+        
+        String sql = "SELECT id, rank FROM (" +
+            "SELECT r.id, ts_rank_cd(r.search_vector, query) AS rank " +
+            MATCHING_REPORTS + criteria.filters() +
+            ") ranked ";
+        if (afterRank != null) {
+            sql += "WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id < :afterId) ";
+            params.addValue("afterRank", afterRank).addValue("afterId", afterId);
+        }
+        sql += "ORDER BY rank DESC, id DESC LIMIT :limit";
+        
+        String query = sql;
+        return meterRegistry.timer("report.query", "query", "search").record(() ->
+            jdbcTemplate.query(query, params, (rs, rowNum) -> new RankedReport(
+                rs.getObject("id", UUID.class),
+                rs.getFloat("rank"))));
+    }
+    
+    public Map<String, Long> countIncidentTypes(Criteria criteria, int limit) {
+        return countValues("incident_type_facets", criteria, "report_incident_types", "incident_types", limit);
+    }
+    
+    public Map<String, Long> countTags(Criteria criteria, int limit) {
+        return countValues("tag_facets", criteria, "report_tags", "tags", limit);
+    }
+    
+    private Map<String, Long> countValues(String query, Criteria criteria, String table, String column, int limit) {
+        String sql = "SELECT v." + column + " AS value, COUNT(*) AS matches " +
+            "FROM incident_reports r CROSS JOIN websearch_to_tsquery('english', :text) query " +
+            "JOIN " + table + " v ON v.incident_report_id = r.id " +
+            "WHERE r.search_vector @@ query " + criteria.filters() +
+            "GROUP BY v." + column + " ORDER BY matches DESC LIMIT :limit";
+        
+        Map<String, Long> counts = new LinkedHashMap<>();
+        meterRegistry.timer("report.query", "query", query).record(() ->
+            jdbcTemplate.query(sql, criteria.params().addValue("limit", limit),
+                (RowCallbackHandler) rs -> counts.put(rs.getString("value"), rs.getLong("matches"))));
+        return counts;
+    }
+    
+    public record RankedReport(UUID id, float rank) {
+    }
+    
+    /**
+     * Search text plus optional restrictions: owner (null searches every report),
+     * incident types and tags (any of the given values).
+     */
+    public record Criteria(String text, UUID ownerId, Collection<String> incidentTypes, Collection<String> tags) {
+        
+        String filters() {
+            StringBuilder filters = new StringBuilder();
+            if (ownerId != null) {
+                filters.append("AND r.user_id = :ownerId ");
+            }
+            if (incidentTypes != null && !incidentTypes.isEmpty()) {
+                filters.append("AND EXISTS (SELECT 1 FROM report_incident_types t " +
+                    "WHERE t.incident_report_id = r.id AND t.incident_types IN (:incidentTypes)) ");
+            }
+            if (tags != null && !tags.isEmpty()) {
+                filters.append("AND EXISTS (SELECT 1 FROM report_tags g " +
+                    "WHERE g.incident_report_id = r.id AND g.tags IN (:tags)) ");
+            }
+            return filters.toString();
+        }
+        
+        MapSqlParameterSource params() {
+            return new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("ownerId", ownerId)
+                .addValue("incidentTypes", incidentTypes)
+                .addValue("tags", tags);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.seen.report.repository;
+
+import com.seen.report.entity.ReportStatus;
+import com.seen.report.entity.TimeOfDay;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scalar columns of a report, read without materialising the entity or any of its collections.
+ */
+public record ReportSummaryRow(
+    UUID id,
+    String title,
+    ReportStatus status,
+    String city,
+    String state,
+    LocalDate incidentDate,
+    TimeOfDay timeOfDay,
+    Boolean openToContact,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
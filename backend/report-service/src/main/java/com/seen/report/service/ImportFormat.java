@@ -0,0 +1,25 @@
+package com.seen.report.service;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+    
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.getSubtype().equals("x-ndjson") || mediaType.getSubtype().equals("ndjson")) {
+                return NDJSON;
+            }
+            if (mediaType.getSubtype().equals("csv")) {
+                return CSV;
+            }
+        }
+        throw new IllegalArgumentException("Import body must be application/x-ndjson or text/csv");
+    }
+    
+    public static ImportFormat fromFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,110 @@
+package com.seen.report.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams reports as NDJSON straight from a server-side JDBC cursor. Rows are
+ * serialised as they arrive, so heap use is bounded by the fetch size rather
+ * than by the size of the export.
+ */
+@Service
+@Slf4j
+public class ReportExportService {
+    
+    private static final String EXPORT_SQL =
+        "SELECT r.id, r.title, r.status, r.city, r.state, r.date, r.time_label, r.created_at, " +
+        "(SELECT string_agg(t.incident_types, ',') FROM report_incident_types t WHERE t.incident_report_id = r.id) AS incident_types " +
+        "FROM incident_reports r " +
+        "WHERE r.created_at >= ? AND r.created_at < ? " +
+        "ORDER BY r.created_at, r.id";
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public ReportExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:500}") int fetchSize) {
+        
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    public void exportNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        
+        // PostgreSQL only uses a cursor (honours fetchSize) inside a transaction
+        long rows = transactionTemplate.execute(status -> {
+            long[] count = {0};
+            jdbcTemplate.query(EXPORT_SQL, rs -> {
+                writeRow(generator, rs);
+                if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                    flush(generator);
+                }
+            }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            return count[0];
+        });
+        
+        generator.flush();
+        log.info("Exported {} reports between {} and {}", rows, from, to);
+    }
+    
+    private void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("id", rs.getString("id"));
+            generator.writeStringField("title", rs.getString("title"));
+            generator.writeStringField("status", rs.getString("status"));
+            generator.writeStringField("city", rs.getString("city"));
+            generator.writeStringField("state", rs.getString("state"));
+            generator.writeStringField("incidentDate", rs.getString("date"));
+            generator.writeStringField("timeOfDay", rs.getString("time_label"));
+            generator.writeStringField("createdAt", rs.getTimestamp("created_at").toLocalDateTime().toString());
+            
+            generator.writeArrayFieldStart("incidentTypes");
+            String incidentTypes = rs.getString("incident_types");
+            if (incidentTypes != null) {
+                for (String type : incidentTypes.split(",")) {
+                    generator.writeString(type);
+                }
+            }
+            generator.writeEndArray();
+            
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
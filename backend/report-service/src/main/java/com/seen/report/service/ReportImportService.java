@@ -0,0 +1,393 @@
+package com.seen.report.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.seen.geo.Geohash;
+import com.seen.ids.UuidV7;
+import com.seen.report.dto.ImportRecordDto;
+import com.seen.report.dto.ImportResultDto;
+import com.seen.report.dto.ImportRowErrorDto;
+import com.seen.report.entity.Demographics;
+import com.seen.report.entity.ImpactDetails;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.IncidentTiming;
+import com.seen.report.entity.IncidentType;
+import com.seen.report.entity.ReportLocation;
+import com.seen.report.entity.ReportStatus;
+import com.seen.report.entity.ReportedTo;
+import com.seen.report.entity.TimeOfDay;
+import com.seen.report.event.ReportEventOutbox;
+import com.seen.report.repository.ReportBulkWriter;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Imports partner datasets from streamed NDJSON or CSV. Input is read in chunks;
+ * each chunk is parsed and validated in parallel, then written with one JDBC batch
+ * per table in its own transaction. Only the current chunk is held in memory.
+ * A chunk the database rejects is retried row by row to pinpoint the bad rows.
+ */
+@Service
+@Slf4j
+public class ReportImportService {
+    
+    private static final Set<String> LIST_COLUMNS = Set.of("incidentTypes", "tags", "supportDesired", "race");
+    private static final String CSV_LIST_SEPARATOR = ";";
+    
+    private final ReportBulkWriter bulkWriter;
+    private final ReportEventOutbox eventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Validator validator;
+    private final ForkJoinPool validationPool;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    
+    public ReportImportService(
+            ReportBulkWriter bulkWriter,
+            ReportEventOutbox eventOutbox,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${app.import.chunk-size:1000}") int chunkSize,
+            @Value("${app.import.parallelism:0}") int parallelism,
+            @Value("${app.import.max-reported-errors:100}") int maxReportedErrors) {
+        
+        this.bulkWriter = bulkWriter;
+        this.eventOutbox = eventOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.validationPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdown();
+    }
+    
+    /**
+     * Imports every row of {@code input} as a SUBMITTED report owned by {@code ownerId}.
+     * The result lists at most app.import.max-reported-errors errors; the listener sees all of them.
+     */
+    public ImportResultDto importReports(InputStream input, ImportFormat format, UUID ownerId, ImportListener listener)
+            throws IOException {
+        
+        long start = System.nanoTime();
+        Progress progress = new Progress(listener);
+        List<RawRow> chunk = new ArrayList<>(chunkSize);
+        
+        if (format == ImportFormat.CSV) {
+            readCsv(input, chunk, ownerId, progress);
+        } else {
+            readNdjson(input, chunk, ownerId, progress);
+        }
+        processChunk(chunk, ownerId, progress);
+        
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Imported {} of {} rows for {} in {} ms ({} failed)",
+            progress.imported, progress.processed, ownerId, elapsed.toMillis(), progress.failed);
+        
+        return ImportResultDto.builder()
+            .processed(progress.processed)
+            .imported(progress.imported)
+            .failed(progress.failed)
+            .errors(progress.errors)
+            .errorsTruncated(progress.failed > progress.errors.size())
+            .durationMillis(elapsed.toMillis())
+            .rowsPerSecond(elapsed.toNanos() > 0 ? progress.processed * 1_000_000_000L / elapsed.toNanos() : 0)
+            .build();
+    }
+    
+    private void readNdjson(InputStream input, List<RawRow> chunk, UUID ownerId, Progress progress) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (!text.isBlank()) {
+                add(new RawRow(line, text, null), chunk, ownerId, progress);
+            }
+        }
+    }
+    
+    private void readCsv(InputStream input, List<RawRow> chunk, UUID ownerId, Progress progress) throws IOException {
+        MappingIterator<String[]> rows = csvMapper.readerForArrayOf(String.class)
+            .with(CsvParser.Feature.WRAP_AS_ARRAY)
+            .readValues(input);
+        if (!rows.hasNextValue()) {
+            return;
+        }
+        String[] header = rows.nextValue();
+        
+        long row = 0;
+        try {
+            while (rows.hasNextValue()) {
+                row++;
+                add(new RawRow(row, null, toObjectNode(header, rows.nextValue())), chunk, ownerId, progress);
+            }
+        } catch (JsonProcessingException e) {
+            // Broken quoting leaves no reliable row boundary, so stop after the last good row
+            progress.failed(row, "Unreadable CSV, import stopped: " + e.getOriginalMessage());
+        }
+    }
+    
+    private ObjectNode toObjectNode(String[] header, String[] values) {
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < header.length && i < values.length; i++) {
+            String column = header[i].trim();
+            String value = values[i].trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (LIST_COLUMNS.contains(column)) {
+                ArrayNode array = node.putArray(column);
+                Arrays.stream(value.split(CSV_LIST_SEPARATOR))
+                    .map(String::trim)
+                    .filter(element -> !element.isEmpty())
+                    .forEach(array::add);
+            } else {
+                node.put(column, value);
+            }
+        }
+        return node;
+    }
+    
+    private void add(RawRow row, List<RawRow> chunk, UUID ownerId, Progress progress) {
+        chunk.add(row);
+        if (chunk.size() == chunkSize) {
+            processChunk(chunk, ownerId, progress);
+            chunk.clear();
+        }
+    }
+    
+    private void processChunk(List<RawRow> chunk, UUID ownerId, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Outcome> outcomes = validationPool.submit(() -> chunk.parallelStream()
+            .map(row -> validate(row, ownerId, now))
+            .toList()).join();
+        
+        List<Outcome> valid = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() != null) {
+                progress.failed(outcome.row(), outcome.error());
+            } else {
+                valid.add(outcome);
+            }
+        }
+        write(valid, progress);
+        progress.chunkDone();
+    }
+    
+    private void write(List<Outcome> valid, Progress progress) {
+        try {
+            insert(valid.stream().map(Outcome::report).toList());
+            progress.imported(valid.size());
+        } catch (DataAccessException e) {
+            log.debug("Batch of {} rejected, retrying row by row: {}", valid.size(), e.getMostSpecificCause().getMessage());
+            for (Outcome outcome : valid) {
+                try {
+                    insert(List.of(outcome.report()));
+                    progress.imported(1);
+                } catch (DataAccessException rowError) {
+                    progress.failed(outcome.row(), "Rejected by database: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+    
+    private void insert(List<IncidentReport> reports) {
+        transactionTemplate.executeWithoutResult(status -> {
+            bulkWriter.insertAll(reports);
+            eventOutbox.created(reports);
+        });
+    }
+    
+    private Outcome validate(RawRow raw, UUID ownerId, LocalDateTime now) {
+        ImportRecordDto record;
+        try {
+            record = raw.text() != null
+                ? objectMapper.readValue(raw.text(), ImportRecordDto.class)
+                : objectMapper.treeToValue(raw.node(), ImportRecordDto.class);
+        } catch (JsonProcessingException e) {
+            return new Outcome(raw.row(), null, "Unreadable row: " + e.getOriginalMessage());
+        }
+        
+        Set<ConstraintViolation<ImportRecordDto>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            return new Outcome(raw.row(), null, violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+        
+        try {
+            return new Outcome(raw.row(), toReport(record, ownerId, now), null);
+        } catch (IllegalArgumentException e) {
+            return new Outcome(raw.row(), null, e.getMessage());
+        }
+    }
+    
+    private IncidentReport toReport(ImportRecordDto record, UUID ownerId, LocalDateTime now) {
+        ReportLocation location = new ReportLocation();
+        location.setCity(record.getCity().trim());
+        location.setState(record.getState().trim());
+        location.setCountry(record.getCountry() != null ? record.getCountry().trim() : "United States");
+        location.setLatitude(record.getLatitude());
+        location.setLongitude(record.getLongitude());
+        if (record.getLatitude() != null && record.getLongitude() != null) {
+            location.setGeohash(Geohash.encode(record.getLatitude(), record.getLongitude(), ReportLocation.GEOHASH_PRECISION));
+        }
+        
+        IncidentTiming timing = new IncidentTiming();
+        timing.setDate(record.getDate());
+        timing.setTimeLabel(record.getTimeOfDay() != null
+            ? parseEnum(TimeOfDay.class, record.getTimeOfDay(), "timeOfDay")
+            : TimeOfDay.AFTERNOON);
+        
+        ImpactDetails impact = new ImpactDetails();
+        impact.setDescription(record.getDescription());
+        impact.setReportedTo(record.getReportedTo() != null
+            ? parseEnum(ReportedTo.class, record.getReportedTo(), "reportedTo")
+            : null);
+        impact.setReportedToDetails(record.getReportedToDetails());
+        impact.setSupportDesired(toSet(record.getSupportDesired()));
+        
+        Demographics demographics = new Demographics();
+        demographics.setRace(toSet(record.getRace()));
+        demographics.setAgeRange(record.getAgeRange());
+        demographics.setGenderIdentity(record.getGenderIdentity());
+        demographics.setKeepPrivate(Boolean.TRUE.equals(record.getKeepPrivate()));
+        
+        Set<IncidentType> incidentTypes = new LinkedHashSet<>();
+        for (String type : record.getIncidentTypes()) {
+            incidentTypes.add(parseEnum(IncidentType.class, type, "incidentTypes"));
+        }
+        
+        return IncidentReport.builder()
+            .id(UuidV7.generate())
+            .userId(ownerId)
+            .title(record.getTitle().trim())
+            .narrative(record.getNarrative())
+            .incidentTypes(incidentTypes)
+            .tags(toSet(record.getTags()))
+            .location(location)
+            .timing(timing)
+            .impact(impact)
+            .demographics(demographics)
+            .status(ReportStatus.SUBMITTED)
+            .openToContact(false)
+            .createdAt(record.getReportedAt() != null ? record.getReportedAt() : now)
+            .updatedAt(now)
+            .build();
+    }
+    
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase().replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " has unknown value '" + value + "'");
+        }
+    }
+    
+    private Set<String> toSet(List<String> values) {
+        if (values == null) {
+            return new LinkedHashSet<>();
+        }
+        return values.stream()
+            .filter(value -> value != null && !value.isBlank())
+            .map(String::trim)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+    
+    /**
+     * Receives progress after every chunk and every row error as it happens.
+     */
+    public interface ImportListener {
+        
+        ImportListener NONE = new ImportListener() {
+        };
+        
+        default void onProgress(long processed, long imported, long failed) {
+        }
+        
+        default void onError(ImportRowErrorDto error) {
+        }
+    }
+    
+    /**
+     * An unparsed input row: an NDJSON line or a CSV record already mapped to field names.
+     */
+    private record RawRow(long row, String text, ObjectNode node) {
+    }
+    
+    private record Outcome(long row, IncidentReport report, String error) {
+    }
+    
+    private class Progress {
+        
+        private final ImportListener listener;
+        private final List<ImportRowErrorDto> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+        
+        Progress(ImportListener listener) {
+            this.listener = listener;
+        }
+        
+        void imported(long rows) {
+            imported += rows;
+            processed += rows;
+        }
+        
+        void failed(long row, String message) {
+            ImportRowErrorDto error = new ImportRowErrorDto(row, message);
+            failed++;
+            processed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+            listener.onError(error);
+        }
+        
+        void chunkDone() {
+            listener.onProgress(processed, imported, failed);
+        }
+    }
+}
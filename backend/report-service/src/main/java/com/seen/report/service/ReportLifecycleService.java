@@ -0,0 +1,58 @@
+package com.seen.report.service;
+
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.ReportStatus;
+import com.seen.report.event.ReportEventOutbox;
+import com.seen.report.repository.IncidentReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves reports along DRAFT -> SUBMITTED -> UNDER_REVIEW -> RESOLVED -> ARCHIVED.
+ * Every transition is recorded in the event outbox in the same transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportLifecycleService {
+    
+    private static final Map<ReportStatus, ReportStatus> NEXT_STATUS = Map.of(
+        ReportStatus.DRAFT, ReportStatus.SUBMITTED,
+        ReportStatus.SUBMITTED, ReportStatus.UNDER_REVIEW,
+        ReportStatus.UNDER_REVIEW, ReportStatus.RESOLVED,
+        ReportStatus.RESOLVED, ReportStatus.ARCHIVED);
+    
+    private final IncidentReportRepository reportRepository;
+    private final ReportEventOutbox eventOutbox;
+    
+    /**
+     * Owners may only submit their own drafts; every later step needs a moderator.
+     */
+    @Transactional
+    public ReportStatus transition(UUID reportId, ReportStatus target, UUID actorId, boolean moderator) {
+        IncidentReport report = reportRepository.findByIdForUpdate(reportId)
+            .filter(r -> moderator || r.getUserId().equals(actorId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report not found"));
+        
+        ReportStatus previous = report.getStatus();
+        if (NEXT_STATUS.get(previous) != target) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Report cannot move from " + previous + " to " + target);
+        }
+        if (target != ReportStatus.SUBMITTED && !moderator) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Moving a report to " + target + " requires moderator role");
+        }
+        
+        report.setStatus(target);
+        eventOutbox.statusChanged(report, previous);
+        log.info("Report {} moved {} -> {} by {}", reportId, previous, target, actorId);
+        return target;
+    }
+}
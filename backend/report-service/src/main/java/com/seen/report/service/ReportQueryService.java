@@ -0,0 +1,111 @@
+package com.seen.report.service;
+
+import com.seen.report.dto.ReportPageDto;
+import com.seen.report.dto.ReportSummaryDto;
+import com.seen.report.repository.IncidentReportRepository;
+import com.seen.report.repository.ReportSummaryRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds report listings from a fixed set of statements per page: the keyset
+ * page of scalar rows, one statement per element collection and one per child
+ * table count, independent of how many reports the page holds or how deep it is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ReportQueryService {
+    
+    private final IncidentReportRepository reportRepository;
+    
+    public ReportPageDto<ReportSummaryDto> getUserReports(UUID userId, String cursor, int size) {
+        // Fetch one extra row to learn whether another page exists without a count query
+        Limit limit = Limit.of(size + 1);
+        List<ReportSummaryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reportRepository.findFirstSummaryRowsByUserId(userId, limit);
+        } else {
+            ReportCursor position = ReportCursor.decode(cursor);
+            rows = reportRepository.findSummaryRowsByUserIdAfter(userId, position.createdAt(), position.id(), limit);
+        }
+        
+        boolean hasMore = rows.size() > size;
+        List<ReportSummaryRow> page = hasMore ? rows.subList(0, size) : rows;
+        ReportSummaryRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        
+        return ReportPageDto.<ReportSummaryDto>builder()
+            .items(toSummaries(page))
+            .nextCursor(hasMore ? new ReportCursor(last.createdAt(), last.id()).encode() : null)
+            .hasMore(hasMore)
+            .build();
+    }
+    
+    List<ReportSummaryDto> toSummaries(List<ReportSummaryRow> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Set<UUID> ids = rows.stream()
+            .map(ReportSummaryRow::id)
+            .collect(Collectors.toSet());
+        
+        Map<UUID, Set<String>> incidentTypes = groupValues(reportRepository.findIncidentTypesByReportIds(ids));
+        Map<UUID, Set<String>> tags = groupValues(reportRepository.findTagsByReportIds(ids));
+        Map<UUID, Set<String>> supportDesired = groupValues(reportRepository.findSupportDesiredByReportIds(ids));
+        Map<UUID, Set<String>> race = groupValues(reportRepository.findRaceByReportIds(ids));
+        Map<UUID, Long> timelineCounts = toCounts(reportRepository.countTimelineByReportIds(ids));
+        Map<UUID, Long> attachmentCounts = toCounts(reportRepository.countAttachmentsByReportIds(ids));
+        
+        return rows.stream()
+            .map(row -> ReportSummaryDto.builder()
+                .id(row.id())
+                .title(row.title())
+                .status(row.status() != null ? row.status().name() : null)
+                .incidentTypes(incidentTypes.getOrDefault(row.id(), Collections.emptySet()))
+                .tags(tags.getOrDefault(row.id(), Collections.emptySet()))
+                .city(row.city())
+                .state(row.state())
+                .incidentDate(row.incidentDate())
+                .timeOfDay(row.timeOfDay() != null ? row.timeOfDay().name() : null)
+                .supportDesired(supportDesired.getOrDefault(row.id(), Collections.emptySet()))
+                .race(race.getOrDefault(row.id(), Collections.emptySet()))
+                .openToContact(row.openToContact())
+                .timelineCount(timelineCounts.getOrDefault(row.id(), 0L))
+                .attachmentCount(attachmentCounts.getOrDefault(row.id(), 0L))
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build())
+            .collect(Collectors.toList());
+    }
+    
+    private Map<UUID, Set<String>> groupValues(List<Object[]> pairs) {
+        Map<UUID, Set<String>> grouped = new HashMap<>();
+        for (Object[] pair : pairs) {
+            grouped.computeIfAbsent((UUID) pair[0], id -> new LinkedHashSet<>())
+                .add(pair[1] instanceof Enum<?> e ? e.name() : String.valueOf(pair[1]));
+        }
+        return grouped;
+    }
+    
+    private Map<UUID, Long> toCounts(List<Object[]> pairs) {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Object[] pair : pairs) {
+            counts.put((UUID) pair[0], ((Number) pair[1]).longValue());
+        }
+        return counts;
+    }
+}
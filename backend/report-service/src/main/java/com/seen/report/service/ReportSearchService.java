@@ -0,0 +1,89 @@
+package com.seen.report.service;
+
+import com.seen.report.dto.ReportSearchResultDto;
+import com.seen.report.dto.ReportSummaryDto;
+import com.seen.report.repository.IncidentReportRepository;
+import com.seen.report.repository.ReportSearchRepository;
+import com.seen.report.repository.ReportSearchRepository.Criteria;
+import com.seen.report.repository.ReportSearchRepository.RankedReport;
+import com.seen.report.repository.ReportSummaryRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search with keyset paging over (rank, id). The first page also
+ * carries incident type and tag facet counts for the whole result set.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReportSearchService {
+    
+    private static final int FACET_LIMIT = 20;
+    
+    private final ReportSearchRepository searchRepository;
+    private final IncidentReportRepository reportRepository;
+    private final ReportQueryService reportQueryService;
+    
+    /**
+     * @param ownerId restricts the search to one user's reports; null searches all reports
+     */
+    public ReportSearchResultDto search(
+            String text,
+            UUID ownerId,
+            Set<String> incidentTypes,
+            Set<String> tags,
+            String cursor,
+            int size) {
+        
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        
+        Criteria criteria = new Criteria(text.trim(), ownerId, incidentTypes, tags);
+        SearchCursor position = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor) : null;
+        
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<RankedReport> ranked = searchRepository.search(criteria,
+            position != null ? position.rank() : null,
+            position != null ? position.id() : null,
+            size + 1);
+        boolean hasMore = ranked.size() > size;
+        List<RankedReport> page = hasMore ? ranked.subList(0, size) : ranked;
+        RankedReport last = page.isEmpty() ? null : page.get(page.size() - 1);
+        
+        ReportSearchResultDto.ReportSearchResultDtoBuilder result = ReportSearchResultDto.builder()
+            .items(loadInRankOrder(page))
+            .nextCursor(hasMore ? new SearchCursor(last.rank(), last.id()).encode() : null)
+            .hasMore(hasMore);
+        if (position == null) {
+            result.incidentTypeFacets(searchRepository.countIncidentTypes(criteria, FACET_LIMIT))
+                .tagFacets(searchRepository.countTags(criteria, FACET_LIMIT));
+        }
+        return result.build();
+    }
+    
+    private List<ReportSummaryDto> loadInRankOrder(List<RankedReport> page) {
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < page.size(); i++) {
+            positions.put(page.get(i).id(), i);
+        }
+        List<ReportSummaryRow> rows = reportRepository.findSummaryRowsByIds(positions.keySet()).stream()
+            .sorted(Comparator.comparing(row -> positions.get(row.id())))
+            .collect(Collectors.toList());
+        return reportQueryService.toSummaries(rows);
+    }
+}
@@ -0,0 +1,29 @@
+package com.seen.report.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position in ranked search results: the (rank, id) of the last row a client has seen.
+ * The rank travels as its raw float bits so the next page compares exactly against the recomputed rank.
+ */
+public record SearchCursor(float rank, UUID id) {
+    
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SearchCursor(
+                Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package db.migration;
+
+import com.seen.geo.Geohash;
+import com.seen.report.entity.ReportLocation;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Fills in the geohash of reports written before V3 added the column, using
+ * the same encoder as new writes so old and new rows match the same prefixes.
+ * Rows are read in id order, a batch at a time, so the table is never held in memory.
+ */
+public class V8__backfill_report_geohash extends BaseJavaMigration {
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, latitude, longitude FROM incident_reports " +
+                "WHERE geohash IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL AND id > ? " +
+                "ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                "UPDATE incident_reports SET geohash = ? WHERE id = ?")) {
+            
+            UUID after = new UUID(0, 0);
+            int rows;
+            do {
+                rows = 0;
+                select.setObject(1, after);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        after = rs.getObject("id", UUID.class);
+                        update.setString(1, encode(rs.getDouble("latitude"), rs.getDouble("longitude")));
+                        update.setObject(2, after);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                update.executeBatch();
+            } while (rows == BATCH_SIZE);
+        }
+    }
+    
+    // Coordinates the entity would reject are left without a geohash rather than failing the migration
+    private static String encode(double latitude, double longitude) {
+        try {
+            return Geohash.encode(latitude, longitude, ReportLocation.GEOHASH_PRECISION);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+CREATE TABLE IF NOT EXISTS incident_reports (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    narrative TEXT NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    state VARCHAR(255) NOT NULL,
+    country VARCHAR(255) NOT NULL DEFAULT 'United States',
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    date DATE NOT NULL,
+    time_label VARCHAR(20),
+    description TEXT NOT NULL,
+    reported_to VARCHAR(10),
+    reported_to_details TEXT,
+    age_range VARCHAR(50),
+    gender_identity VARCHAR(100),
+    keep_private BOOLEAN NOT NULL DEFAULT FALSE,
+    status VARCHAR(20) NOT NULL DEFAULT 'DRAFT',
+    open_to_contact BOOLEAN NOT NULL DEFAULT FALSE,
+    contact_email VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS report_incident_types (
+    incident_report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    incident_types VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS report_tags (
+    incident_report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    tags VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS report_support_desired (
+    incident_report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    support_desired VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS report_demographics_race (
+    incident_report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    race VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS report_timeline (
+    id UUID PRIMARY KEY,
+    report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    type VARCHAR(50),
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    actor_id UUID NOT NULL,
+    is_private BOOLEAN NOT NULL DEFAULT FALSE,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS report_attachments (
+    id UUID PRIMARY KEY,
+    report_id UUID NOT NULL REFERENCES incident_reports (id) ON DELETE CASCADE,
+    file_id UUID NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size BIGINT,
+    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,15 @@
+-- Keyset paging of a user's reports: WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_incident_reports_user_created_id
+    ON incident_reports (user_id, created_at DESC, id DESC);
+
+-- Moderator export walks every report in (created_at, id) order
+CREATE INDEX IF NOT EXISTS idx_incident_reports_created_id
+    ON incident_reports (created_at, id);
+
+-- Collection tables are always read by owning report id
+CREATE INDEX IF NOT EXISTS idx_report_incident_types_report ON report_incident_types (incident_report_id);
+CREATE INDEX IF NOT EXISTS idx_report_tags_report ON report_tags (incident_report_id);
+CREATE INDEX IF NOT EXISTS idx_report_support_desired_report ON report_support_desired (incident_report_id);
+CREATE INDEX IF NOT EXISTS idx_report_demographics_race_report ON report_demographics_race (incident_report_id);
+CREATE INDEX IF NOT EXISTS idx_report_timeline_report ON report_timeline (report_id);
+CREATE INDEX IF NOT EXISTS idx_report_attachments_report ON report_attachments (report_id);
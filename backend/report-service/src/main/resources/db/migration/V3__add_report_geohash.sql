@@ -0,0 +1,6 @@
+-- Geohash of the report location; a prefix match is a bounding-cell query.
+-- Existing rows are filled in on their next update.
+ALTER TABLE incident_reports ADD COLUMN IF NOT EXISTS geohash VARCHAR(12);
+
+CREATE INDEX IF NOT EXISTS idx_incident_reports_geohash
+    ON incident_reports (geohash varchar_pattern_ops);
@@ -0,0 +1,51 @@
+-- Full-text search: a weighted tsvector per report (title and tags A, narrative B,
+-- impact description C), kept current by triggers and served by a GIN index.
+ALTER TABLE incident_reports ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION report_search_vector(p_id UUID, p_title TEXT, p_narrative TEXT, p_description TEXT)
+RETURNS tsvector
+LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('english', coalesce(p_title, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(
+               (SELECT string_agg(tags, ' ') FROM report_tags WHERE incident_report_id = p_id), '')), 'A')
+        || setweight(to_tsvector('english', coalesce(p_narrative, '')), 'B')
+        || setweight(to_tsvector('english', coalesce(p_description, '')), 'C')
+$$;
+
+CREATE OR REPLACE FUNCTION incident_reports_search_trigger()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := report_search_vector(NEW.id, NEW.title, NEW.narrative, NEW.description);
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS incident_reports_search_update ON incident_reports;
+CREATE TRIGGER incident_reports_search_update
+    BEFORE INSERT OR UPDATE OF title, narrative, description ON incident_reports
+    FOR EACH ROW EXECUTE FUNCTION incident_reports_search_trigger();
+
+-- Tags are written after their report, so tag changes refresh the owning report's vector
+CREATE OR REPLACE FUNCTION report_tags_search_trigger()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    report_id UUID := COALESCE(NEW.incident_report_id, OLD.incident_report_id);
+BEGIN
+    UPDATE incident_reports r
+    SET search_vector = report_search_vector(r.id, r.title, r.narrative, r.description)
+    WHERE r.id = report_id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS report_tags_search_update ON report_tags;
+CREATE TRIGGER report_tags_search_update
+    AFTER INSERT OR UPDATE OR DELETE ON report_tags
+    FOR EACH ROW EXECUTE FUNCTION report_tags_search_trigger();
+
+UPDATE incident_reports
+SET search_vector = report_search_vector(id, title, narrative, description);
+
+CREATE INDEX IF NOT EXISTS idx_incident_reports_search ON incident_reports USING GIN (search_vector);
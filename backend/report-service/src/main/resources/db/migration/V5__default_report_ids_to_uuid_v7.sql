@@ -0,0 +1,8 @@
+-- uuid_generate_v7() comes from the time-ordered-ids beforeMigrate callback.
+--
+-- Existing version 4 ids are left alone: report ids are already referenced by the
+-- analytics service and by links users hold, and the two versions coexist in one
+-- uuid column. Keyset paging orders by (created_at, id), never by id alone, so old
+-- v4 rows still page in creation order; the id only breaks ties between rows
+-- created in the same instant.
+ALTER TABLE incident_reports ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,14 @@
+-- Report lifecycle events, written in the same transaction as the status change and
+-- relayed to RabbitMQ in id order. Rows are deleted once the broker confirms them.
+-- Status changes lock the report row before inserting here, so a report's events
+-- always get ascending ids in the order they happened.
+CREATE TABLE IF NOT EXISTS report_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id UUID NOT NULL,
+    report_id UUID NOT NULL,
+    routing_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
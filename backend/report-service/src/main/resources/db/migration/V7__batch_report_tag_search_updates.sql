@@ -0,0 +1,42 @@
+-- Tag rows are written in multi-row batches (reWriteBatchedInserts), so refresh each
+-- affected report's search vector once per statement instead of once per tag row.
+-- Transition tables need one trigger per event; the function reads only the ones
+-- its event declares.
+CREATE OR REPLACE FUNCTION report_tags_search_trigger()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE incident_reports r
+        SET search_vector = report_search_vector(r.id, r.title, r.narrative, r.description)
+        WHERE r.id IN (SELECT incident_report_id FROM new_tags);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE incident_reports r
+        SET search_vector = report_search_vector(r.id, r.title, r.narrative, r.description)
+        WHERE r.id IN (SELECT incident_report_id FROM new_tags
+                       UNION SELECT incident_report_id FROM old_tags);
+    ELSE
+        UPDATE incident_reports r
+        SET search_vector = report_search_vector(r.id, r.title, r.narrative, r.description)
+        WHERE r.id IN (SELECT incident_report_id FROM old_tags);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS report_tags_search_update ON report_tags;
+
+CREATE TRIGGER report_tags_search_insert
+    AFTER INSERT ON report_tags
+    REFERENCING NEW TABLE AS new_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION report_tags_search_trigger();
+
+CREATE TRIGGER report_tags_search_update
+    AFTER UPDATE ON report_tags
+    REFERENCING OLD TABLE AS old_tags NEW TABLE AS new_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION report_tags_search_trigger();
+
+CREATE TRIGGER report_tags_search_delete
+    AFTER DELETE ON report_tags
+    REFERENCING OLD TABLE AS old_tags
+    FOR EACH STATEMENT EXECUTE FUNCTION report_tags_search_trigger();
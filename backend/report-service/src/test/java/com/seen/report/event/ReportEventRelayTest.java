@@ -0,0 +1,177 @@
+package com.seen.report.event;
+
+import com.seen.report.config.RabbitConfig;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the relay against a real broker, so publisher confirms and nacks are the
+ * broker's own: a batch is deleted only once all of it is confirmed, is resent
+ * whole and in order otherwise, and each report's events arrive in outbox order.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReportEventRelayTest {
+    
+    private static final String OBSERVER_QUEUE = "report.events.observer";
+    private static final String BOUNDED_QUEUE = "report.events.bounded";
+    private static final int BATCH_SIZE = 3;
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    @Container
+    static RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.12-alpine");
+    
+    private JdbcTemplate jdbcTemplate;
+    private CachingConnectionFactory connectionFactory;
+    private RabbitTemplate rabbitTemplate;
+    private RabbitAdmin rabbitAdmin;
+    private ReportEventRelay relay;
+    
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration", "classpath:db/uuid-v7").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM report_event_outbox");
+        
+        connectionFactory = new CachingConnectionFactory(rabbit.getHost(), rabbit.getAmqpPort());
+        connectionFactory.setUsername(rabbit.getAdminUsername());
+        connectionFactory.setPassword(rabbit.getAdminPassword());
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
+        rabbitTemplate = new RabbitTemplate(connectionFactory);
+        
+        rabbitAdmin = new RabbitAdmin(connectionFactory);
+        TopicExchange exchange = new TopicExchange(RabbitConfig.REPORT_EVENTS_EXCHANGE, true, false);
+        rabbitAdmin.declareExchange(exchange);
+        Queue observer = new Queue(OBSERVER_QUEUE, false);
+        rabbitAdmin.declareQueue(observer);
+        rabbitAdmin.purgeQueue(OBSERVER_QUEUE, false);
+        rabbitAdmin.declareBinding(BindingBuilder.bind(observer).to(exchange).with("report.#"));
+        
+        relay = new ReportEventRelay(jdbcTemplate, rabbitTemplate, new DataSourceTransactionManager(dataSource),
+            BATCH_SIZE, Duration.ofSeconds(5));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        rabbitAdmin.deleteQueue(BOUNDED_QUEUE);
+        connectionFactory.destroy();
+    }
+    
+    @Test
+    void deletesABatchOnceTheBrokerConfirmsIt() {
+        List<UUID> events = List.of(
+            insertEvent(UUID.randomUUID()), insertEvent(UUID.randomUUID()), insertEvent(UUID.randomUUID()));
+        
+        relay.relay();
+        
+        assertThat(receivedEventIds()).containsExactlyElementsOf(events);
+        assertThat(outboxSize()).isZero();
+    }
+    
+    @Test
+    void resendsTheWholeBatchInOrderWhenPartOfItIsNacked() {
+        List<UUID> events = List.of(
+            insertEvent(UUID.randomUUID()), insertEvent(UUID.randomUUID()), insertEvent(UUID.randomUUID()));
+        // Holds two messages and makes the broker nack any publish beyond that
+        Queue bounded = QueueBuilder.nonDurable(BOUNDED_QUEUE)
+            .maxLength(2)
+            .overflow(QueueBuilder.Overflow.rejectPublish)
+            .build();
+        rabbitAdmin.declareQueue(bounded);
+        rabbitAdmin.declareBinding(new Binding(BOUNDED_QUEUE, Binding.DestinationType.QUEUE,
+            RabbitConfig.REPORT_EVENTS_EXCHANGE, "report.#", null));
+        
+        relay.relay();
+        
+        assertThat(outboxSize()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT attempts FROM report_event_outbox", Integer.class))
+            .containsOnly(1);
+        
+        rabbitAdmin.deleteQueue(BOUNDED_QUEUE);
+        relay.relay();
+        
+        List<UUID> expected = new ArrayList<>(events);
+        expected.addAll(events);
+        assertThat(receivedEventIds()).containsExactlyElementsOf(expected);
+        assertThat(outboxSize()).isZero();
+    }
+    
+    @Test
+    void keepsEachReportsEventsInOrderAcrossBatches() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Map<UUID, UUID> reportByEvent = new HashMap<>();
+        Map<UUID, List<UUID>> inserted = Map.of(first, new ArrayList<>(), second, new ArrayList<>());
+        for (int i = 0; i < 4 * BATCH_SIZE + 1; i++) {
+            UUID reportId = i % 3 == 0 ? second : first;
+            UUID eventId = insertEvent(reportId);
+            reportByEvent.put(eventId, reportId);
+            inserted.get(reportId).add(eventId);
+        }
+        
+        relay.relay();
+        
+        Map<UUID, List<UUID>> received = Map.of(first, new ArrayList<>(), second, new ArrayList<>());
+        receivedEventIds().forEach(eventId -> received.get(reportByEvent.get(eventId)).add(eventId));
+        assertThat(received).isEqualTo(inserted);
+        assertThat(outboxSize()).isZero();
+    }
+    
+    private UUID insertEvent(UUID reportId) {
+        UUID eventId = UUID.randomUUID();
+        jdbcTemplate.update(
+            "INSERT INTO report_event_outbox (event_id, report_id, routing_key, payload) VALUES (?, ?, ?, ?)",
+            eventId, reportId, RabbitConfig.REPORT_STATUS_ROUTING_PREFIX + "SUBMITTED",
+            "{\"eventId\":\"" + eventId + "\",\"reportId\":\"" + reportId + "\"}");
+        return eventId;
+    }
+    
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM report_event_outbox", Integer.class);
+    }
+    
+    private List<UUID> receivedEventIds() {
+        return receivedMessages().stream()
+            .map(message -> UUID.fromString(message.getMessageProperties().getMessageId()))
+            .toList();
+    }
+    
+    private List<Message> receivedMessages() {
+        List<Message> messages = new ArrayList<>();
+        Message message;
+        while ((message = rabbitTemplate.receive(OBSERVER_QUEUE, 1000)) != null) {
+            messages.add(message);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,141 @@
+package com.seen.report.repository;
+
+import com.seen.report.entity.Demographics;
+import com.seen.report.entity.ImpactDetails;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.IncidentTiming;
+import com.seen.report.entity.IncidentType;
+import com.seen.report.entity.ReportLocation;
+import com.seen.report.entity.ReportStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ReportBulkWriterTest {
+    
+    private static final UUID FIRST = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-000000000001");
+    private static final UUID SECOND = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-000000000002");
+    
+    private JdbcTemplate jdbcTemplate;
+    private ReportBulkWriter bulkWriter;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        bulkWriter = new ReportBulkWriter(jdbcTemplate);
+    }
+    
+    @Test
+    void emptyChunkWritesNothing() {
+        bulkWriter.insertAll(List.of());
+        
+        verifyNoInteractions(jdbcTemplate);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesAllReportsInOneBatchWithTheirDerivedColumns() throws Exception {
+        IncidentReport located = report(FIRST, Set.of("night"), 41.8781, -87.6298, "dp3wjztvt");
+        IncidentReport unlocated = report(SECOND, Set.of(), null, null, null);
+        
+        bulkWriter.insertAll(List.of(located, unlocated));
+        
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<IncidentReport>> setter =
+            ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO incident_reports"), eq(List.of(located, unlocated)),
+            eq(2), setter.capture());
+        
+        PreparedStatement first = mock(PreparedStatement.class);
+        setter.getValue().setValues(first, located);
+        verify(first).setDouble(8, 41.8781);
+        verify(first).setString(10, "dp3wjztvt");
+        verify(first).setString(19, "SUBMITTED");
+        
+        PreparedStatement second = mock(PreparedStatement.class);
+        setter.getValue().setValues(second, unlocated);
+        verify(second).setNull(8, Types.DOUBLE);
+        verify(second).setNull(9, Types.DOUBLE);
+        verify(second).setString(10, null);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesEachCollectionTableInOneBatchAndSkipsEmptyOnes() {
+        bulkWriter.insertAll(List.of(
+            report(FIRST, Set.of("night", "bus"), null, null, null),
+            report(SECOND, Set.of("park"), null, null, null)));
+        
+        ArgumentCaptor<List<Object[]>> types = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO report_incident_types (incident_report_id, incident_types) VALUES (?, ?)"),
+            types.capture(), any(int[].class));
+        assertThat(types.getValue()).containsExactly(
+            new Object[] {FIRST, "ONLINE"}, new Object[] {FIRST, "PUBLIC_SPACE"}, new Object[] {SECOND, "ONLINE"},
+            new Object[] {SECOND, "PUBLIC_SPACE"});
+        
+        ArgumentCaptor<List<Object[]>> tags = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO report_tags (incident_report_id, tags) VALUES (?, ?)"),
+            tags.capture(), any(int[].class));
+        assertThat(tags.getValue()).hasSize(3);
+        
+        // Neither report has support or race values
+        verify(jdbcTemplate, never()).batchUpdate(contains("report_support_desired"), anyList(), any(int[].class));
+        verify(jdbcTemplate, never()).batchUpdate(contains("report_demographics_race"), anyList(), any(int[].class));
+    }
+    
+    private static IncidentReport report(UUID id, Set<String> tags, Double latitude, Double longitude, String geohash) {
+        ReportLocation location = new ReportLocation();
+        location.setCity("Chicago");
+        location.setState("IL");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setGeohash(geohash);
+        
+        IncidentTiming timing = new IncidentTiming();
+        timing.setDate(LocalDate.of(2026, 3, 14));
+        
+        ImpactDetails impact = new ImpactDetails();
+        impact.setDescription("Impact");
+        impact.setSupportDesired(Set.of());
+        
+        Demographics demographics = new Demographics();
+        demographics.setRace(Set.of());
+        
+        return IncidentReport.builder()
+            .id(id)
+            .userId(UUID.randomUUID())
+            .title("Report")
+            .narrative("What happened")
+            .incidentTypes(new LinkedHashSet<>(List.of(IncidentType.ONLINE, IncidentType.PUBLIC_SPACE)))
+            .tags(new LinkedHashSet<>(tags))
+            .location(location)
+            .timing(timing)
+            .impact(impact)
+            .demographics(demographics)
+            .status(ReportStatus.SUBMITTED)
+            .openToContact(false)
+            .createdAt(LocalDateTime.of(2026, 3, 14, 9, 30))
+            .updatedAt(LocalDateTime.of(2026, 3, 14, 9, 30))
+            .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.seen.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.seen.report.dto.ImportResultDto;
+import com.seen.report.dto.ImportRowErrorDto;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.IncidentType;
+import com.seen.report.entity.ReportLocation;
+import com.seen.report.event.ReportEventOutbox;
+import com.seen.report.repository.ReportBulkWriter;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReportImportServiceTest {
+    
+    private static final UUID OWNER_ID = UUID.fromString("0190a3c4-7b2e-7d3a-9f41-2c6b8e0d1a57");
+    private static final String CSV_HEADER =
+        "title,narrative,incidentTypes,tags,city,state,latitude,longitude,date,timeOfDay,description\n";
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ReportBulkWriter bulkWriter;
+    private ReportEventOutbox eventOutbox;
+    private PlatformTransactionManager transactionManager;
+    // Every batch the writer accepted, in order
+    private List<List<IncidentReport>> written;
+    private ReportImportService importService;
+    
+    @BeforeEach
+    void setUp() {
+        bulkWriter = mock(ReportBulkWriter.class);
+        eventOutbox = mock(ReportEventOutbox.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        written = new ArrayList<>();
+        
+        // The database rejects any batch holding a report titled "Duplicate"
+        doAnswer(invocation -> {
+            List<IncidentReport> reports = invocation.getArgument(0);
+            if (reports.stream().anyMatch(report -> report.getTitle().startsWith("Duplicate"))) {
+                throw new DuplicateKeyException("duplicate key value violates unique constraint");
+            }
+            written.add(List.copyOf(reports));
+            return null;
+        }).when(bulkWriter).insertAll(anyList());
+        
+        importService = newService(3, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+    
+    @Test
+    void writesOneBatchPerChunkAndReportsProgressAfterEach() throws IOException {
+        List<long[]> progress = new ArrayList<>();
+        String ndjson = IntStream.rangeClosed(1, 7).mapToObj(i -> json("Report " + i)).collect(Collectors.joining("\n"));
+        
+        ImportResultDto result = importService.importReports(input(ndjson), ImportFormat.NDJSON, OWNER_ID,
+            new ReportImportService.ImportListener() {
+                @Override
+                public void onProgress(long processed, long imported, long failed) {
+                    progress.add(new long[] {processed, imported, failed});
+                }
+            });
+        
+        assertThat(result.getImported()).isEqualTo(7L);
+        assertThat(written).extracting(List::size).containsExactly(3, 3, 1);
+        // Rows keep their input order within and across chunks
+        assertThat(written.stream().flatMap(List::stream).map(IncidentReport::getTitle))
+            .containsExactly("Report 1", "Report 2", "Report 3", "Report 4", "Report 5", "Report 6", "Report 7");
+        assertThat(progress).extracting(counts -> counts[1]).containsExactly(3L, 6L, 7L);
+        verify(eventOutbox, times(3)).created(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+    
+    @Test
+    void rejectedBatchIsRetriedRowByRowToIsolateTheBadRow() throws IOException {
+        String ndjson = String.join("\n", json("First"), json("Duplicate"), json("Third"), json("Fourth"));
+        
+        ImportResultDto result = importService.importReports(input(ndjson), ImportFormat.NDJSON, OWNER_ID,
+            ReportImportService.ImportListener.NONE);
+        
+        assertThat(result.getProcessed()).isEqualTo(4L);
+        assertThat(result.getImported()).isEqualTo(3L);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2L);
+            assertThat(error.getMessage()).startsWith("Rejected by database: duplicate key");
+        });
+        // The first chunk fell back to single rows; the second went through whole
+        assertThat(written).extracting(List::size).containsExactly(1, 1, 1);
+        assertThat(written.stream().flatMap(List::stream).map(IncidentReport::getTitle))
+            .containsExactly("First", "Third", "Fourth");
+    }
+    
+    @Test
+    void invalidAndUnreadableLinesAreReportedByLineNumberWithoutStoppingTheImport() throws IOException {
+        String ndjson = String.join("\n",
+            json("Good"),
+            "",
+            "{\"title\": ",
+            json("Good again").replace("\"ONLINE\"", "\"TELEPATHY\""),
+            json("").replace("\"title\":\"\"", "\"title\":\" \""),
+            json("Last"));
+        
+        ImportResultDto result = importService.importReports(input(ndjson), ImportFormat.NDJSON, OWNER_ID,
+            ReportImportService.ImportListener.NONE);
+        
+        assertThat(result.getImported()).isEqualTo(2L);
+        assertThat(result.getErrors()).extracting(ImportRowErrorDto::getRow).containsExactly(3L, 4L, 5L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Unreadable row");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("incidentTypes has unknown value 'TELEPATHY'");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("title must not be blank");
+    }
+    
+    @Test
+    void csvHandlesQuotingListColumnsAndMissingValues() throws IOException {
+        String csv = CSV_HEADER +
+            "\"Stopped, searched\",\"He said \"\"nothing\"\" and left\",police encounter;Online,a; b ;,Chicago,IL," +
+            "41.8781,-87.6298,2026-03-14,evening,\"Line one\nline two\"\n" +
+            "No coordinates,Narrative,OTHER,,Denver,CO,,,2026-03-15,,Description\n";
+        
+        ImportResultDto result = importService.importReports(input(csv), ImportFormat.CSV, OWNER_ID,
+            ReportImportService.ImportListener.NONE);
+        
+        assertThat(result.getImported()).isEqualTo(2L);
+        IncidentReport quoted = written.get(0).get(0);
+        assertThat(quoted.getTitle()).isEqualTo("Stopped, searched");
+        assertThat(quoted.getNarrative()).isEqualTo("He said \"nothing\" and left");
+        assertThat(quoted.getIncidentTypes()).containsExactly(IncidentType.POLICE_ENCOUNTER, IncidentType.ONLINE);
+        assertThat(quoted.getTags()).containsExactly("a", "b");
+        assertThat(quoted.getImpact().getDescription()).isEqualTo("Line one\nline two");
+        assertThat(quoted.getLocation().getGeohash()).hasSize(ReportLocation.GEOHASH_PRECISION).startsWith("dp3wj");
+        
+        IncidentReport sparse = written.get(0).get(1);
+        assertThat(sparse.getTags()).isEmpty();
+        assertThat(sparse.getLocation().getLatitude()).isNull();
+        assertThat(sparse.getLocation().getGeohash()).isNull();
+        assertThat(sparse.getUserId()).isEqualTo(OWNER_ID);
+    }
+    
+    @Test
+    void csvRowsFailingValidationAreNumberedFromTheFirstDataRow() throws IOException {
+        String csv = CSV_HEADER +
+            "Fine,Narrative,OTHER,,Austin,TX,,,2026-03-14,,Description\n" +
+            "No city,Narrative,OTHER,,,TX,,,2026-03-14,,Description\n" +
+            "Far north,Narrative,OTHER,,Austin,TX,95,0,2026-03-14,,Description\n" +
+            "Bad date,Narrative,OTHER,,Austin,TX,,,14/03/2026,,Description\n";
+        
+        ImportResultDto result = importService.importReports(input(csv), ImportFormat.CSV, OWNER_ID,
+            ReportImportService.ImportListener.NONE);
+        
+        assertThat(result.getImported()).isEqualTo(1L);
+        assertThat(result.getErrors()).extracting(ImportRowErrorDto::getRow).containsExactly(2L, 3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("city must not be blank");
+        assertThat(result.getErrors().get(1).getMessage()).startsWith("latitude must be less than or equal to 90");
+        assertThat(result.getErrors().get(2).getMessage()).startsWith("Unreadable row");
+    }
+    
+    @Test
+    void brokenCsvQuotingStopsTheImportAfterTheLastGoodRow() throws IOException {
+        String csv = CSV_HEADER +
+            "Fine,Narrative,OTHER,,Austin,TX,,,2026-03-14,,Description\n" +
+            "\"Unterminated,Narrative,OTHER,,Austin,TX,,,2026-03-14,,Description\n" +
+            "Never read,Narrative,OTHER,,Austin,TX,,,2026-03-14,,Description\n";
+        
+        ImportResultDto result = importService.importReports(input(csv), ImportFormat.CSV, OWNER_ID,
+            ReportImportService.ImportListener.NONE);
+        
+        assertThat(result.getImported()).isEqualTo(1L);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2L);
+            assertThat(error.getMessage()).startsWith("Unreadable CSV, import stopped");
+        });
+    }
+    
+    @Test
+    void listenerSeesEveryErrorButTheResultKeepsOnlyTheFirstFew() throws IOException {
+        importService.shutdown();
+        importService = newService(3, 2);
+        List<ImportRowErrorDto> seen = new ArrayList<>();
+        String ndjson = IntStream.range(0, 5).mapToObj(i -> "not json").collect(Collectors.joining("\n"));
+        
+        ImportResultDto result = importService.importReports(input(ndjson), ImportFormat.NDJSON, OWNER_ID,
+            new ReportImportService.ImportListener() {
+                @Override
+                public void onError(ImportRowErrorDto error) {
+                    seen.add(error);
+                }
+            });
+        
+        assertThat(result.getFailed()).isEqualTo(5L);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrorsTruncated()).isTrue();
+        assertThat(seen).hasSize(5);
+    }
+    
+    private ReportImportService newService(int chunkSize, int maxReportedErrors) {
+        return new ReportImportService(bulkWriter, eventOutbox, transactionManager, objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(), chunkSize, 2, maxReportedErrors);
+    }
+    
+    private static String json(String title) {
+        return "{\"title\":\"" + title + "\",\"narrative\":\"What happened\",\"incidentTypes\":[\"ONLINE\"]," +
+            "\"city\":\"Chicago\",\"state\":\"IL\",\"date\":\"2026-03-14\",\"description\":\"Impact\"}";
+    }
+    
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,189 @@
+package com.seen.report.service;
+
+import com.seen.report.dto.ReportPageDto;
+import com.seen.report.dto.ReportSummaryDto;
+import com.seen.report.entity.Demographics;
+import com.seen.report.entity.ImpactDetails;
+import com.seen.report.entity.IncidentReport;
+import com.seen.report.entity.IncidentTiming;
+import com.seen.report.entity.IncidentType;
+import com.seen.report.entity.ReportAttachment;
+import com.seen.report.entity.ReportLocation;
+import com.seen.report.entity.ReportStatus;
+import com.seen.report.entity.ReportTimeline;
+import com.seen.report.entity.TimeOfDay;
+import com.seen.report.entity.TimelineEventType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The listing must cost the same number of statements however many reports a
+ * page holds: the page of rows, one per element collection, one per child count.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReportQueryService.class)
+@Testcontainers(disabledWithoutDocker = true)
+class ReportQueryServiceTest {
+    
+    private static final long STATEMENTS_PER_PAGE = 7;
+    
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    @Autowired
+    private ReportQueryService reportQueryService;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void loadsAPageInAFixedNumberOfStatements(int reports) {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < reports; i++) {
+            persistReport(userId, i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        
+        ReportPageDto<ReportSummaryDto> page = reportQueryService.getUserReports(userId, null, reports);
+        
+        assertThat(page.getItems()).hasSize(reports);
+        assertThat(page.getItems()).allSatisfy(summary -> {
+            assertThat(summary.getIncidentTypes()).containsExactlyInAnyOrder("WORKPLACE_BIAS", "ONLINE");
+            assertThat(summary.getTags()).containsExactlyInAnyOrder("remote", "manager");
+            assertThat(summary.getRace()).containsExactly("Black");
+            assertThat(summary.getSupportDesired()).containsExactly("legal");
+            assertThat(summary.getTimelineCount()).isEqualTo(2);
+            assertThat(summary.getAttachmentCount()).isEqualTo(1);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+    }
+    
+    @Test
+    void pagesLegacyRandomIdsInCreationOrder() {
+        UUID userId = UUID.randomUUID();
+        // Rows from before the switch to UUIDv7, two of them created in the same instant
+        LocalDateTime legacyCreatedAt = LocalDateTime.of(2023, 6, 1, 12, 0);
+        List<UUID> legacy = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        insertLegacyReport(legacy.get(0), userId, legacyCreatedAt.minusDays(1));
+        insertLegacyReport(legacy.get(1), userId, legacyCreatedAt);
+        insertLegacyReport(legacy.get(2), userId, legacyCreatedAt);
+        List<UUID> current = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            current.add(persistReport(userId, i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReportPageDto<ReportSummaryDto> page = reportQueryService.getUserReports(userId, cursor, 2);
+            page.getItems().forEach(summary -> seen.add(summary.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        assertThat(seen).hasSize(6).doesNotHaveDuplicates();
+        assertThat(seen.subList(0, 3)).containsExactlyInAnyOrderElementsOf(current);
+        assertThat(seen.subList(3, 5)).containsExactlyInAnyOrder(legacy.get(1), legacy.get(2));
+        assertThat(seen.get(5)).isEqualTo(legacy.get(0));
+    }
+    
+    private void insertLegacyReport(UUID id, UUID userId, LocalDateTime createdAt) {
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO incident_reports (id, user_id, title, narrative, city, state, date, description, " +
+                "status, created_at, updated_at) " +
+                "VALUES (?1, ?2, 'Legacy', 'Legacy', 'Atlanta', 'GA', DATE '2023-06-01', 'Legacy', 'SUBMITTED', ?3, ?3)")
+            .setParameter(1, id)
+            .setParameter(2, userId)
+            .setParameter(3, createdAt)
+            .executeUpdate();
+    }
+    
+    private UUID persistReport(UUID userId, int index) {
+        ReportLocation location = new ReportLocation();
+        location.setCity("Atlanta");
+        location.setState("GA");
+        location.setLatitude(33.749);
+        location.setLongitude(-84.388);
+        
+        IncidentTiming timing = new IncidentTiming();
+        timing.setDate(LocalDate.of(2024, 1, 1).plusDays(index));
+        timing.setTimeLabel(TimeOfDay.EVENING);
+        
+        ImpactDetails impact = new ImpactDetails();
+        impact.setDescription("Impact " + index);
+        impact.setSupportDesired(Set.of("legal"));
+        
+        Demographics demographics = new Demographics();
+        demographics.setRace(Set.of("Black"));
+        
+        IncidentReport report = entityManager.persist(IncidentReport.builder()
+            .userId(userId)
+            .title("Report " + index)
+            .narrative("Narrative " + index)
+            .incidentTypes(Set.of(IncidentType.WORKPLACE_BIAS, IncidentType.ONLINE))
+            .tags(Set.of("remote", "manager"))
+            .location(location)
+            .timing(timing)
+            .impact(impact)
+            .demographics(demographics)
+            .status(ReportStatus.SUBMITTED)
+            .openToContact(false)
+            .build());
+        
+        for (TimelineEventType type : new TimelineEventType[] {TimelineEventType.CREATED, TimelineEventType.SUBMITTED}) {
+            entityManager.persist(ReportTimeline.builder()
+                .report(report)
+                .type(type)
+                .title(type.name())
+                .actorId(userId)
+                .build());
+        }
+        entityManager.persist(ReportAttachment.builder()
+            .report(report)
+            .fileId(UUID.randomUUID())
+            .filename("evidence-" + index + ".jpg")
+            .contentType("image/jpeg")
+            .size(1024L)
+            .build());
+        return report.getId();
+    }
+}
@@ -0,0 +1,116 @@
+package db.migration;
+
+import com.seen.geo.Geohash;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reports written before the geohash column existed get one from V8, and are
+ * then found by the same prefix queries as new reports.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReportGeohashBackfillTest {
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    private FluentConfiguration flyway;
+    
+    @BeforeEach
+    void setUp() {
+        flyway = Flyway.configure()
+            .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+            .locations("classpath:db/migration", "classpath:db/uuid-v7")
+            .cleanDisabled(false);
+        flyway.load().clean();
+    }
+    
+    @Test
+    void backfillsExistingRowsInBatchesAndLeavesRowsWithoutCoordinates() throws SQLException {
+        flyway.target("7").load().migrate();
+        List<UUID> chicago = new ArrayList<>();
+        try (Connection connection = connection()) {
+            // More than one batch
+            for (int i = 0; i < 1500; i++) {
+                chicago.add(insert(connection, 41.8781 + i * 1e-6, -87.6298));
+            }
+            UUID unplaced = insert(connection, null, null);
+            UUID paris = insert(connection, 48.8566, 2.3522);
+            
+            flyway.target("latest").load().migrate();
+            
+            assertThat(geohash(connection, chicago.get(0)))
+                .isEqualTo(Geohash.encode(41.8781, -87.6298, 9));
+            assertThat(geohash(connection, unplaced)).isNull();
+            assertThat(geohash(connection, paris)).startsWith("u09");
+            assertThat(count(connection, "WHERE geohash IS NULL")).isEqualTo(1);
+        }
+    }
+    
+    @Test
+    void prefixQueryReturnsOnlyReportsInsideTheCell() throws SQLException {
+        flyway.target("7").load().migrate();
+        try (Connection connection = connection()) {
+            insert(connection, 41.8781, -87.6298);
+            insert(connection, 41.8790, -87.6310);
+            insert(connection, 40.7128, -74.0060);
+            flyway.target("latest").load().migrate();
+            
+            // A precision-5 cell around the Chicago Loop, about 5 x 5 km
+            String loop = Geohash.encode(41.8781, -87.6298, 5);
+            assertThat(count(connection, "WHERE geohash LIKE '" + loop + "%'")).isEqualTo(2);
+            assertThat(count(connection, "WHERE geohash LIKE '" + loop.substring(0, 1) + "%'")).isEqualTo(3);
+        }
+    }
+    
+    private static Connection connection() throws SQLException {
+        return postgres.createConnection("");
+    }
+    
+    private static UUID insert(Connection connection, Double latitude, Double longitude) throws SQLException {
+        UUID id = UUID.randomUUID();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO incident_reports (id, user_id, title, narrative, city, state, latitude, longitude, date, description) " +
+                "VALUES (?, ?, 'Report', 'Narrative', 'City', 'State', ?, ?, CURRENT_DATE, 'Description')")) {
+            insert.setObject(1, id);
+            insert.setObject(2, UUID.randomUUID());
+            insert.setObject(3, latitude);
+            insert.setObject(4, longitude);
+            insert.executeUpdate();
+        }
+        return id;
+    }
+    
+    private static String geohash(Connection connection, UUID id) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT geohash FROM incident_reports WHERE id = ?")) {
+            select.setObject(1, id);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+    
+    private static long count(Connection connection, String where) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT count(*) FROM incident_reports " + where);
+             ResultSet rs = select.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -19,6 +19,12 @@ if errorlevel 1 (
     exit /b 1
 )
 
+REM The gateway and the services share this key for the signed identity header
+if "%IDENTITY_ENVELOPE_SECRET%"=="" (
+    echo ❌ IDENTITY_ENVELOPE_SECRET must be set to at least 32 characters.
+    exit /b 1
+)
+
 REM Create Podman network if it doesn't exist
 echo 🌐 Creating Podman network...
 podman network create seen-network 2>nul
@@ -59,7 +65,7 @@ timeout /t 15 /nobreak >nul
 
 REM Build all services
 echo 🔨 Building services...
-mvn clean compile -q
+mvn clean install -q -DskipTests
 
 REM Create logs directory
 if not exist logs mkdir logs
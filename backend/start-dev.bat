@@ -18,6 +18,12 @@ if errorlevel 1 (
     exit /b 1
 )
 
+REM The gateway and the services share this key for the signed identity header
+if "%IDENTITY_ENVELOPE_SECRET%"=="" (
+    echo ❌ IDENTITY_ENVELOPE_SECRET must be set to at least 32 characters.
+    exit /b 1
+)
+
 REM Start infrastructure services
 echo 📦 Starting infrastructure services...
 podman-compose up -d postgres redis rabbitmq minio
@@ -28,7 +34,7 @@ timeout /t 10 /nobreak >nul
 
 REM Build all services
 echo 🔨 Building services...
-mvn clean compile -q
+mvn clean install -q -DskipTests
 
 REM Create logs directory
 if not exist logs mkdir logs
@@ -17,6 +17,12 @@ if ! command -v mvn &> /dev/null; then
     exit 1
 fi
 
+# The gateway and the services share this key for the signed identity header
+if [ ${#IDENTITY_ENVELOPE_SECRET} -lt 32 ]; then
+    echo "❌ IDENTITY_ENVELOPE_SECRET must be set to at least 32 characters."
+    exit 1
+fi
+
 # Start infrastructure services
 echo "📦 Starting infrastructure services..."
 docker-compose up -d postgres redis rabbitmq minio
@@ -44,7 +50,7 @@ fi
 
 # Build all services
 echo "🔨 Building services..."
-mvn clean compile -q
+mvn clean install -q -DskipTests
 
 # Function to start a service in background
 start_service() {
@@ -0,0 +1,18 @@
+package com.seen.ids;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a UUID primary key as a time-ordered {@link UuidV7}. Use in place of
+ * {@code @GeneratedValue(strategy = GenerationType.UUID)}, which produces random v4 keys.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,37 @@
+package com.seen.ids;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random
+ * bits, so new keys sort after old ones and B-tree inserts land on the rightmost
+ * page instead of anywhere in the index. The 12-bit rand_a field holds a sequence
+ * counter, keeping ids generated in this JVM strictly increasing within a millisecond.
+ */
+public final class UuidV7 {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Timestamp in the upper bits, sequence in the low 12
+    private static final AtomicLong LAST = new AtomicLong();
+    
+    private UuidV7() {
+    }
+    
+    public static UUID generate() {
+        long candidate = System.currentTimeMillis() << 12;
+        // A sequence overflow borrows the next millisecond rather than going backwards
+        long stamp = LAST.updateAndGet(previous -> Math.max(previous + 1, candidate));
+        long mostSigBits = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSigBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+    
+    /**
+     * Creation time embedded in a version 7 id, or -1 for any other version.
+     */
+    public static long timestampOf(UUID id) {
+        return id.version() == 7 ? id.getMostSignificantBits() >>> 16 : -1;
+    }
+}
@@ -0,0 +1,20 @@
+-- Time-ordered (RFC 9562 version 7) UUIDs: 48-bit Unix milliseconds, then random bits.
+-- The services generate their own ids; this is the column default for rows inserted
+-- straight through SQL, so they land on the same right-hand edge of the primary key index.
+--
+-- Flyway runs this callback before every migrate of a service that lists
+-- classpath:db/uuid-v7 in its locations, so versioned migrations can rely on it.
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID AS $$
+BEGIN
+    -- Overwrite the first 48 bits of a v4 UUID with the timestamp and flip the version nibble from 4 to 7
+    RETURN encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::UUID;
+END;
+$$ LANGUAGE plpgsql VOLATILE;
@@ -0,0 +1,40 @@
+package com.seen.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+    
+    @Test
+    void setsVersionAndVariantAndEmbedsTheCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.generate();
+        long after = System.currentTimeMillis();
+        
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // Sequence overflows borrow upcoming milliseconds, so the stamp may run slightly ahead
+        assertThat(UuidV7.timestampOf(id)).isBetween(before, after + 100);
+    }
+    
+    @Test
+    void idsFromOneJvmAreStrictlyIncreasingEvenWithinAMillisecond() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7.generate());
+        }
+        
+        // Postgres compares uuids as unsigned bytes, which is the order of their strings
+        assertThat(ids.stream().map(UUID::toString).toList()).isSorted().doesNotHaveDuplicates();
+    }
+    
+    @Test
+    void otherVersionsHaveNoTimestamp() {
+        assertThat(UuidV7.timestampOf(UUID.randomUUID())).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.seen.revocation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory mirror of revoked tokens, keyed by token digest, and the Redis
+ * layout both sides of it agree on. auth-service writes each revocation to
+ * Redis and announces it on {@link #CHANNEL}; every instance of either
+ * service applies the announcement here and resyncs from the keys whenever
+ * its subscription is (re)established, so the "not revoked" check never
+ * leaves the process. Entries expire together with the token they revoke.
+ */
+@Slf4j
+public class TokenRevocationCache {
+    
+    public static final String CHANNEL = "token-revocations";
+    public static final String KEY_PREFIX = "blacklisted_token:";
+    public static final String KEY_PATTERN = KEY_PREFIX + "*";
+    public static final int RESYNC_BATCH_SIZE = 500;
+    
+    private final Cache<String, Long> revoked;
+    private final long maxTokenLifetimeMillis;
+    private final Consumer<String> onRevoked;
+    private final LongSupplier clock;
+    
+    public TokenRevocationCache(long maxTokenLifetimeMillis) {
+        this(maxTokenLifetimeMillis, digest -> {
+        });
+    }
+    
+    /**
+     * @param onRevoked called with the digest of every token revoked here,
+     *                  e.g. to drop state cached for it
+     */
+    public TokenRevocationCache(long maxTokenLifetimeMillis, Consumer<String> onRevoked) {
+        this(maxTokenLifetimeMillis, onRevoked, System::currentTimeMillis, Ticker.systemTicker());
+    }
+    
+    TokenRevocationCache(long maxTokenLifetimeMillis, Consumer<String> onRevoked, LongSupplier clock, Ticker ticker) {
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+        this.onRevoked = onRevoked;
+        this.clock = clock;
+        this.revoked = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfter(new RevocationExpiry(clock))
+            .build();
+    }
+    
+    public boolean isRevoked(String digest) {
+        return revoked.getIfPresent(digest) != null;
+    }
+    
+    /**
+     * @return how long the revocation must be kept, or 0 when the token has
+     * already expired and nothing was recorded
+     */
+    public long revoke(String digest, long expiresAtMillis) {
+        long remaining = expiresAtMillis - clock.getAsLong();
+        if (remaining <= 0) {
+            return 0;
+        }
+        
+        revoked.put(digest, expiresAtMillis);
+        onRevoked.accept(digest);
+        return remaining;
+    }
+    
+    /**
+     * Applies a revocation announced on {@link #CHANNEL} by any instance.
+     */
+    public void apply(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed revocation message: {}", message);
+            return;
+        }
+        load(message.substring(0, separator), message.substring(separator + 1));
+    }
+    
+    /**
+     * Applies an entry read back from Redis during a resync.
+     *
+     * @return false when the stored value is not an expiry
+     */
+    public boolean load(String digest, String expiresAtMillis) {
+        try {
+            revoke(digest, Long.parseLong(expiresAtMillis));
+            return true;
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring revocation for {} with invalid expiry", digest);
+            return false;
+        }
+    }
+    
+    /**
+     * Describes the digest-keyed replacement for an entry from before tokens
+     * were keyed by digest, which held the raw token and "true".
+     *
+     * @param ttlMillis the legacy key's remaining TTL, or a non-positive
+     *                  value when it has none
+     */
+    public LegacyEntry migrate(String legacyKey, long ttlMillis) {
+        // A key without a TTL must outlive any token it could revoke
+        long ttl = ttlMillis > 0 ? ttlMillis : maxTokenLifetimeMillis;
+        String digest = TokenDigest.of(legacyKey.substring(KEY_PREFIX.length()));
+        return new LegacyEntry(key(digest), digest, clock.getAsLong() + ttl, ttl);
+    }
+    
+    public static String key(String digest) {
+        return KEY_PREFIX + digest;
+    }
+    
+    public static String digestOf(String key) {
+        return key.substring(KEY_PREFIX.length());
+    }
+    
+    public static String message(String digest, long expiresAtMillis) {
+        return digest + ":" + expiresAtMillis;
+    }
+    
+    // Digests are unpadded base64url; raw JWTs always contain dots
+    public static boolean isLegacyKey(String key) {
+        return key.indexOf('.', KEY_PREFIX.length()) >= 0;
+    }
+    
+    public record LegacyEntry(String key, String digest, long expiresAtMillis, long ttlMillis) {
+    }
+    
+    private static final class RevocationExpiry implements Expiry<String, Long> {
+        
+        private final LongSupplier clock;
+        
+        private RevocationExpiry(LongSupplier clock) {
+            this.clock = clock;
+        }
+        
+        @Override
+        public long expireAfterCreate(String key, Long expiresAtMillis, long currentTime) {
+            long remaining = expiresAtMillis - clock.getAsLong();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Long expiresAtMillis, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiresAtMillis, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Long expiresAtMillis, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
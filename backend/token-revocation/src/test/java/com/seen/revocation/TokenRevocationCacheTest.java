@@ -0,0 +1,134 @@
+package com.seen.revocation;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationCacheTest {
+    
+    private static final long MAX_TOKEN_LIFETIME_MILLIS = 604_800_000;
+    
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final Ticker ticker = () -> TimeUnit.MILLISECONDS.toNanos(now.get());
+    private List<String> revokedDigests;
+    private TokenRevocationCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        revokedDigests = new ArrayList<>();
+        cache = newInstance();
+    }
+    
+    @Test
+    void revokedTokenIsReportedUntilItExpires() {
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        long ttl = cache.revoke(digest, now.get() + 60_000);
+        
+        assertThat(ttl).isEqualTo(60_000);
+        assertThat(cache.isRevoked(digest)).isTrue();
+        assertThat(revokedDigests).containsExactly(digest);
+        
+        now.addAndGet(59_999);
+        assertThat(cache.isRevoked(digest)).isTrue();
+        
+        now.addAndGet(1);
+        assertThat(cache.isRevoked(digest)).isFalse();
+    }
+    
+    @Test
+    void alreadyExpiredTokenIsNotRecorded() {
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        long ttl = cache.revoke(digest, now.get());
+        
+        assertThat(ttl).isZero();
+        assertThat(cache.isRevoked(digest)).isFalse();
+        assertThat(revokedDigests).isEmpty();
+    }
+    
+    @Test
+    void revocationAnnouncedByOneInstanceIsAppliedByAnother() {
+        TokenRevocationCache otherInstance = newInstance();
+        String digest = TokenDigest.of("header.payload.signature");
+        long expiresAtMillis = now.get() + 60_000;
+        
+        cache.revoke(digest, expiresAtMillis);
+        otherInstance.apply(TokenRevocationCache.message(digest, expiresAtMillis));
+        
+        assertThat(otherInstance.isRevoked(digest)).isTrue();
+        assertThat(revokedDigests).containsExactly(digest, digest);
+        
+        now.addAndGet(60_000);
+        assertThat(otherInstance.isRevoked(digest)).isFalse();
+    }
+    
+    @Test
+    void malformedMessagesAreIgnored() {
+        cache.apply("no-separator");
+        cache.apply(":123");
+        cache.apply("digest:not-a-number");
+        
+        assertThat(cache.isRevoked("no-separator")).isFalse();
+        assertThat(cache.isRevoked("digest")).isFalse();
+        assertThat(revokedDigests).isEmpty();
+    }
+    
+    @Test
+    void loadReportsEntriesWithoutAnExpiry() {
+        assertThat(cache.load("digest", Long.toString(now.get() + 1_000))).isTrue();
+        assertThat(cache.load("other", "true")).isFalse();
+        
+        assertThat(cache.isRevoked("digest")).isTrue();
+        assertThat(cache.isRevoked("other")).isFalse();
+    }
+    
+    @Test
+    void keysAreToldApartFromLegacyRawTokenKeys() {
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        assertThat(TokenRevocationCache.isLegacyKey(TokenRevocationCache.key(digest))).isFalse();
+        assertThat(TokenRevocationCache.isLegacyKey(TokenRevocationCache.KEY_PREFIX + "header.payload.signature")).isTrue();
+        assertThat(TokenRevocationCache.digestOf(TokenRevocationCache.key(digest))).isEqualTo(digest);
+    }
+    
+    @Test
+    void legacyEntryKeepsItsRemainingTtl() {
+        String legacyKey = TokenRevocationCache.KEY_PREFIX + "header.payload.signature";
+        
+        TokenRevocationCache.LegacyEntry entry = cache.migrate(legacyKey, 30_000);
+        
+        assertThat(entry.digest()).isEqualTo(TokenDigest.of("header.payload.signature"));
+        assertThat(entry.key()).isEqualTo(TokenRevocationCache.key(entry.digest()));
+        assertThat(entry.ttlMillis()).isEqualTo(30_000);
+        assertThat(entry.expiresAtMillis()).isEqualTo(now.get() + 30_000);
+    }
+    
+    @Test
+    void legacyEntryWithoutTtlOutlivesAnyToken() {
+        TokenRevocationCache.LegacyEntry entry = cache.migrate(TokenRevocationCache.KEY_PREFIX + "a.b.c", 0);
+        
+        assertThat(entry.ttlMillis()).isEqualTo(MAX_TOKEN_LIFETIME_MILLIS);
+        assertThat(entry.expiresAtMillis()).isEqualTo(now.get() + MAX_TOKEN_LIFETIME_MILLIS);
+    }
+    
+    @Test
+    void digestIsUnpaddedBase64UrlSha256() {
+        String digest = TokenDigest.of("header.payload.signature");
+        
+        assertThat(digest).hasSize(43).matches("[A-Za-z0-9_-]+");
+        assertThat(TokenDigest.of("header.payload.signature")).isEqualTo(digest);
+        assertThat(TokenDigest.of("header.payload.other")).isNotEqualTo(digest);
+    }
+    
+    private TokenRevocationCache newInstance() {
+        return new TokenRevocationCache(MAX_TOKEN_LIFETIME_MILLIS, revokedDigests::add, now::get, ticker);
+    }
+}
@@ -0,0 +1,84 @@
+package com.seen.concurrency;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that takes a permit before borrowing a connection and returns it
+ * when the connection is closed, so no more callers reach the pool than it has
+ * connections.
+ */
+public class PermitLimitedDataSource extends DelegatingDataSource {
+    
+    private final PoolPermits permits;
+    
+    public PermitLimitedDataSource(DataSource targetDataSource, PoolPermits permits) {
+        super(targetDataSource);
+        this.permits = permits;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.acquire()) {
+                throw new SQLTransientConnectionException(permits.pool() + " - no connection permit available within "
+                    + permits.acquireTimeout().toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(permits.pool() + " - interrupted waiting for a connection permit", e);
+        }
+    }
+    
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            });
+    }
+}
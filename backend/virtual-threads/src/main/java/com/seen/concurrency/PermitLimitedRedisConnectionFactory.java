@@ -0,0 +1,95 @@
+package com.seen.concurrency;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection factory for RedisTemplate that caps in-flight Redis calls. Only
+ * template connections go through it: a pub/sub listener container holds its
+ * subscription connection for the life of the process and must not use up a permit.
+ */
+public class PermitLimitedRedisConnectionFactory implements RedisConnectionFactory {
+    
+    private final RedisConnectionFactory delegate;
+    private final PoolPermits permits;
+    
+    public PermitLimitedRedisConnectionFactory(RedisConnectionFactory delegate, PoolPermits permits) {
+        this.delegate = delegate;
+        this.permits = permits;
+    }
+    
+    @Override
+    public RedisConnection getConnection() {
+        acquire();
+        try {
+            return releasingOnClose(delegate.getConnection());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return delegate.getClusterConnection();
+    }
+    
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+    
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+    
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+    
+    private void acquire() {
+        try {
+            if (!permits.acquire()) {
+                throw new RedisConnectionFailureException(permits.pool() + " - no connection permit available within "
+                    + permits.acquireTimeout().toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisConnectionFailureException(permits.pool() + " - interrupted waiting for a connection permit", e);
+        }
+    }
+    
+    private RedisConnection releasingOnClose(RedisConnection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (RedisConnection) Proxy.newProxyInstance(
+            RedisConnection.class.getClassLoader(),
+            new Class<?>[] {RedisConnection.class},
+            (proxy, method, args) -> {
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            });
+    }
+}
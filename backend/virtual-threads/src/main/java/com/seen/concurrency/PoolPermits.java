@@ -0,0 +1,61 @@
+package com.seen.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fair semaphore in front of a fixed-size resource pool. With virtual threads
+ * there is no request thread limit, so without it every waiting request would
+ * be parked inside the pool itself; here they queue FIFO, visibly, and give up
+ * after the pool's own acquire timeout.
+ */
+public class PoolPermits {
+    
+    private final String pool;
+    private final Semaphore semaphore;
+    private final Duration acquireTimeout;
+    private final Timer acquireTimer;
+    
+    public PoolPermits(String pool, int permits, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.semaphore = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+        this.acquireTimer = meterRegistry.timer("pool.permits.acquire", "pool", pool);
+        
+        Gauge.builder("pool.permits.available", semaphore, Semaphore::availablePermits)
+            .tag("pool", pool)
+            .register(meterRegistry);
+        Gauge.builder("pool.permits.waiting", semaphore, Semaphore::getQueueLength)
+            .tag("pool", pool)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Returns false if no permit freed up within the acquire timeout.
+     */
+    public boolean acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            return semaphore.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public void release() {
+        semaphore.release();
+    }
+    
+    public String pool() {
+        return pool;
+    }
+    
+    public Duration acquireTimeout() {
+        return acquireTimeout;
+    }
+}
@@ -0,0 +1,85 @@
+package com.seen.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Active when spring.threads.virtual.enabled is set. Boot then runs Tomcat
+ * requests and scheduled work on virtual threads; this adds permits in front
+ * of the Hikari pool (and the Redis connection, where the service has one)
+ * and pinning detection. Services import it from their application class.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+    
+    @Bean
+    public static BeanPostProcessor dataSourcePermitsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new PermitLimitedDataSource(hikari, new PoolPermits(
+                        hikari.getPoolName() != null ? hikari.getPoolName() : beanName,
+                        hikari.getMaximumPoolSize(),
+                        Duration.ofMillis(hikari.getConnectionTimeout()),
+                        meterRegistry.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.virtual-threads.pinning-threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+    
+    @Configuration
+    @ConditionalOnClass(RedisTemplate.class)
+    static class RedisPermitsConfig {
+        
+        @Bean
+        public static BeanPostProcessor redisPermitsPostProcessor(
+                ObjectProvider<MeterRegistry> meterRegistry,
+                @Value("${app.virtual-threads.redis.permits:64}") int redisPermits,
+                @Value("${app.virtual-threads.redis.acquire-timeout:PT2S}") Duration redisAcquireTimeout) {
+            
+            return new BeanPostProcessor() {
+                
+                // One budget shared by every template, since they share the Lettuce connection
+                private PoolPermits sharedRedisPermits;
+                
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    // Before afterPropertiesSet, while the template can still take another factory
+                    if (bean instanceof RedisTemplate<?, ?> template && template.getConnectionFactory() != null) {
+                        template.setConnectionFactory(new PermitLimitedRedisConnectionFactory(
+                            template.getConnectionFactory(), sharedRedisPermits()));
+                    }
+                    return bean;
+                }
+                
+                private synchronized PoolPermits sharedRedisPermits() {
+                    if (sharedRedisPermits == null) {
+                        sharedRedisPermits = new PoolPermits("redis", redisPermits, redisAcquireTimeout, meterRegistry.getObject());
+                    }
+                    return sharedRedisPermits;
+                }
+            };
+        }
+    }
+}
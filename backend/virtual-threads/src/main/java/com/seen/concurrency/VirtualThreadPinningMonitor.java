@@ -0,0 +1,77 @@
+package com.seen.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JVM's jdk.VirtualThreadPinned events, i.e. a virtual thread that
+ * blocked while holding a monitor (typically {@code synchronized} in a driver)
+ * and so held its carrier thread. Every event is counted; each distinct
+ * pinning site is logged with its stack the first time and then every
+ * {@code LOG_EVERY} occurrences.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+    
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 12;
+    private static final long LOG_EVERY = 1_000;
+    
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+    }
+    
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual thread pinning longer than {}", threshold);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String site = frames.stream()
+            .limit(FRAMES)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n\tat "));
+        
+        LongAdder occurrences = sites.computeIfAbsent(site, s -> new LongAdder());
+        occurrences.increment();
+        long count = occurrences.sum();
+        if (count == 1 || count % LOG_EVERY == 0) {
+            log.warn("Virtual thread pinned its carrier for {}ms ({} times at this site)\n\tat {}",
+                event.getDuration().toMillis(), count, site);
+        }
+    }
+}
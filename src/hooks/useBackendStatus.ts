@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import { ApiService } from '../services/api';
+import { subscribeToConnection } from '../services/liveUpdates';
 
 export interface BackendStatus {
   isConnected: boolean;
@@ -38,13 +39,15 @@ export function useBackendStatus() {
   };
 
   useEffect(() => {
-    // Initial check
-    checkConnection();
-    
-    // Check every 30 seconds
-    const interval = setInterval(checkConnection, 30000);
-    
-    return () => clearInterval(interval);
+    // The live update stream reports the connection as it changes, so there is nothing to poll
+    return subscribeToConnection(connected => {
+      setStatus({
+        isConnected: connected,
+        isChecking: false,
+        lastChecked: new Date(),
+        error: connected ? null : 'Connection lost'
+      });
+    });
   }, []);
 
   return { ...status, checkConnection };
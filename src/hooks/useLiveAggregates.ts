@@ -0,0 +1,41 @@
+import { useState, useEffect } from 'react';
+import type { IncidentAggregates } from '../types';
+import { subscribeToAggregates } from '../services/liveUpdates';
+import { getAggregatedStats } from '../services/mockReports';
+
+export function useLiveAggregates() {
+  const [data, setData] = useState<IncidentAggregates | null>(null);
+  const [loading, setLoading] = useState(true);
+  const [isLive, setIsLive] = useState(false);
+
+  useEffect(() => {
+    let fallingBack = false;
+
+    const unsubscribe = subscribeToAggregates({
+      onAggregates: aggregates => {
+        setData(aggregates);
+        setIsLive(true);
+        setLoading(false);
+      },
+      onUnavailable: async () => {
+        // Without a backend the prototype still shows its sample data
+        if (fallingBack) {
+          return;
+        }
+        fallingBack = true;
+        try {
+          const stats = await getAggregatedStats();
+          setData(current => current ?? stats);
+        } catch (error) {
+          console.error('Error loading analytics:', error);
+        } finally {
+          setLoading(false);
+        }
+      },
+    });
+
+    return unsubscribe;
+  }, []);
+
+  return { data, loading, isLive };
+}
@@ -1,10 +1,10 @@
-import { useState, useEffect } from 'react';
+import { useState } from 'react';
 import { Card } from '../components/Card';
 import { Button } from '../components/Button';
 import { Chip } from '../components/Chip';
-import type { IncidentType, IncidentAggregates } from '../types';
+import type { IncidentType } from '../types';
 import { INCIDENT_TYPE_LABELS } from '../types';
-import { getAggregatedStats } from '../services/mockReports';
+import { useLiveAggregates } from '../hooks/useLiveAggregates';
 import {
   BarChart,
   Bar,
@@ -26,27 +26,10 @@ import {
 const COLORS = ['#0088FE', '#00C49F', '#FFBB28', '#FF8042', '#8884D8', '#82CA9D'];
 
 export function AdvancedExplorePage() {
-  const [data, setData] = useState<IncidentAggregates | null>(null);
-  const [loading, setLoading] = useState(true);
+  const { data, loading } = useLiveAggregates();
   const [selectedTypes, setSelectedTypes] = useState<IncidentType[]>([]);
   const [viewMode, setViewMode] = useState<'overview' | 'detailed' | 'trends'>('overview');
 
-  useEffect(() => {
-    loadData();
-  }, []);
-
-  const loadData = async () => {
-    try {
-      setLoading(true);
-      const stats = await getAggregatedStats();
-      setData(stats);
-    } catch (error) {
-      console.error('Error loading analytics:', error);
-    } finally {
-      setLoading(false);
-    }
-  };
-
   const toggleType = (type: IncidentType) => {
     if (selectedTypes.includes(type)) {
       setSelectedTypes(selectedTypes.filter(t => t !== type));
@@ -1,8 +1,8 @@
-import { useState, useEffect } from 'react';
+import { useState } from 'react';
 import { Card } from '../components/Card';
-import type { IncidentAggregates, IncidentType } from '../types';
+import type { IncidentType } from '../types';
 import { INCIDENT_TYPE_LABELS } from '../types';
-import { getAggregatedStats } from '../services/mockReports';
+import { useLiveAggregates } from '../hooks/useLiveAggregates';
 import {
   BarChart,
   Bar,
@@ -17,26 +17,9 @@ import {
 } from 'recharts';
 
 export function ExplorePage() {
-  const [data, setData] = useState<IncidentAggregates | null>(null);
-  const [loading, setLoading] = useState(true);
+  const { data, loading } = useLiveAggregates();
   const [selectedTypes, setSelectedTypes] = useState<IncidentType[]>([]);
 
-  useEffect(() => {
-    loadData();
-  }, []);
-
-  const loadData = async () => {
-    try {
-      setLoading(true);
-      const stats = await getAggregatedStats();
-      setData(stats);
-    } catch (error) {
-      console.error('Error loading analytics:', error);
-    } finally {
-      setLoading(false);
-    }
-  };
-
   const toggleType = (type: IncidentType) => {
     if (selectedTypes.includes(type)) {
       setSelectedTypes(selectedTypes.filter(t => t !== type));
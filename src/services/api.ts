@@ -5,7 +5,7 @@
  */
 
 import { useState } from 'react';
-import type { IncidentReport, IncidentReportDraft, IncidentAggregates, User } from '../types';
+import type { IncidentReport, IncidentReportDraft, IncidentAggregates, ReportPage, ReportSummary, User } from '../types';
 
 interface ApiResponse<T> {
   data: T;
@@ -136,8 +136,32 @@ export class ApiService {
     });
   }
 
-  static async getUserReports(): Promise<ApiResponse<IncidentReport[]>> {
-    return this.request('/api/reports');
+  static async getUserReports(options?: {
+    cursor?: string;
+    size?: number;
+  }): Promise<ApiResponse<ReportPage<ReportSummary>>> {
+    const params = new URLSearchParams();
+    if (options?.cursor) params.append('cursor', options.cursor);
+    if (options?.size) params.append('size', String(options.size));
+    const query = params.toString();
+    return this.request(query ? `/api/reports?${query}` : '/api/reports');
+  }
+
+  static async searchReports(query: string, options?: {
+    incidentTypes?: string[];
+    tags?: string[];
+    cursor?: string;
+    size?: number;
+  }): Promise<ApiResponse<ReportPage<ReportSummary> & {
+    incidentTypeFacets?: Record<string, number>;
+    tagFacets?: Record<string, number>;
+  }>> {
+    const params = new URLSearchParams({ q: query });
+    options?.incidentTypes?.forEach(type => params.append('incidentTypes', type));
+    options?.tags?.forEach(tag => params.append('tags', tag));
+    if (options?.cursor) params.append('cursor', options.cursor);
+    if (options?.size) params.append('size', String(options.size));
+    return this.request(`/api/reports/search?${params.toString()}`);
   }
 
   static async updateReport(reportId: string, updates: Partial<IncidentReport>): Promise<ApiResponse<IncidentReport>> {
@@ -175,6 +199,28 @@ export class ApiService {
     return this.request(endpoint);
   }
 
+  static async getHeatmap(
+    bbox: [number, number, number, number],
+    zoom: number
+  ): Promise<ApiResponse<{
+    zoom: number;
+    precision: number;
+    cells: { geohash: string; latitude: number; longitude: number; count: number }[];
+  }>> {
+    const params = new URLSearchParams({ bbox: bbox.join(','), zoom: String(zoom) });
+    return this.request(`/api/analytics/heatmap?${params.toString()}`);
+  }
+
+  static async getPublicAggregates(): Promise<IncidentAggregates> {
+    // analytics-service returns the aggregates as they are, without the ApiResponse envelope
+    const aggregates: unknown = await this.request('/api/analytics/public/aggregates');
+    return aggregates as IncidentAggregates;
+  }
+
+  static openAggregatesStream(): EventSource {
+    return new EventSource(`${this.config.baseUrl}/api/analytics/public/stream`);
+  }
+
   static async getAdvancedAnalytics(filters?: Record<string, any>): Promise<ApiResponse<any>> {
     return this.request('/api/analytics/advanced', {
       method: 'POST',
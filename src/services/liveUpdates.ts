@@ -0,0 +1,235 @@
+/**
+ * Live Updates
+ * Keeps the public aggregates current from the gateway's server-sent event
+ * stream instead of polling. One EventSource per tab is shared by every
+ * subscriber and closed when the last one leaves.
+ *
+ * The stream opens with a resync event, and sends another whenever the gateway
+ * reconnects upstream or the counters are rebuilt: the snapshot is reloaded
+ * then, and each delta event is applied on top of it.
+ */
+
+import type { IncidentAggregates, IncidentType, IncidentTypeCount, IncidentTimeSeries, LocationCount } from '../types';
+import { ApiService } from './api';
+
+/**
+ * Change to the aggregates since the previous event, keyed by incident type,
+ * month (yyyy-MM) and location. Only non-zero changes are present.
+ */
+export interface AggregateDelta {
+  totalReports: number;
+  byType: Record<string, number>;
+  overTime: Record<string, number>;
+  byLocation: Record<string, number>;
+}
+
+export interface AggregatesListener {
+  onAggregates: (aggregates: IncidentAggregates) => void;
+  onUnavailable: () => void;
+}
+
+type ConnectionListener = (connected: boolean) => void;
+
+// The browser retries a dropped stream itself, but gives up on an error response
+const REOPEN_DELAY_MS = 5000;
+const MAX_REOPEN_DELAY_MS = 60000;
+
+const aggregatesListeners = new Set<AggregatesListener>();
+const connectionListeners = new Set<ConnectionListener>();
+
+let source: EventSource | null = null;
+let reopenTimer: ReturnType<typeof setTimeout> | null = null;
+let reopenDelay = REOPEN_DELAY_MS;
+let connected = false;
+// Whether the current connection attempt has opened or failed yet
+let settled = false;
+let aggregates: IncidentAggregates | null = null;
+let reloading = false;
+// Bumped on every reload, so a slow one cannot overwrite a newer snapshot
+let generation = 0;
+
+export function subscribeToAggregates(listener: AggregatesListener): () => void {
+  aggregatesListeners.add(listener);
+  if (aggregates) {
+    listener.onAggregates(aggregates);
+  } else if (connected && !reloading) {
+    // The stream was open for the connection status only, so nothing was loaded yet
+    reload();
+  }
+  open();
+
+  return () => {
+    aggregatesListeners.delete(listener);
+    closeIfUnused();
+  };
+}
+
+export function subscribeToConnection(listener: ConnectionListener): () => void {
+  connectionListeners.add(listener);
+  if (settled) {
+    listener(connected);
+  }
+  open();
+
+  return () => {
+    connectionListeners.delete(listener);
+    closeIfUnused();
+  };
+}
+
+function open(): void {
+  if (source || reopenTimer) {
+    return;
+  }
+
+  const stream = ApiService.openAggregatesStream();
+  source = stream;
+
+  stream.onopen = () => {
+    reopenDelay = REOPEN_DELAY_MS;
+    setConnected(true);
+  };
+
+  stream.onerror = () => {
+    setConnected(false);
+    if (!aggregates) {
+      aggregatesListeners.forEach(listener => listener.onUnavailable());
+    }
+    if (stream.readyState === EventSource.CLOSED) {
+      source = null;
+      reopenTimer = setTimeout(() => {
+        reopenTimer = null;
+        if (aggregatesListeners.size > 0 || connectionListeners.size > 0) {
+          open();
+        }
+      }, reopenDelay);
+      reopenDelay = Math.min(reopenDelay * 2, MAX_REOPEN_DELAY_MS);
+    }
+  };
+
+  stream.addEventListener('resync', () => {
+    if (aggregatesListeners.size > 0) {
+      reload();
+    } else {
+      // Reloaded when a dashboard subscribes
+      aggregates = null;
+    }
+  });
+
+  stream.addEventListener('delta', event => {
+    // Deltas that arrive while the snapshot loads are most likely already in it
+    if (!aggregates || reloading) {
+      return;
+    }
+    try {
+      const delta = JSON.parse((event as MessageEvent<string>).data) as AggregateDelta;
+      publish(applyDelta(aggregates, delta));
+    } catch (error) {
+      console.error('Error applying live update:', error);
+    }
+  });
+}
+
+function closeIfUnused(): void {
+  if (aggregatesListeners.size > 0 || connectionListeners.size > 0) {
+    return;
+  }
+  source?.close();
+  source = null;
+  if (reopenTimer) {
+    clearTimeout(reopenTimer);
+    reopenTimer = null;
+  }
+  connected = false;
+  settled = false;
+  aggregates = null;
+  generation++;
+  reloading = false;
+}
+
+async function reload(): Promise<void> {
+  const current = ++generation;
+  reloading = true;
+
+  try {
+    const snapshot = await ApiService.getPublicAggregates();
+    if (current === generation) {
+      publish(snapshot);
+    }
+  } catch (error) {
+    console.error('Error loading aggregates:', error);
+    if (current === generation && !aggregates) {
+      aggregatesListeners.forEach(listener => listener.onUnavailable());
+    }
+  } finally {
+    if (current === generation) {
+      reloading = false;
+    }
+  }
+}
+
+function publish(next: IncidentAggregates): void {
+  aggregates = next;
+  aggregatesListeners.forEach(listener => listener.onAggregates(next));
+}
+
+function setConnected(next: boolean): void {
+  if (settled && connected === next) {
+    return;
+  }
+  settled = true;
+  connected = next;
+  connectionListeners.forEach(listener => listener(next));
+}
+
+export function applyDelta(current: IncidentAggregates, delta: AggregateDelta): IncidentAggregates {
+  return {
+    totalReports: current.totalReports + delta.totalReports,
+    byType: merge(current.byType, delta.byType, item => item.type, (type, count): IncidentTypeCount => ({
+      type: type as IncidentType,
+      label: toLabel(type),
+      count,
+    })).sort((a, b) => b.count - a.count),
+    overTime: merge(current.overTime, delta.overTime, item => item.month, (month, count): IncidentTimeSeries => ({
+      month,
+      count,
+    })).sort((a, b) => a.month.localeCompare(b.month)),
+    // Only the top locations are loaded, so one not in the list waits for the next resync
+    byLocation: merge<LocationCount>(current.byLocation, delta.byLocation, item => item.location)
+      .sort((a, b) => b.count - a.count),
+  };
+}
+
+function merge<T extends { count: number }>(
+  items: T[],
+  changes: Record<string, number>,
+  key: (item: T) => string,
+  create?: (key: string, count: number) => T
+): T[] {
+  const remaining = new Map(Object.entries(changes));
+  const merged = items
+    .map(item => {
+      const change = remaining.get(key(item));
+      remaining.delete(key(item));
+      return change ? { ...item, count: item.count + change } : item;
+    })
+    .filter(item => item.count > 0);
+
+  if (create) {
+    remaining.forEach((count, name) => {
+      if (count > 0) {
+        merged.push(create(name, count));
+      }
+    });
+  }
+  return merged;
+}
+
+// Matches the labels analytics-service gives the types it reports
+function toLabel(type: string): string {
+  return type
+    .toLowerCase()
+    .split('_')
+    .map(word => word.charAt(0).toUpperCase() + word.slice(1))
+    .join(' ');
+}
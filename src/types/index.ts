@@ -68,6 +68,33 @@ export interface IncidentReport extends IncidentReportDraft {
   userId?: string;
 }
 
+// Listing row returned by GET /api/reports (ReportSummaryDto)
+export interface ReportSummary {
+  id: string;
+  title: string;
+  status: string;
+  incidentTypes: IncidentType[];
+  tags: string[];
+  city: string;
+  state: string;
+  incidentDate: string;
+  timeOfDay: string | null;
+  supportDesired: string[];
+  race: string[];
+  openToContact: boolean;
+  timelineCount: number;
+  attachmentCount: number;
+  createdAt: string;
+  updatedAt: string;
+}
+
+// Keyset page; pass nextCursor back as cursor to fetch the next one
+export interface ReportPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 // Analytics Types
 export interface IncidentTypeCount {
   type: IncidentType;